@@ -0,0 +1,279 @@
+package com.duang.jedisclient.benchmark;
+
+import com.duang.jedisclient.common.CacheKeyModel;
+import com.duang.jedisclient.common.RedisConfig;
+import com.duang.jedisclient.core.IJedisClient;
+import com.duang.jedisclient.metrics.CommandStats;
+import com.duang.jedisclient.metrics.MetricsRegistry;
+import com.duang.jedisclient.metrics.PoolMonitor;
+import com.duang.jedisclient.metrics.PoolStats;
+import com.duang.jedisclient.plugin.JedisClientPlugin;
+import com.duang.jedisclient.plugin.RedisFactory;
+import com.duang.jedisclient.test.TestCacheKeyEnum;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import redis.clients.jedis.HostAndPort;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 端到端压测：多线程通过IJedisClient按读写比例执行get/set，输出吞吐量及p50/p99/p999延迟
+ * 不指定port时在进程内启动RespStandInServer，可以在没有redis-server的机器上比较不同链接池配置
+ * <pre>
+ * java -cp target/benchmarks.jar com.duang.jedisclient.benchmark.LoadHarness mode=cluster threads=64 maxTotal=8,32,128
+ * </pre>
+ * 参数(key=value)：
+ * mode        standalone | sentinel | cluster，默认standalone
+ * host/port   Redis地址，不指定port时使用进程内替身服务
+ * password    密码
+ * masterName  哨兵模式的主节点名称，默认mymaster
+ * threads     并发线程数，默认32
+ * duration    每轮压测的秒数，默认10
+ * warmup      每轮预热的秒数，默认2
+ * readRatio   读请求比例，默认0.8
+ * valueSize   值的字节数，默认100
+ * keys        key的数量，默认10000
+ * maxTotal    链接池最大链接数，可用逗号分隔多个值依次压测，不指定时使用各builder的默认配置
+ * metrics     true时启用命令度量，每轮结束后输出各命令及各节点链接池的度量数据，默认false
+ * autoSizing  链接池自动调整的上下限，如8,256，每秒检查一次
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class LoadHarness {
+
+    private static final AtomicInteger RUN_INDEX = new AtomicInteger();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> params = new HashMap<String, String>();
+        for (String arg : args) {
+            int index = arg.indexOf('=');
+            if (index > 0) {
+                params.put(arg.substring(0, index), arg.substring(index + 1));
+            }
+        }
+        RedisConfig.RedisType redisType = RedisConfig.RedisType.valueOf(param(params, "mode", "standalone").toUpperCase(Locale.ROOT));
+        int threads = Integer.parseInt(param(params, "threads", "32"));
+        int duration = Integer.parseInt(param(params, "duration", "10"));
+        int warmup = Integer.parseInt(param(params, "warmup", "2"));
+        double readRatio = Double.parseDouble(param(params, "readRatio", "0.8"));
+        int valueSize = Integer.parseInt(param(params, "valueSize", "100"));
+        int keys = Integer.parseInt(param(params, "keys", "10000"));
+
+        RespStandInServer standIn = null;
+        String host = param(params, "host", "127.0.0.1");
+        int port;
+        if (params.containsKey("port")) {
+            port = Integer.parseInt(params.get("port"));
+        } else {
+            standIn = new RespStandInServer(0);
+            host = standIn.getHost();
+            port = standIn.getPort();
+            System.out.println("使用进程内替身服务 " + host + ":" + port);
+        }
+
+        List<String> maxTotals = params.containsKey("maxTotal")
+                ? Arrays.asList(params.get("maxTotal").split(",")) : Collections.singletonList("");
+        System.out.println(String.format("mode=%s threads=%d duration=%ds readRatio=%.2f valueSize=%d keys=%d",
+                redisType, threads, duration, readRatio, valueSize, keys));
+        System.out.println(String.format("%-10s %12s %10s %10s %10s %10s %8s", "maxTotal", "ops/sec", "p50(us)", "p99(us)", "p999(us)", "max(us)", "errors"));
+        try {
+            for (String maxTotal : maxTotals) {
+                RedisConfig redisConfig = newConfig(redisType, host, port, params, maxTotal);
+                JedisClientPlugin plugin = new JedisClientPlugin(redisConfig);
+                plugin.start();
+                try {
+                    IJedisClient client = RedisFactory.getClient(redisConfig.getAppId());
+                    Workload workload = new Workload(client, readRatio, valueSize, keys);
+                    workload.populate();
+                    run(workload, threads, warmup);
+                    Result result = run(workload, threads, duration);
+                    System.out.println(String.format("%-10s %12.0f %10.1f %10.1f %10.1f %10.1f %8d",
+                            maxTotal.isEmpty() ? "default" : maxTotal, result.throughput(),
+                            result.percentile(0.5) / 1000D, result.percentile(0.99) / 1000D,
+                            result.percentile(0.999) / 1000D, result.max() / 1000D, result.errors));
+                    MetricsRegistry metrics = RedisFactory.getMetrics(redisConfig.getAppId());
+                    if (null != metrics) {
+                        for (CommandStats stats : metrics.getCommandStats().values()) {
+                            System.out.println("    " + stats);
+                        }
+                        for (CommandStats stats : metrics.getKeyGroupStats().values()) {
+                            System.out.println("    " + stats);
+                        }
+                    }
+                    PoolMonitor poolMonitor = RedisFactory.getPoolMonitor(redisConfig.getAppId());
+                    if (null != poolMonitor) {
+                        for (PoolStats stats : poolMonitor.getPoolStats().values()) {
+                            System.out.println("    " + stats);
+                        }
+                    }
+                } finally {
+                    plugin.stop();
+                }
+            }
+        } finally {
+            if (null != standIn) {
+                standIn.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static String param(Map<String, String> params, String name, String defaultValue) {
+        String value = params.get(name);
+        return (null == value || value.isEmpty()) ? defaultValue : value;
+    }
+
+    private static RedisConfig newConfig(RedisConfig.RedisType redisType, String host, int port, Map<String, String> params, String maxTotal) {
+        Set<HostAndPort> nodeSet = new HashSet<HostAndPort>();
+        nodeSet.add(new HostAndPort(host, port));
+        RedisConfig redisConfig = new RedisConfig("load-harness-" + RUN_INDEX.incrementAndGet(), "benchmark", nodeSet, params.get("password"));
+        redisConfig.setRedisType(redisType);
+        redisConfig.setMasterName(param(params, "masterName", "mymaster"));
+        redisConfig.setMetricsEnabled(Boolean.parseBoolean(param(params, "metrics", "false")));
+        if (params.containsKey("autoSizing")) {
+            String[] bounds = params.get("autoSizing").split(",");
+            redisConfig.setPoolAutoSizing(true);
+            redisConfig.setPoolMinTotal(Integer.parseInt(bounds[0]));
+            redisConfig.setPoolMaxTotal(Integer.parseInt(bounds[bounds.length - 1]));
+            redisConfig.setPoolAdjustInterval(1);
+        }
+        if (!maxTotal.isEmpty()) {
+            GenericObjectPoolConfig poolConfig = new GenericObjectPoolConfig();
+            poolConfig.setMaxTotal(Integer.parseInt(maxTotal));
+            poolConfig.setMaxIdle(Integer.parseInt(maxTotal));
+            poolConfig.setMaxWaitMillis(redisConfig.getMaxWaitMillis());
+            redisConfig.setJedisPoolConfig(poolConfig);
+        }
+        return redisConfig;
+    }
+
+    private static Result run(final Workload workload, int threads, int seconds) throws InterruptedException {
+        final long deadline = System.nanoTime() + seconds * 1000000000L;
+        final CountDownLatch latch = new CountDownLatch(threads);
+        final List<Recorder> recorders = new ArrayList<Recorder>(threads);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            final Recorder recorder = new Recorder();
+            recorders.add(recorder);
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        while (System.nanoTime() < deadline) {
+                            long begin = System.nanoTime();
+                            boolean ok = workload.execute();
+                            recorder.record(System.nanoTime() - begin, ok);
+                        }
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            }, "load-harness-" + i);
+            thread.start();
+        }
+        latch.await();
+        return new Result(recorders, System.nanoTime() - startTime);
+    }
+
+    /**
+     * 按读写比例随机执行get/set
+     */
+    private static class Workload {
+        private final IJedisClient client;
+        private final double readRatio;
+        private final String value;
+        private final CacheKeyModel[] models;
+
+        private Workload(IJedisClient client, double readRatio, int valueSize, int keys) {
+            this.client = client;
+            this.readRatio = readRatio;
+            char[] chars = new char[valueSize];
+            Arrays.fill(chars, 'v');
+            this.value = new String(chars);
+            this.models = new CacheKeyModel[keys];
+            for (int i = 0; i < keys; i++) {
+                models[i] = new CacheKeyModel.Builder(TestCacheKeyEnum.USER_ID).customKey("load-" + i).build();
+            }
+        }
+
+        private void populate() {
+            for (CacheKeyModel model : models) {
+                client.set(model, value);
+            }
+        }
+
+        /**
+         * @return false 命令出错(call方法出错时返回null)
+         */
+        private boolean execute() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            CacheKeyModel model = models[random.nextInt(models.length)];
+            if (random.nextDouble() < readRatio) {
+                return null != client.get(model, String.class);
+            }
+            return Boolean.TRUE.equals(client.set(model, value));
+        }
+    }
+
+    /**
+     * 每个线程单独记录延迟，避免线程间竞争
+     */
+    private static class Recorder {
+        private long[] latencies = new long[1 << 16];
+        private int count;
+        private long errors;
+
+        private void record(long latency, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+            if (!ok) {
+                errors++;
+            }
+        }
+    }
+
+    private static class Result {
+        private final long[] latencies;
+        private final long errors;
+        private final long elapsed;
+
+        private Result(List<Recorder> recorders, long elapsed) {
+            int total = 0;
+            long errorCount = 0;
+            for (Recorder recorder : recorders) {
+                total += recorder.count;
+                errorCount += recorder.errors;
+            }
+            latencies = new long[total];
+            int offset = 0;
+            for (Recorder recorder : recorders) {
+                System.arraycopy(recorder.latencies, 0, latencies, offset, recorder.count);
+                offset += recorder.count;
+            }
+            Arrays.sort(latencies);
+            this.errors = errorCount;
+            this.elapsed = elapsed;
+        }
+
+        private double throughput() {
+            return latencies.length / (elapsed / 1000000000D);
+        }
+
+        private long percentile(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))];
+        }
+
+        private long max() {
+            return latencies.length == 0 ? 0 : latencies[latencies.length - 1];
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.duang.jedisclient.benchmark;
+
+import com.duang.jedisclient.common.CacheKeyModel;
+import com.duang.jedisclient.common.RedisConfig;
+import com.duang.jedisclient.core.IJedisClient;
+import com.duang.jedisclient.nearcache.NearCacheJedisClient;
+import com.duang.jedisclient.plugin.JedisClientPlugin;
+import com.duang.jedisclient.plugin.RedisFactory;
+import com.duang.jedisclient.test.TestCacheKeyEnum;
+import redis.clients.jedis.HostAndPort;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 两个应用实例共用进程内的RespStandInServer，验证一个实例修改key后另一个实例的本地缓存会失效
+ * 不配置nearCachePrefixes，前缀由启用了本地缓存的key第一次缓存时加入；失败时以非0状态退出
+ * <pre>
+ * java -cp target/benchmarks.jar com.duang.jedisclient.benchmark.NearCacheInvalidationCheck [standalone|cluster]
+ * </pre>
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class NearCacheInvalidationCheck {
+
+    private static final long TIMEOUT_NANOS = 5000000000L;
+
+    public static void main(String[] args) throws Exception {
+        RedisConfig.RedisType redisType = RedisConfig.RedisType.valueOf(
+                (args.length > 0 ? args[0] : "standalone").toUpperCase(Locale.ROOT));
+        RespStandInServer standIn = new RespStandInServer(0);
+        JedisClientPlugin pluginA = start("near-cache-check-a", redisType, standIn);
+        JedisClientPlugin pluginB = start("near-cache-check-b", redisType, standIn);
+        boolean ok;
+        try {
+            IJedisClient clientA = RedisFactory.getClient("near-cache-check-a");
+            IJedisClient clientB = RedisFactory.getClient("near-cache-check-b");
+            CacheKeyModel model = new CacheKeyModel.Builder(TestCacheKeyEnum.USER_ID).customKey("near-cache").nearCache(true).build();
+
+            clientB.set(model, "v1");
+            // 第一次缓存时加入前缀，等失效通知生效后A才会缓存
+            long hits = hitCount(clientA);
+            long startTime = System.nanoTime();
+            while (hitCount(clientA) == hits && System.nanoTime() - startTime < TIMEOUT_NANOS) {
+                clientA.get(model, String.class);
+                Thread.sleep(10);
+            }
+            System.out.println(String.format("A开始使用本地缓存，耗时 %.2f ms", (System.nanoTime() - startTime) / 1000000D));
+
+            startTime = System.nanoTime();
+            clientB.set(model, "v2");
+            String value = clientA.get(model, String.class);
+            while (!"v2".equals(value) && System.nanoTime() - startTime < TIMEOUT_NANOS) {
+                Thread.sleep(1);
+                value = clientA.get(model, String.class);
+            }
+            ok = "v2".equals(value) && hitCount(clientA) > hits;
+            System.out.println(String.format("B修改后A读取: %s, 耗时 %.2f ms, A本地缓存命中次数: %d",
+                    value, (System.nanoTime() - startTime) / 1000000D, hitCount(clientA)));
+            clientB.del(model);
+        } finally {
+            pluginA.stop();
+            pluginB.stop();
+            standIn.close();
+        }
+        System.out.println(ok ? "OK" : "FAILED");
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static long hitCount(IJedisClient client) {
+        return ((NearCacheJedisClient) client).getNearCache().getHitCount();
+    }
+
+    private static JedisClientPlugin start(String appId, RedisConfig.RedisType redisType, RespStandInServer standIn) throws Exception {
+        Set<HostAndPort> nodeSet = new HashSet<HostAndPort>();
+        nodeSet.add(new HostAndPort(standIn.getHost(), standIn.getPort()));
+        RedisConfig redisConfig = new RedisConfig(appId, "check", nodeSet, null);
+        redisConfig.setRedisType(redisType);
+        redisConfig.setNearCacheMaxSize(1000);
+        JedisClientPlugin plugin = new JedisClientPlugin(redisConfig);
+        plugin.start();
+        return plugin;
+    }
+}
@@ -0,0 +1,708 @@
+package com.duang.jedisclient.benchmark;
+
+import cn.hutool.crypto.SecureUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内的RESP协议替身服务，在没有redis-server的环境下跑压测
+ * 支持字符串、哈希表的常用命令，并且可以同时充当单机、哨兵(SENTINEL get-master-addr-by-name)
+ * 及只有一个节点的集群(CLUSTER SLOTS/NODES，所有slot都在本节点)
+ * 脚本只记录SCRIPT LOAD/EVAL过的SHA1(SCRIPT FLUSH清空)，EVALSHA未加载的脚本返回NOSCRIPT，不执行Lua，固定返回0
+ * 支持CLIENT TRACKING的BCAST模式(REDIRECT到订阅__redis__:invalidate的链接)，写命令后推送失效的key
+ * 只用于压测客户端本身的开销，不追求与Redis行为完全一致
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class RespStandInServer implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RespStandInServer.class);
+
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final String NODE_ID = "0000000000000000000000000000000000000001";
+    private static final Set<String> WRITE_COMMANDS = new HashSet<String>(Arrays.asList("SET", "SETEX", "MSET", "DEL",
+            "UNLINK", "EXPIRE", "PEXPIRE", "INCR", "INCRBY", "DECR", "DECRBY", "HSET", "HMSET", "HDEL", "HINCRBY"));
+
+    private final ServerSocket serverSocket;
+    private final String host;
+    private final Map<String, Object> data = new ConcurrentHashMap<String, Object>();
+    private final Map<String, Long> expires = new ConcurrentHashMap<String, Long>();
+    private final AtomicLong clientIds = new AtomicLong();
+    private final Set<String> scripts = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final Set<Socket> sockets = Collections.newSetFromMap(new ConcurrentHashMap<Socket, Boolean>());
+    /**
+     * 各链接的输出流，推送失效通知时使用，写入时以输出流加锁
+     */
+    private final Map<Long, OutputStream> outs = new ConcurrentHashMap<Long, OutputStream>();
+    /**
+     * 开启了CLIENT TRACKING的链接id -> [重定向的链接id, 前缀...]
+     */
+    private final Map<Long, List<String>> trackings = new ConcurrentHashMap<Long, List<String>>();
+    /**
+     * 在单独的线程里推送失效通知，避免同时持有两个链接的锁
+     */
+    private final ExecutorService notifier = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "resp-stand-in-notifier");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    private volatile boolean running = true;
+
+    /**
+     * @param port 端口，0为随机端口
+     */
+    public RespStandInServer(int port) throws IOException {
+        this.host = "127.0.0.1";
+        this.serverSocket = new ServerSocket(port, 1024, InetAddress.getByName(host));
+        Thread acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                accept();
+            }
+        }, "resp-stand-in-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        notifier.shutdownNow();
+        serverSocket.close();
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                final Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                sockets.add(socket);
+                Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        serve(socket);
+                    }
+                }, "resp-stand-in-" + socket.getPort());
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                if (running) {
+                    LOGGER.warn(e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        long clientId = 0L;
+        try {
+            InputStream in = new BufferedInputStream(socket.getInputStream(), 16 * 1024);
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream(), 16 * 1024);
+            clientId = clientIds.incrementAndGet();
+            outs.put(clientId, out);
+            while (running) {
+                List<byte[]> args = readCommand(in);
+                if (null == args) {
+                    break;
+                }
+                synchronized (out) {
+                    if (!execute(args, out, clientId)) {
+                        out.flush();
+                        break;
+                    }
+                    // pipeline时等一批命令都处理完再写回
+                    if (in.available() == 0) {
+                        out.flush();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug(e.getMessage(), e);
+        } finally {
+            outs.remove(clientId);
+            trackings.remove(clientId);
+            sockets.remove(socket);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                LOGGER.debug(e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 执行命令
+     * @return false 需要关闭链接
+     */
+    private boolean execute(List<byte[]> args, OutputStream out, long clientId) throws IOException {
+        String command = str(args.get(0)).toUpperCase(Locale.ROOT);
+        if ("PING".equals(command)) {
+            status(out, "PONG");
+        } else if ("QUIT".equals(command)) {
+            status(out, "OK");
+            return false;
+        } else if ("AUTH".equals(command) || "SELECT".equals(command) || "READONLY".equals(command)
+                || "ASKING".equals(command)) {
+            status(out, "OK");
+        } else if ("ECHO".equals(command)) {
+            bulk(out, args.get(1));
+        } else if ("CLIENT".equals(command)) {
+            client(args, out, clientId);
+        } else if ("CLUSTER".equals(command)) {
+            cluster(args, out);
+        } else if ("SENTINEL".equals(command)) {
+            sentinel(args, out);
+        } else if ("SUBSCRIBE".equals(command) || "PSUBSCRIBE".equals(command)) {
+            // 哨兵模式下订阅+switch-master，只回复订阅成功，不会有消息
+            for (int i = 1; i < args.size(); i++) {
+                array(out, 3);
+                bulk(out, bytes(command.toLowerCase(Locale.ROOT)));
+                bulk(out, args.get(i));
+                integer(out, i);
+            }
+        } else if ("CONFIG".equals(command) || "COMMAND".equals(command)) {
+            array(out, 0);
+        } else if ("FLUSHDB".equals(command) || "FLUSHALL".equals(command)) {
+            data.clear();
+            expires.clear();
+            status(out, "OK");
+            invalidate(null);
+        } else if ("DBSIZE".equals(command)) {
+            integer(out, data.size());
+        } else if ("SCRIPT".equals(command) && "LOAD".equalsIgnoreCase(str(args.get(1)))) {
+            String sha = SecureUtil.sha1(str(args.get(2)));
+            scripts.add(sha);
+            bulk(out, bytes(sha));
+        } else if ("SCRIPT".equals(command) && "FLUSH".equalsIgnoreCase(str(args.get(1)))) {
+            scripts.clear();
+            status(out, "OK");
+        } else if ("EVAL".equals(command)) {
+            scripts.add(SecureUtil.sha1(str(args.get(1))));
+            integer(out, 0);
+        } else if ("EVALSHA".equals(command)) {
+            if (scripts.contains(str(args.get(1)).toLowerCase(Locale.ROOT))) {
+                integer(out, 0);
+            } else {
+                error(out, "NOSCRIPT No matching script. Please use EVAL.");
+            }
+        } else {
+            boolean result = executeData(command, args, out);
+            if (WRITE_COMMANDS.contains(command) && !trackings.isEmpty()) {
+                invalidate(writtenKeys(command, args));
+            }
+            return result;
+        }
+        return true;
+    }
+
+    private static List<String> writtenKeys(String command, List<byte[]> args) {
+        List<String> keys = new ArrayList<String>();
+        if ("MSET".equals(command)) {
+            for (int i = 1; i < args.size(); i += 2) {
+                keys.add(str(args.get(i)));
+            }
+        } else if ("DEL".equals(command) || "UNLINK".equals(command)) {
+            for (int i = 1; i < args.size(); i++) {
+                keys.add(str(args.get(i)));
+            }
+        } else {
+            keys.add(str(args.get(1)));
+        }
+        return keys;
+    }
+
+    /**
+     * 向开启了tracking且前缀匹配的链接推送失效通知
+     * @param keys 修改的key，为null时表示清空了数据库
+     */
+    private void invalidate(List<String> keys) {
+        for (List<String> tracking : trackings.values()) {
+            final long redirect = Long.parseLong(tracking.get(0));
+            final List<String> matched;
+            if (null == keys) {
+                matched = null;
+            } else {
+                matched = new ArrayList<String>();
+                for (String key : keys) {
+                    if (tracking.size() == 1 || matches(key, tracking)) {
+                        matched.add(key);
+                    }
+                }
+                if (matched.isEmpty()) {
+                    continue;
+                }
+            }
+            notifier.execute(new Runnable() {
+                @Override
+                public void run() {
+                    push(redirect, matched);
+                }
+            });
+        }
+    }
+
+    private static boolean matches(String key, List<String> tracking) {
+        for (int i = 1; i < tracking.size(); i++) {
+            if (key.startsWith(tracking.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void push(long redirect, List<String> keys) {
+        OutputStream out = outs.get(redirect);
+        if (null == out) {
+            return;
+        }
+        synchronized (out) {
+            try {
+                array(out, 3);
+                bulk(out, bytes("message"));
+                bulk(out, bytes("__redis__:invalidate"));
+                if (null == keys) {
+                    out.write(bytes("*-1"));
+                    out.write(CRLF);
+                } else {
+                    array(out, keys.size());
+                    for (String key : keys) {
+                        bulk(out, bytes(key));
+                    }
+                }
+                out.flush();
+            } catch (IOException e) {
+                LOGGER.debug(e.getMessage(), e);
+            }
+        }
+    }
+
+    private boolean executeData(String command, List<byte[]> args, OutputStream out) throws IOException {
+        if ("GET".equals(command)) {
+            Object value = read(str(args.get(1)));
+            if (null == value || value instanceof byte[]) {
+                bulk(out, (byte[]) value);
+            } else {
+                wrongType(out);
+            }
+        } else if ("SET".equals(command)) {
+            set(args, out);
+        } else if ("SETEX".equals(command)) {
+            String key = str(args.get(1));
+            data.put(key, args.get(3));
+            expires.put(key, System.currentTimeMillis() + Long.parseLong(str(args.get(2))) * 1000L);
+            status(out, "OK");
+        } else if ("MGET".equals(command)) {
+            array(out, args.size() - 1);
+            for (int i = 1; i < args.size(); i++) {
+                Object value = read(str(args.get(i)));
+                bulk(out, value instanceof byte[] ? (byte[]) value : null);
+            }
+        } else if ("MSET".equals(command)) {
+            for (int i = 1; i + 1 < args.size(); i += 2) {
+                String key = str(args.get(i));
+                data.put(key, args.get(i + 1));
+                expires.remove(key);
+            }
+            status(out, "OK");
+        } else if ("DEL".equals(command) || "UNLINK".equals(command)) {
+            int count = 0;
+            for (int i = 1; i < args.size(); i++) {
+                String key = str(args.get(i));
+                if (null != read(key)) {
+                    count++;
+                }
+                data.remove(key);
+                expires.remove(key);
+            }
+            integer(out, count);
+        } else if ("EXISTS".equals(command)) {
+            int count = 0;
+            for (int i = 1; i < args.size(); i++) {
+                if (null != read(str(args.get(i)))) {
+                    count++;
+                }
+            }
+            integer(out, count);
+        } else if ("EXPIRE".equals(command) || "PEXPIRE".equals(command)) {
+            String key = str(args.get(1));
+            long ttl = Long.parseLong(str(args.get(2)));
+            if (null == read(key)) {
+                integer(out, 0);
+            } else {
+                expires.put(key, System.currentTimeMillis() + ("EXPIRE".equals(command) ? ttl * 1000L : ttl));
+                integer(out, 1);
+            }
+        } else if ("TTL".equals(command) || "PTTL".equals(command)) {
+            String key = str(args.get(1));
+            if (null == read(key)) {
+                integer(out, -2);
+            } else {
+                Long expireAt = expires.get(key);
+                long ttl = (null == expireAt) ? -1 : expireAt - System.currentTimeMillis();
+                integer(out, (null == expireAt || "PTTL".equals(command)) ? ttl : ttl / 1000L);
+            }
+        } else if ("INCR".equals(command) || "INCRBY".equals(command) || "DECR".equals(command) || "DECRBY".equals(command)) {
+            long delta = args.size() > 2 ? Long.parseLong(str(args.get(2))) : 1L;
+            incr(str(args.get(1)), command.startsWith("DECR") ? -delta : delta, out);
+        } else if (command.startsWith("H")) {
+            hash(command, args, out);
+        } else {
+            error(out, "ERR unknown command '" + command + "'");
+        }
+        return true;
+    }
+
+    private void set(List<byte[]> args, OutputStream out) throws IOException {
+        String key = str(args.get(1));
+        long expireAt = 0;
+        boolean nx = false;
+        boolean xx = false;
+        for (int i = 3; i < args.size(); i++) {
+            String option = str(args.get(i)).toUpperCase(Locale.ROOT);
+            if ("EX".equals(option)) {
+                expireAt = System.currentTimeMillis() + Long.parseLong(str(args.get(++i))) * 1000L;
+            } else if ("PX".equals(option)) {
+                expireAt = System.currentTimeMillis() + Long.parseLong(str(args.get(++i)));
+            } else if ("NX".equals(option)) {
+                nx = true;
+            } else if ("XX".equals(option)) {
+                xx = true;
+            }
+        }
+        synchronized (data) {
+            boolean exists = null != read(key);
+            if ((nx && exists) || (xx && !exists)) {
+                bulk(out, null);
+                return;
+            }
+            data.put(key, args.get(2));
+            if (expireAt > 0) {
+                expires.put(key, expireAt);
+            } else {
+                expires.remove(key);
+            }
+        }
+        status(out, "OK");
+    }
+
+    private void incr(String key, long delta, OutputStream out) throws IOException {
+        long value;
+        synchronized (data) {
+            Object old = read(key);
+            if (null != old && !(old instanceof byte[])) {
+                wrongType(out);
+                return;
+            }
+            try {
+                value = (null == old ? 0L : Long.parseLong(str((byte[]) old))) + delta;
+            } catch (NumberFormatException e) {
+                error(out, "ERR value is not an integer or out of range");
+                return;
+            }
+            data.put(key, bytes(String.valueOf(value)));
+        }
+        integer(out, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void hash(String command, List<byte[]> args, OutputStream out) throws IOException {
+        String key = str(args.get(1));
+        Object value = read(key);
+        if (null != value && !(value instanceof Map)) {
+            wrongType(out);
+            return;
+        }
+        Map<String, byte[]> hash = (Map<String, byte[]>) value;
+        if ("HSET".equals(command) || "HMSET".equals(command)) {
+            if (null == hash) {
+                Object old = data.putIfAbsent(key, new ConcurrentHashMap<String, byte[]>());
+                hash = (Map<String, byte[]>) (null == old ? data.get(key) : old);
+            }
+            int added = 0;
+            for (int i = 2; i + 1 < args.size(); i += 2) {
+                if (null == hash.put(str(args.get(i)), args.get(i + 1))) {
+                    added++;
+                }
+            }
+            if ("HSET".equals(command)) {
+                integer(out, added);
+            } else {
+                status(out, "OK");
+            }
+        } else if ("HGET".equals(command)) {
+            bulk(out, null == hash ? null : hash.get(str(args.get(2))));
+        } else if ("HMGET".equals(command)) {
+            array(out, args.size() - 2);
+            for (int i = 2; i < args.size(); i++) {
+                bulk(out, null == hash ? null : hash.get(str(args.get(i))));
+            }
+        } else if ("HGETALL".equals(command)) {
+            Map<String, byte[]> copy = null == hash ? Collections.<String, byte[]>emptyMap() : new HashMap<String, byte[]>(hash);
+            array(out, copy.size() * 2);
+            for (Map.Entry<String, byte[]> entry : copy.entrySet()) {
+                bulk(out, bytes(entry.getKey()));
+                bulk(out, entry.getValue());
+            }
+        } else if ("HDEL".equals(command)) {
+            int count = 0;
+            for (int i = 2; null != hash && i < args.size(); i++) {
+                if (null != hash.remove(str(args.get(i)))) {
+                    count++;
+                }
+            }
+            integer(out, count);
+        } else if ("HLEN".equals(command)) {
+            integer(out, null == hash ? 0 : hash.size());
+        } else if ("HEXISTS".equals(command)) {
+            integer(out, null != hash && hash.containsKey(str(args.get(2))) ? 1 : 0);
+        } else if ("HINCRBY".equals(command)) {
+            long result;
+            synchronized (data) {
+                if (null == hash) {
+                    hash = new ConcurrentHashMap<String, byte[]>();
+                    data.put(key, hash);
+                }
+                String field = str(args.get(2));
+                byte[] old = hash.get(field);
+                try {
+                    result = (null == old ? 0L : Long.parseLong(str(old))) + Long.parseLong(str(args.get(3)));
+                } catch (NumberFormatException e) {
+                    error(out, "ERR hash value is not an integer");
+                    return;
+                }
+                hash.put(field, bytes(String.valueOf(result)));
+            }
+            integer(out, result);
+        } else {
+            error(out, "ERR unknown command '" + command + "'");
+        }
+    }
+
+    private void client(List<byte[]> args, OutputStream out, long clientId) throws IOException {
+        String sub = str(args.get(1)).toUpperCase(Locale.ROOT);
+        if ("ID".equals(sub)) {
+            integer(out, clientId);
+        } else if ("SETNAME".equals(sub)) {
+            status(out, "OK");
+        } else if ("TRACKING".equals(sub)) {
+            tracking(args, out, clientId);
+        } else {
+            error(out, "ERR unknown subcommand '" + sub + "'");
+        }
+    }
+
+    /**
+     * CLIENT TRACKING on|off [REDIRECT id] [BCAST] [PREFIX prefix ...]，只支持BCAST模式
+     * 再次开启时加入新的前缀
+     */
+    private void tracking(List<byte[]> args, OutputStream out, long clientId) throws IOException {
+        if (!"ON".equalsIgnoreCase(str(args.get(2)))) {
+            trackings.remove(clientId);
+            status(out, "OK");
+            return;
+        }
+        long redirect = clientId;
+        boolean bcast = false;
+        List<String> prefixes = new ArrayList<String>();
+        for (int i = 3; i < args.size(); i++) {
+            String option = str(args.get(i)).toUpperCase(Locale.ROOT);
+            if ("REDIRECT".equals(option)) {
+                redirect = Long.parseLong(str(args.get(++i)));
+            } else if ("BCAST".equals(option)) {
+                bcast = true;
+            } else if ("PREFIX".equals(option)) {
+                prefixes.add(str(args.get(++i)));
+            }
+        }
+        if (!bcast) {
+            error(out, "ERR stand-in only supports BCAST tracking");
+            return;
+        }
+        List<String> tracking = new ArrayList<String>();
+        tracking.add(String.valueOf(redirect));
+        List<String> old = trackings.get(clientId);
+        if (null != old) {
+            tracking.addAll(old.subList(1, old.size()));
+        }
+        tracking.addAll(prefixes);
+        trackings.put(clientId, tracking);
+        status(out, "OK");
+    }
+
+    /**
+     * 只有一个节点的集群，所有slot都在本节点
+     */
+    private void cluster(List<byte[]> args, OutputStream out) throws IOException {
+        String sub = str(args.get(1)).toUpperCase(Locale.ROOT);
+        if ("SLOTS".equals(sub)) {
+            array(out, 1);
+            array(out, 3);
+            integer(out, 0);
+            integer(out, 16383);
+            array(out, 3);
+            bulk(out, bytes(host));
+            integer(out, getPort());
+            bulk(out, bytes(NODE_ID));
+        } else if ("NODES".equals(sub)) {
+            bulk(out, bytes(NODE_ID + " " + host + ":" + getPort() + "@" + (getPort() + 10000)
+                    + " myself,master - 0 0 1 connected 0-16383\n"));
+        } else {
+            error(out, "ERR unknown subcommand '" + sub + "'");
+        }
+    }
+
+    /**
+     * 哨兵只返回本服务作为主节点
+     */
+    private void sentinel(List<byte[]> args, OutputStream out) throws IOException {
+        String sub = str(args.get(1)).toLowerCase(Locale.ROOT);
+        if ("get-master-addr-by-name".equals(sub)) {
+            array(out, 2);
+            bulk(out, bytes(host));
+            bulk(out, bytes(String.valueOf(getPort())));
+        } else {
+            array(out, 0);
+        }
+    }
+
+    /**
+     * 读取未过期的值
+     */
+    private Object read(String key) {
+        Long expireAt = expires.get(key);
+        if (null != expireAt && expireAt <= System.currentTimeMillis()) {
+            data.remove(key);
+            expires.remove(key);
+            return null;
+        }
+        return data.get(key);
+    }
+
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        int first = in.read();
+        if (first == -1) {
+            return null;
+        }
+        if (first != '*') {
+            throw new IOException("不支持inline命令");
+        }
+        int count = (int) readLong(in);
+        List<byte[]> args = new ArrayList<byte[]>(count);
+        for (int i = 0; i < count; i++) {
+            if (in.read() != '$') {
+                throw new IOException("协议错误");
+            }
+            int length = (int) readLong(in);
+            byte[] arg = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                int read = in.read(arg, offset, length - offset);
+                if (read == -1) {
+                    throw new EOFException();
+                }
+                offset += read;
+            }
+            in.read();
+            in.read();
+            args.add(arg);
+        }
+        return args;
+    }
+
+    private static long readLong(InputStream in) throws IOException {
+        long value = 0;
+        boolean negative = false;
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b == -1) {
+                throw new EOFException();
+            }
+            if (b == '-') {
+                negative = true;
+            } else {
+                value = value * 10 + (b - '0');
+            }
+        }
+        in.read();
+        return negative ? -value : value;
+    }
+
+    private static void status(OutputStream out, String status) throws IOException {
+        out.write('+');
+        out.write(bytes(status));
+        out.write(CRLF);
+    }
+
+    private static void error(OutputStream out, String message) throws IOException {
+        out.write('-');
+        out.write(bytes(message));
+        out.write(CRLF);
+    }
+
+    private static void wrongType(OutputStream out) throws IOException {
+        error(out, "WRONGTYPE Operation against a key holding the wrong kind of value");
+    }
+
+    private static void integer(OutputStream out, long value) throws IOException {
+        out.write(':');
+        out.write(bytes(String.valueOf(value)));
+        out.write(CRLF);
+    }
+
+    private static void array(OutputStream out, int size) throws IOException {
+        out.write('*');
+        out.write(bytes(String.valueOf(size)));
+        out.write(CRLF);
+    }
+
+    private static void bulk(OutputStream out, byte[] value) throws IOException {
+        if (null == value) {
+            out.write(bytes("$-1"));
+            out.write(CRLF);
+            return;
+        }
+        out.write('$');
+        out.write(bytes(String.valueOf(value.length)));
+        out.write(CRLF);
+        out.write(value);
+        out.write(CRLF);
+    }
+
+    /**
+     * key按ISO-8859-1转换，与原始字节一一对应
+     */
+    private static String str(byte[] bytes) {
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
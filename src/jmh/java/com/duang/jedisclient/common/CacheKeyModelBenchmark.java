@@ -0,0 +1,63 @@
+package com.duang.jedisclient.common;
+
+import com.duang.jedisclient.serializer.FastJsonSerializer;
+import com.duang.jedisclient.serializer.ISerializer;
+import com.duang.jedisclient.test.TestCacheKeyEnum;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CacheKeyModel构建及getKey()拼接key的开销，每个缓存命令都会执行一次
+ * serializerKey为原来每个命令的做法(拼接String再按charset名称编码)，getKeyBytes为缓存的key字节
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheKeyModelBenchmark {
+
+    private final ISerializer serializer = new FastJsonSerializer();
+    private CacheKeyModel model;
+    private long id = 10000L;
+
+    @Setup
+    public void setup() {
+        model = new CacheKeyModel.Builder(TestCacheKeyEnum.ORDER_MAPPING).customKey(id).build();
+    }
+
+    @Benchmark
+    public String getKey() {
+        return model.getKey();
+    }
+
+    @Benchmark
+    public String buildAndGetKey() {
+        return new CacheKeyModel.Builder(TestCacheKeyEnum.USER_ID).customKey(id).build().getKey();
+    }
+
+    @Benchmark
+    public byte[] serializerKey() {
+        return serializer.serializerKey(model.getKey());
+    }
+
+    @Benchmark
+    public byte[] getKeyBytes() {
+        return model.getKeyBytes();
+    }
+
+    @Benchmark
+    public byte[] buildAndSerializerKey() {
+        return serializer.serializerKey(new CacheKeyModel.Builder(TestCacheKeyEnum.USER_ID).customKey(id).build().getKey());
+    }
+
+    @Benchmark
+    public byte[] buildAndGetKeyBytes() {
+        return new CacheKeyModel.Builder(TestCacheKeyEnum.USER_ID).customKey(id).build().getKeyBytes();
+    }
+}
@@ -0,0 +1,67 @@
+package com.duang.jedisclient.core;
+
+import com.duang.jedisclient.common.RedisConfig;
+import com.duang.jedisclient.serializer.FastJsonSerializer;
+import org.openjdk.jmh.annotations.*;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisPool;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 数值结果的解析开销：原来的 deSerializeValue + String.valueOf + Long.parseLong 与 readLong/readDouble 直接解析字节的对比
+ * 加上 -prof gc 可以看到每次操作分配的字节数
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NumericReplyBenchmark {
+
+    @Param({"42", "1234567890123", "-9223372036854775808"})
+    private String longValue;
+
+    @Param({"3.14159", "1.5e10", "0.30000000000000004"})
+    private String doubleValue;
+
+    private Redis redis;
+    private byte[] longBytes;
+    private byte[] doubleBytes;
+
+    @Setup
+    public void setup() {
+        RedisConfig redisConfig = new RedisConfig("benchmark", "benchmark", new HashSet<HostAndPort>(),
+                new FastJsonSerializer(), RedisConfig.RedisType.STANDALONE);
+        // 只用到解析方法，不需要链接池
+        redis = new Redis((JedisPool) null, redisConfig);
+        longBytes = longValue.getBytes(StandardCharsets.US_ASCII);
+        doubleBytes = doubleValue.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public long deSerializeLong() {
+        return Long.parseLong(String.valueOf(redis.deSerializeValue(null, longBytes, Long.class)));
+    }
+
+    @Benchmark
+    public long readLong() {
+        return AbstractRedis.longReply(redis.readLong(null, longBytes), 0L);
+    }
+
+    @Benchmark
+    public double deSerializeDouble() {
+        return Double.parseDouble(String.valueOf(redis.deSerializeValue(null, doubleBytes, Double.class)));
+    }
+
+    @Benchmark
+    public double readDouble() {
+        return AbstractRedis.doubleReply(redis.readDouble(null, doubleBytes), 0D);
+    }
+}
@@ -0,0 +1,74 @@
+package com.duang.jedisclient.core;
+
+import com.duang.jedisclient.common.RedisConfig;
+import com.duang.jedisclient.serializer.FastJsonSerializer;
+import com.duang.jedisclient.serializer.FstSerializer;
+import com.duang.jedisclient.serializer.ISerializer;
+import com.duang.jedisclient.serializer.JdkSerializer;
+import com.duang.jedisclient.test.RedisTestUser;
+import org.openjdk.jmh.annotations.*;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisPool;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AbstractRedis.toValueList/toValueSet将Redis返回的byte[]批量反序列化的开销
+ * 与AbstractRedis同包才能调用protected方法
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValueConversionBenchmark {
+
+    @Param({"fastjson", "jdk", "fst"})
+    private String serializerName;
+
+    @Param({"10", "1000"})
+    private int count;
+
+    private Redis redis;
+    private List<byte[]> valueList;
+    private Set<byte[]> valueSet;
+
+    @Setup
+    public void setup() {
+        ISerializer serializer;
+        if ("jdk".equals(serializerName)) {
+            serializer = new JdkSerializer();
+        } else if ("fst".equals(serializerName)) {
+            serializer = new FstSerializer();
+        } else {
+            serializer = new FastJsonSerializer();
+        }
+        RedisConfig redisConfig = new RedisConfig("benchmark", "benchmark", new HashSet<HostAndPort>(),
+                serializer, RedisConfig.RedisType.STANDALONE);
+        // 只用到序列化方法，不需要链接池
+        redis = new Redis((JedisPool) null, redisConfig);
+        valueList = new ArrayList<byte[]>(count);
+        valueSet = new HashSet<byte[]>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] bytes = serializer.serializerValue(new RedisTestUser(String.valueOf(i), "laotang" + i,
+                    "广州市天河区", "laotang@duang.com", new Date(), "remake"));
+            valueList.add(bytes);
+            valueSet.add(bytes);
+        }
+    }
+
+    @Benchmark
+    public List<RedisTestUser> toValueList() {
+        return redis.toValueList(null, valueList, RedisTestUser.class);
+    }
+
+    @Benchmark
+    public Set<RedisTestUser> toValueSet() {
+        return redis.toValueSet(null, valueSet, RedisTestUser.class);
+    }
+}
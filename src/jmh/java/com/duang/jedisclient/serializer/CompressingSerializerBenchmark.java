@@ -0,0 +1,56 @@
+package com.duang.jedisclient.serializer;
+
+import com.duang.jedisclient.test.RedisTestUser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FastJsonSerializer包装CompressingSerializer前后的序列化/反序列化吞吐量
+ * medium为50个RedisTestUser(约7KB)，large为2000个(约300KB)，压缩前后的字节数在setup时输出
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompressingSerializerBenchmark {
+
+    @Param({"none", "deflate"})
+    private String compression;
+
+    @Param({"medium", "large"})
+    private String size;
+
+    private ISerializer serializer;
+    private ArrayList<RedisTestUser> value;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        serializer = "deflate".equals(compression)
+                ? new CompressingSerializer(new FastJsonSerializer()) : new FastJsonSerializer();
+        int count = "medium".equals(size) ? 50 : 2000;
+        value = new ArrayList<RedisTestUser>(count);
+        for (int i = 0; i < count; i++) {
+            value.add(SerializerBenchmark.newUser(i));
+        }
+        bytes = serializer.serializerValue(value);
+        System.out.println(compression + "/" + size + " bytes: " + bytes.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serializerValue(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deSerializerValue(bytes, ArrayList.class);
+    }
+}
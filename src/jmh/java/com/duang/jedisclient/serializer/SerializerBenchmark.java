@@ -0,0 +1,82 @@
+package com.duang.jedisclient.serializer;
+
+import com.duang.jedisclient.test.RedisTestUser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各序列化方式对不同大小对象的序列化、反序列化吞吐量
+ * small为单个RedisTestUser，medium为50个，large为2000个，序列化后的字节数在setup时输出
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializerBenchmark {
+
+    @Param({"fastjson", "jdk", "fst", "binary"})
+    private String serializerName;
+
+    @Param({"small", "medium", "large"})
+    private String size;
+
+    private ISerializer serializer;
+    private Object value;
+    private Class<?> type;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        if ("jdk".equals(serializerName)) {
+            serializer = new JdkSerializer();
+        } else if ("fst".equals(serializerName)) {
+            serializer = new FstSerializer();
+        } else if ("binary".equals(serializerName)) {
+            serializer = new BinarySerializer().register(RedisTestUser.class, 1);
+        } else {
+            serializer = new FastJsonSerializer();
+        }
+        if ("small".equals(size)) {
+            value = newUser(0);
+            type = RedisTestUser.class;
+        } else {
+            int count = "medium".equals(size) ? 50 : 2000;
+            ArrayList<RedisTestUser> users = new ArrayList<RedisTestUser>(count);
+            for (int i = 0; i < count; i++) {
+                users.add(newUser(i));
+            }
+            value = users;
+            type = ArrayList.class;
+        }
+        bytes = serializer.serializerValue(value);
+        System.out.println(serializerName + "/" + size + " bytes: " + bytes.length);
+    }
+
+    static RedisTestUser newUser(int index) {
+        return new RedisTestUser(String.valueOf(10000 + index), "laotang" + index, "广州市天河区",
+                "laotang" + index + "@duang.com", new Date(), "remake");
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serializerValue(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deSerializerValue(bytes, type);
+    }
+
+    @Benchmark
+    public Object roundTrip() {
+        return serializer.deSerializerValue(serializer.serializerValue(value), type);
+    }
+}
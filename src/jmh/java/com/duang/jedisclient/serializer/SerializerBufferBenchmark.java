@@ -0,0 +1,82 @@
+package com.duang.jedisclient.serializer;
+
+import com.duang.jedisclient.test.RedisTestUser;
+import org.nustaq.serialization.FSTObjectInput;
+import org.nustaq.serialization.FSTObjectOutput;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JdkSerializer/FstSerializer复用缓冲区前后的对比，legacy方法为改造前每次新建输出流及FST对象流的写法
+ * 查看每次操作分配的内存(gc.alloc.rate.norm): java -jar target/benchmarks.jar SerializerBufferBenchmark -prof gc
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializerBufferBenchmark {
+
+    private final JdkSerializer jdkSerializer = new JdkSerializer();
+    private final FstSerializer fstSerializer = new FstSerializer();
+    private RedisTestUser user;
+    private byte[] fstBytes;
+
+    @Setup
+    public void setup() {
+        user = new RedisTestUser("10000", "laotang", "广州市天河区", "laotang@duang.com", new Date(), "remake");
+        fstBytes = fstSerializer.serializerValue(user);
+    }
+
+    @Benchmark
+    public byte[] jdkSerialize() {
+        return jdkSerializer.serializerValue(user);
+    }
+
+    @Benchmark
+    public byte[] jdkSerializeLegacy() throws Exception {
+        ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+        ObjectOutputStream objectOut = new ObjectOutputStream(bytesOut);
+        objectOut.writeObject(user);
+        objectOut.flush();
+        objectOut.close();
+        return bytesOut.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] fstSerialize() {
+        return fstSerializer.serializerValue(user);
+    }
+
+    @Benchmark
+    public byte[] fstSerializeLegacy() throws Exception {
+        ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+        FSTObjectOutput fstOut = new FSTObjectOutput(bytesOut);
+        fstOut.writeObject(user);
+        fstOut.flush();
+        fstOut.close();
+        return bytesOut.toByteArray();
+    }
+
+    @Benchmark
+    public Object fstDeserialize() {
+        return fstSerializer.deSerializerValue(fstBytes, RedisTestUser.class);
+    }
+
+    @Benchmark
+    public Object fstDeserializeLegacy() throws Exception {
+        FSTObjectInput fstInput = new FSTObjectInput(new ByteArrayInputStream(fstBytes));
+        Object value = fstInput.readObject();
+        fstInput.close();
+        return value;
+    }
+}
@@ -0,0 +1,77 @@
+package com.duang.jedisclient.serializer;
+
+import com.duang.jedisclient.utils.Utf8;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 字符串值经过序列化器与setString/getString直接按UTF-8编码的对比
+ * builder为StringBuilder，序列化器需要先toString，Utf8.encode直接写入
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StringValueBenchmark {
+
+    @Param({"jdk", "fst"})
+    private String serializerName;
+
+    @Param({"32", "4096"})
+    private int length;
+
+    private ISerializer serializer;
+    private String value;
+    private StringBuilder builder;
+    private byte[] serialized;
+    private byte[] utf8;
+
+    @Setup
+    public void setup() {
+        serializer = "fst".equals(serializerName) ? new FstSerializer() : new JdkSerializer();
+        builder = new StringBuilder(length);
+        for (int i = 0; builder.length() < length; i++) {
+            builder.append(i % 10 == 0 ? "广州" : "laotang");
+        }
+        builder.setLength(length);
+        value = builder.toString();
+        serialized = serializer.serializerValue(value);
+        utf8 = Utf8.encode(value);
+    }
+
+    @Benchmark
+    public byte[] serializerEncode() {
+        return serializer.serializerValue(value);
+    }
+
+    @Benchmark
+    public byte[] utf8Encode() {
+        return Utf8.encode(value);
+    }
+
+    @Benchmark
+    public byte[] serializerEncodeBuilder() {
+        return serializer.serializerValue(builder.toString());
+    }
+
+    @Benchmark
+    public byte[] utf8EncodeBuilder() {
+        return Utf8.encode(builder);
+    }
+
+    @Benchmark
+    public String serializerDecode() {
+        return serializer.deSerializerValue(serialized, String.class);
+    }
+
+    @Benchmark
+    public String utf8Decode() {
+        return Utf8.decode(utf8);
+    }
+}
@@ -1,5 +1,12 @@
 package com.duang.jedisclient.common;
 
+import com.duang.jedisclient.serializer.ISerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * 缓存key模型
  * 用来确定每一个缓存的key或key前缀，过期时间等
@@ -9,14 +16,20 @@ package com.duang.jedisclient.common;
  */
 public class CacheKeyModel {
 
+    /**
+     * 枚举前缀的UTF-8字节，key为枚举对象，枚举个数有限，不需要清理
+     */
+    private static final ConcurrentMap<ICacheKeyEnums, byte[]> PREFIX_BYTES = new ConcurrentHashMap<ICacheKeyEnums, byte[]>();
+    private static final byte[] EMPTY_BYTES = new byte[0];
+
     /**
      * 自定义前缀
      */
     private String keyPrefix;
     /**
-     * 自定义关键字，作区分
+     * 自定义关键字，作区分，Long/Integer保留原值，在编码key字节时直接写入数字，其它类型为String
      */
-    private String customKey;
+    private Object customKey;
     /**
      * 过期时间
      */
@@ -29,14 +42,57 @@ public class CacheKeyModel {
      * 缓存关键字枚举对象
      */
     private ICacheKeyEnums keyEnums;
+    /**
+     * 写入时过期时间的处理策略
+     */
+    private TtlPolicy ttlPolicy;
+    /**
+     * 是否启用本地缓存
+     */
+    private boolean nearCache;
+    /**
+     * 提前刷新的比例
+     */
+    private double refreshAheadRatio;
+    /**
+     * 过期时间的随机偏移
+     */
+    private TtlJitter ttlJitter;
+    /**
+     * 是否启用延迟写
+     */
+    private boolean writeBehind;
+    /**
+     * 是否在本地累计计数器的增量
+     */
+    private boolean accumulate;
+    /**
+     * 该key使用的序列化器，为null时使用RedisConfig里的序列化器
+     */
+    private ISerializer serializer;
+    /**
+     * 第一次调用getKey()时拼接
+     */
+    private volatile String key;
+    /**
+     * 第一次调用getKeyBytes()时编码
+     */
+    private volatile byte[] keyBytes;
 
     public static class Builder {
 
-        private String customKey;
+        private Object customKey;
         private String keyPrefix;
         private int ttl;
         private String keyDesc;
         private ICacheKeyEnums keyEnums;
+        private TtlPolicy ttlPolicy;
+        private boolean nearCache;
+        private double refreshAheadRatio;
+        private TtlJitter ttlJitter;
+        private boolean writeBehind;
+        private boolean accumulate;
+        private ISerializer serializer;
 
         public Builder() { }
 
@@ -49,6 +105,13 @@ public class CacheKeyModel {
             this.keyPrefix = enums.getKeyPrefix();
             this.ttl = enums.getKeyTTL();
             this.keyDesc = enums.getKeyDesc();
+            this.ttlPolicy = enums.getTtlPolicy();
+            this.nearCache = enums.isNearCache();
+            this.refreshAheadRatio = enums.getRefreshAheadRatio();
+            this.ttlJitter = enums.getTtlJitter();
+            this.writeBehind = enums.isWriteBehind();
+            this.accumulate = enums.isAccumulate();
+            this.serializer = enums.getSerializer();
         }
 
         /**
@@ -67,7 +130,77 @@ public class CacheKeyModel {
          * @return
          */
         public Builder customKey(Object customKey) {
-            this.customKey = String.valueOf(customKey);
+            this.customKey = (customKey instanceof Long || customKey instanceof Integer) ? customKey : String.valueOf(customKey);
+            return this;
+        }
+
+        /**
+         * 写入时过期时间的处理策略，不设置时使用枚举对象里的策略
+         * @param ttlPolicy 过期时间策略
+         * @return
+         */
+        public Builder ttlPolicy(TtlPolicy ttlPolicy) {
+            this.ttlPolicy = ttlPolicy;
+            return this;
+        }
+
+        /**
+         * 是否启用本地缓存，不设置时使用枚举对象里的设置
+         * @param nearCache true为启用
+         * @return
+         */
+        public Builder nearCache(boolean nearCache) {
+            this.nearCache = nearCache;
+            return this;
+        }
+
+        /**
+         * 提前刷新的比例，不设置时使用枚举对象里的设置
+         * @param refreshAheadRatio 0到1之间，0为不启用
+         * @return
+         */
+        public Builder refreshAhead(double refreshAheadRatio) {
+            this.refreshAheadRatio = refreshAheadRatio;
+            return this;
+        }
+
+        /**
+         * 过期时间的随机偏移，不设置时使用枚举对象里的设置
+         * @param ttlJitter 如TtlJitter.percent(10).deterministic()
+         * @return
+         */
+        public Builder ttlJitter(TtlJitter ttlJitter) {
+            this.ttlJitter = ttlJitter;
+            return this;
+        }
+
+        /**
+         * 是否启用延迟写，不设置时使用枚举对象里的设置
+         * @param writeBehind true为启用
+         * @return
+         */
+        public Builder writeBehind(boolean writeBehind) {
+            this.writeBehind = writeBehind;
+            return this;
+        }
+
+        /**
+         * 是否在本地累计计数器的增量，不设置时使用枚举对象里的设置
+         * @param accumulate true为启用
+         * @return
+         */
+        public Builder accumulate(boolean accumulate) {
+            this.accumulate = accumulate;
+            return this;
+        }
+
+        /**
+         * 该key使用的序列化器，不设置时使用枚举对象里的设置，都为null时使用RedisConfig里的序列化器
+         * @param serializer 序列化器
+         * @return
+         */
+        public Builder serializer(ISerializer serializer) {
+            this.serializer = serializer;
             return this;
         }
 
@@ -83,6 +216,13 @@ public class CacheKeyModel {
         ttl = builder.ttl;
         keyDesc = builder.keyDesc;
         keyEnums = builder.keyEnums;
+        ttlPolicy = builder.ttlPolicy;
+        nearCache = builder.nearCache;
+        refreshAheadRatio = builder.refreshAheadRatio;
+        ttlJitter = builder.ttlJitter;
+        writeBehind = builder.writeBehind;
+        accumulate = builder.accumulate;
+        serializer = builder.serializer;
     }
 
     /**
@@ -90,15 +230,134 @@ public class CacheKeyModel {
      * @return
      */
     public String getKey() {
-        if (null != keyEnums) {
-            if ((keyPrefix.endsWith(":") || keyPrefix.endsWith(".")) && null != customKey) {
-                return keyPrefix + customKey;
-            } else {
-                return null != customKey ? keyPrefix + ":" + customKey : keyPrefix;
-            }
+        String result = key;
+        if (null == result) {
+            result = buildKey();
+            key = result;
+        }
+        return result;
+    }
+
+    /**
+     * getKey()的UTF-8字节，只编码一次，前缀部分按枚举缓存，自定义key直接写入，不再拼接成String
+     * 返回的数组由所有命令共用，不能修改
+     * @return
+     */
+    public byte[] getKeyBytes() {
+        byte[] result = keyBytes;
+        if (null == result) {
+            result = encodeKey();
+            keyBytes = result;
+        }
+        return result;
+    }
+
+    private String buildKey() {
+        if (null == keyEnums) {
+            return null == customKey ? null : String.valueOf(customKey);
+        }
+        if (null == customKey) {
+            return keyPrefix;
+        }
+        StringBuilder key = new StringBuilder(keyPrefix.length() + 21).append(keyPrefix);
+        if (!hasSeparator()) {
+            key.append(':');
+        }
+        if (customKey instanceof String) {
+            key.append((String) customKey);
+        } else {
+            key.append(((Number) customKey).longValue());
+        }
+        return key.toString();
+    }
+
+    private byte[] encodeKey() {
+        byte[] prefix = null == keyEnums ? EMPTY_BYTES : prefixBytes();
+        if (null == customKey) {
+            return null == keyEnums ? null : prefix;
+        }
+        int offset = (null == keyEnums || hasSeparator()) ? prefix.length : prefix.length + 1;
+        byte[] bytes;
+        if (customKey instanceof String) {
+            bytes = encodeString(offset, (String) customKey);
         } else {
-            return customKey;
+            long value = ((Number) customKey).longValue();
+            bytes = new byte[offset + digits(value)];
+            writeDigits(value, bytes);
+        }
+        System.arraycopy(prefix, 0, bytes, 0, prefix.length);
+        if (offset > prefix.length) {
+            bytes[prefix.length] = ':';
+        }
+        return bytes;
+    }
+
+    /**
+     * 分配offset加上custom编码后长度的数组，custom写在offset之后
+     */
+    private static byte[] encodeString(int offset, String custom) {
+        int length = custom.length();
+        byte[] bytes = new byte[offset + length];
+        for (int i = 0; i < length; i++) {
+            char c = custom.charAt(i);
+            if (c >= 0x80) {
+                // 非ASCII字符按UTF-8编码
+                byte[] encoded = custom.getBytes(StandardCharsets.UTF_8);
+                bytes = new byte[offset + encoded.length];
+                System.arraycopy(encoded, 0, bytes, offset, encoded.length);
+                return bytes;
+            }
+            bytes[offset + i] = (byte) c;
+        }
+        return bytes;
+    }
+
+    /**
+     * 十进制字符数，包括负号
+     */
+    private static int digits(long value) {
+        int digits = value < 0 ? 2 : 1;
+        // 按负数计算，Long.MIN_VALUE也不会溢出
+        long negative = value < 0 ? value : -value;
+        while (negative <= -10) {
+            negative /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * 从数组末尾向前写入十进制字符
+     */
+    private static void writeDigits(long value, byte[] bytes) {
+        int pos = bytes.length;
+        long negative = value < 0 ? value : -value;
+        do {
+            bytes[--pos] = (byte) ('0' - negative % 10);
+            negative /= 10;
+        } while (negative != 0);
+        if (value < 0) {
+            bytes[--pos] = '-';
+        }
+    }
+
+    /**
+     * 前缀的UTF-8字节，前缀来自枚举对象时缓存，通过Builder.keyPrefix自定义的前缀不缓存
+     */
+    private byte[] prefixBytes() {
+        if (!(keyEnums instanceof Enum) || !keyPrefix.equals(keyEnums.getKeyPrefix())) {
+            return keyPrefix.getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] prefix = PREFIX_BYTES.get(keyEnums);
+        if (null == prefix) {
+            prefix = keyPrefix.getBytes(StandardCharsets.UTF_8);
+            PREFIX_BYTES.putIfAbsent(keyEnums, prefix);
         }
+        return prefix;
+    }
+
+    private boolean hasSeparator() {
+        return keyPrefix.endsWith(":") || keyPrefix.endsWith(".");
     }
 
     /**
@@ -112,6 +371,81 @@ public class CacheKeyModel {
         return ttl;
     }
 
+    /**
+     * 写入时使用的过期时间，即加上随机偏移后的getKeyTTL()
+     * @return
+     */
+    public int getWriteTTL() {
+        return null == ttlJitter ? getKeyTTL() : getWriteTTL(getKeyBytes());
+    }
+
+    /**
+     * 同一个CacheKeyModel写入多个key(如mset)时，按实际写入的key计算偏移
+     * 与getWriteTTL()一样按key的字节计算，同一个key不论经哪个方法写入偏移都相同
+     * @param key 实际写入的key
+     * @return
+     */
+    public int getWriteTTL(byte[] key) {
+        int keyTTL = getKeyTTL();
+        return null == ttlJitter ? keyTTL : ttlJitter.apply(Arrays.hashCode(key), keyTTL);
+    }
+
+    /**
+     * 写入时过期时间的处理策略，默认每次写入都刷新过期时间
+     * @return
+     */
+    public TtlPolicy getTtlPolicy() {
+        return null == ttlPolicy ? TtlPolicy.REFRESH : ttlPolicy;
+    }
+
+    /**
+     * 是否启用本地缓存
+     * @return
+     */
+    public boolean isNearCache() {
+        return nearCache;
+    }
+
+    /**
+     * 是否启用延迟写
+     * @return
+     */
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    /**
+     * 是否在本地累计计数器的增量
+     * @return
+     */
+    public boolean isAccumulate() {
+        return accumulate;
+    }
+
+    /**
+     * 该key使用的序列化器，为null时使用RedisConfig里的序列化器
+     * @return
+     */
+    public ISerializer getSerializer() {
+        return serializer;
+    }
+
+    /**
+     * 提前刷新的比例，0为不启用
+     * @return
+     */
+    public double getRefreshAheadRatio() {
+        return refreshAheadRatio;
+    }
+
+    /**
+     * key前缀，自定义key时为null
+     * @return
+     */
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
     /**
      * 缓存key说明
      * @return
@@ -120,4 +454,12 @@ public class CacheKeyModel {
         return keyDesc;
     }
 
+    /**
+     * 缓存关键字枚举对象，自定义key时为null
+     * @return
+     */
+    public ICacheKeyEnums getKeyEnums() {
+        return keyEnums;
+    }
+
 }
@@ -1,5 +1,7 @@
 package com.duang.jedisclient.common;
 
+import com.duang.jedisclient.serializer.ISerializer;
+
 /**
  * 缓存Key枚举接口
  *
@@ -48,4 +50,62 @@ public interface ICacheKeyEnums {
      */
     String getKeyDesc();
 
+    /**
+     * 写入时过期时间的处理策略，默认每次写入都刷新过期时间
+     */
+    default TtlPolicy getTtlPolicy() {
+        return TtlPolicy.REFRESH;
+    }
+
+    /**
+     * 是否启用本地缓存(near cache)，默认不启用
+     * 只适合读多写少的热点key，启用后get/hget/hgetAll会优先从本地缓存取值，
+     * 取出的对象由所有调用方共享，不能修改
+     */
+    default boolean isNearCache() {
+        return false;
+    }
+
+    /**
+     * 提前刷新的比例，0到1之间，默认为0不启用
+     * 通过getOrLoad读取时，剩余过期时间小于 getKeyTTL() * 该比例 时在后台重新加载，调用方仍立即取得当前值
+     */
+    default double getRefreshAheadRatio() {
+        return 0D;
+    }
+
+    /**
+     * 过期时间的随机偏移，默认不偏移
+     * 同一枚举的key在批量写入后会在同一时刻过期，设置后每次写入时过期时间加上 0 到 range 秒
+     */
+    default TtlJitter getTtlJitter() {
+        return null;
+    }
+
+    /**
+     * 是否启用延迟写(write-behind)，默认不启用
+     * 只适合频繁覆盖写、只关心最后一次写入值的key，启用后set/hset等先写入内存缓冲再批量刷新到Redis，
+     * 刷新前进程退出会丢失缓冲里的数据
+     */
+    default boolean isWriteBehind() {
+        return false;
+    }
+
+    /**
+     * 是否在本地累计incr/incrBy/decr/decrBy/hincrBy的增量，默认不启用
+     * 启用后增量与延迟写一起定时以INCRBY/HINCRBY批量写入Redis，命令返回的是Redis的值加上未写入的增量(近似值)
+     */
+    default boolean isAccumulate() {
+        return false;
+    }
+
+    /**
+     * 该枚举的key使用的序列化器，默认为null，使用RedisConfig里的序列化器
+     * 如计数器、短字符串使用StringSerializer，对象使用BinarySerializer，需要人工查看的数据使用FastJsonSerializer
+     * 每个CacheKeyModel创建时取一次，应返回共用的实例，不要每次调用都创建；已写入的key更换序列化器后旧数据不能读取
+     */
+    default ISerializer getSerializer() {
+        return null;
+    }
+
 }
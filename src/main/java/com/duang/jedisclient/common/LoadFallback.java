@@ -0,0 +1,23 @@
+package com.duang.jedisclient.common;
+
+/**
+ * getOrLoad时租约已被其它实例持有的处理方式
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public enum LoadFallback {
+
+    /**
+     * 等待其它实例加载完成后读取缓存，等待超时后自行加载
+     */
+    WAIT,
+    /**
+     * 不等待，直接自行加载
+     */
+    LOAD,
+    /**
+     * 不等待也不加载，直接返回null
+     */
+    NONE,
+}
@@ -1,10 +1,15 @@
 package com.duang.jedisclient.common;
 
+import com.alibaba.fastjson.annotation.JSONField;
+import com.duang.jedisclient.metrics.IMetricsCollector;
 import com.duang.jedisclient.serializer.ISerializer;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.Protocol;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -75,6 +80,122 @@ public class RedisConfig {
      */
     private ISerializer serializer;
 
+    /**
+     * 异步客户端同时占用的最大链接数(同时也是异步线程池的线程数)
+     * 异步客户端与同步调用共用各节点的链接池，实际值不超过链接池maxTotal的一半，其余链接留给同步调用
+     */
+    private int asyncMaxConnections = 12;
+
+    /**
+     * 异步客户端等待执行的最大命令数
+     */
+    private int asyncQueueSize = 10000;
+
+    /**
+     * 异步客户端是否使用虚拟线程(JDK21及以上版本)
+     */
+    private boolean asyncVirtualThreads;
+
+    /**
+     * 本地缓存(near cache)最多缓存的key数量，小于等于0时不启用本地缓存
+     */
+    private int nearCacheMaxSize;
+
+    /**
+     * 本地缓存的最大权重，get/hget的结果权重为1，hgetAll的结果权重为field数量
+     */
+    private long nearCacheMaxWeight = 100000L;
+
+    /**
+     * 本地缓存的过期时间(单位:秒)，不会超过CacheKeyModel的过期时间
+     */
+    private int nearCacheTtl = 60;
+
+    /**
+     * 启动时就监听失效通知的key前缀，启用了本地缓存的key第一次缓存时会自动加入其前缀
+     */
+    private Set<String> nearCachePrefixes = new HashSet<String>();
+
+    /**
+     * 是否记录每个命令的耗时、错误数及字节数
+     */
+    private boolean metricsEnabled;
+
+    /**
+     * 启用度量时是否注册到JMX
+     */
+    private boolean metricsJmxEnabled = true;
+
+    /**
+     * 自定义的度量数据收集器
+     */
+    private List<IMetricsCollector> metricsCollectors = new ArrayList<IMetricsCollector>();
+
+    /**
+     * 是否按借用等待时间及使用率自动调整各节点链接池的maxTotal/minIdle
+     */
+    private boolean poolAutoSizing;
+
+    /**
+     * 自动调整时maxTotal的下限
+     */
+    private int poolMinTotal = GenericObjectPoolConfig.DEFAULT_MAX_TOTAL;
+
+    /**
+     * 自动调整时maxTotal的上限
+     */
+    private int poolMaxTotal = GenericObjectPoolConfig.DEFAULT_MAX_TOTAL * 32;
+
+    /**
+     * 检查链接池的间隔(单位:秒)
+     */
+    private int poolAdjustInterval = 10;
+
+    /**
+     * 平均借用等待时间超过该值时扩大链接池(单位:毫秒)
+     */
+    private long poolGrowWaitMillis = 5L;
+
+    /**
+     * getOrLoad时在Redis上加锁(租约)的时长(单位:毫秒)，小于等于0时只在本进程内合并加载
+     */
+    private long loadLeaseMillis;
+
+    /**
+     * 租约已被其它实例持有时，等待其加载完成的最长时间(单位:毫秒)
+     */
+    private long loadWaitMillis = 1000L;
+
+    /**
+     * 租约已被其它实例持有时的处理方式
+     */
+    private LoadFallback loadFallback = LoadFallback.WAIT;
+
+    /**
+     * 提前刷新的后台线程数
+     */
+    private int refreshAheadThreads = 2;
+
+    /**
+     * 提前刷新等待执行的最大任务数，超出时放弃本次刷新
+     */
+    private int refreshAheadQueueSize = 1000;
+
+    /**
+     * 延迟写(write-behind)缓冲的最大待写条数(key或hash field)，0为不启用，超出时直接写入Redis
+     */
+    private int writeBehindMaxPending = 0;
+
+    /**
+     * 延迟写缓冲达到该条数时立即刷新，每个pipeline最多发送的命令数
+     */
+    private int writeBehindBatchSize = 500;
+
+    /**
+     * 延迟写缓冲定时刷新的间隔(毫秒)
+     */
+    private long writeBehindFlushMillis = 100L;
+
     public enum RedisType {
         STANDALONE, SENTINEL, CLUSTER,
     }
@@ -195,4 +316,189 @@ public class RedisConfig {
     public void setSerializer(ISerializer serializer) {
         this.serializer = serializer;
     }
+
+    public int getAsyncMaxConnections() {
+        return asyncMaxConnections;
+    }
+
+    public void setAsyncMaxConnections(int asyncMaxConnections) {
+        this.asyncMaxConnections = asyncMaxConnections;
+    }
+
+    public int getAsyncQueueSize() {
+        return asyncQueueSize;
+    }
+
+    public void setAsyncQueueSize(int asyncQueueSize) {
+        this.asyncQueueSize = asyncQueueSize;
+    }
+
+    public boolean isAsyncVirtualThreads() {
+        return asyncVirtualThreads;
+    }
+
+    public void setAsyncVirtualThreads(boolean asyncVirtualThreads) {
+        this.asyncVirtualThreads = asyncVirtualThreads;
+    }
+
+    public int getNearCacheMaxSize() {
+        return nearCacheMaxSize;
+    }
+
+    public void setNearCacheMaxSize(int nearCacheMaxSize) {
+        this.nearCacheMaxSize = nearCacheMaxSize;
+    }
+
+    public long getNearCacheMaxWeight() {
+        return nearCacheMaxWeight;
+    }
+
+    public void setNearCacheMaxWeight(long nearCacheMaxWeight) {
+        this.nearCacheMaxWeight = nearCacheMaxWeight;
+    }
+
+    public int getNearCacheTtl() {
+        return nearCacheTtl;
+    }
+
+    public void setNearCacheTtl(int nearCacheTtl) {
+        this.nearCacheTtl = nearCacheTtl;
+    }
+
+    public Set<String> getNearCachePrefixes() {
+        return nearCachePrefixes;
+    }
+
+    public void setNearCachePrefixes(Set<String> nearCachePrefixes) {
+        this.nearCachePrefixes = nearCachePrefixes;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    public boolean isMetricsJmxEnabled() {
+        return metricsJmxEnabled;
+    }
+
+    public void setMetricsJmxEnabled(boolean metricsJmxEnabled) {
+        this.metricsJmxEnabled = metricsJmxEnabled;
+    }
+
+    @JSONField(serialize = false)
+    public List<IMetricsCollector> getMetricsCollectors() {
+        return metricsCollectors;
+    }
+
+    public void setMetricsCollectors(List<IMetricsCollector> metricsCollectors) {
+        this.metricsCollectors = metricsCollectors;
+    }
+
+    public boolean isPoolAutoSizing() {
+        return poolAutoSizing;
+    }
+
+    public void setPoolAutoSizing(boolean poolAutoSizing) {
+        this.poolAutoSizing = poolAutoSizing;
+    }
+
+    public int getPoolMinTotal() {
+        return poolMinTotal;
+    }
+
+    public void setPoolMinTotal(int poolMinTotal) {
+        this.poolMinTotal = poolMinTotal;
+    }
+
+    public int getPoolMaxTotal() {
+        return poolMaxTotal;
+    }
+
+    public void setPoolMaxTotal(int poolMaxTotal) {
+        this.poolMaxTotal = poolMaxTotal;
+    }
+
+    public int getPoolAdjustInterval() {
+        return poolAdjustInterval;
+    }
+
+    public void setPoolAdjustInterval(int poolAdjustInterval) {
+        this.poolAdjustInterval = poolAdjustInterval;
+    }
+
+    public long getPoolGrowWaitMillis() {
+        return poolGrowWaitMillis;
+    }
+
+    public void setPoolGrowWaitMillis(long poolGrowWaitMillis) {
+        this.poolGrowWaitMillis = poolGrowWaitMillis;
+    }
+
+    public long getLoadLeaseMillis() {
+        return loadLeaseMillis;
+    }
+
+    public void setLoadLeaseMillis(long loadLeaseMillis) {
+        this.loadLeaseMillis = loadLeaseMillis;
+    }
+
+    public long getLoadWaitMillis() {
+        return loadWaitMillis;
+    }
+
+    public void setLoadWaitMillis(long loadWaitMillis) {
+        this.loadWaitMillis = loadWaitMillis;
+    }
+
+    public LoadFallback getLoadFallback() {
+        return loadFallback;
+    }
+
+    public void setLoadFallback(LoadFallback loadFallback) {
+        this.loadFallback = loadFallback;
+    }
+
+    public int getRefreshAheadThreads() {
+        return refreshAheadThreads;
+    }
+
+    public void setRefreshAheadThreads(int refreshAheadThreads) {
+        this.refreshAheadThreads = refreshAheadThreads;
+    }
+
+    public int getRefreshAheadQueueSize() {
+        return refreshAheadQueueSize;
+    }
+
+    public void setRefreshAheadQueueSize(int refreshAheadQueueSize) {
+        this.refreshAheadQueueSize = refreshAheadQueueSize;
+    }
+
+    public int getWriteBehindMaxPending() {
+        return writeBehindMaxPending;
+    }
+
+    public void setWriteBehindMaxPending(int writeBehindMaxPending) {
+        this.writeBehindMaxPending = writeBehindMaxPending;
+    }
+
+    public int getWriteBehindBatchSize() {
+        return writeBehindBatchSize;
+    }
+
+    public void setWriteBehindBatchSize(int writeBehindBatchSize) {
+        this.writeBehindBatchSize = writeBehindBatchSize;
+    }
+
+    public long getWriteBehindFlushMillis() {
+        return writeBehindFlushMillis;
+    }
+
+    public void setWriteBehindFlushMillis(long writeBehindFlushMillis) {
+        this.writeBehindFlushMillis = writeBehindFlushMillis;
+    }
 }
@@ -0,0 +1,90 @@
+package com.duang.jedisclient.common;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 过期时间的随机偏移，写入时在过期时间上加上 0 到 range 秒，避免批量写入的key在同一时刻过期
+ * range可以是固定秒数，也可以是过期时间的百分比；deterministic时偏移量由key的hash决定，同一个key重复写入时过期时间不会漂移
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public final class TtlJitter {
+
+    private final int seconds;
+    private final int percent;
+    private final boolean deterministic;
+
+    private TtlJitter(int seconds, int percent, boolean deterministic) {
+        this.seconds = seconds;
+        this.percent = percent;
+        this.deterministic = deterministic;
+    }
+
+    /**
+     * 固定范围的偏移
+     * @param seconds 最大偏移秒数
+     */
+    public static TtlJitter seconds(int seconds) {
+        return new TtlJitter(Math.max(0, seconds), 0, false);
+    }
+
+    /**
+     * 按过期时间百分比的偏移
+     * @param percent 最大偏移为过期时间的percent%
+     */
+    public static TtlJitter percent(int percent) {
+        return new TtlJitter(0, Math.max(0, percent), false);
+    }
+
+    /**
+     * 偏移量由key的hash决定，同一个key每次写入的过期时间相同
+     */
+    public TtlJitter deterministic() {
+        return new TtlJitter(seconds, percent, true);
+    }
+
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
+    /**
+     * 计算加上偏移后的过期时间，永不过期(NEVER_TTL)的key不处理
+     * @param keyHash 缓存key的hash，deterministic时用于计算偏移量
+     * @param ttl 过期时间(秒)
+     * @return
+     */
+    public int apply(int keyHash, int ttl) {
+        if (ttl <= 0 || ttl >= ICacheKeyEnums.NEVER_TTL) {
+            return ttl;
+        }
+        int range = seconds > 0 ? seconds : (int) ((long) ttl * percent / 100);
+        if (range <= 0) {
+            return ttl;
+        }
+        int offset;
+        if (deterministic) {
+            offset = (mix(keyHash) & Integer.MAX_VALUE) % (range + 1);
+        } else {
+            offset = ThreadLocalRandom.current().nextInt(range + 1);
+        }
+        return (int) Math.min((long) ttl + offset, ICacheKeyEnums.NEVER_TTL - 1);
+    }
+
+    /**
+     * 打散hashCode的低位，相近的key也能得到分散的偏移
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return (seconds > 0 ? seconds + "s" : percent + "%") + (deterministic ? ",deterministic" : "");
+    }
+}
@@ -0,0 +1,24 @@
+package com.duang.jedisclient.common;
+
+/**
+ * 写入时过期时间的处理策略
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public enum TtlPolicy {
+
+    /**
+     * 每次写入都刷新过期时间
+     */
+    REFRESH,
+    /**
+     * 只在key没有过期时间时才设置
+     */
+    IF_ABSENT,
+    /**
+     * 写入时不处理过期时间
+     * 注意：SET/SETEX会清除key原有的过期时间，以NEVER写入字符串后key不再过期(KEEPTTL需要Redis 6.0，jedis 3.3不支持)
+     */
+    NEVER,
+}
@@ -1,25 +1,106 @@
 package com.duang.jedisclient.core;
 
+import com.duang.jedisclient.common.CacheException;
 import com.duang.jedisclient.common.CacheKeyModel;
+import com.duang.jedisclient.common.LoadFallback;
 import com.duang.jedisclient.common.RedisConfig;
+import com.duang.jedisclient.common.TtlPolicy;
+import com.duang.jedisclient.metrics.CompressionStatsRegistry;
+import com.duang.jedisclient.metrics.MetricsRecorder;
+import com.duang.jedisclient.metrics.PoolMonitor;
+import com.duang.jedisclient.serializer.CompressingSerializer;
 import com.duang.jedisclient.serializer.ISerializer;
+import com.duang.jedisclient.utils.NumberParser;
+import com.duang.jedisclient.utils.Utf8;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import redis.clients.jedis.*;
+import redis.clients.jedis.params.SetParams;
+import redis.clients.jedis.util.Pool;
+import redis.clients.jedis.util.SafeEncoder;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 public abstract class AbstractRedis implements IJedisClient {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractRedis.class);
+
     protected final static String OK = "OK";
+    /**
+     * hscan/sscan/zscan每页默认建议返回的数量
+     */
+    protected final static int DEFAULT_SCAN_COUNT = 100;
+    /**
+     * key没有过期时间时才设置过期时间的lua脚本
+     */
+    private final static String EXPIRE_IF_ABSENT_SCRIPT =
+            "if redis.call('ttl', KEYS[1]) == -1 then return redis.call('expire', KEYS[1], ARGV[1]) end return 0";
+    /**
+     * 只删除自己持有的租约
+     */
+    private final static String RELEASE_LEASE_SCRIPT =
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end return 0";
+    /**
+     * getOrLoad租约key的后缀
+     */
+    private final static String LEASE_SUFFIX = ":lease";
+    /**
+     * 等待其它实例加载时读取缓存的间隔(毫秒)
+     */
+    private final static long LEASE_POLL_MILLIS = 50L;
+    /**
+     * 本进程内正在加载的key，同一个key同时只有一个线程执行加载
+     */
+    private final ConcurrentMap<String, FutureTask<Object>> loadingTasks = new ConcurrentHashMap<String, FutureTask<Object>>();
+    /**
+     * 正在后台提前刷新的key
+     */
+    private final Set<String> refreshingKeys = ConcurrentHashMap.newKeySet();
+    /**
+     * 提前刷新的线程池，第一次使用时创建
+     */
+    private volatile ThreadPoolExecutor refreshExecutor;
     protected JedisPool jedisPool;
     protected JedisSentinelPool jedisSentinelPool;
     protected JedisCluster jedisCluster;
     protected RedisConfig redisConfig;
     protected ISerializer serializer;
+    /**
+     * 度量数据记录，未启用度量时为null
+     */
+    protected MetricsRecorder metricsRecorder;
+    /**
+     * 链接池度量及自动调整，未启用时为null
+     */
+    protected PoolMonitor poolMonitor;
+    protected CompressionStatsRegistry compressionStatsRegistry;
+    /**
+     * Lua脚本注册表，缓存SHA1及各节点的加载状态
+     */
+    protected final ScriptRegistry scriptRegistry = new ScriptRegistry();
+    /**
+     * 内部使用的脚本，与registerScript注册的脚本一样以EVALSHA执行
+     */
+    protected final RedisScript expireIfAbsentScript = scriptRegistry.register(EXPIRE_IF_ABSENT_SCRIPT);
+    protected final RedisScript releaseLeaseScript = scriptRegistry.register(RELEASE_LEASE_SCRIPT);
 
     @Override
     public Jedis getResource() {
@@ -32,6 +113,34 @@ public abstract class AbstractRedis implements IJedisClient {
         return null;
     }
 
+    /**
+     * 从链接池取出链接，启用链接池度量时记录等待时间
+     */
+    protected Jedis borrowResource() {
+        if (null == poolMonitor) {
+            return getResource();
+        }
+        long startTime = System.nanoTime();
+        Jedis jedis = getResource();
+        poolMonitor.recordBorrow(jedis, System.nanoTime() - startTime);
+        return jedis;
+    }
+
+    /**
+     * 当前各节点的链接池，key为host:port
+     */
+    public Map<String, Pool<Jedis>> getPools() {
+        Map<String, Pool<Jedis>> pools = new LinkedHashMap<String, Pool<Jedis>>();
+        if (null != jedisCluster) {
+            pools.putAll(jedisCluster.getClusterNodes());
+        } else if (null != jedisPool && null != redisConfig.getNodeSet() && !redisConfig.getNodeSet().isEmpty()) {
+            pools.put(redisConfig.getNodeSet().iterator().next().toString(), jedisPool);
+        } else if (null != jedisSentinelPool && null != jedisSentinelPool.getCurrentHostMaster()) {
+            pools.put(jedisSentinelPool.getCurrentHostMaster().toString(), jedisSentinelPool);
+        }
+        return pools;
+    }
+
     public JedisCluster getClusterResource() {
         return jedisCluster;
     }
@@ -40,6 +149,55 @@ public abstract class AbstractRedis implements IJedisClient {
         return redisConfig;
     }
 
+    public MetricsRecorder getMetricsRecorder() {
+        return metricsRecorder;
+    }
+
+    public void setMetricsRecorder(MetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder;
+    }
+
+    public ScriptRegistry getScriptRegistry() {
+        return scriptRegistry;
+    }
+
+    @Override
+    public RedisScript registerScript(String script) {
+        return scriptRegistry.register(script);
+    }
+
+    public PoolMonitor getPoolMonitor() {
+        return poolMonitor;
+    }
+
+    public void setPoolMonitor(PoolMonitor poolMonitor) {
+        this.poolMonitor = poolMonitor;
+    }
+
+    public CompressionStatsRegistry getCompressionStatsRegistry() {
+        return compressionStatsRegistry;
+    }
+
+    public void setCompressionStatsRegistry(CompressionStatsRegistry compressionStatsRegistry) {
+        this.compressionStatsRegistry = compressionStatsRegistry;
+    }
+
+    /**
+     * 开始记录一次命令调用，未启用度量或嵌套调用时返回null
+     * @param action JedisAction/JedisClusterAction对象
+     * @param model 命令操作的CacheKeyModel，可以为null
+     */
+    protected MetricsRecorder.Scope beginMetrics(Object action, CacheKeyModel model) {
+        return null == metricsRecorder ? null : metricsRecorder.begin(action, model);
+    }
+
+    /**
+     * 多个key的命令按第一个CacheKeyModel的枚举分组
+     */
+    protected static CacheKeyModel first(CacheKeyModel... models) {
+        return (null == models || models.length == 0) ? null : models[0];
+    }
+
     public AbstractRedis(JedisPool jedisPool, RedisConfig redisConfig){
         this.jedisPool = jedisPool;
         this.redisConfig = redisConfig;
@@ -57,34 +215,119 @@ public abstract class AbstractRedis implements IJedisClient {
         this.redisConfig = redisConfig;
         this.serializer = redisConfig.getSerializer();
     }
+    /**
+     * key使用的序列化器，CacheKeyModel里没有指定时使用RedisConfig里的序列化器
+     * 指定的序列化器为CompressingSerializer且启用了JMX时，第一次使用时注册其压缩度量
+     * @param model 缓存key模型，为null时返回RedisConfig里的序列化器
+     * @return
+     */
+    protected ISerializer serializer(CacheKeyModel model) {
+        ISerializer keySerializer = null == model ? null : model.getSerializer();
+        if (null == keySerializer) {
+            return serializer;
+        }
+        CompressionStatsRegistry registry = compressionStatsRegistry;
+        if (null != registry && keySerializer instanceof CompressingSerializer) {
+            registry.register(((CompressingSerializer) keySerializer).getStats(), "serializer:" + model.getKeyPrefix());
+        }
+        return keySerializer;
+    }
+
     /**
      * 序列化key
      * @param key 要缓存的key值
      * @return
      */
     protected byte[] serializerKey(String key)  {
-        return serializer.serializerKey(key);
+        return serializerKey((CacheKeyModel) null, key);
     }
-    protected byte[] serializerField(String key)  {
-        return serializer.serializerField(key);
+
+    /**
+     * 按model的序列化器序列化key，用于hash的field等
+     * @param model 缓存key模型
+     * @param key 要序列化的值
+     * @return
+     */
+    protected byte[] serializerKey(CacheKeyModel model, String key)  {
+        byte[] bytes = serializer(model).serializerKey(key);
+        if (null != metricsRecorder) {
+            countBytesOut(bytes);
+        }
+        return bytes;
     }
 
-    protected String deSerializeKey(byte[] key)  {
-        return serializer.deSerializerKey(key);
+    /**
+     * 序列化缓存key，序列化器按UTF-8编码key时直接使用CacheKeyModel缓存的字节
+     * @param model 缓存key模型
+     * @return
+     */
+    protected byte[] serializerKey(CacheKeyModel model) {
+        if (!serializer(model).isUtf8Key()) {
+            return serializerKey(model, model.getKey());
+        }
+        byte[] bytes = model.getKeyBytes();
+        if (null != metricsRecorder) {
+            countBytesOut(bytes);
+        }
+        return bytes;
+    }
+
+    protected byte[] serializerField(CacheKeyModel model, String key)  {
+        byte[] bytes = serializer(model).serializerField(key);
+        if (null != metricsRecorder) {
+            countBytesOut(bytes);
+        }
+        return bytes;
     }
 
-    protected byte[][] serializerKeyArray(String... keys) {
+    protected String deSerializeKey(CacheKeyModel model, byte[] key)  {
+        if (null != metricsRecorder && null != key) {
+            MetricsRecorder.Scope scope = MetricsRecorder.current();
+            if (null != scope) {
+                scope.deserialized(0L, key.length);
+            }
+        }
+        return serializer(model).deSerializerKey(key);
+    }
+
+    private static void countBytesOut(byte[] bytes) {
+        MetricsRecorder.Scope scope = MetricsRecorder.current();
+        if (null != scope && null != bytes) {
+            scope.serialized(0L, bytes.length);
+        }
+    }
+
+    protected byte[][] serializerKeyArray(CacheKeyModel model, String... keys) {
         byte[][] result = new byte[keys.length][];
         for (int i=0; i<result.length; i++) {
-            result[i] = serializerKey(keys[i]);
+            result[i] = serializerKey(model, keys[i]);
         }
         return result;
     }
 
-    protected byte[][] serializerValueArray(Object... keys) {
-        byte[][] result = new byte[keys.length][];
+    /**
+     * 序列化多个CacheKeyModel的key，每个key按各自的序列化器
+     */
+    protected byte[][] serializerKeyArray(CacheKeyModel... models) {
+        byte[][] result = new byte[models.length][];
         for (int i=0; i<result.length; i++) {
-            result[i] = serializerValue(keys[i]);
+            result[i] = serializerKey(models[i]);
+        }
+        return result;
+    }
+
+    protected String[] getKeys(CacheKeyModel... models) {
+        String[] keys = new String[models.length];
+        for (int i=0; i<keys.length; i++) {
+            keys[i] = models[i].getKey();
+        }
+        return keys;
+    }
+
+    protected byte[][] serializerValueArray(CacheKeyModel model, Object... values) {
+        byte[][] result = new byte[values.length][];
+        for (int i=0; i<result.length; i++) {
+            result[i] = serializerValue(model, values[i]);
         }
         return result;
     }
@@ -92,45 +335,481 @@ public abstract class AbstractRedis implements IJedisClient {
 
     /**
      * 序列化value
+     * @param model 缓存key模型，按其序列化器序列化
      * @param value 要缓存的value值
      * @return
      */
-    protected byte[] serializerValue(Object value) {
+    protected byte[] serializerValue(CacheKeyModel model, Object value) {
 //        return SafeEncoder.encode((String)value);
-        return serializer.serializerValue(value);
+        ISerializer serializer = serializer(model);
+        MetricsRecorder.Scope scope = null == metricsRecorder ? null : MetricsRecorder.current();
+        if (null == scope) {
+            return serializer.serializerValue(value);
+        }
+        long startTime = System.nanoTime();
+        byte[] bytes = serializer.serializerValue(value);
+        scope.serialized(System.nanoTime() - startTime, null == bytes ? 0 : bytes.length);
+        return bytes;
     }
 
     /**
      * 反序列化value
+     * @param model 缓存key模型，按其序列化器反序列化
      * @param bytes 要反序列化的字节数组
      * @return
      */
-    protected <T> T deSerializeValue(byte[] bytes, Class<T> type) {
-        return  (String.class.equals(type)) ? (T)new String(bytes) : serializer.deSerializerValue(bytes, type);
+    protected <T> T deSerializeValue(CacheKeyModel model, byte[] bytes, Class<T> type) {
+        MetricsRecorder.Scope scope = null == metricsRecorder ? null : MetricsRecorder.current();
+        if (null == scope) {
+            return doDeSerializeValue(model, bytes, type);
+        }
+        long startTime = System.nanoTime();
+        T value = doDeSerializeValue(model, bytes, type);
+        scope.deserialized(System.nanoTime() - startTime, null == bytes ? 0 : bytes.length);
+        return value;
+    }
+
+    /**
+     * RedisConfig里的序列化器读取String时直接按UTF-8解码；
+     * CacheKeyModel指定了序列化器时都交给该序列化器，如压缩或JDK序列化写入的字符串需要先还原
+     */
+    private <T> T doDeSerializeValue(CacheKeyModel model, byte[] bytes, Class<T> type) {
+        if (null == bytes) {
+            return null;
+        }
+        if (String.class.equals(type) && (null == model || null == model.getSerializer())) {
+            return (T) Utf8.decode(bytes);
+        }
+        return serializer(model).deSerializerValue(bytes, type);
+    }
+
+    /**
+     * 原样写入的字节，不经过序列化器，只记录发送字节数
+     */
+    protected byte[] rawValue(byte[] value) {
+        if (null != metricsRecorder) {
+            countBytesOut(value);
+        }
+        return value;
+    }
+
+    /**
+     * 按UTF-8编码字符串，不经过序列化器
+     */
+    protected byte[] encodeString(CharSequence value) {
+        return rawValue(Utf8.encode(value));
     }
 
-    protected <T> List<T> toValueList(List<byte[]> data, Class<T> type) {
+    /**
+     * 原样读取的字节，不经过序列化器，只记录接收字节数
+     */
+    protected byte[] readRaw(byte[] bytes) {
+        if (null != bytes) {
+            countBytesIn(bytes);
+        }
+        return bytes;
+    }
+
+    protected List<byte[]> serializerKeyList(List<CacheKeyModel> models) {
+        List<byte[]> result = new ArrayList<byte[]>();
+        if (null != models) {
+            for (CacheKeyModel model : models) {
+                result.add(serializerKey(model));
+            }
+        }
+        return result;
+    }
+
+    protected List<byte[]> serializerValueList(CacheKeyModel model, Object... values) {
+        List<byte[]> result = new ArrayList<byte[]>();
+        if (null != values) {
+            for (Object value : values) {
+                result.add(serializerValue(model, value));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 转换脚本的返回值，字符串按type反序列化，列表逐个转换，整数原样返回
+     * @param type 为null或byte[].class时不反序列化
+     */
+    protected Object toScriptResult(CacheKeyModel model, Object result, Class<?> type) {
+        if (result instanceof byte[]) {
+            return (null == type || byte[].class.equals(type)) ? result : deSerializeValue(model, (byte[]) result, type);
+        }
+        if (result instanceof List) {
+            List<Object> list = new ArrayList<Object>();
+            for (Object item : (List<?>) result) {
+                list.add(toScriptResult(model, item, type));
+            }
+            return list;
+        }
+        return result;
+    }
+
+    protected <T> List<T> toValueList(CacheKeyModel model, List<byte[]> data, Class<T> type) {
         if (null == data) {
             return null;
         }
         List<T> result = new ArrayList<T>();
         for (byte[] d : data) {
-            result.add(deSerializeValue(d, type));
+            result.add(deSerializeValue(model, d, type));
         }
         return result;
     }
 
-    protected <T> Set<T> toValueSet(Set<byte[]> data, Class<T> type) {
+    protected <T> Set<T> toValueSet(CacheKeyModel model, Set<byte[]> data, Class<T> type) {
         if (null == data) {
             return null;
         }
         Set<T> result = new HashSet<T>();
         for (byte[] d : data) {
-            result.add(deSerializeValue(d, type));
+            result.add(deSerializeValue(model, d, type));
         }
         return result;
     }
 
+    /**
+     * 取出缓存，不存在时调用loader加载并写入缓存
+     * 本进程内同一个key同时只有一个线程执行loader，其它线程等待并共用其结果；
+     * 配置了loadLeaseMillis时，加载前先在Redis上取得租约(SET NX PX)，多个实例同时未命中时只有一个实例执行loader，
+     * 其它实例按loadFallback等待、自行加载或返回null。loader返回null时不写入缓存
+     * @param model CacheKeyModel对象
+     * @param type 值的类型
+     * @param loader 缓存不存在时的加载方法，如查询数据库
+     * @return
+     */
+    @Override
+    public <T> T getOrLoad(final CacheKeyModel model, final Class<T> type, final Supplier<T> loader) {
+        T value;
+        double refreshAheadRatio = model.getRefreshAheadRatio();
+        if (refreshAheadRatio > 0) {
+            ValueTtl<T> current = getWithTtl(model, type);
+            value = null == current ? null : current.value;
+            if (null != value && current.pttl >= 0 && current.pttl < model.getKeyTTL() * 1000L * refreshAheadRatio) {
+                refreshAhead(model, loader);
+            }
+        } else {
+            value = get(model, type);
+        }
+        if (null != value) {
+            return value;
+        }
+        final String key = model.getKey();
+        FutureTask<Object> task = new FutureTask<Object>(() -> loadOnce(model, type, loader));
+        FutureTask<Object> loading = loadingTasks.putIfAbsent(key, task);
+        if (null == loading) {
+            loading = task;
+            try {
+                task.run();
+            } finally {
+                loadingTasks.remove(key, task);
+            }
+        }
+        try {
+            return type.cast(loading.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CacheException("等待加载[" + key + "]时被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new CacheException("加载[" + key + "]时出错: " + cause.getMessage(), cause);
+        }
+    }
+
+    private <T> T loadOnce(CacheKeyModel model, Class<T> type, Supplier<T> loader) {
+        // 等待期间其它线程可能已经写入
+        T value = get(model, type);
+        if (null != value) {
+            return value;
+        }
+        long leaseMillis = redisConfig.getLoadLeaseMillis();
+        if (leaseMillis <= 0) {
+            return loadAndSet(model, loader);
+        }
+        String leaseKey = model.getKey() + LEASE_SUFFIX;
+        String token = UUID.randomUUID().toString();
+        if (tryLease(leaseKey, token, leaseMillis)) {
+            try {
+                return loadAndSet(model, loader);
+            } finally {
+                releaseLease(leaseKey, token);
+            }
+        }
+        LoadFallback fallback = redisConfig.getLoadFallback();
+        if (LoadFallback.NONE.equals(fallback)) {
+            return null;
+        }
+        if (LoadFallback.WAIT.equals(fallback)) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(redisConfig.getLoadWaitMillis());
+            while (System.nanoTime() < deadline) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(LEASE_POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CacheException("等待加载[" + model.getKey() + "]时被中断", e);
+                }
+                value = get(model, type);
+                if (null != value) {
+                    return value;
+                }
+            }
+        }
+        return loadAndSet(model, loader);
+    }
+
+    /**
+     * 在后台线程重新加载并写入缓存，同一个key同时只有一个刷新任务，
+     * 配置了租约时只有取得租约的实例执行刷新，线程池已满时放弃本次刷新
+     */
+    private <T> void refreshAhead(final CacheKeyModel model, final Supplier<T> loader) {
+        final String key = model.getKey();
+        if (loadingTasks.containsKey(key) || !refreshingKeys.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor().execute(() -> {
+                try {
+                    long leaseMillis = redisConfig.getLoadLeaseMillis();
+                    if (leaseMillis <= 0) {
+                        loadAndSet(model, loader);
+                        return;
+                    }
+                    String leaseKey = key + LEASE_SUFFIX;
+                    String token = UUID.randomUUID().toString();
+                    if (tryLease(leaseKey, token, leaseMillis)) {
+                        try {
+                            loadAndSet(model, loader);
+                        } finally {
+                            releaseLease(leaseKey, token);
+                        }
+                    }
+                } catch (Exception e) {
+                    LOGGER.warn("提前刷新[" + key + "]时出错: " + e.getMessage(), e);
+                } finally {
+                    refreshingKeys.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshingKeys.remove(key);
+            LOGGER.debug("提前刷新的任务已满，放弃刷新[{}]", key);
+        }
+    }
+
+    private ThreadPoolExecutor refreshExecutor() {
+        ThreadPoolExecutor executor = refreshExecutor;
+        if (null == executor) {
+            synchronized (this) {
+                executor = refreshExecutor;
+                if (null == executor) {
+                    final String namePrefix = "jedis-refresh-" + redisConfig.getAppId() + "-";
+                    final AtomicInteger index = new AtomicInteger();
+                    int threads = Math.max(1, redisConfig.getRefreshAheadThreads());
+                    executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                            new ArrayBlockingQueue<Runnable>(Math.max(1, redisConfig.getRefreshAheadQueueSize())), new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            Thread thread = new Thread(runnable, namePrefix + index.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    }, new ThreadPoolExecutor.AbortPolicy());
+                    executor.allowCoreThreadTimeOut(true);
+                    refreshExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * 关闭提前刷新的线程池
+     */
+    public void shutdown() {
+        ThreadPoolExecutor executor = refreshExecutor;
+        if (null != executor) {
+            executor.shutdown();
+        }
+    }
+
+    private <T> T loadAndSet(CacheKeyModel model, Supplier<T> loader) {
+        T value = loader.get();
+        if (null != value) {
+            set(model, value);
+        }
+        return value;
+    }
+
+    /**
+     * 在一次网络往返里取出值及剩余过期时间(GET + PTTL)
+     * @return 出错时返回null
+     */
+    protected abstract <T> ValueTtl<T> getWithTtl(CacheKeyModel model, Class<T> type);
+
+    /**
+     * 把Redis返回的字节解析为long，存入当前线程的NumberReply
+     * 十进制数字直接解析，其它格式(如JdkSerializer序列化的Long)交给序列化器
+     * @return 字节为null(key不存在)时返回false
+     */
+    protected Boolean readLong(CacheKeyModel model, byte[] bytes) {
+        if (null == bytes) {
+            return Boolean.FALSE;
+        }
+        long value;
+        if (NumberParser.isLong(bytes)) {
+            countBytesIn(bytes);
+            value = NumberParser.parseLong(bytes);
+        } else {
+            Long result = deSerializeValue(model, bytes, Long.class);
+            if (null == result) {
+                return Boolean.FALSE;
+            }
+            value = result;
+        }
+        NUMBER_REPLY.get().longValue = value;
+        return Boolean.TRUE;
+    }
+
+    /**
+     * 把Redis返回的字节解析为double，存入当前线程的NumberReply
+     * @return 字节为null(key不存在)时返回false
+     */
+    protected Boolean readDouble(CacheKeyModel model, byte[] bytes) {
+        if (null == bytes) {
+            return Boolean.FALSE;
+        }
+        double value;
+        if (NumberParser.isDouble(bytes)) {
+            countBytesIn(bytes);
+            value = NumberParser.parseDouble(bytes);
+        } else {
+            Double result = deSerializeValue(model, bytes, Double.class);
+            if (null == result) {
+                return Boolean.FALSE;
+            }
+            value = result;
+        }
+        NUMBER_REPLY.get().doubleValue = value;
+        return Boolean.TRUE;
+    }
+
+    /**
+     * readLong成功时返回解析的值，否则返回defaultValue
+     */
+    protected static long longReply(Boolean found, long defaultValue) {
+        return Boolean.TRUE.equals(found) ? NUMBER_REPLY.get().longValue : defaultValue;
+    }
+
+    /**
+     * readDouble成功时返回解析的值，否则返回defaultValue
+     */
+    protected static double doubleReply(Boolean found, double defaultValue) {
+        return Boolean.TRUE.equals(found) ? NUMBER_REPLY.get().doubleValue : defaultValue;
+    }
+
+    private void countBytesIn(byte[] bytes) {
+        if (null != metricsRecorder) {
+            MetricsRecorder.Scope scope = MetricsRecorder.current();
+            if (null != scope) {
+                scope.deserialized(0L, bytes.length);
+            }
+        }
+    }
+
+    /**
+     * 数值命令的结果，每个线程复用一个，call返回Boolean常量表示是否取到值，数值本身不需要装箱
+     */
+    private static final class NumberReply {
+        private long longValue;
+        private double doubleValue;
+    }
+
+    private static final ThreadLocal<NumberReply> NUMBER_REPLY = new ThreadLocal<NumberReply>() {
+        @Override
+        protected NumberReply initialValue() {
+            return new NumberReply();
+        }
+    };
+
+    /**
+     * 值及剩余过期时间
+     */
+    protected static class ValueTtl<T> {
+        final T value;
+        /**
+         * 剩余过期时间(毫秒)，没有过期时间时为-1，key不存在时为-2
+         */
+        final long pttl;
+
+        protected ValueTtl(T value, long pttl) {
+            this.value = value;
+            this.pttl = pttl;
+        }
+    }
+
+    /**
+     * 取得getOrLoad的租约
+     * @param leaseKey 租约key
+     * @param token 本次加载的标识，释放时校验
+     * @param leaseMillis 租约时长(毫秒)
+     * @return 取得租约返回true
+     */
+    protected abstract boolean tryLease(String leaseKey, String token, long leaseMillis);
+
+    /**
+     * 释放getOrLoad的租约，租约已过期或被其它实例持有时不处理
+     */
+    protected abstract void releaseLease(String leaseKey, String token);
+
+    /**
+     * 按CacheKeyModel的过期策略，将设置过期时间的命令加入到写命令所在的pipeline中，
+     * 与写命令在同一次网络往返里完成
+     * @param pipeline 写命令所在的pipeline
+     * @param key 要设置过期时间的key
+     * @param model CacheKeyModel对象
+     * @return 过期命令的Response，不需要设置过期时间时返回null
+     */
+    protected Response<?> expire(Pipeline pipeline, byte[] key, CacheKeyModel model) {
+        int ttl = model.getWriteTTL(key);
+        if (ttl <= 0 || TtlPolicy.NEVER.equals(model.getTtlPolicy())) {
+            return null;
+        }
+        if (TtlPolicy.IF_ABSENT.equals(model.getTtlPolicy())) {
+            List<byte[]> keys = Collections.singletonList(key);
+            List<byte[]> args = Collections.singletonList(Protocol.toByteArray(ttl));
+            if (pipeline instanceof NodePipeline) {
+                return scriptRegistry.evalsha((NodePipeline) pipeline, expireIfAbsentScript, keys, args);
+            }
+            return pipeline.eval(expireIfAbsentScript.getScriptBytes(), keys, args);
+        }
+        return pipeline.expire(key, ttl);
+    }
+
+    /**
+     * 创建jedis所在节点的pipeline，expire等方法需要按节点记录脚本的加载状态
+     * 集群ASK重定向后重试时，每条命令前自动发送ASKING
+     */
+    protected Pipeline pipelined(Jedis jedis) {
+        return new NodePipeline(jedis);
+    }
+
+    /**
+     * SET命令的参数，SET会清除原有的过期时间，所以除NEVER外都带上过期时间
+     * NEVER时SET同样会清除key原有的过期时间，写入后key不会过期(KEEPTTL需要Redis 6.0，jedis 3.3不支持)
+     * @param model CacheKeyModel对象
+     * @return
+     */
+    protected SetParams setParams(CacheKeyModel model) {
+        if (TtlPolicy.NEVER.equals(model.getTtlPolicy())) {
+            return SetParams.setParams();
+        }
+        return SetParams.setParams().ex(model.getWriteTTL());
+    }
+
     protected String[] getCacheModelKeyArray(CacheKeyModel... cacheKeyModels) {
         if (null == cacheKeyModels) {
             return null;
@@ -0,0 +1,567 @@
+package com.duang.jedisclient.core;
+
+import com.duang.jedisclient.common.CacheException;
+import com.duang.jedisclient.common.CacheKeyModel;
+import com.duang.jedisclient.common.KeyValueParam;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 异步客户端
+ * 将IJedisClient的同步调用提交到有界线程池中执行，线程数即同时占用的最大链接数；
+ * 在JDK21及以上版本可以使用虚拟线程执行，此时通过信号量限制同时占用的链接数及等待执行的命令数
+ * 异步命令与同步调用共用同一个链接池，maxConnections应小于链接池的maxTotal，为同步调用留出链接
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class AsyncJedisClient implements IAsyncJedisClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncJedisClient.class);
+
+    private final IJedisClient client;
+    private final ExecutorService executor;
+    /**
+     * 使用虚拟线程时的链接预算，同时执行的命令数不超过该值；使用线程池时由线程数限制，为null
+     */
+    private final Semaphore connectionPermits;
+    /**
+     * 使用虚拟线程时执行中及等待执行的命令数上限(maxConnections + queueSize)；使用线程池时由队列限制，为null
+     */
+    private final Semaphore taskPermits;
+
+    /**
+     * @param client 同步客户端
+     * @param maxConnections 同时占用的最大链接数，同时也是线程池的线程数
+     * @param queueSize 等待执行的最大命令数，超出时返回的CompletableFuture以异常结束
+     * @param virtualThreads 是否使用虚拟线程(需要JDK21及以上版本，不支持时使用线程池)
+     */
+    public AsyncJedisClient(IJedisClient client, int maxConnections, int queueSize, boolean virtualThreads) {
+        this.client = client;
+        ExecutorService virtualExecutor = virtualThreads ? newVirtualThreadExecutor() : null;
+        this.connectionPermits = (null != virtualExecutor) ? new Semaphore(maxConnections) : null;
+        this.taskPermits = (null != virtualExecutor) ? new Semaphore(maxConnections + queueSize) : null;
+        this.executor = (null != virtualExecutor) ? virtualExecutor : newBoundedExecutor(client, maxConnections, queueSize);
+    }
+
+    private static ExecutorService newBoundedExecutor(IJedisClient client, int maxConnections, int queueSize) {
+        final String namePrefix = "jedis-async-" + client.getRedisConfig().getAppId() + "-";
+        return new ThreadPoolExecutor(maxConnections, maxConnections, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(queueSize), new ThreadFactory() {
+            private final AtomicInteger index = new AtomicInteger();
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, namePrefix + index.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (Exception e) {
+            LOGGER.warn("当前JDK不支持虚拟线程，使用线程池执行异步命令");
+            return null;
+        }
+    }
+
+    /**
+     * 关闭线程池，已提交的命令会继续执行完成
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public IJedisClient getClient() {
+        return client;
+    }
+
+    private <T> CompletableFuture<T> supply(final Supplier<T> supplier) {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        if (null != taskPermits && !taskPermits.tryAcquire()) {
+            future.completeExceptionally(new CacheException("异步命令队列已满"));
+            return future;
+        }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (null == connectionPermits) {
+                            future.complete(supplier.get());
+                            return;
+                        }
+                        connectionPermits.acquire();
+                        try {
+                            future.complete(supplier.get());
+                        } finally {
+                            connectionPermits.release();
+                        }
+                    } catch (Throwable e) {
+                        future.completeExceptionally(e);
+                    } finally {
+                        if (null != taskPermits) {
+                            taskPermits.release();
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (null != taskPermits) {
+                taskPermits.release();
+            }
+            future.completeExceptionally(new CacheException("异步命令队列已满: " + e.getMessage(), e));
+        }
+        return future;
+    }
+
+    /*************************** Redis里的方法 ************************/
+
+    @Override
+    public <T> CompletableFuture<T> get(final CacheKeyModel model, final Class<T> type) {
+        return supply(() -> client.<T>get(model, type));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getOrLoad(final CacheKeyModel model, final Class<T> type, final Supplier<T> loader) {
+        return supply(() -> client.getOrLoad(model, type, loader));
+    }
+
+    @Override
+    public CompletableFuture<String> type(final CacheKeyModel model) {
+        return supply(() -> client.type(model));
+    }
+
+    @Override
+    @Deprecated
+    public CompletableFuture<Set<String>> keys(final String pattern) {
+        return supply(() -> client.keys(pattern));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> set(final CacheKeyModel model, final Object value) {
+        return supply(() -> client.set(model, value));
+    }
+
+    @Override
+    public CompletableFuture<byte[]> getBytes(final CacheKeyModel model) {
+        return supply(() -> client.getBytes(model));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setBytes(final CacheKeyModel model, final byte[] value) {
+        return supply(() -> client.setBytes(model, value));
+    }
+
+    @Override
+    public CompletableFuture<String> getString(final CacheKeyModel model) {
+        return supply(() -> client.getString(model));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setString(final CacheKeyModel model, final CharSequence value) {
+        return supply(() -> client.setString(model, value));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(final CacheKeyModel model) {
+        return supply(() -> client.exists(model));
+    }
+
+    @Override
+    public CompletableFuture<String> rename(final CacheKeyModel oldModel, final CacheKeyModel newModel) {
+        return supply(() -> client.rename(oldModel, newModel));
+    }
+
+    @Override
+    public <T> CompletableFuture<Set<T>> zrangeByScore(final CacheKeyModel model, final Double min, final Double max, final Class<T> type) {
+        return supply(() -> client.<T>zrangeByScore(model, min, max, type));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> sismember(final CacheKeyModel model, final Object value) {
+        return supply(() -> client.sismember(model, value));
+    }
+
+    @Override
+    public CompletableFuture<Double> hincrByFloat(final CacheKeyModel model, final String field, final Double value) {
+        return supply(() -> client.hincrByFloat(model, field, value));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> rpoplpush(final CacheKeyModel sourceModel, final CacheKeyModel destModel, final Class<T> type) {
+        return supply(() -> client.<T>rpoplpush(sourceModel, destModel, type));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> srandmember(final CacheKeyModel model, final Class<T> type) {
+        return supply(() -> client.<T>srandmember(model, type));
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> srandmember(final CacheKeyModel model, final Integer count, final Class<T> type) {
+        return supply(() -> client.<T>srandmember(model, count, type));
+    }
+
+    @Override
+    public <T> CompletableFuture<Set<T>> zrevrange(final CacheKeyModel model, final Long start, final Long end, final Class<T> type) {
+        return supply(() -> client.<T>zrevrange(model, start, end, type));
+    }
+
+    @Override
+    public CompletableFuture<Long> llen(final CacheKeyModel model) {
+        return supply(() -> client.llen(model));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> mset(final CacheKeyModel model, final List<KeyValueParam> keysValues) {
+        return supply(() -> client.mset(model, keysValues));
+    }
+
+    @Override
+    public CompletableFuture<Long> decr(final CacheKeyModel model) {
+        return supply(() -> client.decr(model));
+    }
+
+    @Override
+    public CompletableFuture<Long> hset(final CacheKeyModel model, final String field, final Object value) {
+        return supply(() -> client.hset(model, field, value));
+    }
+
+    @Override
+    public CompletableFuture<Long> decrBy(final CacheKeyModel model, final Long longValue) {
+        return supply(() -> client.decrBy(model, longValue));
+    }
+
+    @Override
+    public CompletableFuture<Long> incr(final CacheKeyModel model) {
+        return supply(() -> client.incr(model));
+    }
+
+    @Override
+    public <T> CompletableFuture<Map<String,T>> hgetAll(final CacheKeyModel model, final Class<T> type) {
+        return supply(() -> client.<T>hgetAll(model, type));
+    }
+
+    @Override
+    public CompletableFuture<Long> incrBy(final CacheKeyModel model, final Long longValue) {
+        return supply(() -> client.incrBy(model, longValue));
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> hkeys(final CacheKeyModel model) {
+        return supply(() -> client.hkeys(model));
+    }
+
+    @Override
+    public CompletableFuture<Long> expire(final CacheKeyModel model) {
+        return supply(() -> client.expire(model));
+    }
+
+    @Override
+    public CompletableFuture<Long> persist(final CacheKeyModel model) {
+        return supply(() -> client.persist(model));
+    }
+
+    @Override
+    public CompletableFuture<Long> del(final CacheKeyModel model) {
+        return supply(() -> client.del(model));
+    }
+
+    @Override
+    public CompletableFuture<Long> del(final CacheKeyModel... models) {
+        return supply(() -> client.del(models));
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> mget(final Class<T> type, final String... keys) {
+        return supply(() -> client.<T>mget(type, keys));
+    }
+
+    @Override
+    public CompletableFuture<Long> ttl(final CacheKeyModel model) {
+        return supply(() -> client.ttl(model));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getSet(final CacheKeyModel model, final Class<T> type, final Object value) {
+        return supply(() -> client.<T>getSet(model, type, value));
+    }
+
+    @Override
+    public CompletableFuture<Long> lpush(final CacheKeyModel model, final Object... values) {
+        return supply(() -> client.lpush(model, values));
+    }
+
+    @Override
+    public CompletableFuture<Long> lpush(final CacheKeyModel model, final Object value) {
+        return supply(() -> client.lpush(model, value));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hmset(final CacheKeyModel model, final Map<String, Object> values) {
+        return supply(() -> client.hmset(model, values));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hexists(final CacheKeyModel model, final String field) {
+        return supply(() -> client.hexists(model, field));
+    }
+
+    @Override
+    public CompletableFuture<Long> hlen(final CacheKeyModel model) {
+        return supply(() -> client.hlen(model));
+    }
+
+    @Override
+    public CompletableFuture<String> setex(final CacheKeyModel model, final Object value) {
+        return supply(() -> client.setex(model, value));
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> hvals(final CacheKeyModel model, final Class<T> type) {
+        return supply(() -> client.<T>hvals(model, type));
+    }
+
+    @Override
+    public CompletableFuture<Long> hincrBy(final CacheKeyModel model, final String field, final Long value) {
+        return supply(() -> client.hincrBy(model, field, value));
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> hmget(final CacheKeyModel model, final Class<T> type, final String... fields) {
+        return supply(() -> client.<T>hmget(model, type, fields));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> hget(final CacheKeyModel model, final Class<T> type, final String field) {
+        return supply(() -> client.<T>hget(model, type, field));
+    }
+
+    @Override
+    public CompletableFuture<Long> hdel(final CacheKeyModel model, final String... fields) {
+        return supply(() -> client.hdel(model, fields));
+    }
+
+    @Override
+    public CompletableFuture<Integer> lindex(final CacheKeyModel model, final Long index) {
+        return supply(() -> client.lindex(model, index));
+    }
+
+    @Override
+    public CompletableFuture<Long> sadd(final CacheKeyModel model, final Object... values) {
+        return supply(() -> client.sadd(model, values));
+    }
+
+    @Override
+    public CompletableFuture<String> ltrim(final CacheKeyModel model, final Integer start, final Integer end) {
+        return supply(() -> client.ltrim(model, start, end));
+    }
+
+    @Override
+    public CompletableFuture<Long> lpop(final CacheKeyModel model) {
+        return supply(() -> client.lpop(model));
+    }
+
+    @Override
+    public CompletableFuture<Long> rpush(final CacheKeyModel model, final Object... value) {
+        return supply(() -> client.rpush(model, value));
+    }
+
+    @Override
+    public CompletableFuture<String> ping() {
+        return supply(() -> client.ping());
+    }
+
+    @Override
+    public <T> CompletableFuture<Set<T>> smembers(final CacheKeyModel model, final Class<T> type) {
+        return supply(() -> client.<T>smembers(model, type));
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> blpop(final Integer timeout, final Class<T> type, final String... keys) {
+        return supply(() -> client.<T>blpop(timeout, type, keys));
+    }
+
+    @Override
+    public <T> CompletableFuture<Set<T>> zrange(final CacheKeyModel model, final Long start, final Long end, final Class<T> type) {
+        return supply(() -> client.<T>zrange(model, start, end, type));
+    }
+
+    @Override
+    public CompletableFuture<Long> zrem(final CacheKeyModel model, final Object... members) {
+        return supply(() -> client.zrem(model, members));
+    }
+
+    @Override
+    public <T> CompletableFuture<Set<T>> sinter(final Class<T> type, final CacheKeyModel... cacheKeyModels) {
+        return supply(() -> client.<T>sinter(type, cacheKeyModels));
+    }
+
+    @Override
+    public CompletableFuture<Double> zscore(final CacheKeyModel model, final Object members) {
+        return supply(() -> client.zscore(model, members));
+    }
+
+    @Override
+    public CompletableFuture<Long> getLong(final CacheKeyModel model, final long defaultValue) {
+        return supply(() -> client.getLong(model, defaultValue));
+    }
+
+    @Override
+    public CompletableFuture<Double> getDouble(final CacheKeyModel model, final double defaultValue) {
+        return supply(() -> client.getDouble(model, defaultValue));
+    }
+
+    @Override
+    public CompletableFuture<Long> hgetLong(final CacheKeyModel model, final String field, final long defaultValue) {
+        return supply(() -> client.hgetLong(model, field, defaultValue));
+    }
+
+    @Override
+    public CompletableFuture<Long> lindexLong(final CacheKeyModel model, final long index, final long defaultValue) {
+        return supply(() -> client.lindexLong(model, index, defaultValue));
+    }
+
+    @Override
+    public CompletableFuture<Double> zscoreDouble(final CacheKeyModel model, final Object member, final double defaultValue) {
+        return supply(() -> client.zscoreDouble(model, member, defaultValue));
+    }
+
+    @Override
+    public CompletableFuture<String> flushDB() {
+        return supply(() -> client.flushDB());
+    }
+
+    @Override
+    public CompletableFuture<Long> lrem(final CacheKeyModel model, final Long count, final Object value) {
+        return supply(() -> client.lrem(model, count, value));
+    }
+
+    @Override
+    public CompletableFuture<Long> zrank(final CacheKeyModel model, final Object member) {
+        return supply(() -> client.zrank(model, member));
+    }
+
+    @Override
+    public CompletableFuture<Long> zadd(final CacheKeyModel model, final Double score, final Object value) {
+        return supply(() -> client.zadd(model, score, value));
+    }
+
+    @Override
+    public CompletableFuture<Long> zadd(final CacheKeyModel model, final Map<Object, Double> scoreMembers) {
+        return supply(() -> client.zadd(model, scoreMembers));
+    }
+
+    @Override
+    public CompletableFuture<Long> zrevrank(final CacheKeyModel model, final Object member) {
+        return supply(() -> client.zrevrank(model, member));
+    }
+
+    @Override
+    public CompletableFuture<String> flushAll() {
+        return supply(() -> client.flushAll());
+    }
+
+    @Override
+    public CompletableFuture<Long> zcard(final CacheKeyModel model) {
+        return supply(() -> client.zcard(model));
+    }
+
+    @Override
+    public <T> CompletableFuture<Set<T>> sdiff(final Class<T> type, final CacheKeyModel... cacheKeyModels) {
+        return supply(() -> client.<T>sdiff(type, cacheKeyModels));
+    }
+
+    @Override
+    public CompletableFuture<String> rpop(final CacheKeyModel model) {
+        return supply(() -> client.rpop(model));
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> lrange(final CacheKeyModel model, final Class<T> type, final Integer start, final Integer end) {
+        return supply(() -> client.<T>lrange(model, type, start, end));
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> lrange(final CacheKeyModel model, final Class<T> type, final Long start, final Long end) {
+        return supply(() -> client.<T>lrange(model, type, start, end));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> spop(final CacheKeyModel model, final Class<T> type) {
+        return supply(() -> client.<T>spop(model, type));
+    }
+
+    @Override
+    public <T> CompletableFuture<Set<T>> sunion(final Class<T> type, final CacheKeyModel... cacheKeyModels) {
+        return supply(() -> client.<T>sunion(type, cacheKeyModels));
+    }
+
+    @Override
+    public CompletableFuture<String> lset(final CacheKeyModel model, final Long index, final Object value) {
+        return supply(() -> client.lset(model, index, value));
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> brpop(final Integer timeout, final Class<T> type, final String... keys) {
+        return supply(() -> client.<T>brpop(timeout, type, keys));
+    }
+
+    @Override
+    public CompletableFuture<Long> srem(final CacheKeyModel model, final String... members) {
+        return supply(() -> client.srem(model, members));
+    }
+
+    @Override
+    public CompletableFuture<Long> scard(final CacheKeyModel model) {
+        return supply(() -> client.scard(model));
+    }
+
+    @Override
+    public CompletableFuture<Long> zcount(final CacheKeyModel model, final Double min, final Double max) {
+        return supply(() -> client.zcount(model, min, max));
+    }
+
+    @Override
+    public CompletableFuture<Double> zincrby(final CacheKeyModel model, final Double score, final Object member) {
+        return supply(() -> client.zincrby(model, score, member));
+    }
+
+    @Override
+    public CompletableFuture<Long> publish(final String channel, final String message) {
+        return supply(() -> client.publish(channel, message));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> scriptLoad(final String script, final String... sampleKey) {
+        return supply(() -> client.<T>scriptLoad(script, sampleKey));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> evalSha(final String sha, final int keyCount, final String... values) {
+        return supply(() -> client.<T>evalSha(sha, keyCount, values));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> eval(final RedisScript script, final Class<?> type, final List<CacheKeyModel> models, final Object... args) {
+        return supply(() -> client.<T>eval(script, type, models, args));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> pipelined(final JedisBatchAction action) {
+        return supply(() -> client.pipelined(action));
+    }
+}
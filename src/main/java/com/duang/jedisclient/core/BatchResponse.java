@@ -0,0 +1,113 @@
+package com.duang.jedisclient.core;
+
+import com.duang.jedisclient.common.CacheException;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisRedirectionException;
+
+/**
+ * 批量(pipeline)命令的延迟结果
+ * 需要在 pipelined 方法返回后才能调用 get() 取值
+ *
+ * @param <T> 结果泛型对象
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public abstract class BatchResponse<T> {
+
+    /**
+     * 命令对应的key，集群时用于计算hash slot
+     */
+    private final byte[] key;
+    private Response<?> response;
+    private T data;
+    private Exception error;
+    private boolean done;
+    /**
+     * 集群返回的MOVED/ASK重定向信息，重试时使用
+     */
+    private JedisRedirectionException redirection;
+
+    protected BatchResponse(byte[] key) {
+        this.key = key;
+    }
+
+    /**
+     * 将命令加入到pipeline中
+     * @param pipeline  pipeline对象
+     * @return 需要取值的Response
+     */
+    protected abstract Response<?> queue(Pipeline pipeline);
+
+    /**
+     * 将Redis返回的原始结果转换成最终结果
+     * @param raw  原始结果
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    protected T build(Object raw) {
+        return (T) raw;
+    }
+
+    byte[] getKey() {
+        return key;
+    }
+
+    JedisRedirectionException getRedirection() {
+        return redirection;
+    }
+
+    void queueTo(Pipeline pipeline) {
+        response = queue(pipeline);
+    }
+
+    /**
+     * pipeline sync后取出结果
+     * @return false 如果集群返回了重定向，需要重试
+     */
+    boolean resolve() {
+        try {
+            data = build(response.get());
+            redirection = null;
+            done = true;
+        } catch (JedisRedirectionException e) {
+            redirection = e;
+            return false;
+        } catch (JedisDataException e) {
+            fail(e);
+        }
+        return true;
+    }
+
+    void fail(Exception e) {
+        error = e;
+        data = null;
+        done = true;
+    }
+
+    /**
+     * 命令是否已执行完成
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * 命令执行时的错误，没有错误时返回null
+     */
+    public Exception getError() {
+        return error;
+    }
+
+    /**
+     * 取出命令的执行结果，命令出错时返回null，可通过getError()查看错误
+     */
+    public T get() {
+        if (!done) {
+            throw new CacheException("批量命令尚未执行，请在pipelined方法返回后再取值");
+        }
+        return data;
+    }
+}
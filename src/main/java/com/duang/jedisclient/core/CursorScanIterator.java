@@ -0,0 +1,54 @@
+package com.duang.jedisclient.core;
+
+import com.duang.jedisclient.common.CacheException;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+
+import java.util.List;
+
+/**
+ * 基于SCAN/HSCAN/SSCAN/ZSCAN游标的延迟迭代器
+ * 每次读取一页时才发送一次命令，游标返回0时结束
+ * 读取失败时抛出CacheException，不会把失败当作迭代结束
+ *
+ * @param <R> 命令返回的原始元素
+ * @param <T> 转换后的元素
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public abstract class CursorScanIterator<R, T> extends ScanIterator<T> {
+
+    private String cursor = ScanParams.SCAN_POINTER_START;
+    private boolean started;
+
+    /**
+     * 使用游标读取一页
+     * @param cursor 游标，第一次为0
+     * @return 命令返回结果，读取失败时返回null
+     */
+    protected abstract ScanResult<R> scan(String cursor);
+
+    /**
+     * 将一页原始结果转换成最终结果
+     * @param data 原始结果
+     * @return
+     */
+    protected abstract List<T> convert(List<R> data);
+
+    @Override
+    protected List<T> nextPage() {
+        if (started && ScanParams.SCAN_POINTER_START.equals(cursor)) {
+            return null;
+        }
+        ScanResult<R> result = scan(cursor);
+        if (null == result) {
+            // call方法出错时记录日志后返回null，不能当作读取结束，否则调用方会拿到不完整的结果
+            close();
+            throw new CacheException("游标[" + cursor + "]读取失败，迭代已中止，错误信息请查看日志");
+        }
+        started = true;
+        cursor = result.getCursor();
+        return convert(result.getResult());
+    }
+}
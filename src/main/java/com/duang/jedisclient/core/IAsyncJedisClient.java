@@ -0,0 +1,123 @@
+package com.duang.jedisclient.core;
+
+import com.duang.jedisclient.common.CacheKeyModel;
+import com.duang.jedisclient.common.KeyValueParam;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * 异步接口
+ * 方法与IJedisClient保持一致，返回CompletableFuture，不阻塞调用线程
+ * 订阅类命令(subscribe/psubscribe)会长期占用链接，scan/hscan/sscan/zscan返回的是按页读取的迭代器，请直接使用IJedisClient
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public interface IAsyncJedisClient {
+
+    /**
+     * 同步客户端
+     */
+    IJedisClient getClient();
+
+    /*********************************************************  Redis Api *************************************************************/
+
+    <T> CompletableFuture<T> get(final CacheKeyModel model, final Class<T> type);
+    <T> CompletableFuture<T> getOrLoad(final CacheKeyModel model, final Class<T> type, final Supplier<T> loader);
+    CompletableFuture<String> type(final CacheKeyModel model);
+    /**
+     * @deprecated 生产环境请使用IJedisClient.scan
+     */
+    @Deprecated
+    CompletableFuture<Set<String>> keys(final String pattern);
+    CompletableFuture<Boolean> set(final CacheKeyModel model, final Object value);
+    CompletableFuture<byte[]> getBytes(final CacheKeyModel model);
+    CompletableFuture<Boolean> setBytes(final CacheKeyModel model, final byte[] value);
+    CompletableFuture<String> getString(final CacheKeyModel model);
+    CompletableFuture<Boolean> setString(final CacheKeyModel model, final CharSequence value);
+    CompletableFuture<Boolean> exists(final CacheKeyModel model);
+    CompletableFuture<String> rename(final CacheKeyModel oldModel, final CacheKeyModel newModel);
+    <T> CompletableFuture<Set<T>> zrangeByScore(final CacheKeyModel model, final Double min, final Double max, final Class<T> type);
+    CompletableFuture<Boolean> sismember(final CacheKeyModel model, final Object value);
+    CompletableFuture<Double> hincrByFloat(final CacheKeyModel model, final String field, final Double value);
+    <T> CompletableFuture<T> rpoplpush(final CacheKeyModel sourceModel, final CacheKeyModel destModel, final Class<T> type);
+    <T> CompletableFuture<T> srandmember(final CacheKeyModel model, final Class<T> type);
+    <T> CompletableFuture<List<T>> srandmember(final CacheKeyModel model, final Integer count, final Class<T> type);
+    <T> CompletableFuture<Set<T>> zrevrange(final CacheKeyModel model, final Long start, final Long end, final Class<T> type);
+    CompletableFuture<Long> llen(final CacheKeyModel model);
+    CompletableFuture<Boolean> mset(final CacheKeyModel model, final List<KeyValueParam> keysValues);
+    CompletableFuture<Long> decr(final CacheKeyModel model);
+    CompletableFuture<Long> hset(final CacheKeyModel model, final String field, final Object value);
+    CompletableFuture<Long> decrBy(final CacheKeyModel model, final Long longValue);
+    CompletableFuture<Long> incr(final CacheKeyModel model);
+    <T> CompletableFuture<Map<String,T>> hgetAll(final CacheKeyModel model, final Class<T> type);
+    CompletableFuture<Long> incrBy(final CacheKeyModel model, final Long longValue);
+    CompletableFuture<Set<String>> hkeys(final CacheKeyModel model);
+    CompletableFuture<Long> expire(final CacheKeyModel model);
+    CompletableFuture<Long> persist(final CacheKeyModel model);
+    CompletableFuture<Long> del(final CacheKeyModel model);
+    CompletableFuture<Long> del(final CacheKeyModel... models);
+    <T> CompletableFuture<List<T>> mget(final Class<T> type, final String... keys);
+    CompletableFuture<Long> ttl(final CacheKeyModel model);
+    <T> CompletableFuture<T> getSet(final CacheKeyModel model, final Class<T> type, final Object value);
+    CompletableFuture<Long> lpush(final CacheKeyModel model, final Object... values);
+    CompletableFuture<Long> lpush(final CacheKeyModel model, final Object value);
+    CompletableFuture<Boolean> hmset(final CacheKeyModel model, final Map<String, Object> values);
+    CompletableFuture<Boolean> hexists(final CacheKeyModel model, final String field);
+    CompletableFuture<Long> hlen(final CacheKeyModel model);
+    CompletableFuture<String> setex(final CacheKeyModel model, final Object value);
+    <T> CompletableFuture<List<T>> hvals(final CacheKeyModel model, final Class<T> type);
+    CompletableFuture<Long> hincrBy(final CacheKeyModel model, final String field, final Long value);
+    <T> CompletableFuture<List<T>> hmget(final CacheKeyModel model, final Class<T> type, final String... fields);
+    <T> CompletableFuture<T> hget(final CacheKeyModel model, final Class<T> type, final String field);
+    CompletableFuture<Long> hdel(final CacheKeyModel model, final String... fields);
+    CompletableFuture<Integer> lindex(final CacheKeyModel model, final Long index);
+    CompletableFuture<Long> sadd(final CacheKeyModel model, final Object... values);
+    CompletableFuture<String> ltrim(final CacheKeyModel model, final Integer start, final Integer end);
+    CompletableFuture<Long> lpop(final CacheKeyModel model);
+    CompletableFuture<Long> rpush(final CacheKeyModel model, final Object... value);
+    CompletableFuture<String> ping();
+    <T> CompletableFuture<Set<T>> smembers(final CacheKeyModel model, final Class<T> type);
+    <T> CompletableFuture<List<T>> blpop(final Integer timeout, final Class<T> type, final String... keys);
+    <T> CompletableFuture<Set<T>> zrange(final CacheKeyModel model, final Long start, final Long end, final Class<T> type);
+    CompletableFuture<Long> zrem(final CacheKeyModel model, final Object... members);
+    <T> CompletableFuture<Set<T>> sinter(final Class<T> type, final CacheKeyModel... cacheKeyModels);
+    CompletableFuture<Double> zscore(final CacheKeyModel model, final Object members);
+    CompletableFuture<Long> getLong(final CacheKeyModel model, final long defaultValue);
+    CompletableFuture<Double> getDouble(final CacheKeyModel model, final double defaultValue);
+    CompletableFuture<Long> hgetLong(final CacheKeyModel model, final String field, final long defaultValue);
+    CompletableFuture<Long> lindexLong(final CacheKeyModel model, final long index, final long defaultValue);
+    CompletableFuture<Double> zscoreDouble(final CacheKeyModel model, final Object member, final double defaultValue);
+    CompletableFuture<String> flushDB();
+    CompletableFuture<Long> lrem(final CacheKeyModel model, final Long count, final Object value);
+    CompletableFuture<Long> zrank(final CacheKeyModel model, final Object member);
+    CompletableFuture<Long> zadd(final CacheKeyModel model, final Double score, final Object value);
+    CompletableFuture<Long> zadd(final CacheKeyModel model, final Map<Object, Double> scoreMembers);
+    CompletableFuture<Long> zrevrank(final CacheKeyModel model, final Object member);
+    CompletableFuture<String> flushAll();
+    CompletableFuture<Long> zcard(final CacheKeyModel model);
+    <T> CompletableFuture<Set<T>> sdiff(final Class<T> type, final CacheKeyModel... cacheKeyModels);
+    CompletableFuture<String> rpop(final CacheKeyModel model);
+    <T> CompletableFuture<List<T>> lrange(final CacheKeyModel model, final Class<T> type, final Integer start, final Integer end);
+    <T> CompletableFuture<List<T>> lrange(final CacheKeyModel model, final Class<T> type, final Long start, final Long end);
+    <T> CompletableFuture<T> spop(final CacheKeyModel model, final Class<T> type);
+    <T> CompletableFuture<Set<T>> sunion(final Class<T> type, final CacheKeyModel... cacheKeyModels);
+    CompletableFuture<String> lset(final CacheKeyModel model, final Long index, final Object value);
+    <T> CompletableFuture<List<T>> brpop(final Integer timeout, final Class<T> type, final String... keys);
+    CompletableFuture<Long> srem(final CacheKeyModel model, final String... members);
+    CompletableFuture<Long> scard(final CacheKeyModel model);
+    CompletableFuture<Long> zcount(final CacheKeyModel model, final Double min, final Double max);
+    CompletableFuture<Double> zincrby(final CacheKeyModel model, final Double score, final Object member);
+    CompletableFuture<Long> publish(final String channel, final String message);
+    <T> CompletableFuture<T> scriptLoad(final String script, final String... sampleKey);
+    <T> CompletableFuture<T> evalSha(final String sha, final int keyCount, final String... values);
+    <T> CompletableFuture<T> eval(final RedisScript script, final Class<?> type, final List<CacheKeyModel> models, final Object... args);
+
+    /*********************************************************  Pipeline Api *************************************************************/
+
+    CompletableFuture<Boolean> pipelined(final JedisBatchAction action);
+}
@@ -0,0 +1,44 @@
+package com.duang.jedisclient.core;
+
+import com.duang.jedisclient.common.CacheKeyModel;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 批量(pipeline)命令接口
+ * 方法与IJedisClient保持一致，返回值为延迟结果BatchResponse
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public interface IJedisBatch {
+
+    <T> BatchResponse<T> get(final CacheKeyModel model, final Class<T> type);
+    BatchResponse<Boolean> set(final CacheKeyModel model, final Object value);
+    BatchResponse<Long> del(final CacheKeyModel model);
+    BatchResponse<Boolean> exists(final CacheKeyModel model);
+    BatchResponse<Long> expire(final CacheKeyModel model);
+    BatchResponse<Long> ttl(final CacheKeyModel model);
+    BatchResponse<Long> incr(final CacheKeyModel model);
+    BatchResponse<Long> incrBy(final CacheKeyModel model, final Long longValue);
+    BatchResponse<Long> decr(final CacheKeyModel model);
+    BatchResponse<Long> decrBy(final CacheKeyModel model, final Long longValue);
+    BatchResponse<Long> hset(final CacheKeyModel model, final String field, final Object value);
+    <T> BatchResponse<T> hget(final CacheKeyModel model, final Class<T> type, final String field);
+    BatchResponse<Boolean> hmset(final CacheKeyModel model, final Map<String, Object> values);
+    <T> BatchResponse<List<T>> hmget(final CacheKeyModel model, final Class<T> type, final String... fields);
+    <T> BatchResponse<Map<String,T>> hgetAll(final CacheKeyModel model, final Class<T> type);
+    BatchResponse<Long> hdel(final CacheKeyModel model, final String... fields);
+    BatchResponse<Long> hincrBy(final CacheKeyModel model, final String field, final Long value);
+    BatchResponse<Long> lpush(final CacheKeyModel model, final Object... values);
+    BatchResponse<Long> rpush(final CacheKeyModel model, final Object... values);
+    <T> BatchResponse<List<T>> lrange(final CacheKeyModel model, final Class<T> type, final Long start, final Long end);
+    BatchResponse<Long> sadd(final CacheKeyModel model, final Object... values);
+    BatchResponse<Long> srem(final CacheKeyModel model, final Object... members);
+    <T> BatchResponse<Set<T>> smembers(final CacheKeyModel model, final Class<T> type);
+    BatchResponse<Long> zadd(final CacheKeyModel model, final Double score, final Object value);
+    BatchResponse<Long> zrem(final CacheKeyModel model, final Object... members);
+    BatchResponse<Double> zscore(final CacheKeyModel model, final Object member);
+}
@@ -10,6 +10,7 @@ import redis.clients.jedis.JedisPubSub;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * 接口
@@ -22,10 +23,31 @@ public interface IJedisClient {
 
     /*********************************************************  Redis Api *************************************************************/
 
+    /**
+     * CacheKeyModel启用了本地缓存时，返回的对象返回的是本地缓存里与其它调用方共享的对象(不是副本)，
+     * 修改会影响之后所有读取该key的结果，取出后不要修改，需要修改时请先复制
+     */
     <T> T get(final CacheKeyModel model, final Class<T> type);
+    <T> T getOrLoad(final CacheKeyModel model, final Class<T> type, final Supplier<T> loader);
     String type(final CacheKeyModel model);
+    /**
+     * @deprecated 生产环境请使用 {@link #scan(String, int)}
+     */
+    @Deprecated
     Set<String> keys(final String pattern);
+    ScanIterator<String> scan(final String pattern, final int count);
+    ScanIterator<String> scan(final String pattern, final int count, final boolean parallel);
+    <T> ScanIterator<Map.Entry<String,T>> hscan(final CacheKeyModel model, final Class<T> type);
+    <T> ScanIterator<Map.Entry<String,T>> hscan(final CacheKeyModel model, final Class<T> type, final int count);
+    <T> ScanIterator<T> sscan(final CacheKeyModel model, final Class<T> type);
+    <T> ScanIterator<T> sscan(final CacheKeyModel model, final Class<T> type, final int count);
+    <T> ScanIterator<T> zscan(final CacheKeyModel model, final Class<T> type);
+    <T> ScanIterator<T> zscan(final CacheKeyModel model, final Class<T> type, final int count);
     Boolean set(final CacheKeyModel model, final Object value);
+    byte[] getBytes(final CacheKeyModel model);
+    Boolean setBytes(final CacheKeyModel model, final byte[] value);
+    String getString(final CacheKeyModel model);
+    Boolean setString(final CacheKeyModel model, final CharSequence value);
     Boolean exists(final CacheKeyModel model);
     String rename(final CacheKeyModel oldModel, final CacheKeyModel newModel);
     <T> Set<T> zrangeByScore(final CacheKeyModel model, final Double min, final Double max, final Class<T> type);
@@ -45,12 +67,17 @@ public interface IJedisClient {
     Long hset(final CacheKeyModel model, final String field, final Object value);
     Long decrBy(final CacheKeyModel model, final Long longValue);
     Long incr(final CacheKeyModel model);
+    /**
+     * CacheKeyModel启用了本地缓存时，返回的Map不可修改，但Map里的值返回的是本地缓存里与其它调用方共享的对象(不是副本)，
+     * 修改会影响之后所有读取该key的结果，取出后不要修改，需要修改时请先复制
+     */
     <T> Map<String,T> hgetAll(final CacheKeyModel model, final Class<T> type);
     Long incrBy(final CacheKeyModel model, final Long longValue);
     Set<String> hkeys(final CacheKeyModel model);
     Long expire(final CacheKeyModel model);
     Long persist(final CacheKeyModel model);
     Long del(final CacheKeyModel model);
+    Long del(final CacheKeyModel... models);
     <T> List<T> mget(final Class<T> type, final String... keys);
     Long ttl(final CacheKeyModel model);
     <T> T getSet(final CacheKeyModel model, final Class<T> type, final Object value);
@@ -63,6 +90,10 @@ public interface IJedisClient {
     <T> List<T> hvals(final CacheKeyModel model, final Class<T> type);
     Long hincrBy(final CacheKeyModel model, final String field, final Long value);
     <T> List<T> hmget(final CacheKeyModel model, final Class<T> type, final String... fields);
+    /**
+     * CacheKeyModel启用了本地缓存时，返回的对象返回的是本地缓存里与其它调用方共享的对象(不是副本)，
+     * 修改会影响之后所有读取该field的结果，取出后不要修改，需要修改时请先复制
+     */
     <T> T hget(final CacheKeyModel model, final Class<T> type, final String field);
     Long hdel(final CacheKeyModel model, final String... fields);
     Integer lindex(final CacheKeyModel model, final Long index);
@@ -77,6 +108,11 @@ public interface IJedisClient {
     Long zrem(final CacheKeyModel model, final Object... members);
     <T> Set<T> sinter(final Class<T> type, final CacheKeyModel... cacheKeyModels);
     Double zscore(final CacheKeyModel model, final Object members);
+    long getLong(final CacheKeyModel model, final long defaultValue);
+    double getDouble(final CacheKeyModel model, final double defaultValue);
+    long hgetLong(final CacheKeyModel model, final String field, final long defaultValue);
+    long lindexLong(final CacheKeyModel model, final long index, final long defaultValue);
+    double zscoreDouble(final CacheKeyModel model, final Object member, final double defaultValue);
     String flushDB();
     Long lrem(final CacheKeyModel model, final Long count, final Object value);
     Long zrank(final CacheKeyModel model, final Object member);
@@ -100,4 +136,10 @@ public interface IJedisClient {
     Long publish(final String channel, final String message);
     <T> T scriptLoad(final String script, final String... sampleKey);
     <T> T evalSha(final String sha, final int keyCount, final String... values);
+    RedisScript registerScript(final String script);
+    <T> T eval(final RedisScript script, final Class<?> type, final List<CacheKeyModel> models, final Object... args);
+
+    /*********************************************************  Pipeline Api *************************************************************/
+
+    Boolean pipelined(final JedisBatchAction action);
 }
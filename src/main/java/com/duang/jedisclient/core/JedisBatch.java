@@ -0,0 +1,406 @@
+package com.duang.jedisclient.core;
+
+import com.duang.jedisclient.common.CacheKeyModel;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+
+import java.util.*;
+
+/**
+ * 批量(pipeline)命令的实现
+ * 只负责记录命令，由Redis/RedisCluster负责发送到对应的节点
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class JedisBatch implements IJedisBatch {
+
+    private final AbstractRedis redis;
+    private final List<BatchResponse<?>> responses = new ArrayList<BatchResponse<?>>();
+
+    JedisBatch(AbstractRedis redis) {
+        this.redis = redis;
+    }
+
+    List<BatchResponse<?>> getResponses() {
+        return responses;
+    }
+
+    /**
+     * 发送失败时将未完成的命令标记为失败
+     */
+    void failPending(Exception e) {
+        for (BatchResponse<?> response : responses) {
+            if (!response.isDone()) {
+                response.fail(e);
+            }
+        }
+    }
+
+    private <T> BatchResponse<T> add(BatchResponse<T> response) {
+        responses.add(response);
+        return response;
+    }
+
+    private byte[] key(CacheKeyModel model) {
+        return redis.serializerKey(model);
+    }
+
+    @Override
+    public <T> BatchResponse<T> get(final CacheKeyModel model, final Class<T> type) {
+        final byte[] key = key(model);
+        return add(new BatchResponse<T>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                return pipeline.get(key);
+            }
+            @Override
+            protected T build(Object raw) {
+                return (null == raw) ? null : redis.deSerializeValue(model, (byte[]) raw, type);
+            }
+        });
+    }
+
+    @Override
+    public BatchResponse<Boolean> set(final CacheKeyModel model, final Object value) {
+        final byte[] key = key(model);
+        final byte[] bytes = redis.serializerValue(model, value);
+        return add(new BatchResponse<Boolean>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                return pipeline.set(key, bytes, redis.setParams(model));
+            }
+            @Override
+            protected Boolean build(Object raw) {
+                return AbstractRedis.OK.equalsIgnoreCase((String) raw);
+            }
+        });
+    }
+
+    @Override
+    public BatchResponse<Long> del(final CacheKeyModel model) {
+        final byte[] key = key(model);
+        return add(new BatchResponse<Long>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                return pipeline.del(key);
+            }
+        });
+    }
+
+    @Override
+    public BatchResponse<Boolean> exists(final CacheKeyModel model) {
+        final byte[] key = key(model);
+        return add(new BatchResponse<Boolean>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                return pipeline.exists(key);
+            }
+        });
+    }
+
+    @Override
+    public BatchResponse<Long> expire(final CacheKeyModel model) {
+        final byte[] key = key(model);
+        return add(new BatchResponse<Long>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                return pipeline.expire(key, model.getWriteTTL());
+            }
+        });
+    }
+
+    @Override
+    public BatchResponse<Long> ttl(final CacheKeyModel model) {
+        final byte[] key = key(model);
+        return add(new BatchResponse<Long>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                return pipeline.ttl(key);
+            }
+        });
+    }
+
+    @Override
+    public BatchResponse<Long> incr(final CacheKeyModel model) {
+        final byte[] key = key(model);
+        return add(new BatchResponse<Long>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                return pipeline.incr(key);
+            }
+        });
+    }
+
+    @Override
+    public BatchResponse<Long> incrBy(final CacheKeyModel model, final Long longValue) {
+        final byte[] key = key(model);
+        return add(new BatchResponse<Long>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                return pipeline.incrBy(key, longValue);
+            }
+        });
+    }
+
+    @Override
+    public BatchResponse<Long> decr(final CacheKeyModel model) {
+        final byte[] key = key(model);
+        return add(new BatchResponse<Long>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                return pipeline.decr(key);
+            }
+        });
+    }
+
+    @Override
+    public BatchResponse<Long> decrBy(final CacheKeyModel model, final Long longValue) {
+        final byte[] key = key(model);
+        return add(new BatchResponse<Long>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                return pipeline.decrBy(key, longValue);
+            }
+        });
+    }
+
+    @Override
+    public BatchResponse<Long> hset(final CacheKeyModel model, final String field, final Object value) {
+        final byte[] key = key(model);
+        final byte[] fieldBytes = redis.serializerKey(model, field);
+        final byte[] bytes = redis.serializerValue(model, value);
+        return add(new BatchResponse<Long>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                Response<Long> response = pipeline.hset(key, fieldBytes, bytes);
+                redis.expire(pipeline, key, model);
+                return response;
+            }
+        });
+    }
+
+    @Override
+    public <T> BatchResponse<T> hget(final CacheKeyModel model, final Class<T> type, final String field) {
+        final byte[] key = key(model);
+        final byte[] fieldBytes = redis.serializerKey(model, field);
+        return add(new BatchResponse<T>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                return pipeline.hget(key, fieldBytes);
+            }
+            @Override
+            protected T build(Object raw) {
+                return (null == raw) ? null : redis.deSerializeValue(model, (byte[]) raw, type);
+            }
+        });
+    }
+
+    @Override
+    public BatchResponse<Boolean> hmset(final CacheKeyModel model, final Map<String, Object> values) {
+        final byte[] key = key(model);
+        final Map<byte[], byte[]> map = new HashMap<byte[], byte[]>(values.size());
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            map.put(redis.serializerKey(model, entry.getKey()), redis.serializerValue(model, entry.getValue()));
+        }
+        return add(new BatchResponse<Boolean>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                Response<String> response = pipeline.hmset(key, map);
+                redis.expire(pipeline, key, model);
+                return response;
+            }
+            @Override
+            protected Boolean build(Object raw) {
+                return AbstractRedis.OK.equalsIgnoreCase((String) raw);
+            }
+        });
+    }
+
+    @Override
+    public <T> BatchResponse<List<T>> hmget(final CacheKeyModel model, final Class<T> type, final String... fields) {
+        final byte[] key = key(model);
+        final byte[][] fieldArray = redis.serializerKeyArray(model, fields);
+        return add(new BatchResponse<List<T>>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                return pipeline.hmget(key, fieldArray);
+            }
+            @Override
+            @SuppressWarnings("unchecked")
+            protected List<T> build(Object raw) {
+                return redis.toValueList(model, (List<byte[]>) raw, type);
+            }
+        });
+    }
+
+    @Override
+    public <T> BatchResponse<Map<String, T>> hgetAll(final CacheKeyModel model, final Class<T> type) {
+        final byte[] key = key(model);
+        return add(new BatchResponse<Map<String, T>>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                return pipeline.hgetAll(key);
+            }
+            @Override
+            @SuppressWarnings("unchecked")
+            protected Map<String, T> build(Object raw) {
+                Map<byte[], byte[]> data = (Map<byte[], byte[]>) raw;
+                if (null == data) {
+                    return null;
+                }
+                Map<String, T> result = new HashMap<String, T>(data.size());
+                for (Map.Entry<byte[], byte[]> e : data.entrySet()) {
+                    result.put(redis.deSerializeKey(model, e.getKey()), redis.deSerializeValue(model, e.getValue(), type));
+                }
+                return result;
+            }
+        });
+    }
+
+    @Override
+    public BatchResponse<Long> hdel(final CacheKeyModel model, final String... fields) {
+        final byte[] key = key(model);
+        final byte[][] fieldArray = redis.serializerKeyArray(model, fields);
+        return add(new BatchResponse<Long>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                return pipeline.hdel(key, fieldArray);
+            }
+        });
+    }
+
+    @Override
+    public BatchResponse<Long> hincrBy(final CacheKeyModel model, final String field, final Long value) {
+        final byte[] key = key(model);
+        final byte[] fieldBytes = redis.serializerField(model, field);
+        return add(new BatchResponse<Long>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                return pipeline.hincrBy(key, fieldBytes, value);
+            }
+        });
+    }
+
+    @Override
+    public BatchResponse<Long> lpush(final CacheKeyModel model, final Object... values) {
+        final byte[] key = key(model);
+        final byte[][] valueArray = redis.serializerValueArray(model, values);
+        return add(new BatchResponse<Long>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                Response<Long> response = pipeline.lpush(key, valueArray);
+                redis.expire(pipeline, key, model);
+                return response;
+            }
+        });
+    }
+
+    @Override
+    public BatchResponse<Long> rpush(final CacheKeyModel model, final Object... values) {
+        final byte[] key = key(model);
+        final byte[][] valueArray = redis.serializerValueArray(model, values);
+        return add(new BatchResponse<Long>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                Response<Long> response = pipeline.rpush(key, valueArray);
+                redis.expire(pipeline, key, model);
+                return response;
+            }
+        });
+    }
+
+    @Override
+    public <T> BatchResponse<List<T>> lrange(final CacheKeyModel model, final Class<T> type, final Long start, final Long end) {
+        final byte[] key = key(model);
+        return add(new BatchResponse<List<T>>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                return pipeline.lrange(key, start, end);
+            }
+            @Override
+            @SuppressWarnings("unchecked")
+            protected List<T> build(Object raw) {
+                return redis.toValueList(model, (List<byte[]>) raw, type);
+            }
+        });
+    }
+
+    @Override
+    public BatchResponse<Long> sadd(final CacheKeyModel model, final Object... values) {
+        final byte[] key = key(model);
+        final byte[][] valueArray = redis.serializerValueArray(model, values);
+        return add(new BatchResponse<Long>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                Response<Long> response = pipeline.sadd(key, valueArray);
+                redis.expire(pipeline, key, model);
+                return response;
+            }
+        });
+    }
+
+    @Override
+    public BatchResponse<Long> srem(final CacheKeyModel model, final Object... members) {
+        final byte[] key = key(model);
+        final byte[][] memberArray = redis.serializerValueArray(model, members);
+        return add(new BatchResponse<Long>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                return pipeline.srem(key, memberArray);
+            }
+        });
+    }
+
+    @Override
+    public <T> BatchResponse<Set<T>> smembers(final CacheKeyModel model, final Class<T> type) {
+        final byte[] key = key(model);
+        return add(new BatchResponse<Set<T>>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                return pipeline.smembers(key);
+            }
+            @Override
+            @SuppressWarnings("unchecked")
+            protected Set<T> build(Object raw) {
+                return redis.toValueSet(model, (Set<byte[]>) raw, type);
+            }
+        });
+    }
+
+    @Override
+    public BatchResponse<Long> zadd(final CacheKeyModel model, final Double score, final Object value) {
+        final byte[] key = key(model);
+        final byte[] member = redis.serializerValue(model, value);
+        return add(new BatchResponse<Long>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                return pipeline.zadd(key, score, member);
+            }
+        });
+    }
+
+    @Override
+    public BatchResponse<Long> zrem(final CacheKeyModel model, final Object... members) {
+        final byte[] key = key(model);
+        final byte[][] memberArray = redis.serializerValueArray(model, members);
+        return add(new BatchResponse<Long>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                return pipeline.zrem(key, memberArray);
+            }
+        });
+    }
+
+    @Override
+    public BatchResponse<Double> zscore(final CacheKeyModel model, final Object member) {
+        final byte[] key = key(model);
+        final byte[] memberBytes = redis.serializerValue(model, member);
+        return add(new BatchResponse<Double>(key) {
+            @Override
+            protected Response<?> queue(Pipeline pipeline) {
+                return pipeline.zscore(key, memberBytes);
+            }
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package com.duang.jedisclient.core;
+
+/**
+ *  批量(pipeline)执行的命令组装接口
+ *  在execute方法里通过batch添加命令，方法返回后统一发送到Redis
+ *
+ * @author Laotang
+ */
+public interface JedisBatchAction {
+
+    void execute(IJedisBatch batch) throws Exception;
+
+}
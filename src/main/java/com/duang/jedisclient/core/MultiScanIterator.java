@@ -0,0 +1,180 @@
+package com.duang.jedisclient.core;
+
+import com.duang.jedisclient.common.CacheException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 依次或并行读取多个迭代器(集群时每个主节点一个)
+ * 并行读取时每个节点在单独的守护线程里读取，读到的页放入有界队列，队列满时读取线程等待，由调用方的消费速度控制读取速度；
+ * 调用方超过READER_IDLE_MILLIS没有消费时读取线程自动退出，之后再读取会抛出CacheException。
+ * 没有读完时请调用close()，建议使用try-with-resources：
+ * <pre>
+ * try (ScanIterator&lt;String&gt; keys = client.scan("user:*", 1000, true)) {
+ *     while (keys.hasNext()) { ... }
+ * }
+ * </pre>
+ *
+ * @param <T> 元素泛型对象
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class MultiScanIterator<T> extends ScanIterator<T> {
+
+    /**
+     * 某个节点读取结束的标记
+     */
+    private static final List<Object> END = new ArrayList<Object>(0);
+
+    /**
+     * 并行读取时，队列已满且调用方超过该时间没有消费，读取线程放弃并退出
+     */
+    public static final long READER_IDLE_MILLIS = 60000L;
+
+    private final List<ScanIterator<T>> iterators;
+    private final boolean parallel;
+    private int index;
+    private BlockingQueue<List<T>> queue;
+    private List<Future<?>> futures;
+    private int running;
+    private volatile boolean closed;
+    /**
+     * 读取线程的错误，调用方读取时抛出
+     */
+    private volatile RuntimeException error;
+
+    /**
+     * @param iterators 每个节点的迭代器
+     * @param parallel 是否并行读取
+     * @param queueSize 并行读取时最多缓存的页数
+     */
+    public MultiScanIterator(List<ScanIterator<T>> iterators, boolean parallel, int queueSize) {
+        this.iterators = iterators;
+        this.parallel = parallel && iterators.size() > 1;
+        if (this.parallel) {
+            queue = new ArrayBlockingQueue<List<T>>(Math.max(1, queueSize));
+        }
+    }
+
+    @Override
+    protected List<T> nextPage() {
+        return parallel ? nextParallelPage() : nextSequentialPage();
+    }
+
+    private List<T> nextSequentialPage() {
+        while (index < iterators.size()) {
+            List<T> page = iterators.get(index).nextPage();
+            if (null != page) {
+                return page;
+            }
+            index++;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> nextParallelPage() {
+        if (null == futures) {
+            start();
+        }
+        while (running > 0) {
+            List<T> page;
+            try {
+                page = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new CacheException("scan interrupted", e);
+            }
+            if (null == page) {
+                checkError();
+            } else if (page == (Object) END) {
+                running--;
+                checkError();
+            } else {
+                return page;
+            }
+        }
+        checkError();
+        return null;
+    }
+
+    private void checkError() {
+        if (null != error) {
+            close();
+            throw error;
+        }
+    }
+
+    private void start() {
+        futures = new ArrayList<Future<?>>(iterators.size());
+        running = iterators.size();
+        for (int i = 0; i < iterators.size(); i++) {
+            final ScanIterator<T> iterator = iterators.get(i);
+            FutureTask<Object> future = new FutureTask<Object>(new Runnable() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public void run() {
+                    try {
+                        List<T> page;
+                        while (!closed && null != (page = iterator.nextPage())) {
+                            if (!page.isEmpty() && !offer(page)) {
+                                return;
+                            }
+                        }
+                    } catch (RuntimeException e) {
+                        error = e;
+                    } finally {
+                        iterator.close();
+                        offer((List<T>) (Object) END);
+                    }
+                }
+            }, null);
+            Thread thread = new Thread(future, "jedis-scan-reader-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            futures.add(future);
+        }
+    }
+
+    /**
+     * 放入队列，队列满时等待，迭代器关闭或调用方超过READER_IDLE_MILLIS没有消费时放弃
+     * @return false 如果放弃了
+     */
+    private boolean offer(List<T> page) {
+        long deadline = System.currentTimeMillis() + READER_IDLE_MILLIS;
+        try {
+            while (!closed) {
+                if (queue.offer(page, 100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    if (null == error) {
+                        error = new CacheException("scan结果超过" + READER_IDLE_MILLIS + "ms没有被读取，读取线程已退出，请在不再读取时调用close()");
+                    }
+                    closed = true;
+                    return false;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        super.close();
+        for (ScanIterator<T> iterator : iterators) {
+            iterator.close();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.duang.jedisclient.core;
+
+import redis.clients.jedis.BuilderFactory;
+import redis.clients.jedis.Client;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 知道所在节点的pipeline
+ * 1. 集群ASK重定向后在目标节点重试时，每条带key的命令前都要先发送ASKING(ASKING只对下一条命令有效)
+ * 2. 以EVALSHA执行已注册的脚本时，按节点记录脚本是否已加载；sync后遇到NOSCRIPT时以EVAL重新执行一次，
+ *    返回的Response取到的是EVAL的结果
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+class NodePipeline extends Pipeline {
+
+    /**
+     * 当前线程正在ASK重定向的目标节点上执行命令
+     */
+    private static final ThreadLocal<Boolean> ASKING = new ThreadLocal<Boolean>();
+
+    private final Jedis jedis;
+    private final String node;
+    private boolean asking;
+    private List<ScriptCall> scriptCalls;
+    /**
+     * 本pipeline里已经发送了SCRIPT LOAD的脚本
+     */
+    private Set<String> loadingShas;
+
+    NodePipeline(Jedis jedis) {
+        this.jedis = jedis;
+        this.node = ScriptRegistry.node(jedis);
+        this.asking = isAsking();
+        setClient(jedis.getClient());
+    }
+
+    static boolean isAsking() {
+        return Boolean.TRUE.equals(ASKING.get());
+    }
+
+    static void beginAsking() {
+        ASKING.set(Boolean.TRUE);
+    }
+
+    static void endAsking() {
+        ASKING.remove();
+    }
+
+    /**
+     * 当前线程在ASK重定向的目标节点上时，向jedis发送ASKING
+     */
+    static void asking(Jedis jedis) {
+        if (isAsking()) {
+            jedis.asking();
+        }
+    }
+
+    String getNode() {
+        return node;
+    }
+
+    /**
+     * 之后加入的带key的命令前是否发送ASKING
+     */
+    void setAsking(boolean asking) {
+        this.asking = asking;
+    }
+
+    @Override
+    protected Client getClient(byte[] key) {
+        return askingIfNeeded(super.getClient(key));
+    }
+
+    @Override
+    protected Client getClient(String key) {
+        return askingIfNeeded(super.getClient(key));
+    }
+
+    private Client askingIfNeeded(Client client) {
+        if (asking) {
+            client.asking();
+            getResponse(BuilderFactory.STRING);
+        }
+        return client;
+    }
+
+    /**
+     * 以EVALSHA执行脚本，该节点还没有加载过时先在同一个pipeline里SCRIPT LOAD，
+     * SCRIPT LOAD成功返回后才记为已加载
+     * @return sync后取值，遇到NOSCRIPT时为重新EVAL的结果
+     */
+    Response<Object> evalsha(RedisScript script, List<byte[]> keys, List<byte[]> args, Set<String> loadedNodes) {
+        Response<Object> load = null;
+        if (!loadedNodes.contains(node) && (null == loadingShas || !loadingShas.contains(script.getSha()))) {
+            load = sendCommand(Protocol.Command.SCRIPT, Protocol.Keyword.LOAD.raw, script.getScriptBytes());
+            if (null == loadingShas) {
+                loadingShas = new HashSet<String>();
+            }
+            loadingShas.add(script.getSha());
+        }
+        ScriptResponse response = new ScriptResponse(evalsha(script.getShaBytes(), keys, args));
+        if (null == scriptCalls) {
+            scriptCalls = new ArrayList<ScriptCall>();
+        }
+        scriptCalls.add(new ScriptCall(response, load, script, keys, args, loadedNodes, asking));
+        return response;
+    }
+
+    @Override
+    public void sync() {
+        super.sync();
+        if (null == scriptCalls) {
+            return;
+        }
+        List<ScriptCall> calls = scriptCalls;
+        scriptCalls = null;
+        loadingShas = null;
+        for (ScriptCall call : calls) {
+            if (null != call.load) {
+                try {
+                    call.load.get();
+                    call.loadedNodes.add(node);
+                } catch (RuntimeException e) {
+                    // 加载失败时EVALSHA会返回NOSCRIPT，下面以EVAL重新执行
+                }
+            }
+            try {
+                call.response.delegate.get();
+            } catch (JedisNoScriptException e) {
+                // 节点重启或主从切换后脚本缓存丢失，EVAL执行时会同时缓存脚本
+                call.loadedNodes.remove(node);
+                if (call.asking) {
+                    jedis.asking();
+                }
+                try {
+                    call.response.fallback(jedis.eval(call.script.getScriptBytes(), call.keys, call.args), null);
+                    call.loadedNodes.add(node);
+                } catch (JedisDataException evalError) {
+                    call.response.fallback(null, evalError);
+                }
+            } catch (RuntimeException e) {
+                // 其它错误由调用方通过Response处理
+            }
+        }
+    }
+
+    /**
+     * EVALSHA的Response，遇到NOSCRIPT以EVAL重新执行后，get()返回EVAL的结果或错误
+     */
+    private static final class ScriptResponse extends Response<Object> {
+        private final Response<Object> delegate;
+        private boolean fallback;
+        private Object result;
+        private JedisDataException error;
+
+        private ScriptResponse(Response<Object> delegate) {
+            super(BuilderFactory.EVAL_RESULT);
+            this.delegate = delegate;
+        }
+
+        private void fallback(Object result, JedisDataException error) {
+            this.fallback = true;
+            this.result = result;
+            this.error = error;
+        }
+
+        @Override
+        public Object get() {
+            if (!fallback) {
+                return delegate.get();
+            }
+            if (null != error) {
+                throw error;
+            }
+            return result;
+        }
+    }
+
+    private static final class ScriptCall {
+        private final ScriptResponse response;
+        private final Response<Object> load;
+        private final RedisScript script;
+        private final List<byte[]> keys;
+        private final List<byte[]> args;
+        private final Set<String> loadedNodes;
+        private final boolean asking;
+
+        private ScriptCall(ScriptResponse response, Response<Object> load, RedisScript script, List<byte[]> keys,
+                           List<byte[]> args, Set<String> loadedNodes, boolean asking) {
+            this.response = response;
+            this.load = load;
+            this.script = script;
+            this.keys = keys;
+            this.args = args;
+            this.loadedNodes = loadedNodes;
+            this.asking = asking;
+        }
+    }
+}
@@ -4,13 +4,16 @@ import cn.hutool.core.thread.ThreadUtil;
 import com.duang.jedisclient.common.CacheKeyModel;
 import com.duang.jedisclient.common.KeyValueParam;
 import com.duang.jedisclient.common.RedisConfig;
+import com.duang.jedisclient.metrics.MetricsRecorder;
 import com.duang.jedisclient.plugin.RedisFactory;
 import com.duang.jedisclient.serializer.ISerializer;
 import com.duang.jedisclient.utils.RedisUtil;
+import com.duang.jedisclient.utils.Utf8;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import redis.clients.jedis.*;
 import redis.clients.jedis.params.SetParams;
+import redis.clients.jedis.util.SafeEncoder;
 
 import java.util.*;
 import java.util.concurrent.Future;
@@ -36,8 +39,20 @@ public class Redis extends AbstractRedis  {
      * @return
      */
     public <T> T call(JedisAction action) {
+        return call(null, action);
+    }
+
+    /**
+     * 调用缓存方法，启用度量时按model的缓存key枚举分组记录
+     * @param model 命令操作的CacheKeyModel，可以为null
+     * @param action
+     * @param <T>
+     * @return
+     */
+    public <T> T call(CacheKeyModel model, JedisAction action) {
         T result = null;
         Jedis jedis = null;
+        MetricsRecorder.Scope scope = beginMetrics(action, model);
         /**
          * 判断是否在threadLocal里取出的Jedis对象，如果是，则交由 [拦截器] 负责关闭及移除
          * 如果实现了 [拦截器] ，则在同一线程下所有的jedis将会共用，提高性能
@@ -46,13 +61,16 @@ public class Redis extends AbstractRedis  {
         try {
             jedis = RedisFactory.THREAD_LOCAL_JEDIS.get();
             if (null == jedis) {
-                jedis = getResource();
+                jedis = borrowResource();
                 RedisFactory.THREAD_LOCAL_JEDIS.set(jedis);
                 // 标记为不是在threadLoca里取出的
                 isNotThreadLocalObj = true ;
             }
             result = (T) action.execute(jedis);
         } catch (Exception e) {
+            if (null != scope) {
+                scope.error();
+            }
             e.printStackTrace();
             LOGGER.warn(e.getMessage(), e);
         } finally {
@@ -61,10 +79,51 @@ public class Redis extends AbstractRedis  {
                 jedis.close();
                 RedisFactory.THREAD_LOCAL_JEDIS.remove();
             }
+            if (null != scope) {
+                scope.end();
+            }
         }
         return result;
     }
 
+    @Override
+    protected <T> ValueTtl<T> getWithTtl(final CacheKeyModel model, final Class<T> type) {
+        return call(model, new JedisAction<ValueTtl<T>>() {
+            @Override
+            public ValueTtl<T> execute(Jedis jedis) {
+                byte[] key = serializerKey(model);
+                Pipeline pipeline = pipelined(jedis);
+                Response<byte[]> value = pipeline.get(key);
+                Response<Long> pttl = pipeline.pttl(key);
+                pipeline.sync();
+                byte[] bytes = value.get();
+                return new ValueTtl<T>(null == bytes ? null : deSerializeValue(model, bytes, type), pttl.get());
+            }
+        });
+    }
+
+    @Override
+    protected boolean tryLease(final String leaseKey, final String token, final long leaseMillis) {
+        Boolean result = call(new JedisAction<Boolean>() {
+            @Override
+            public Boolean execute(Jedis jedis) {
+                return OK.equalsIgnoreCase(jedis.set(leaseKey, token, SetParams.setParams().nx().px(leaseMillis)));
+            }
+        });
+        return Boolean.TRUE.equals(result);
+    }
+
+    @Override
+    protected void releaseLease(final String leaseKey, final String token) {
+        call(new JedisAction<Object>() {
+            @Override
+            public Object execute(Jedis jedis) {
+                return scriptRegistry.evalsha(jedis, releaseLeaseScript,
+                        Collections.singletonList(SafeEncoder.encode(leaseKey)), Collections.singletonList(SafeEncoder.encode(token)));
+            }
+        });
+    }
+
     /*************************** Redis里的方法 ************************/
 
     /**
@@ -75,11 +134,11 @@ public class Redis extends AbstractRedis  {
      * 0  如果key不存在或者不能设置过期时间。
      */
     public Long expire(final CacheKeyModel model) {
-        return call(new JedisAction<Long>(){
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
                 if(model.getKeyTTL() > 0) {
-                    return jedis.expire(serializerKey(model.getKey()), model.getKeyTTL());
+                    return jedis.expire(serializerKey(model), model.getWriteTTL());
                 }
                 return 0L;
             }
@@ -92,10 +151,10 @@ public class Redis extends AbstractRedis  {
      */
     @SuppressWarnings("unchecked")
     public <T> T get(final CacheKeyModel model, final Class<T> type) {
-        return call(new JedisAction<T>(){
+        return call(model, new JedisAction<T>(){
             @Override
             public T execute(Jedis jedis) {
-                return (T)deSerializeValue(jedis.get(serializerKey(model.getKey())), type);
+                return (T)deSerializeValue(model, jedis.get(serializerKey(model)), type);
             }
         });
     }
@@ -106,10 +165,55 @@ public class Redis extends AbstractRedis  {
      * 对于某个原本带有生存时间（TTL）的键来说， 当 SET 命令成功在这个键上执行时， 这个键原有的 TTL 将被清除。
      */
     public Boolean set(final CacheKeyModel model, final Object value) {
-        return call(new JedisAction<Boolean>(){
+        return call(model, new JedisAction<Boolean>(){
+            @Override
+            public Boolean execute(Jedis jedis) {
+                String result = jedis.set(serializerKey(model), serializerValue(model, value), setParams(model));
+                return OK.equalsIgnoreCase(result);
+            }
+        });
+    }
+
+    /**
+     * 取出key的原始字节，不经过序列化器
+     */
+    public byte[] getBytes(final CacheKeyModel model) {
+        return call(model, new JedisAction<byte[]>() {
+            @Override
+            public byte[] execute(Jedis jedis) {
+                return readRaw(jedis.get(serializerKey(model)));
+            }
+        });
+    }
+
+    /**
+     * 原样写入字节，不经过序列化器，过期时间的处理与set相同
+     */
+    public Boolean setBytes(final CacheKeyModel model, final byte[] value) {
+        return call(model, new JedisAction<Boolean>() {
             @Override
             public Boolean execute(Jedis jedis) {
-                String result = jedis.set(serializerKey(model.getKey()), serializerValue(value), SetParams.setParams().ex(model.getKeyTTL()));
+                String result = jedis.set(serializerKey(model), rawValue(value), setParams(model));
+                return OK.equalsIgnoreCase(result);
+            }
+        });
+    }
+
+    /**
+     * 取出key的值并按UTF-8解码，不经过序列化器
+     */
+    public String getString(final CacheKeyModel model) {
+        return Utf8.decode(getBytes(model));
+    }
+
+    /**
+     * 按UTF-8编码写入字符串，不经过序列化器，过期时间的处理与set相同
+     */
+    public Boolean setString(final CacheKeyModel model, final CharSequence value) {
+        return call(model, new JedisAction<Boolean>() {
+            @Override
+            public Boolean execute(Jedis jedis) {
+                String result = jedis.set(serializerKey(model), encodeString(value), setParams(model));
                 return OK.equalsIgnoreCase(result);
             }
         });
@@ -120,10 +224,10 @@ public class Redis extends AbstractRedis  {
      * 如果 key 已经存在， SETEX 命令将覆写旧值。
      */
     public String setex(final CacheKeyModel model, final Object value) {
-        return call(new JedisAction<Boolean>() {
+        return call(model, new JedisAction<Boolean>() {
             @Override
             public Boolean execute(Jedis jedis) {
-                String result = jedis.setex(serializerKey(model.getKey()), model.getKeyTTL(), serializerValue(value));
+                String result = jedis.setex(serializerKey(model), model.getWriteTTL(), serializerValue(model, value));
                 return OK.equalsIgnoreCase(result);
             }
         });
@@ -136,7 +240,7 @@ public class Redis extends AbstractRedis  {
      * @return
      */
     public Long del(final CacheKeyModel model){
-        return call(new JedisAction<Long>(){
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
                 return jedis.del(model.getKey());
@@ -144,6 +248,23 @@ public class Redis extends AbstractRedis  {
         });
     }
 
+    /**
+     * 批量删除key
+     * @param models 为空时不发送命令，直接返回0
+     * @return 被删除key的数量
+     */
+    public Long del(final CacheKeyModel... models) {
+        if (null == models || models.length == 0) {
+            return 0L;
+        }
+        return call(first(models), new JedisAction<Long>(){
+            @Override
+            public Long execute(Jedis jedis) {
+                return jedis.del(getKeys(models));
+            }
+        });
+    }
+
     /**
      * 查找所有符合给定模式 pattern 的 key 。
      * KEYS * 匹配数据库中所有 key 。
@@ -151,7 +272,10 @@ public class Redis extends AbstractRedis  {
      * KEYS h*llo 匹配 hllo 和 heeeeello 等。
      * KEYS h[ae]llo 匹配 hello 和 hallo ，但不匹配 hillo 。
      * 特殊符号用 \ 隔开
+     * KEYS命令会阻塞服务器，key数量大时请使用scan方法
+     * @deprecated 生产环境请使用 {@link #scan(String, int)}
      */
+    @Deprecated
     public Set<String> keys(final String pattern) {
 //        LOG.warn("生产环境下禁用");
         return call(new JedisAction<Set<String>>(){
@@ -162,6 +286,48 @@ public class Redis extends AbstractRedis  {
         });
     }
 
+    /**
+     * 使用SCAN命令按游标迭代所有符合给定模式 pattern 的 key，不会像KEYS命令一样阻塞服务器
+     * 每次读取一页时才发送一次命令，内存中最多只保留一页key，同一个key可能会返回多次
+     * <pre>
+     * 例子：
+     * ScanIterator&lt;String&gt; it = client.scan("user:*", 1000);
+     * while (it.hasNext()) {
+     *     String key = it.next();
+     * }
+     * </pre>
+     * @param pattern 匹配模式
+     * @param count 每页建议返回的数量
+     */
+    public ScanIterator<String> scan(final String pattern, final int count) {
+        return scan(pattern, count, false);
+    }
+
+    /**
+     * 使用SCAN命令按游标迭代所有符合给定模式 pattern 的 key
+     * @param pattern 匹配模式
+     * @param count 每页建议返回的数量
+     * @param parallel 单机版只有一个节点，忽略该参数
+     */
+    public ScanIterator<String> scan(final String pattern, final int count, final boolean parallel) {
+        final ScanParams params = new ScanParams().match(pattern).count(count);
+        return new CursorScanIterator<String, String>() {
+            @Override
+            protected ScanResult<String> scan(final String cursor) {
+                return call(new JedisAction<ScanResult<String>>() {
+                    @Override
+                    public ScanResult<String> execute(Jedis jedis) {
+                        return jedis.scan(cursor, params);
+                    }
+                });
+            }
+            @Override
+            protected List<String> convert(List<String> data) {
+                return data;
+            }
+        };
+    }
+
     /**
      * 同时设置一个或多个 key-value 对。
      * 如果某个给定 key 已经存在，那么 MSET 会用新值覆盖原来的旧值，如果这不是你所希望的效果，请考虑使用 MSETNX 命令：它只会在所有给定 key 都不存在的情况下进行设置操作。
@@ -174,25 +340,29 @@ public class Redis extends AbstractRedis  {
      * </pre>
      */
     public Boolean mset(final CacheKeyModel model, final List<KeyValueParam> keysValues) {
-        return call(new JedisAction<Boolean>() {
+        return call(model, new JedisAction<Boolean>() {
             @Override
             public Boolean execute(Jedis jedis) {
                 if (RedisUtil.isEmpty(keysValues)) {
                     return false;
                 }
                 int size = keysValues.size();
-                byte[][] kv = new byte[size+2][];
+                byte[][] keys = new byte[size][];
+                byte[][] kv = new byte[size*2][];
                 int index = 0;
                 for (int i=0; i<size; i++) {
                     KeyValueParam keyValueParam = keysValues.get(i);
-                    kv[index++] = serializerKey(model.getKey()+":"+keyValueParam.getKey());
-                    kv[index++] = serializerValue(keyValueParam.getValue());
+                    keys[i] = serializerKey(model, model.getKey()+":"+keyValueParam.getKey());
+                    kv[index++] = keys[i];
+                    kv[index++] = serializerValue(model, keyValueParam.getValue());
                 }
-                boolean isOk = OK.equalsIgnoreCase(jedis.mset(kv));
-                if(isOk) {
-                    expire(model);
+                Pipeline pipeline = pipelined(jedis);
+                Response<String> result = pipeline.mset(kv);
+                for (byte[] key : keys) {
+                    expire(pipeline, key, model);
                 }
-                return isOk;
+                pipeline.sync();
+                return OK.equalsIgnoreCase(result.get());
             }
         });
     }
@@ -208,14 +378,14 @@ public class Redis extends AbstractRedis  {
         return call(new JedisAction<List<T>>(){
             @Override
             public List<T> execute(Jedis jedis) {
-                byte[][] keysArray = serializerKeyArray(keys);
+                byte[][] keysArray = serializerKeyArray(null, keys);
                 List<byte[]> byteList = jedis.mget(keysArray);
                 if (null == byteList) {
                     return null;
                 }
                 List<T> list = new ArrayList<T>(byteList.size());
                 for (byte[] bytes : byteList) {
-                    list.add((T)deSerializeValue(bytes, type));
+                    list.add((T)deSerializeValue(null, bytes, type));
                 }
                 return list;
             }
@@ -230,10 +400,10 @@ public class Redis extends AbstractRedis  {
      * 关于递增(increment) / 递减(decrement)操作的更多信息，请参见 INCR 命令。
      */
     public Long decr(final CacheKeyModel model) {
-        return call(new JedisAction<Long>(){
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
-                return jedis.decr(serializerKey(model.getKey()));
+                return jedis.decr(serializerKey(model));
             }
         });
     }
@@ -246,10 +416,10 @@ public class Redis extends AbstractRedis  {
      * 关于更多递增(increment) / 递减(decrement)操作的更多信息，请参见 INCR 命令。
      */
     public Long decrBy(final CacheKeyModel model, final Long longValue) {
-        return call(new JedisAction<Long>(){
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
-                return jedis.decrBy(serializerKey(model.getKey()), longValue);
+                return jedis.decrBy(serializerKey(model), longValue);
             }
         });
     }
@@ -261,10 +431,10 @@ public class Redis extends AbstractRedis  {
      * 本操作的值限制在 64 位(bit)有符号数字表示之内。
      */
     public Long incr(final CacheKeyModel model) {
-        return call(new JedisAction<Long>(){
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
-                return jedis.incr(serializerKey(model.getKey()));
+                return jedis.incr(serializerKey(model));
             }
         });
     }
@@ -277,10 +447,10 @@ public class Redis extends AbstractRedis  {
      * 关于递增(increment) / 递减(decrement)操作的更多信息，参见 INCR 命令。
      */
     public Long incrBy(final CacheKeyModel model, final Long longValue) {
-        return call(new JedisAction<Long>(){
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
-                return jedis.incrBy(serializerKey(model.getKey()), longValue);
+                return jedis.incrBy(serializerKey(model), longValue);
             }
         });
     }
@@ -289,10 +459,10 @@ public class Redis extends AbstractRedis  {
      * 检查给定 key 是否存在。
      */
     public Boolean exists(final CacheKeyModel model) {
-        return call(new JedisAction<Boolean>(){
+        return call(model, new JedisAction<Boolean>(){
             @Override
             public Boolean execute(Jedis jedis) {
-                return jedis.exists(serializerKey(model.getKey()));
+                return jedis.exists(serializerKey(model));
             }
         });
     }
@@ -303,10 +473,10 @@ public class Redis extends AbstractRedis  {
      * 当 newkey 已经存在时， RENAME 命令将覆盖旧值。
      */
     public String rename(final CacheKeyModel oldModel, final CacheKeyModel newModel) {
-        return call(new JedisAction<String>(){
+        return call(oldModel, new JedisAction<String>(){
             @Override
             public String execute(Jedis jedis) {
-                return jedis.rename(serializerKey(oldModel.getKey()),serializerKey(newModel.getKey()));
+                return jedis.rename(serializerKey(oldModel),serializerKey(newModel));
             }
         });
     }
@@ -317,18 +487,16 @@ public class Redis extends AbstractRedis  {
      */
     @SuppressWarnings("unchecked")
     public <T> T getSet(final CacheKeyModel model, final Class<T> type, final Object value) {
-        return call(new JedisAction<T>(){
+        final byte[] key = serializerKey(model);
+        return call(model, new JedisAction<T>(){
             @Override
             public T execute(Jedis jedis) {
-                byte[] result = jedis.getSet(serializerKey(model.getKey()), serializerValue(value));
-                if (null == result) {
-                    return null;
-                }
-                Object object = deSerializeValue(result, type);
-                if (null != object) {
-                    expire(model);
-                }
-                return (T)object;
+                Pipeline pipeline = pipelined(jedis);
+                Response<byte[]> result = pipeline.getSet(key, serializerValue(model, value));
+                expire(pipeline, key, model);
+                pipeline.sync();
+                byte[] bytes = result.get();
+                return (null == bytes) ? null : (T)deSerializeValue(model, bytes, type);
             }
         });
     }
@@ -337,10 +505,10 @@ public class Redis extends AbstractRedis  {
      * 移除给定 key 的生存时间，将这个 key 从『易失的』(带生存时间 key )转换成『持久的』(一个不带生存时间、永不过期的 key )。
      */
     public Long persist(final CacheKeyModel model) {
-        return call(new JedisAction<Long>(){
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
-                return jedis.persist(serializerKey(model.getKey()));
+                return jedis.persist(serializerKey(model));
             }
         });
     }
@@ -349,10 +517,10 @@ public class Redis extends AbstractRedis  {
      * 返回 key 所储存的值的类型。
      */
     public String type(final CacheKeyModel model) {
-        return call(new JedisAction<String>(){
+        return call(model, new JedisAction<String>(){
             @Override
             public String execute(Jedis jedis) {
-                return jedis.type(serializerKey(model.getKey()));
+                return jedis.type(serializerKey(model));
             }
         });
     }
@@ -361,10 +529,10 @@ public class Redis extends AbstractRedis  {
      * 以秒为单位，返回给定 key 的剩余生存时间(TTL, time to live)。
      */
     public Long ttl(final CacheKeyModel model) {
-        return call(new JedisAction<Long>(){
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
-                return jedis.ttl(serializerKey(model.getKey()));
+                return jedis.ttl(serializerKey(model));
             }
         });
     }
@@ -379,14 +547,15 @@ public class Redis extends AbstractRedis  {
      * 返回列表的总行数
      */
     public Long lpush(final CacheKeyModel model, final Object value) {
-        return call(new JedisAction<Long>(){
+        final byte[] key = serializerKey(model);
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
-                Long count = jedis.lpush(serializerKey(model.getKey()), serializerValue(value));
-                if (null != count && count>0) {
-                    expire(model);
-                }
-                return count;
+                Pipeline pipeline = pipelined(jedis);
+                Response<Long> count = pipeline.lpush(key, serializerValue(model, value));
+                expire(pipeline, key, model);
+                pipeline.sync();
+                return count.get();
             }
         });
     }
@@ -397,14 +566,15 @@ public class Redis extends AbstractRedis  {
      * 如果域 field 已经存在于哈希表中，旧值将被覆盖。
      */
     public Long hset(final CacheKeyModel model, final String field, final Object value) {
-        return call(new JedisAction<Long>(){
+        final byte[] key = serializerKey(model);
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
-                Long count =  jedis.hset(serializerKey(model.getKey()), serializerKey(field), serializerValue(value));
-                if (null != count && count > 0) {
-                    expire(model);
-                }
-                return count;
+                Pipeline pipeline = pipelined(jedis);
+                Response<Long> count = pipeline.hset(key, serializerKey(model, field), serializerValue(model, value));
+                expire(pipeline, key, model);
+                pipeline.sync();
+                return count.get();
             }
         });
     }
@@ -418,14 +588,11 @@ public class Redis extends AbstractRedis  {
      */
     @SuppressWarnings("unchecked")
     public <T> T hget(final CacheKeyModel model, final Class<T> type, final String field) {
-        return call(new JedisAction<T>() {
+        return call(model, new JedisAction<T>() {
             @Override
             public T execute(Jedis jedis) {
-                byte[] bytes = jedis.hget(serializerKey(model.getKey()),  serializerKey(field));
-                if(null != bytes) {
-                    expire(model);
-                }
-                return (T)deSerializeValue(bytes, type);
+                byte[] bytes = jedis.hget(serializerKey(model),  serializerKey(model, field));
+                return (T)deSerializeValue(model, bytes, type);
             }
         });
     }
@@ -436,7 +603,8 @@ public class Redis extends AbstractRedis  {
      * 如果 key 不存在，一个空哈希表被创建并执行 HMSET 操作。
      */
     public Boolean hmset(final CacheKeyModel model, final Map<String, Object> values) {
-        return call(new JedisAction<Boolean>() {
+        final byte[] key = serializerKey(model);
+        return call(model, new JedisAction<Boolean>() {
             @Override
             public Boolean execute(Jedis jedis) {
                 if(null == values) {
@@ -445,13 +613,13 @@ public class Redis extends AbstractRedis  {
                 Map<byte[], byte[]> map = new HashMap<byte[], byte[]>(values.size());
                 for (Iterator<Map.Entry<String,Object>> it = values.entrySet().iterator(); it.hasNext(); ){
                     Map.Entry<String,Object> entry = it.next();
-                    map.put(serializerKey(entry.getKey()), serializerValue(entry.getValue()));
-                }
-                Boolean isOk = OK.equalsIgnoreCase(jedis.hmset(serializerKey(model.getKey()), map));
-                if(isOk) {
-                    expire(model);
+                    map.put(serializerKey(model, entry.getKey()), serializerValue(model, entry.getValue()));
                 }
-                return isOk;
+                Pipeline pipeline = pipelined(jedis);
+                Response<String> result = pipeline.hmset(key, map);
+                expire(pipeline, key, model);
+                pipeline.sync();
+                return OK.equalsIgnoreCase(result.get());
             }
         });
     }
@@ -465,15 +633,11 @@ public class Redis extends AbstractRedis  {
      * @return
      */
     public <T> List<T> hmget(final CacheKeyModel model, final Class<T> type, final String... fields) {
-        return call(new JedisAction<List<T>>() {
+        return call(model, new JedisAction<List<T>>() {
             @Override
             public List<T>execute(Jedis jedis) {
-                List<byte[]> data = jedis.hmget(serializerKey(model.getKey()), serializerKeyArray(fields));
-                if (null != data){
-                    expire(model);
-                    return toValueList(data, type);
-                }
-                return null;
+                List<byte[]> data = jedis.hmget(serializerKey(model), serializerKeyArray(model, fields));
+                return (null == data) ? null : toValueList(model, data, type);
             }
         });
     }
@@ -482,10 +646,10 @@ public class Redis extends AbstractRedis  {
      * 删除哈希表 key 中的一个或多个指定域，不存在的域将被忽略。
      */
     public Long hdel(final CacheKeyModel model, final String... fields) {
-        return call(new JedisAction<Long>() {
+        return call(model, new JedisAction<Long>() {
             @Override
             public Long execute(Jedis jedis) {
-                return jedis.hdel(serializerKey(model.getKey()), serializerKeyArray(fields));
+                return jedis.hdel(serializerKey(model), serializerKeyArray(model, fields));
             }
         });
     }
@@ -494,10 +658,10 @@ public class Redis extends AbstractRedis  {
      * 查看哈希表 key 中，给定域 field 是否存在。
      */
     public Boolean hexists(final CacheKeyModel model, final String field) {
-        return call(new JedisAction<Boolean>() {
+        return call(model, new JedisAction<Boolean>() {
             @Override
             public Boolean execute(Jedis jedis) {
-                return jedis.hexists(serializerKey(model.getKey()), serializerKey(field));
+                return jedis.hexists(serializerKey(model), serializerKey(model, field));
             }
         });
     }
@@ -508,14 +672,14 @@ public class Redis extends AbstractRedis  {
      */
     @SuppressWarnings("rawtypes")
     public <T> Map<String,T> hgetAll(final CacheKeyModel model, final Class<T> type) {
-        return call(new JedisAction<Map<String,T>>() {
+        return call(model, new JedisAction<Map<String,T>>() {
             @Override
             public Map<String,T> execute(Jedis jedis) {
-                Map<byte[], byte[]> data =  jedis.hgetAll(serializerKey(model.getKey()));
+                Map<byte[], byte[]> data =  jedis.hgetAll(serializerKey(model));
                 Map<String, T> result = new HashMap<String, T>(data.size());
                 if (data != null) {
                     for (Map.Entry<byte[], byte[]> e : data.entrySet()) {
-                        result.put(deSerializeKey(e.getKey()), deSerializeValue(e.getValue(), type));
+                        result.put(deSerializeKey(model, e.getKey()), deSerializeValue(model, e.getValue(), type));
                     }
                 }
                 return result;
@@ -523,15 +687,55 @@ public class Redis extends AbstractRedis  {
         });
     }
 
+    /**
+     * 使用HSCAN命令按游标迭代哈希表 key 中的所有域和值，每页读取后才反序列化，适合field数量很大的哈希表
+     * 同一个域可能会返回多次，迭代期间被修改的域不保证能读到
+     * @param model
+     * @param type 值的类型
+     */
+    public <T> ScanIterator<Map.Entry<String,T>> hscan(final CacheKeyModel model, final Class<T> type) {
+        return hscan(model, type, DEFAULT_SCAN_COUNT);
+    }
+
+    /**
+     * 使用HSCAN命令按游标迭代哈希表 key 中的所有域和值
+     * @param model
+     * @param type 值的类型
+     * @param count 每页建议返回的数量
+     */
+    public <T> ScanIterator<Map.Entry<String,T>> hscan(final CacheKeyModel model, final Class<T> type, final int count) {
+        final byte[] key = serializerKey(model);
+        final ScanParams params = new ScanParams().count(count);
+        return new CursorScanIterator<Map.Entry<byte[], byte[]>, Map.Entry<String,T>>() {
+            @Override
+            protected ScanResult<Map.Entry<byte[], byte[]>> scan(final String cursor) {
+                return call(model, new JedisAction<ScanResult<Map.Entry<byte[], byte[]>>>() {
+                    @Override
+                    public ScanResult<Map.Entry<byte[], byte[]>> execute(Jedis jedis) {
+                        return jedis.hscan(key, SafeEncoder.encode(cursor), params);
+                    }
+                });
+            }
+            @Override
+            protected List<Map.Entry<String,T>> convert(List<Map.Entry<byte[], byte[]>> data) {
+                List<Map.Entry<String,T>> result = new ArrayList<Map.Entry<String,T>>(data.size());
+                for (Map.Entry<byte[], byte[]> e : data) {
+                    result.add(new AbstractMap.SimpleImmutableEntry<String,T>(deSerializeKey(model, e.getKey()), deSerializeValue(model, e.getValue(), type)));
+                }
+                return result;
+            }
+        };
+    }
+
     /**
      * 返回哈希表 key 中所有域的值。
      */
     public <T> List<T> hvals(final CacheKeyModel model, final Class<T> type) {
-        return call(new JedisAction<List<T>>() {
+        return call(model, new JedisAction<List<T>>() {
             @Override
             public List<T> execute(Jedis jedis) {
-                List<byte[]> data = jedis.hvals(serializerKey(model.getKey()));
-                return toValueList(data, type);
+                List<byte[]> data = jedis.hvals(serializerKey(model));
+                return toValueList(model, data, type);
             }
         });
     }
@@ -541,11 +745,11 @@ public class Redis extends AbstractRedis  {
      * 底层实现此方法取名为 hfields 更为合适，在此仅为与底层保持一致
      */
     public Set<String> hkeys(final CacheKeyModel model) {
-        return call(new JedisAction<Set<String>>() {
+        return call(model, new JedisAction<Set<String>>() {
             @Override
             public Set<String> execute(Jedis jedis) {
-                Set<byte[]> dataByte = jedis.hkeys(serializerKey(model.getKey()));
-                return toValueSet(dataByte, String.class);
+                Set<byte[]> dataByte = jedis.hkeys(serializerKey(model));
+                return toValueSet(model, dataByte, String.class);
             }
         });
     }
@@ -554,10 +758,10 @@ public class Redis extends AbstractRedis  {
      * 返回哈希表 key 中域的数量。
      */
     public Long hlen(final CacheKeyModel model) {
-        return call(new JedisAction<Long>() {
+        return call(model, new JedisAction<Long>() {
             @Override
             public Long execute(Jedis jedis) {
-                return jedis.hlen(serializerKey(model.getKey()));
+                return jedis.hlen(serializerKey(model));
             }
         });
     }
@@ -571,10 +775,10 @@ public class Redis extends AbstractRedis  {
      * 本操作的值被限制在 64 位(bit)有符号数字表示之内。
      */
     public Long hincrBy(final CacheKeyModel model, final String field, final Long value) {
-        return call(new JedisAction<Long>() {
+        return call(model, new JedisAction<Long>() {
             @Override
             public Long execute(Jedis jedis) {
-                return jedis.hincrBy(serializerKey(model.getKey()), serializerField(field), value);
+                return jedis.hincrBy(serializerKey(model), serializerField(model, field), value);
             }
         });
     }
@@ -589,10 +793,10 @@ public class Redis extends AbstractRedis  {
      * HINCRBYFLOAT 命令的详细功能和 INCRBYFLOAT 命令类似，请查看 INCRBYFLOAT 命令获取更多相关信息。
      */
     public Double hincrByFloat(final CacheKeyModel model, final String field, final Double value) {
-        return call(new JedisAction<Double>() {
+        return call(model, new JedisAction<Double>() {
             @Override
             public Double execute(Jedis jedis) {
-                return jedis.hincrByFloat(serializerKey(model.getKey()), serializerField(field), value);
+                return jedis.hincrByFloat(serializerKey(model), serializerField(model, field), value);
             }
         });
     }
@@ -603,17 +807,21 @@ public class Redis extends AbstractRedis  {
      * 以 1 表示列表的第二个元素，以此类推。
      * 你也可以使用负数下标，以 -1 表示列表的最后一个元素， -2 表示列表的倒数第二个元素，以此类推。
      * 如果 key 不是列表类型，返回一个错误。
+     * 元素不是数字或超出int范围时返回null，超出int范围的元素请使用 {@link #lindexLong(CacheKeyModel, long, long)}
      */
     public Integer lindex(final CacheKeyModel model, final Long index) {
-        return call(new JedisAction<Integer>() {
+        return call(model, new JedisAction<Integer>() {
             @Override
             public Integer execute(Jedis jedis) {
-                byte[] bytes = jedis.lindex(serializerKey(model.getKey()), index);
-                Object data =  deSerializeValue(bytes, Integer.class);
-                if (null != data) {
-                    expire(model);
+                byte[] bytes = jedis.lindex(serializerKey(model), index);
+                if (!readLong(model, bytes)) {
+                    return null;
+                }
+                long value = longReply(Boolean.TRUE, 0L);
+                if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                    return null;
                 }
-                return Integer.parseInt(String.valueOf(data));
+                return (int) value;
             }
         });
     }
@@ -624,10 +832,10 @@ public class Redis extends AbstractRedis  {
      * 如果 key 不是列表类型，返回一个错误。
      */
     public Long llen(final CacheKeyModel model) {
-        return call(new JedisAction<Long>() {
+        return call(model, new JedisAction<Long>() {
             @Override
             public Long execute(Jedis jedis) {
-                return jedis.llen(serializerKey(model.getKey()));
+                return jedis.llen(serializerKey(model));
             }
         });
     }
@@ -637,14 +845,11 @@ public class Redis extends AbstractRedis  {
      */
     @SuppressWarnings("unchecked")
     public Long lpop(final CacheKeyModel model) {
-        return call(new JedisAction<Long>() {
+        return call(model, new JedisAction<Long>() {
             @Override
             public Long execute(Jedis jedis) {
-                byte[] result = jedis.lpop(serializerKey(model.getKey()));
-                if (null == result) {
-                    return 0L;
-                }
-                return Long.parseLong(String.valueOf(deSerializeValue(result, Long.class)));
+                byte[] result = jedis.lpop(serializerKey(model));
+                return longReply(readLong(model, result), 0L);
             }
         });
     }
@@ -661,11 +866,11 @@ public class Redis extends AbstractRedis  {
      */
     @SuppressWarnings("rawtypes")
     public <T> List<T> lrange(final CacheKeyModel model, final Class<T> type, final Long start, final Long end) {
-        return call(new JedisAction<List<T>>() {
+        return call(model, new JedisAction<List<T>>() {
             @Override
             public List<T> execute(Jedis jedis) {
-                List<byte[]> data = jedis.lrange(serializerKey(model.getKey()), start, end);
-                return (data == null) ? null : toValueList(data, type);
+                List<byte[]> data = jedis.lrange(serializerKey(model), start, end);
+                return (data == null) ? null : toValueList(model, data, type);
             }
         });
     }
@@ -680,14 +885,15 @@ public class Redis extends AbstractRedis  {
      * 当 key 存在但不是列表类型时，返回一个错误。
      */
     public Long lpush(final CacheKeyModel model, final Object... values) {
-        return call(new JedisAction<Long>(){
+        final byte[] key = serializerKey(model);
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
-                Long data =  jedis.lpush(serializerKey(model.getKey()), serializerValue(values));
-                if (null != data && data > 0) {
-                    expire(model);
-                }
-                return data;
+                Pipeline pipeline = pipelined(jedis);
+                Response<Long> count = pipeline.lpush(key, serializerValueArray(model, values));
+                expire(pipeline, key, model);
+                pipeline.sync();
+                return count.get();
             }
         });
     }
@@ -698,14 +904,15 @@ public class Redis extends AbstractRedis  {
      * 关于列表下标的更多信息，请参考 LINDEX 命令。
      */
     public String lset(final CacheKeyModel model, final Long index, final Object value) {
-        return call(new JedisAction<String>(){
+        final byte[] key = serializerKey(model);
+        return call(model, new JedisAction<String>(){
             @Override
             public String execute(Jedis jedis) {
-                String data =  jedis.lset(serializerKey(model.getKey()), index, serializerValue(value));
-                if (null != data) {
-                    expire(model);
-                }
-                return data;
+                Pipeline pipeline = pipelined(jedis);
+                Response<String> result = pipeline.lset(key, index, serializerValue(model, value));
+                expire(pipeline, key, model);
+                pipeline.sync();
+                return result.get();
             }
         });
     }
@@ -718,10 +925,10 @@ public class Redis extends AbstractRedis  {
      * count = 0 : 移除表中所有与 value 相等的值。
      */
     public Long lrem(final CacheKeyModel model, final Long count, final Object value) {
-        return call(new JedisAction<Long>(){
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
-                return jedis.lrem(serializerKey(model.getKey()), count, serializerValue(value));
+                return jedis.lrem(serializerKey(model), count, serializerValue(model, value));
             }
         });
     }
@@ -742,11 +949,11 @@ public class Redis extends AbstractRedis  {
      */
     @SuppressWarnings("rawtypes")
     public <T> List<T> lrange(final CacheKeyModel model, final Class<T> type, final Integer start, final Integer end) {
-        return call(new JedisAction<List<T>>(){
+        return call(model, new JedisAction<List<T>>(){
             @Override
             public List<T> execute(Jedis jedis) {
-                List<byte[]> resultList = jedis.lrange(serializerKey(model.getKey()), start, end);
-                return (null == resultList) ? null : toValueList(resultList, type);
+                List<byte[]> resultList = jedis.lrange(serializerKey(model), start, end);
+                return (null == resultList) ? null : toValueList(model, resultList, type);
             }
         });
     }
@@ -759,10 +966,10 @@ public class Redis extends AbstractRedis  {
      * 当 key 不是列表类型时，返回一个错误。
      */
     public String ltrim(final CacheKeyModel model, final Integer start, final Integer end) {
-        return call(new JedisAction<String>(){
+        return call(model, new JedisAction<String>(){
             @Override
             public String execute(Jedis jedis) {
-                return jedis.ltrim(serializerKey(model.getKey()), start, end);
+                return jedis.ltrim(serializerKey(model), start, end);
             }
         });
     }
@@ -772,10 +979,10 @@ public class Redis extends AbstractRedis  {
      */
     @SuppressWarnings("unchecked")
     public String rpop(final CacheKeyModel model) {
-        return call(new JedisAction<String>(){
+        return call(model, new JedisAction<String>(){
             @Override
             public String execute(Jedis jedis) {
-                return String.valueOf(deSerializeValue(jedis.rpop(serializerKey(model.getKey())), String.class));
+                return String.valueOf(deSerializeValue(model, jedis.rpop(serializerKey(model)), String.class));
             }
         });
     }
@@ -787,14 +994,16 @@ public class Redis extends AbstractRedis  {
      */
     @SuppressWarnings("unchecked")
     public <T> T rpoplpush(final CacheKeyModel sourceModel, final CacheKeyModel destModel, final Class<T> type) {
-        return call(new JedisAction<T>(){
+        final byte[] key = serializerKey(sourceModel);
+        final byte[] destKey = serializerKey(destModel);
+        return call(sourceModel, new JedisAction<T>(){
             @Override
             public T execute(Jedis jedis) {
-                T result =  (T)deSerializeValue(jedis.rpoplpush(serializerKey(sourceModel.getKey()), serializerKey(destModel.getKey())), type);
-                if (null != result) {
-                    expire(destModel);
-                }
-                return result;
+                Pipeline pipeline = pipelined(jedis);
+                Response<byte[]> result = pipeline.rpoplpush(key, destKey);
+                expire(pipeline, destKey, destModel);
+                pipeline.sync();
+                return (T)deSerializeValue(sourceModel, result.get(), type);
             }
         });
     }
@@ -808,10 +1017,15 @@ public class Redis extends AbstractRedis  {
      * 当 key 存在但不是列表类型时，返回一个错误。
      */
     public Long rpush(final CacheKeyModel model, final Object... value) {
-        return call(new JedisAction<Long>(){
+        final byte[] key = serializerKey(model);
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
-                return jedis.rpush(serializerKey(model.getKey()), serializerValueArray(value));
+                Pipeline pipeline = pipelined(jedis);
+                Response<Long> count = pipeline.rpush(key, serializerValueArray(model, value));
+                expire(pipeline, key, model);
+                pipeline.sync();
+                return count.get();
             }
         });
     }
@@ -830,8 +1044,8 @@ public class Redis extends AbstractRedis  {
         return call(new JedisAction<List<T>>(){
             @Override
             public List<T> execute(Jedis jedis) {
-                List<byte[]> data =  jedis.blpop(timeout, serializerKeyArray(keys));
-                return toValueList(data, type);
+                List<byte[]> data =  jedis.blpop(timeout, serializerKeyArray(null, keys));
+                return toValueList(null, data, type);
             }
         });
     }
@@ -851,8 +1065,8 @@ public class Redis extends AbstractRedis  {
         return call(new JedisAction<List<T>>(){
             @Override
             public List<T> execute(Jedis jedis) {
-                List<byte[]> data =  jedis.brpop(timeout, serializerKeyArray(keys));
-                return toValueList(data, type);
+                List<byte[]> data =  jedis.brpop(timeout, serializerKeyArray(null, keys));
+                return toValueList(null, data, type);
             }
         });
     }
@@ -878,14 +1092,15 @@ public class Redis extends AbstractRedis  {
      * 当 key 不是集合类型时，返回一个错误。
      */
     public Long sadd(final CacheKeyModel model, final Object... values) {
-        return call(new JedisAction<Long>(){
+        final byte[] key = serializerKey(model);
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
-                Long count =  jedis.sadd(serializerKey(model.getKey()), serializerValueArray(values));
-                if (null != count && count>0L) {
-                    expire(model);
-                }
-                return count;
+                Pipeline pipeline = pipelined(jedis);
+                Response<Long> count = pipeline.sadd(key, serializerValueArray(model, values));
+                expire(pipeline, key, model);
+                pipeline.sync();
+                return count.get();
             }
         });
     }
@@ -895,10 +1110,10 @@ public class Redis extends AbstractRedis  {
      * 返回集合 key 的基数(集合中元素的数量)。
      */
     public Long scard(final CacheKeyModel model) {
-        return call(new JedisAction<Long>(){
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
-                return jedis.scard(serializerKey(model.getKey()));
+                return jedis.scard(serializerKey(model));
             }
         });
     }
@@ -909,10 +1124,10 @@ public class Redis extends AbstractRedis  {
      */
     @SuppressWarnings("unchecked")
     public <T> T spop(final CacheKeyModel model, final Class<T> type) {
-        return call(new JedisAction<T>(){
+        return call(model, new JedisAction<T>(){
             @Override
             public T execute(Jedis jedis) {
-                return (T)deSerializeValue(jedis.spop(serializerKey(model.getKey())), type);
+                return (T)deSerializeValue(model, jedis.spop(serializerKey(model)), type);
             }
         });
     }
@@ -923,23 +1138,59 @@ public class Redis extends AbstractRedis  {
      */
     @SuppressWarnings("rawtypes")
     public <T> Set<T> smembers(final CacheKeyModel model, final Class<T> type) {
-        return call(new JedisAction<Set<T>>(){
+        return call(model, new JedisAction<Set<T>>(){
             @Override
             public Set<T> execute(Jedis jedis) {
-                Set<byte[]> data = jedis.smembers(serializerKey(model.getKey()));
-                return toValueSet(data, type);
+                Set<byte[]> data = jedis.smembers(serializerKey(model));
+                return toValueSet(model, data, type);
             }
         });
     }
 
+    /**
+     * 使用SSCAN命令按游标迭代集合 key 中的所有成员，每页读取后才反序列化，适合成员数量很大的集合
+     * 同一个成员可能会返回多次
+     * @param model
+     * @param type 成员的类型
+     */
+    public <T> ScanIterator<T> sscan(final CacheKeyModel model, final Class<T> type) {
+        return sscan(model, type, DEFAULT_SCAN_COUNT);
+    }
+
+    /**
+     * 使用SSCAN命令按游标迭代集合 key 中的所有成员
+     * @param model
+     * @param type 成员的类型
+     * @param count 每页建议返回的数量
+     */
+    public <T> ScanIterator<T> sscan(final CacheKeyModel model, final Class<T> type, final int count) {
+        final byte[] key = serializerKey(model);
+        final ScanParams params = new ScanParams().count(count);
+        return new CursorScanIterator<byte[], T>() {
+            @Override
+            protected ScanResult<byte[]> scan(final String cursor) {
+                return call(model, new JedisAction<ScanResult<byte[]>>() {
+                    @Override
+                    public ScanResult<byte[]> execute(Jedis jedis) {
+                        return jedis.sscan(key, SafeEncoder.encode(cursor), params);
+                    }
+                });
+            }
+            @Override
+            protected List<T> convert(List<byte[]> data) {
+                return toValueList(model, data, type);
+            }
+        };
+    }
+
     /**
      * 判断 member 元素是否集合 key 的成员。
      */
     public Boolean sismember(final CacheKeyModel model, final Object value) {
-        return call(new JedisAction<Boolean>(){
+        return call(model, new JedisAction<Boolean>(){
             @Override
             public Boolean execute(Jedis jedis) {
-                return jedis.sismember(serializerKey(model.getKey()), serializerValue(value));
+                return jedis.sismember(serializerKey(model), serializerValue(model, value));
             }
         });
     }
@@ -949,15 +1200,14 @@ public class Redis extends AbstractRedis  {
      */
     @SuppressWarnings("rawtypes")
     public <T> Set<T> sinter(final Class<T> type, final CacheKeyModel... cacheKeyModels) {
-        return call(new JedisAction<Set<T>>(){
+        return call(first(cacheKeyModels), new JedisAction<Set<T>>(){
             @Override
             public Set<T> execute(Jedis jedis) {
-                String[] keys =getCacheModelKeyArray(cacheKeyModels);
-                if (null == keys) {
+                if (null == cacheKeyModels) {
                     return null;
                 }
-                Set<byte[]> data = jedis.sinter(serializerKeyArray(keys));
-                return toValueSet(data, type);
+                Set<byte[]> data = jedis.sinter(serializerKeyArray(cacheKeyModels));
+                return toValueSet(first(cacheKeyModels), data, type);
             }
         });
     }
@@ -967,10 +1217,10 @@ public class Redis extends AbstractRedis  {
      */
     @SuppressWarnings("unchecked")
     public <T> T srandmember(final CacheKeyModel model, final Class<T> type) {
-        return call(new JedisAction<T>(){
+        return call(model, new JedisAction<T>(){
             @Override
             public T execute(Jedis jedis) {
-                return (T)deSerializeValue(jedis.srandmember(serializerKey(model.getKey())), type);
+                return (T)deSerializeValue(model, jedis.srandmember(serializerKey(model)), type);
             }
         });
     }
@@ -985,10 +1235,10 @@ public class Redis extends AbstractRedis  {
      */
     @SuppressWarnings("rawtypes")
     public <T> List<T> srandmember(final CacheKeyModel model, final Integer count, final Class<T> type) {
-        return call(new JedisAction<List<T>>(){
+        return call(model, new JedisAction<List<T>>(){
             @Override
             public List<T> execute(Jedis jedis) {
-                return toValueList(jedis.srandmember(serializerKey(model.getKey()),count), type);
+                return toValueList(model, jedis.srandmember(serializerKey(model),count), type);
             }
         });
     }
@@ -997,10 +1247,10 @@ public class Redis extends AbstractRedis  {
      * 移除集合 key 中的一个或多个 member 元素，不存在的 member 元素会被忽略。
      */
     public Long srem(final CacheKeyModel model, final String... members) {
-        return call(new JedisAction<Long>(){
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
-                return jedis.srem(serializerKey(model.getKey()),serializerKeyArray(members));
+                return jedis.srem(serializerKey(model),serializerKeyArray(model, members));
             }
         });
     }
@@ -1011,15 +1261,14 @@ public class Redis extends AbstractRedis  {
      */
     @SuppressWarnings("rawtypes")
     public <T> Set<T> sunion(final Class<T> type, final CacheKeyModel... cacheKeyModels) {
-        return call(new JedisAction<Set<T>>(){
+        return call(first(cacheKeyModels), new JedisAction<Set<T>>(){
             @Override
             public Set<T> execute(Jedis jedis) {
-                String[] keys =getCacheModelKeyArray(cacheKeyModels);
-                if (null == keys) {
+                if (null == cacheKeyModels) {
                     return null;
                 }
-                Set<byte[]> data = jedis.sunion(serializerKeyArray(keys));
-                return toValueSet(data, type);
+                Set<byte[]> data = jedis.sunion(serializerKeyArray(cacheKeyModels));
+                return toValueSet(first(cacheKeyModels), data, type);
             }
         });
     }
@@ -1031,15 +1280,14 @@ public class Redis extends AbstractRedis  {
      */
     @SuppressWarnings("rawtypes")
     public <T> Set<T> sdiff(final Class<T> type, final CacheKeyModel... cacheKeyModels) {
-        return call(new JedisAction<Set<T>>(){
+        return call(first(cacheKeyModels), new JedisAction<Set<T>>(){
             @Override
             public Set<T> execute(Jedis jedis) {
-                String[] keys = getCacheModelKeyArray(cacheKeyModels);
-                if (null == keys) {
+                if (null == cacheKeyModels) {
                     return null;
                 }
-                Set<byte[]> data = jedis.sdiff(serializerKeyArray(keys));
-                return toValueSet(data, type);
+                Set<byte[]> data = jedis.sdiff(serializerKeyArray(cacheKeyModels));
+                return toValueSet(first(cacheKeyModels), data, type);
             }
         });
     }
@@ -1050,23 +1298,23 @@ public class Redis extends AbstractRedis  {
      * 并通过重新插入这个 member 元素，来保证该 member 在正确的位置上。
      */
     public Long zadd(final CacheKeyModel model, final Double score, final Object value) {
-        return call(new JedisAction<Long>(){
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
-                return jedis.zadd(serializerKey(model.getKey()), score, serializerValue(value));
+                return jedis.zadd(serializerKey(model), score, serializerValue(model, value));
             }
         });
     }
 
     public Long zadd(final CacheKeyModel model, final Map<Object, Double> scoreMembers) {
-        return call(new JedisAction<Long>(){
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
                 Map<byte[], Double> para = new HashMap<byte[], Double>();
                 for (Map.Entry<Object, Double> e : scoreMembers.entrySet()) {
-                    para.put(serializerKey(model.getKey()), e.getValue());
+                    para.put(serializerKey(model), e.getValue());
                 }
-                return jedis.zadd(serializerKey(model.getKey()), para);
+                return jedis.zadd(serializerKey(model), para);
             }
         });
     }
@@ -1075,10 +1323,10 @@ public class Redis extends AbstractRedis  {
      * 返回有序集 key 的基数。
      */
     public Long zcard(final CacheKeyModel model) {
-        return call(new JedisAction<Long>(){
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
-                return jedis.zcard(serializerKey(model.getKey()));
+                return jedis.zcard(serializerKey(model));
             }
         });
     }
@@ -1088,10 +1336,10 @@ public class Redis extends AbstractRedis  {
      * 关于参数 min 和 max 的详细使用方法，请参考 ZRANGEBYSCORE 命令。
      */
     public Long zcount(final CacheKeyModel model, final Double min, final Double max) {
-        return call(new JedisAction<Long>(){
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
-                return jedis.zcount(serializerKey(model.getKey()), min, max);
+                return jedis.zcount(serializerKey(model), min, max);
             }
         });
     }
@@ -1100,10 +1348,10 @@ public class Redis extends AbstractRedis  {
      * 为有序集 key 的成员 member 的 score 值加上增量 increment 。
      */
     public Double zincrby(final CacheKeyModel model, final Double score, final Object member) {
-        return call(new JedisAction<Double>(){
+        return call(model, new JedisAction<Double>(){
             @Override
             public Double execute(Jedis jedis) {
-                return jedis.zincrby(serializerKey(model.getKey()), score, serializerValue(member));
+                return jedis.zincrby(serializerKey(model), score, serializerValue(model, member));
             }
         });
     }
@@ -1116,16 +1364,56 @@ public class Redis extends AbstractRedis  {
      */
     @SuppressWarnings("rawtypes")
     public <T> Set<T> zrange(final CacheKeyModel model, final Long start, final Long end, final Class<T> type) {
-        return call(new JedisAction<Set<T>>(){
+        return call(model, new JedisAction<Set<T>>(){
             @Override
             public Set<T> execute(Jedis jedis) {
-                Set<byte[]> data = jedis.zrange(serializerKey(model.getKey()), start, end);
-                return toValueSet(data, type);
+                Set<byte[]> data = jedis.zrange(serializerKey(model), start, end);
+                return toValueSet(model, data, type);
             }
         });
 
     }
 
+    /**
+     * 使用ZSCAN命令按游标迭代有序集 key 中的所有成员，每页读取后才反序列化，适合成员数量很大的有序集
+     * 返回顺序不按score排序，同一个成员可能会返回多次
+     * @param model
+     * @param type 成员的类型
+     */
+    public <T> ScanIterator<T> zscan(final CacheKeyModel model, final Class<T> type) {
+        return zscan(model, type, DEFAULT_SCAN_COUNT);
+    }
+
+    /**
+     * 使用ZSCAN命令按游标迭代有序集 key 中的所有成员
+     * @param model
+     * @param type 成员的类型
+     * @param count 每页建议返回的数量
+     */
+    public <T> ScanIterator<T> zscan(final CacheKeyModel model, final Class<T> type, final int count) {
+        final byte[] key = serializerKey(model);
+        final ScanParams params = new ScanParams().count(count);
+        return new CursorScanIterator<Tuple, T>() {
+            @Override
+            protected ScanResult<Tuple> scan(final String cursor) {
+                return call(model, new JedisAction<ScanResult<Tuple>>() {
+                    @Override
+                    public ScanResult<Tuple> execute(Jedis jedis) {
+                        return jedis.zscan(key, SafeEncoder.encode(cursor), params);
+                    }
+                });
+            }
+            @Override
+            protected List<T> convert(List<Tuple> data) {
+                List<T> result = new ArrayList<T>(data.size());
+                for (Tuple tuple : data) {
+                    result.add(deSerializeValue(model, tuple.getBinaryElement(), type));
+                }
+                return result;
+            }
+        };
+    }
+
     /**
      * 返回有序集 key 中，指定区间内的成员。
      * 其中成员的位置按 score 值递减(从大到小)来排列。
@@ -1134,11 +1422,11 @@ public class Redis extends AbstractRedis  {
      */
     @SuppressWarnings("rawtypes")
     public <T> Set<T> zrevrange(final CacheKeyModel model, final Long start, final Long end, final Class<T> type) {
-        return call(new JedisAction<Set<T>>(){
+        return call(model, new JedisAction<Set<T>>(){
             @Override
             public Set<T> execute(Jedis jedis) {
-                Set<byte[]> data = jedis.zrevrange(serializerKey(model.getKey()), start, end);
-                return toValueSet(data, type);
+                Set<byte[]> data = jedis.zrevrange(serializerKey(model), start, end);
+                return toValueSet(model, data, type);
             }
         });
     }
@@ -1149,11 +1437,11 @@ public class Redis extends AbstractRedis  {
      */
     @SuppressWarnings("rawtypes")
     public <T> Set<T> zrangeByScore(final CacheKeyModel model, final Double min, final Double max, final Class<T> type) {
-        return call(new JedisAction<Set<T>>(){
+        return call(model, new JedisAction<Set<T>>(){
             @Override
             public Set<T> execute(Jedis jedis) {
-                Set<byte[]> data = jedis.zrangeByScore(serializerKey(model.getKey()), min, max);
-                return toValueSet(data, type);
+                Set<byte[]> data = jedis.zrangeByScore(serializerKey(model), min, max);
+                return toValueSet(model, data, type);
             }
         });
     }
@@ -1164,10 +1452,10 @@ public class Redis extends AbstractRedis  {
      * 使用 ZREVRANK 命令可以获得成员按 score 值递减(从大到小)排列的排名。
      */
     public Long zrank(final CacheKeyModel model, final Object member) {
-        return call(new JedisAction<Long>(){
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
-                return jedis.zrank(serializerKey(model.getKey()), serializerValue(member));
+                return jedis.zrank(serializerKey(model), serializerValue(model, member));
             }
         });
     }
@@ -1178,10 +1466,10 @@ public class Redis extends AbstractRedis  {
      * 使用 ZRANK 命令可以获得成员按 score 值递增(从小到大)排列的排名。
      */
     public Long zrevrank(final CacheKeyModel model, final Object member) {
-        return call(new JedisAction<Long>(){
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
-                return jedis.zrevrank(serializerKey(model.getKey()), serializerValue(member));
+                return jedis.zrevrank(serializerKey(model), serializerValue(model, member));
             }
         });
     }
@@ -1191,10 +1479,10 @@ public class Redis extends AbstractRedis  {
      * 当 key 存在但不是有序集类型时，返回一个错误。
      */
     public Long zrem(final CacheKeyModel model, final Object... members) {
-        return call(new JedisAction<Long>(){
+        return call(model, new JedisAction<Long>(){
             @Override
             public Long execute(Jedis jedis) {
-                return jedis.zrem(serializerKey(model.getKey()), serializerValueArray(members));
+                return jedis.zrem(serializerKey(model), serializerValueArray(model, members));
             }
         });
     }
@@ -1204,12 +1492,83 @@ public class Redis extends AbstractRedis  {
      * 如果 member 元素不是有序集 key 的成员，或 key 不存在，返回 nil 。
      */
     public Double zscore(final CacheKeyModel model, final Object members) {
-        return call(new JedisAction<Double>(){
+        return call(model, new JedisAction<Double>(){
             @Override
             public Double execute(Jedis jedis) {
-                return jedis.zscore(serializerKey(model.getKey()), serializerValue(members));
+                return jedis.zscore(serializerKey(model), serializerValue(model, members));
+            }
+        });
+    }
+
+    /**
+     * 取出key的值并解析为long，不经过反序列化及装箱
+     * @param defaultValue key不存在或不是数字时返回的值
+     */
+    public long getLong(final CacheKeyModel model, final long defaultValue) {
+        Boolean found = call(model, new JedisAction<Boolean>() {
+            @Override
+            public Boolean execute(Jedis jedis) {
+                return readLong(model, jedis.get(serializerKey(model)));
+            }
+        });
+        return longReply(found, defaultValue);
+    }
+
+    /**
+     * 取出key的值并解析为double，不经过反序列化及装箱
+     * @param defaultValue key不存在或不是数字时返回的值
+     */
+    public double getDouble(final CacheKeyModel model, final double defaultValue) {
+        Boolean found = call(model, new JedisAction<Boolean>() {
+            @Override
+            public Boolean execute(Jedis jedis) {
+                return readDouble(model, jedis.get(serializerKey(model)));
             }
         });
+        return doubleReply(found, defaultValue);
+    }
+
+    /**
+     * 取出hash field的值并解析为long，适合hincrBy写入的计数器
+     * @param defaultValue field不存在或不是数字时返回的值
+     */
+    public long hgetLong(final CacheKeyModel model, final String field, final long defaultValue) {
+        Boolean found = call(model, new JedisAction<Boolean>() {
+            @Override
+            public Boolean execute(Jedis jedis) {
+                return readLong(model, jedis.hget(serializerKey(model), serializerKey(model, field)));
+            }
+        });
+        return longReply(found, defaultValue);
+    }
+
+    /**
+     * 取出列表中下标为index的元素并解析为long
+     * @param defaultValue 下标超出范围或不是数字时返回的值
+     */
+    public long lindexLong(final CacheKeyModel model, final long index, final long defaultValue) {
+        Boolean found = call(model, new JedisAction<Boolean>() {
+            @Override
+            public Boolean execute(Jedis jedis) {
+                return readLong(model, jedis.lindex(serializerKey(model), index));
+            }
+        });
+        return longReply(found, defaultValue);
+    }
+
+    /**
+     * 取出有序集合成员的score，直接解析Redis返回的字节，不经过String及Double
+     * @param defaultValue 成员不存在时返回的值
+     */
+    public double zscoreDouble(final CacheKeyModel model, final Object member, final double defaultValue) {
+        Boolean found = call(model, new JedisAction<Boolean>() {
+            @Override
+            public Boolean execute(Jedis jedis) {
+                jedis.getClient().zscore(serializerKey(model), serializerValue(model, member));
+                return readDouble(model, jedis.getClient().getBinaryBulkReply());
+            }
+        });
+        return doubleReply(found, defaultValue);
     }
 
     /**
@@ -1344,6 +1703,7 @@ public class Redis extends AbstractRedis  {
      * @return
      */
     public <T> T scriptLoad(final String script, final String... sampleKey) {
+        scriptRegistry.register(script);
         return call(new JedisAction<T>(){
             @Override
             public T execute(Jedis jedis) {
@@ -1365,8 +1725,75 @@ public class Redis extends AbstractRedis  {
         return call(new JedisAction<T>(){
             @Override
             public T execute(Jedis jedis) {
-                return (T)jedis.evalsha(sha, keyCount, values);
+                return (T)scriptRegistry.evalsha(jedis, sha, keyCount, values);
+            }
+        });
+    }
+
+    /**
+     * 以EVALSHA执行已注册的脚本，key及参数按ISerializer序列化
+     * 节点上没有该脚本(NOSCRIPT)时自动加载并重试
+     * @param script registerScript返回的脚本
+     * @param type 返回值为字符串时反序列化的类型，为null时返回byte[]
+     * @param models 脚本操作的key，对应KEYS
+     * @param args 对应ARGV
+     */
+    public <T> T eval(final RedisScript script, final Class<?> type, final List<CacheKeyModel> models, final Object... args) {
+        final CacheKeyModel model = null == models || models.isEmpty() ? null : models.get(0);
+        return call(model, new JedisAction<T>(){
+            @Override
+            public T execute(Jedis jedis) {
+                Object result = scriptRegistry.evalsha(jedis, script, serializerKeyList(models), serializerValueList(model, args));
+                return (T)toScriptResult(model, result, type);
+            }
+        });
+    }
+
+    /**
+     * 批量执行命令，所有命令通过同一个pipeline一次性发送，只需一次网络往返
+     * <pre>
+     * 例子：
+     * final List&lt;BatchResponse&lt;RedisTestUser&gt;&gt; users = new ArrayList&lt;&gt;();
+     * client.pipelined(batch -&gt; {
+     *     for (CacheKeyModel model : models) {
+     *         users.add(batch.get(model, RedisTestUser.class));
+     *     }
+     * });
+     * RedisTestUser user = users.get(0).get();
+     * </pre>
+     * @param action 组装命令的方法
+     * @return 发送成功返回true
+     */
+    public Boolean pipelined(final JedisBatchAction action) {
+        final JedisBatch batch = new JedisBatch(this);
+        try {
+            action.execute(batch);
+        } catch (Exception e) {
+            LOGGER.warn(e.getMessage(), e);
+            return false;
+        }
+        if (batch.getResponses().isEmpty()) {
+            return true;
+        }
+        Boolean isOk = call(new JedisAction<Boolean>() {
+            @Override
+            public Boolean execute(Jedis jedis) {
+                try {
+                    Pipeline pipeline = pipelined(jedis);
+                    for (BatchResponse<?> response : batch.getResponses()) {
+                        response.queueTo(pipeline);
+                    }
+                    pipeline.sync();
+                    for (BatchResponse<?> response : batch.getResponses()) {
+                        response.resolve();
+                    }
+                    return true;
+                } catch (RuntimeException e) {
+                    batch.failPending(e);
+                    throw e;
+                }
             }
         });
+        return null != isOk && isOk;
     }
 }
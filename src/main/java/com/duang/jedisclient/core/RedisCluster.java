@@ -1,20 +1,30 @@
 package com.duang.jedisclient.core;
 
 import cn.hutool.core.thread.ThreadUtil;
+import com.duang.jedisclient.common.CacheException;
 import com.duang.jedisclient.common.CacheKeyModel;
 import com.duang.jedisclient.common.KeyValueParam;
 import com.duang.jedisclient.common.RedisConfig;
+import com.duang.jedisclient.common.TtlPolicy;
+import com.duang.jedisclient.metrics.MetricsRecorder;
 import com.duang.jedisclient.plugin.RedisFactory;
 import com.duang.jedisclient.serializer.ISerializer;
 import com.duang.jedisclient.utils.RedisUtil;
+import com.duang.jedisclient.utils.Utf8;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import redis.clients.jedis.Jedis;
-import redis.clients.jedis.JedisCluster;
-import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.*;
+import redis.clients.jedis.exceptions.JedisAskDataException;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisMovedDataException;
+import redis.clients.jedis.exceptions.JedisRedirectionException;
 import redis.clients.jedis.params.SetParams;
+import redis.clients.jedis.util.JedisClusterCRC16;
+import redis.clients.jedis.util.SafeEncoder;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 
@@ -40,22 +50,166 @@ public class RedisCluster extends AbstractRedis {
      * @return
      */
     public <T> T call(JedisClusterAction action) {
+        return call(null, action);
+    }
+
+    /**
+     * 调用缓存方法，启用度量时按model的缓存key枚举分组记录
+     * @param model 命令操作的CacheKeyModel，可以为null
+     * @param action
+     * @param <T>
+     * @return
+     */
+    public <T> T call(CacheKeyModel model, JedisClusterAction action) {
         T result = null;
+        MetricsRecorder.Scope scope = beginMetrics(action, model);
         try {
             // 因为jedisCluster是同一个对象，不需要自行再封装共用jedisCluster
             result = (T) action.execute(jedisCluster);
         } catch (Exception e) {
+            if (null != scope) {
+                scope.error();
+            }
             e.printStackTrace();
             LOGGER.warn(e.getMessage(), e);
+        } finally {
+            if (null != scope) {
+                scope.end();
+            }
         }
         return result;
     }
 
+    /**
+     * 在key所在节点的链接上执行命令，用于需要在同一个链接上通过pipeline执行多条命令的场景
+     * 与JedisCluster的命令一样处理重定向及节点故障，最多重试maxRedirections次：
+     * MOVED时刷新slot缓存后重试；ASK时在目标节点上重试，每条命令前发送ASKING；
+     * 链接失败(如主从切换)时刷新slot缓存后重试
+     * @param key 用于计算hash slot的key
+     * @param action
+     * @param <T>
+     * @return
+     */
+    public <T> T callSlot(byte[] key, JedisAction action) {
+        return callSlot(null, key, action);
+    }
+
+    /**
+     * 在key所在节点的链接上执行命令，启用度量时按model的缓存key枚举分组记录
+     * @param model 命令操作的CacheKeyModel，可以为null
+     * @param key 用于计算hash slot的key
+     * @param action
+     * @param <T>
+     * @return
+     */
+    public <T> T callSlot(CacheKeyModel model, byte[] key, JedisAction action) {
+        T result = null;
+        MetricsRecorder.Scope scope = beginMetrics(action, model);
+        try {
+            result = executeOnSlot(key, action);
+        } catch (Exception e) {
+            if (null != scope) {
+                scope.error();
+            }
+            e.printStackTrace();
+            LOGGER.warn(e.getMessage(), e);
+        } finally {
+            if (null != scope) {
+                scope.end();
+            }
+        }
+        return result;
+    }
+
+    private <T> T executeOnSlot(byte[] key, JedisAction action) throws Exception {
+        int slot = JedisClusterCRC16.getSlot(key);
+        JedisPool askPool = null;
+        for (int redirections = 0; ; redirections++) {
+            Jedis jedis = null;
+            try {
+                long borrowTime = System.nanoTime();
+                jedis = null == askPool ? jedisCluster.getConnectionFromSlot(slot) : askPool.getResource();
+                if (null != poolMonitor) {
+                    poolMonitor.recordBorrow(jedis, System.nanoTime() - borrowTime);
+                }
+                if (null != askPool) {
+                    jedis.asking();
+                    NodePipeline.beginAsking();
+                }
+                return (T) action.execute(jedis);
+            } catch (JedisAskDataException e) {
+                if (redirections >= redisConfig.getMaxRedirections()) {
+                    throw e;
+                }
+                askPool = jedisCluster.getClusterNodes().get(e.getTargetNode().toString());
+                if (null == askPool) {
+                    renewSlotCache(key);
+                }
+            } catch (JedisMovedDataException e) {
+                if (redirections >= redisConfig.getMaxRedirections()) {
+                    throw e;
+                }
+                askPool = null;
+                renewSlotCache(key);
+            } catch (JedisConnectionException e) {
+                if (redirections >= redisConfig.getMaxRedirections()) {
+                    throw e;
+                }
+                askPool = null;
+                renewSlotCache(key);
+            } finally {
+                NodePipeline.endAsking();
+                if (null != jedis) {
+                    jedis.close();
+                }
+            }
+        }
+    }
+
     // cluster 不需要实现
     public Jedis getResource() {
         return null;
     }
 
+    @Override
+    protected <T> ValueTtl<T> getWithTtl(final CacheKeyModel model, final Class<T> type) {
+        final byte[] key = serializerKey(model);
+        return callSlot(model, key, new JedisAction<ValueTtl<T>>() {
+            @Override
+            public ValueTtl<T> execute(Jedis jedis) {
+                Pipeline pipeline = pipelined(jedis);
+                Response<byte[]> value = pipeline.get(key);
+                Response<Long> pttl = pipeline.pttl(key);
+                pipeline.sync();
+                byte[] bytes = value.get();
+                return new ValueTtl<T>(null == bytes ? null : deSerializeValue(model, bytes, type), pttl.get());
+            }
+        });
+    }
+
+    @Override
+    protected boolean tryLease(final String leaseKey, final String token, final long leaseMillis) {
+        Boolean result = call(new JedisClusterAction<Boolean>() {
+            @Override
+            public Boolean execute(JedisCluster jedisCluster) {
+                return OK.equalsIgnoreCase(jedisCluster.set(leaseKey, token, SetParams.setParams().nx().px(leaseMillis)));
+            }
+        });
+        return Boolean.TRUE.equals(result);
+    }
+
+    @Override
+    protected void releaseLease(final String leaseKey, final String token) {
+        final byte[] key = SafeEncoder.encode(leaseKey);
+        callSlot(key, new JedisAction<Object>() {
+            @Override
+            public Object execute(Jedis jedis) {
+                return scriptRegistry.evalsha(jedis, releaseLeaseScript,
+                        Collections.singletonList(key), Collections.singletonList(SafeEncoder.encode(token)));
+            }
+        });
+    }
+
     /*************************** Redis里的方法 ************************/
 
 
@@ -67,10 +221,10 @@ public class RedisCluster extends AbstractRedis {
      * 0  如果key不存在或者不能设置过期时间。
      */
     public Long expire(final CacheKeyModel model) {
-        return call(new JedisClusterAction<Long>(){
+        return call(model, new JedisClusterAction<Long>(){
             public Long execute(JedisCluster jedisCluster) {
                 if(model.getKeyTTL() > 0) {
-                    return jedisCluster.expire(serializerKey(model.getKey()), model.getKeyTTL());
+                    return jedisCluster.expire(serializerKey(model), model.getWriteTTL());
                 }
                 return 0L;
             }
@@ -83,10 +237,10 @@ public class RedisCluster extends AbstractRedis {
      */
     @SuppressWarnings("unchecked")
     public <T> T get(final CacheKeyModel model, final Class<T> type) {
-        return call(new JedisClusterAction<T>(){
+        return call(model, new JedisClusterAction<T>(){
             @Override
             public T execute(JedisCluster jedisCluster) {
-                return (T)deSerializeValue(jedisCluster.get(serializerKey(model.getKey())), type);
+                return (T)deSerializeValue(model, jedisCluster.get(serializerKey(model)), type);
             }
         });
     }
@@ -97,10 +251,55 @@ public class RedisCluster extends AbstractRedis {
      * 对于某个原本带有生存时间（TTL）的键来说， 当 SET 命令成功在这个键上执行时， 这个键原有的 TTL 将被清除。
      */
     public Boolean set(final CacheKeyModel model, final Object value) {
-        return call(new JedisClusterAction<Boolean>(){
+        return call(model, new JedisClusterAction<Boolean>(){
+            @Override
+            public Boolean execute(JedisCluster jedisCluster) {
+                String result = jedisCluster.set(serializerKey(model), serializerValue(model, value), setParams(model));
+                return OK.equalsIgnoreCase(result);
+            }
+        });
+    }
+
+    /**
+     * 取出key的原始字节，不经过序列化器
+     */
+    public byte[] getBytes(final CacheKeyModel model) {
+        return call(model, new JedisClusterAction<byte[]>() {
+            @Override
+            public byte[] execute(JedisCluster jedisCluster) {
+                return readRaw(jedisCluster.get(serializerKey(model)));
+            }
+        });
+    }
+
+    /**
+     * 原样写入字节，不经过序列化器，过期时间的处理与set相同
+     */
+    public Boolean setBytes(final CacheKeyModel model, final byte[] value) {
+        return call(model, new JedisClusterAction<Boolean>() {
             @Override
             public Boolean execute(JedisCluster jedisCluster) {
-                String result = jedisCluster.set(serializerKey(model.getKey()), serializerValue(value), SetParams.setParams().ex(model.getKeyTTL()));
+                String result = jedisCluster.set(serializerKey(model), rawValue(value), setParams(model));
+                return OK.equalsIgnoreCase(result);
+            }
+        });
+    }
+
+    /**
+     * 取出key的值并按UTF-8解码，不经过序列化器
+     */
+    public String getString(final CacheKeyModel model) {
+        return Utf8.decode(getBytes(model));
+    }
+
+    /**
+     * 按UTF-8编码写入字符串，不经过序列化器，过期时间的处理与set相同
+     */
+    public Boolean setString(final CacheKeyModel model, final CharSequence value) {
+        return call(model, new JedisClusterAction<Boolean>() {
+            @Override
+            public Boolean execute(JedisCluster jedisCluster) {
+                String result = jedisCluster.set(serializerKey(model), encodeString(value), setParams(model));
                 return OK.equalsIgnoreCase(result);
             }
         });
@@ -111,10 +310,10 @@ public class RedisCluster extends AbstractRedis {
      * 如果 key 已经存在， SETEX 命令将覆写旧值。
      */
     public String setex(final CacheKeyModel model, final Object value) {
-        return call(new JedisClusterAction<Boolean>() {
+        return call(model, new JedisClusterAction<Boolean>() {
             @Override
             public Boolean execute(JedisCluster jedisCluster) {
-                String result = jedisCluster.setex(serializerKey(model.getKey()), model.getKeyTTL(), serializerValue(value));
+                String result = jedisCluster.setex(serializerKey(model), model.getWriteTTL(), serializerValue(model, value));
                 return OK.equalsIgnoreCase(result);
             }
         });
@@ -127,7 +326,7 @@ public class RedisCluster extends AbstractRedis {
      * @return
      */
     public Long del(final CacheKeyModel model){
-        return call(new JedisClusterAction<Long>(){
+        return call(model, new JedisClusterAction<Long>(){
             @Override
             public Long execute(JedisCluster jedisCluster) {
                 return jedisCluster.del(model.getKey());
@@ -135,6 +334,44 @@ public class RedisCluster extends AbstractRedis {
         });
     }
 
+    /**
+     * 批量删除key
+     * 按slot拆分成多个DEL，各节点的pipeline并行执行
+     * @param models 为空时不发送命令，直接返回0
+     * @return 被删除key的数量
+     */
+    public Long del(final CacheKeyModel... models) {
+        if (null == models || models.length == 0) {
+            return 0L;
+        }
+        return call(first(models), new JedisClusterAction<Long>(){
+            @Override
+            public Long execute(JedisCluster jedisCluster) {
+                byte[][] keysArray = serializerKeyArray(models);
+                List<BatchResponse<?>> responses = new ArrayList<BatchResponse<?>>();
+                for (List<Integer> indexes : groupBySlot(keysArray)) {
+                    final byte[][] slotKeys = new byte[indexes.size()][];
+                    for (int i=0; i<slotKeys.length; i++) {
+                        slotKeys[i] = keysArray[indexes.get(i)];
+                    }
+                    responses.add(new BatchResponse<Long>(slotKeys[0]) {
+                        @Override
+                        protected Response<?> queue(Pipeline pipeline) {
+                            return pipeline.del(slotKeys);
+                        }
+                    });
+                }
+                syncByNode(responses);
+                throwIfFailed(responses);
+                long count = 0;
+                for (BatchResponse<?> response : responses) {
+                    count += (Long) response.get();
+                }
+                return count;
+            }
+        });
+    }
+
     /**
      * 查找所有符合给定模式 pattern 的 key 。
      * KEYS * 匹配数据库中所有 key 。
@@ -142,7 +379,10 @@ public class RedisCluster extends AbstractRedis {
      * KEYS h*llo 匹配 hllo 和 heeeeello 等。
      * KEYS h[ae]llo 匹配 hello 和 hallo ，但不匹配 hillo 。
      * 特殊符号用 \ 隔开
+     * KEYS命令会阻塞服务器，key数量大时请使用scan方法
+     * @deprecated 生产环境请使用 {@link #scan(String, int)}
      */
+    @Deprecated
     public Set<String> keys(final String pattern) {
 //        LOG.warn("生产环境下禁用");
         return call(new JedisClusterAction<Set<String>>(){
@@ -153,6 +393,52 @@ public class RedisCluster extends AbstractRedis {
         });
     }
 
+    /**
+     * 使用SCAN命令按游标迭代所有符合给定模式 pattern 的 key，不会像KEYS命令一样阻塞服务器
+     * 每次读取一页时才发送一次命令，内存中最多只保留一页key，同一个key可能会返回多次
+     * <pre>
+     * 例子：
+     * ScanIterator&lt;String&gt; it = client.scan("user:*", 1000);
+     * while (it.hasNext()) {
+     *     String key = it.next();
+     * }
+     * </pre>
+     * @param pattern 匹配模式
+     * @param count 每页建议返回的数量
+     */
+    public ScanIterator<String> scan(final String pattern, final int count) {
+        return scan(pattern, count, false);
+    }
+
+    /**
+     * 使用SCAN命令按游标迭代集群所有主节点上符合给定模式 pattern 的 key
+     * @param pattern 匹配模式
+     * @param count 每页建议返回的数量
+     * @param parallel 是否并行读取各主节点，并行时最多缓存 主节点数*2 页，调用方消费慢时读取线程会等待
+     */
+    public ScanIterator<String> scan(final String pattern, final int count, final boolean parallel) {
+        final ScanParams params = new ScanParams().match(pattern).count(count);
+        List<ScanIterator<String>> iterators = new ArrayList<ScanIterator<String>>();
+        for (final JedisPool pool : getMasterPools()) {
+            iterators.add(new CursorScanIterator<String, String>() {
+                @Override
+                protected ScanResult<String> scan(final String cursor) {
+                    return callNode(pool, new JedisAction<ScanResult<String>>() {
+                        @Override
+                        public ScanResult<String> execute(Jedis jedis) {
+                            return jedis.scan(cursor, params);
+                        }
+                    });
+                }
+                @Override
+                protected List<String> convert(List<String> data) {
+                    return data;
+                }
+            });
+        }
+        return new MultiScanIterator<String>(iterators, parallel, iterators.size() * 2);
+    }
+
     /**
      * 同时设置一个或多个 key-value 对。
      * 如果某个给定 key 已经存在，那么 MSET 会用新值覆盖原来的旧值，如果这不是你所希望的效果，请考虑使用 MSETNX 命令：它只会在所有给定 key 都不存在的情况下进行设置操作。
@@ -165,25 +451,50 @@ public class RedisCluster extends AbstractRedis {
      * </pre>
      */
     public Boolean mset(final CacheKeyModel model, final List<KeyValueParam> keysValues) {
-        return call(new JedisClusterAction<Boolean>() {
+        return call(model, new JedisClusterAction<Boolean>() {
             @Override
             public Boolean execute(JedisCluster jedisCluster) {
                 if (RedisUtil.isEmpty(keysValues)) {
                     return false;
                 }
                 int size = keysValues.size();
-                byte[][] kv = new byte[size+2][];
-                int index = 0;
+                final byte[][] keys = new byte[size][];
+                final byte[][] values = new byte[size][];
                 for (int i=0; i<size; i++) {
                     KeyValueParam keyValueParam = keysValues.get(i);
-                    kv[index++] = serializerKey(model.getKey()+":"+keyValueParam.getKey());
-                    kv[index++] = serializerValue(keyValueParam.getValue());
+                    keys[i] = serializerKey(model, model.getKey()+":"+keyValueParam.getKey());
+                    values[i] = serializerValue(model, keyValueParam.getValue());
                 }
-                boolean isOk = OK.equalsIgnoreCase(jedisCluster.mset(kv));
-                if(isOk) {
-                    expire(model);
+                // 按slot拆分成多个MSET，同一个slot的过期时间命令跟在MSET后面
+                List<BatchResponse<?>> responses = new ArrayList<BatchResponse<?>>();
+                for (List<Integer> indexes : groupBySlot(keys)) {
+                    final byte[][] kv = new byte[indexes.size()*2][];
+                    int index = 0;
+                    for (Integer i : indexes) {
+                        kv[index++] = keys[i];
+                        kv[index++] = values[i];
+                    }
+                    responses.add(new BatchResponse<Object>(kv[0]) {
+                        @Override
+                        protected Response<?> queue(Pipeline pipeline) {
+                            return pipeline.mset(kv);
+                        }
+                    });
+                    if (!TtlPolicy.NEVER.equals(model.getTtlPolicy())) {
+                        for (Integer i : indexes) {
+                            final byte[] key = keys[i];
+                            responses.add(new BatchResponse<Object>(key) {
+                                @Override
+                                protected Response<?> queue(Pipeline pipeline) {
+                                    return expire(pipeline, key, model);
+                                }
+                            });
+                        }
+                    }
                 }
-                return isOk;
+                syncByNode(responses);
+                throwIfFailed(responses);
+                return true;
             }
         });
     }
@@ -199,15 +510,33 @@ public class RedisCluster extends AbstractRedis {
         return call(new JedisClusterAction<List<T>>(){
             @Override
             public List<T> execute(JedisCluster jedisCluster) {
-                byte[][] keysArray = serializerKeyArray(keys);
-                List<byte[]> byteList = jedisCluster.mget(keysArray);
-                if (null == byteList) {
-                    return null;
-                }
-                List<T> list = new ArrayList<T>(byteList.size());
-                for (byte[] bytes : byteList) {
-                    list.add((T)deSerializeValue(bytes, type));
+                byte[][] keysArray = serializerKeyArray(null, keys);
+                final List<T> list = new ArrayList<T>(Collections.<T>nCopies(keysArray.length, null));
+                // 按slot拆分成多个MGET，结果按调用方传入的key顺序放回
+                List<BatchResponse<?>> responses = new ArrayList<BatchResponse<?>>();
+                for (final List<Integer> indexes : groupBySlot(keysArray)) {
+                    final byte[][] slotKeys = new byte[indexes.size()][];
+                    for (int i=0; i<slotKeys.length; i++) {
+                        slotKeys[i] = keysArray[indexes.get(i)];
+                    }
+                    responses.add(new BatchResponse<Object>(slotKeys[0]) {
+                        @Override
+                        protected Response<?> queue(Pipeline pipeline) {
+                            return pipeline.mget(slotKeys);
+                        }
+                        @Override
+                        protected Object build(Object raw) {
+                            List<byte[]> byteList = (List<byte[]>) raw;
+                            for (int i=0; i<byteList.size(); i++) {
+                                byte[] bytes = byteList.get(i);
+                                list.set(indexes.get(i), (null == bytes) ? null : deSerializeValue(null, bytes, type));
+                            }
+                            return null;
+                        }
+                    });
                 }
+                syncByNode(responses);
+                throwIfFailed(responses);
                 return list;
             }
         });
@@ -221,10 +550,10 @@ public class RedisCluster extends AbstractRedis {
      * 关于递增(increment) / 递减(decrement)操作的更多信息，请参见 INCR 命令。
      */
     public Long decr(final CacheKeyModel model) {
-        return call(new JedisClusterAction<Long>(){
+        return call(model, new JedisClusterAction<Long>(){
             @Override
             public Long execute(JedisCluster jedisCluster) {
-                return jedisCluster.decr(serializerKey(model.getKey()));
+                return jedisCluster.decr(serializerKey(model));
             }
         });
     }
@@ -237,10 +566,10 @@ public class RedisCluster extends AbstractRedis {
      * 关于更多递增(increment) / 递减(decrement)操作的更多信息，请参见 INCR 命令。
      */
     public Long decrBy(final CacheKeyModel model, final Long longValue) {
-        return call(new JedisClusterAction<Long>(){
+        return call(model, new JedisClusterAction<Long>(){
             @Override
             public Long execute(JedisCluster jedisCluster) {
-                return jedisCluster.decrBy(serializerKey(model.getKey()), longValue);
+                return jedisCluster.decrBy(serializerKey(model), longValue);
             }
         });
     }
@@ -252,10 +581,10 @@ public class RedisCluster extends AbstractRedis {
      * 本操作的值限制在 64 位(bit)有符号数字表示之内。
      */
     public Long incr(final CacheKeyModel model) {
-        return call(new JedisClusterAction<Long>(){
+        return call(model, new JedisClusterAction<Long>(){
             @Override
             public Long execute(JedisCluster jedisCluster) {
-                return jedisCluster.incr(serializerKey(model.getKey()));
+                return jedisCluster.incr(serializerKey(model));
             }
         });
     }
@@ -268,10 +597,10 @@ public class RedisCluster extends AbstractRedis {
      * 关于递增(increment) / 递减(decrement)操作的更多信息，参见 INCR 命令。
      */
     public Long incrBy(final CacheKeyModel model, final Long longValue) {
-        return call(new JedisClusterAction<Long>(){
+        return call(model, new JedisClusterAction<Long>(){
             @Override
             public Long execute(JedisCluster jedisCluster) {
-                return jedisCluster.incrBy(serializerKey(model.getKey()), longValue);
+                return jedisCluster.incrBy(serializerKey(model), longValue);
             }
         });
     }
@@ -280,10 +609,10 @@ public class RedisCluster extends AbstractRedis {
      * 检查给定 key 是否存在。
      */
     public Boolean exists(final CacheKeyModel model) {
-        return call(new JedisClusterAction<Boolean>(){
+        return call(model, new JedisClusterAction<Boolean>(){
             @Override
             public Boolean execute(JedisCluster jedisCluster) {
-                return jedisCluster.exists(serializerKey(model.getKey()));
+                return jedisCluster.exists(serializerKey(model));
             }
         });
     }
@@ -294,10 +623,10 @@ public class RedisCluster extends AbstractRedis {
      * 当 newkey 已经存在时， RENAME 命令将覆盖旧值。
      */
     public String rename(final CacheKeyModel oldModel, final CacheKeyModel newModel) {
-        return call(new JedisClusterAction<String>(){
+        return call(oldModel, new JedisClusterAction<String>(){
             @Override
             public String execute(JedisCluster jedisCluster) {
-                return jedisCluster.rename(serializerKey(oldModel.getKey()),serializerKey(newModel.getKey()));
+                return jedisCluster.rename(serializerKey(oldModel),serializerKey(newModel));
             }
         });
     }
@@ -308,18 +637,16 @@ public class RedisCluster extends AbstractRedis {
      */
     @SuppressWarnings("unchecked")
     public <T> T getSet(final CacheKeyModel model, final Class<T> type, final Object value) {
-        return call(new JedisClusterAction<T>(){
+        final byte[] key = serializerKey(model);
+        return callSlot(model, key, new JedisAction<T>(){
             @Override
-            public T execute(JedisCluster jedisCluster) {
-                byte[] result = jedisCluster.getSet(serializerKey(model.getKey()), serializerValue(value));
-                if (null == result) {
-                    return null;
-                }
-                Object object = deSerializeValue(result, type);
-                if (null != object) {
-                    expire(model);
-                }
-                return (T)object;
+            public T execute(Jedis jedis) {
+                Pipeline pipeline = pipelined(jedis);
+                Response<byte[]> result = pipeline.getSet(key, serializerValue(model, value));
+                expire(pipeline, key, model);
+                pipeline.sync();
+                byte[] bytes = result.get();
+                return (null == bytes) ? null : (T)deSerializeValue(model, bytes, type);
             }
         });
     }
@@ -328,10 +655,10 @@ public class RedisCluster extends AbstractRedis {
      * 移除给定 key 的生存时间，将这个 key 从『易失的』(带生存时间 key )转换成『持久的』(一个不带生存时间、永不过期的 key )。
      */
     public Long persist(final CacheKeyModel model) {
-        return call(new JedisClusterAction<Long>(){
+        return call(model, new JedisClusterAction<Long>(){
             @Override
             public Long execute(JedisCluster jedisCluster) {
-                return jedisCluster.persist(serializerKey(model.getKey()));
+                return jedisCluster.persist(serializerKey(model));
             }
         });
     }
@@ -340,10 +667,10 @@ public class RedisCluster extends AbstractRedis {
      * 返回 key 所储存的值的类型。
      */
     public String type(final CacheKeyModel model) {
-        return call(new JedisClusterAction<String>(){
+        return call(model, new JedisClusterAction<String>(){
             @Override
             public String execute(JedisCluster jedisCluster) {
-                return jedisCluster.type(serializerKey(model.getKey()));
+                return jedisCluster.type(serializerKey(model));
             }
         });
     }
@@ -352,10 +679,10 @@ public class RedisCluster extends AbstractRedis {
      * 以秒为单位，返回给定 key 的剩余生存时间(TTL, time to live)。
      */
     public Long ttl(final CacheKeyModel model) {
-        return call(new JedisClusterAction<Long>(){
+        return call(model, new JedisClusterAction<Long>(){
             @Override
             public Long execute(JedisCluster jedisCluster) {
-                return jedisCluster.ttl(serializerKey(model.getKey()));
+                return jedisCluster.ttl(serializerKey(model));
             }
         });
     }
@@ -370,14 +697,15 @@ public class RedisCluster extends AbstractRedis {
      * 返回列表的总行数
      */
     public Long lpush(final CacheKeyModel model, final Object value) {
-        return call(new JedisClusterAction<Long>(){
+        final byte[] key = serializerKey(model);
+        return callSlot(model, key, new JedisAction<Long>(){
             @Override
-            public Long execute(JedisCluster jedisCluster) {
-                Long count = jedisCluster.lpush(serializerKey(model.getKey()), serializerValue(value));
-                if (null != count && count>0) {
-                    expire(model);
-                }
-                return count;
+            public Long execute(Jedis jedis) {
+                Pipeline pipeline = pipelined(jedis);
+                Response<Long> count = pipeline.lpush(key, serializerValue(model, value));
+                expire(pipeline, key, model);
+                pipeline.sync();
+                return count.get();
             }
         });
     }
@@ -388,14 +716,15 @@ public class RedisCluster extends AbstractRedis {
      * 如果域 field 已经存在于哈希表中，旧值将被覆盖。
      */
     public Long hset(final CacheKeyModel model, final String field, final Object value) {
-        return call(new JedisClusterAction<Long>(){
+        final byte[] key = serializerKey(model);
+        return callSlot(model, key, new JedisAction<Long>(){
             @Override
-            public Long execute(JedisCluster jedisCluster) {
-                Long count =  jedisCluster.hset(serializerKey(model.getKey()), serializerKey(field), serializerValue(value));
-                if (null != count && count > 0) {
-                    expire(model);
-                }
-                return count;
+            public Long execute(Jedis jedis) {
+                Pipeline pipeline = pipelined(jedis);
+                Response<Long> count = pipeline.hset(key, serializerKey(model, field), serializerValue(model, value));
+                expire(pipeline, key, model);
+                pipeline.sync();
+                return count.get();
             }
         });
     }
@@ -409,14 +738,11 @@ public class RedisCluster extends AbstractRedis {
      */
     @SuppressWarnings("unchecked")
     public <T> T hget(final CacheKeyModel model, final Class<T> type, final String field) {
-        return call(new JedisClusterAction<T>() {
+        return call(model, new JedisClusterAction<T>() {
             @Override
             public T execute(JedisCluster jedisCluster) {
-                byte[] bytes = jedisCluster.hget(serializerKey(model.getKey()),  serializerKey(field));
-                if(null != bytes) {
-                    expire(model);
-                }
-                return (T)deSerializeValue(bytes, type);
+                byte[] bytes = jedisCluster.hget(serializerKey(model),  serializerKey(model, field));
+                return (T)deSerializeValue(model, bytes, type);
             }
         });
     }
@@ -427,22 +753,23 @@ public class RedisCluster extends AbstractRedis {
      * 如果 key 不存在，一个空哈希表被创建并执行 HMSET 操作。
      */
     public Boolean hmset(final CacheKeyModel model, final Map<String, Object> values) {
-        return call(new JedisClusterAction<Boolean>() {
+        final byte[] key = serializerKey(model);
+        return callSlot(model, key, new JedisAction<Boolean>() {
             @Override
-            public Boolean execute(JedisCluster jedisCluster) {
+            public Boolean execute(Jedis jedis) {
                 if(null == values) {
                     return false;
                 }
                 Map<byte[], byte[]> map = new HashMap<byte[], byte[]>(values.size());
                 for (Iterator<Map.Entry<String,Object>> it = values.entrySet().iterator(); it.hasNext(); ){
                     Map.Entry<String,Object> entry = it.next();
-                    map.put(serializerKey(entry.getKey()), serializerValue(entry.getValue()));
-                }
-                Boolean isOk = OK.equalsIgnoreCase(jedisCluster.hmset(serializerKey(model.getKey()), map));
-                if(isOk) {
-                    expire(model);
+                    map.put(serializerKey(model, entry.getKey()), serializerValue(model, entry.getValue()));
                 }
-                return isOk;
+                Pipeline pipeline = pipelined(jedis);
+                Response<String> result = pipeline.hmset(key, map);
+                expire(pipeline, key, model);
+                pipeline.sync();
+                return OK.equalsIgnoreCase(result.get());
             }
         });
     }
@@ -456,15 +783,11 @@ public class RedisCluster extends AbstractRedis {
      * @return
      */
     public <T> List<T> hmget(final CacheKeyModel model, final Class<T> type, final String... fields) {
-        return call(new JedisClusterAction<List<T>>() {
+        return call(model, new JedisClusterAction<List<T>>() {
             @Override
             public List<T>execute(JedisCluster jedisCluster) {
-                List<byte[]> data = jedisCluster.hmget(serializerKey(model.getKey()), serializerKeyArray(fields));
-                if (null != data){
-                    expire(model);
-                    return toValueList(data, type);
-                }
-                return null;
+                List<byte[]> data = jedisCluster.hmget(serializerKey(model), serializerKeyArray(model, fields));
+                return (null == data) ? null : toValueList(model, data, type);
             }
         });
     }
@@ -473,10 +796,10 @@ public class RedisCluster extends AbstractRedis {
      * 删除哈希表 key 中的一个或多个指定域，不存在的域将被忽略。
      */
     public Long hdel(final CacheKeyModel model, final String... fields) {
-        return call(new JedisClusterAction<Long>() {
+        return call(model, new JedisClusterAction<Long>() {
             @Override
             public Long execute(JedisCluster jedisCluster) {
-                return jedisCluster.hdel(serializerKey(model.getKey()), serializerKeyArray(fields));
+                return jedisCluster.hdel(serializerKey(model), serializerKeyArray(model, fields));
             }
         });
     }
@@ -485,10 +808,10 @@ public class RedisCluster extends AbstractRedis {
      * 查看哈希表 key 中，给定域 field 是否存在。
      */
     public Boolean hexists(final CacheKeyModel model, final String field) {
-        return call(new JedisClusterAction<Boolean>() {
+        return call(model, new JedisClusterAction<Boolean>() {
             @Override
             public Boolean execute(JedisCluster jedisCluster) {
-                return jedisCluster.hexists(serializerKey(model.getKey()), serializerKey(field));
+                return jedisCluster.hexists(serializerKey(model), serializerKey(model, field));
             }
         });
     }
@@ -499,14 +822,14 @@ public class RedisCluster extends AbstractRedis {
      */
     @SuppressWarnings("rawtypes")
     public <T> Map<String,T> hgetAll(final CacheKeyModel model, final Class<T> type) {
-        return call(new JedisClusterAction<Map<String,T>>() {
+        return call(model, new JedisClusterAction<Map<String,T>>() {
             @Override
             public Map<String,T> execute(JedisCluster jedisCluster) {
-                Map<byte[], byte[]> data =  jedisCluster.hgetAll(serializerKey(model.getKey()));
+                Map<byte[], byte[]> data =  jedisCluster.hgetAll(serializerKey(model));
                 Map<String, T> result = new HashMap<String, T>(data.size());
                 if (data != null) {
                     for (Map.Entry<byte[], byte[]> e : data.entrySet()) {
-                        result.put(deSerializeKey(e.getKey()), deSerializeValue(e.getValue(), type));
+                        result.put(deSerializeKey(model, e.getKey()), deSerializeValue(model, e.getValue(), type));
                     }
                 }
                 return result;
@@ -514,15 +837,55 @@ public class RedisCluster extends AbstractRedis {
         });
     }
 
+    /**
+     * 使用HSCAN命令按游标迭代哈希表 key 中的所有域和值，每页读取后才反序列化，适合field数量很大的哈希表
+     * 同一个域可能会返回多次，迭代期间被修改的域不保证能读到
+     * @param model
+     * @param type 值的类型
+     */
+    public <T> ScanIterator<Map.Entry<String,T>> hscan(final CacheKeyModel model, final Class<T> type) {
+        return hscan(model, type, DEFAULT_SCAN_COUNT);
+    }
+
+    /**
+     * 使用HSCAN命令按游标迭代哈希表 key 中的所有域和值
+     * @param model
+     * @param type 值的类型
+     * @param count 每页建议返回的数量
+     */
+    public <T> ScanIterator<Map.Entry<String,T>> hscan(final CacheKeyModel model, final Class<T> type, final int count) {
+        final byte[] key = serializerKey(model);
+        final ScanParams params = new ScanParams().count(count);
+        return new CursorScanIterator<Map.Entry<byte[], byte[]>, Map.Entry<String,T>>() {
+            @Override
+            protected ScanResult<Map.Entry<byte[], byte[]>> scan(final String cursor) {
+                return call(model, new JedisClusterAction<ScanResult<Map.Entry<byte[], byte[]>>>() {
+                    @Override
+                    public ScanResult<Map.Entry<byte[], byte[]>> execute(JedisCluster jedisCluster) {
+                        return jedisCluster.hscan(key, SafeEncoder.encode(cursor), params);
+                    }
+                });
+            }
+            @Override
+            protected List<Map.Entry<String,T>> convert(List<Map.Entry<byte[], byte[]>> data) {
+                List<Map.Entry<String,T>> result = new ArrayList<Map.Entry<String,T>>(data.size());
+                for (Map.Entry<byte[], byte[]> e : data) {
+                    result.add(new AbstractMap.SimpleImmutableEntry<String,T>(deSerializeKey(model, e.getKey()), deSerializeValue(model, e.getValue(), type)));
+                }
+                return result;
+            }
+        };
+    }
+
     /**
      * 返回哈希表 key 中所有域的值。
      */
     public <T> List<T> hvals(final CacheKeyModel model, final Class<T> type) {
-        return call(new JedisClusterAction<List<T>>() {
+        return call(model, new JedisClusterAction<List<T>>() {
             @Override
             public List<T> execute(JedisCluster jedisCluster) {
-                List<byte[]> data = jedisCluster.hvals(serializerKey(model.getKey()));
-                return toValueList(data, type);
+                List<byte[]> data = jedisCluster.hvals(serializerKey(model));
+                return toValueList(model, data, type);
             }
         });
     }
@@ -532,11 +895,11 @@ public class RedisCluster extends AbstractRedis {
      * 底层实现此方法取名为 hfields 更为合适，在此仅为与底层保持一致
      */
     public Set<String> hkeys(final CacheKeyModel model) {
-        return call(new JedisClusterAction<Set<String>>() {
+        return call(model, new JedisClusterAction<Set<String>>() {
             @Override
             public Set<String> execute(JedisCluster jedisCluster) {
-                Set<byte[]> dataByte = jedisCluster.hkeys(serializerKey(model.getKey()));
-                return toValueSet(dataByte, String.class);
+                Set<byte[]> dataByte = jedisCluster.hkeys(serializerKey(model));
+                return toValueSet(model, dataByte, String.class);
             }
         });
     }
@@ -545,10 +908,10 @@ public class RedisCluster extends AbstractRedis {
      * 返回哈希表 key 中域的数量。
      */
     public Long hlen(final CacheKeyModel model) {
-        return call(new JedisClusterAction<Long>() {
+        return call(model, new JedisClusterAction<Long>() {
             @Override
             public Long execute(JedisCluster jedisCluster) {
-                return jedisCluster.hlen(serializerKey(model.getKey()));
+                return jedisCluster.hlen(serializerKey(model));
             }
         });
     }
@@ -562,10 +925,10 @@ public class RedisCluster extends AbstractRedis {
      * 本操作的值被限制在 64 位(bit)有符号数字表示之内。
      */
     public Long hincrBy(final CacheKeyModel model, final String field, final Long value) {
-        return call(new JedisClusterAction<Long>() {
+        return call(model, new JedisClusterAction<Long>() {
             @Override
             public Long execute(JedisCluster jedisCluster) {
-                return jedisCluster.hincrBy(serializerKey(model.getKey()), serializerField(field), value);
+                return jedisCluster.hincrBy(serializerKey(model), serializerField(model, field), value);
             }
         });
     }
@@ -580,10 +943,10 @@ public class RedisCluster extends AbstractRedis {
      * HINCRBYFLOAT 命令的详细功能和 INCRBYFLOAT 命令类似，请查看 INCRBYFLOAT 命令获取更多相关信息。
      */
     public Double hincrByFloat(final CacheKeyModel model, final String field, final Double value) {
-        return call(new JedisClusterAction<Double>() {
+        return call(model, new JedisClusterAction<Double>() {
             @Override
             public Double execute(JedisCluster jedisCluster) {
-                return jedisCluster.hincrByFloat(serializerKey(model.getKey()), serializerField(field), value);
+                return jedisCluster.hincrByFloat(serializerKey(model), serializerField(model, field), value);
             }
         });
     }
@@ -594,17 +957,21 @@ public class RedisCluster extends AbstractRedis {
      * 以 1 表示列表的第二个元素，以此类推。
      * 你也可以使用负数下标，以 -1 表示列表的最后一个元素， -2 表示列表的倒数第二个元素，以此类推。
      * 如果 key 不是列表类型，返回一个错误。
+     * 元素不是数字或超出int范围时返回null，超出int范围的元素请使用 {@link #lindexLong(CacheKeyModel, long, long)}
      */
     public Integer lindex(final CacheKeyModel model, final Long index) {
-        return call(new JedisClusterAction<Integer>() {
+        return call(model, new JedisClusterAction<Integer>() {
             @Override
             public Integer execute(JedisCluster jedisCluster) {
-                byte[] bytes = jedisCluster.lindex(serializerKey(model.getKey()), index);
-                Object data =  deSerializeValue(bytes, Integer.class);
-                if (null != data) {
-                    expire(model);
+                byte[] bytes = jedisCluster.lindex(serializerKey(model), index);
+                if (!readLong(model, bytes)) {
+                    return null;
                 }
-                return Integer.parseInt(String.valueOf(data));
+                long value = longReply(Boolean.TRUE, 0L);
+                if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                    return null;
+                }
+                return (int) value;
             }
         });
     }
@@ -615,10 +982,10 @@ public class RedisCluster extends AbstractRedis {
      * 如果 key 不是列表类型，返回一个错误。
      */
     public Long llen(final CacheKeyModel model) {
-        return call(new JedisClusterAction<Long>() {
+        return call(model, new JedisClusterAction<Long>() {
             @Override
             public Long execute(JedisCluster jedisCluster) {
-                return jedisCluster.llen(serializerKey(model.getKey()));
+                return jedisCluster.llen(serializerKey(model));
             }
         });
     }
@@ -628,14 +995,11 @@ public class RedisCluster extends AbstractRedis {
      */
     @SuppressWarnings("unchecked")
     public Long lpop(final CacheKeyModel model) {
-        return call(new JedisClusterAction<Long>() {
+        return call(model, new JedisClusterAction<Long>() {
             @Override
             public Long execute(JedisCluster jedisCluster) {
-                byte[] result = jedisCluster.lpop(serializerKey(model.getKey()));
-                if (null == result) {
-                    return 0L;
-                }
-                return Long.parseLong(String.valueOf(deSerializeValue(result, Long.class)));
+                byte[] result = jedisCluster.lpop(serializerKey(model));
+                return longReply(readLong(model, result), 0L);
             }
         });
     }
@@ -652,11 +1016,11 @@ public class RedisCluster extends AbstractRedis {
      */
     @SuppressWarnings("rawtypes")
     public <T> List<T> lrange(final CacheKeyModel model, final Class<T> type, final Long start, final Long end) {
-        return call(new JedisClusterAction<List<T>>() {
+        return call(model, new JedisClusterAction<List<T>>() {
             @Override
             public List<T> execute(JedisCluster jedisCluster) {
-                List<byte[]> data = jedisCluster.lrange(serializerKey(model.getKey()), start, end);
-                return (data == null) ? null : toValueList(data, type);
+                List<byte[]> data = jedisCluster.lrange(serializerKey(model), start, end);
+                return (data == null) ? null : toValueList(model, data, type);
             }
         });
     }
@@ -671,14 +1035,15 @@ public class RedisCluster extends AbstractRedis {
      * 当 key 存在但不是列表类型时，返回一个错误。
      */
     public Long lpush(final CacheKeyModel model, final Object... values) {
-        return call(new JedisClusterAction<Long>(){
+        final byte[] key = serializerKey(model);
+        return callSlot(model, key, new JedisAction<Long>(){
             @Override
-            public Long execute(JedisCluster jedisCluster) {
-                Long data =  jedisCluster.lpush(serializerKey(model.getKey()), serializerValue(values));
-                if (null != data && data > 0) {
-                    expire(model);
-                }
-                return data;
+            public Long execute(Jedis jedis) {
+                Pipeline pipeline = pipelined(jedis);
+                Response<Long> count = pipeline.lpush(key, serializerValueArray(model, values));
+                expire(pipeline, key, model);
+                pipeline.sync();
+                return count.get();
             }
         });
     }
@@ -689,14 +1054,15 @@ public class RedisCluster extends AbstractRedis {
      * 关于列表下标的更多信息，请参考 LINDEX 命令。
      */
     public String lset(final CacheKeyModel model, final Long index, final Object value) {
-        return call(new JedisClusterAction<String>(){
+        final byte[] key = serializerKey(model);
+        return callSlot(model, key, new JedisAction<String>(){
             @Override
-            public String execute(JedisCluster jedisCluster) {
-                String data =  jedisCluster.lset(serializerKey(model.getKey()), index, serializerValue(value));
-                if (null != data) {
-                    expire(model);
-                }
-                return data;
+            public String execute(Jedis jedis) {
+                Pipeline pipeline = pipelined(jedis);
+                Response<String> result = pipeline.lset(key, index, serializerValue(model, value));
+                expire(pipeline, key, model);
+                pipeline.sync();
+                return result.get();
             }
         });
     }
@@ -709,10 +1075,10 @@ public class RedisCluster extends AbstractRedis {
      * count = 0 : 移除表中所有与 value 相等的值。
      */
     public Long lrem(final CacheKeyModel model, final Long count, final Object value) {
-        return call(new JedisClusterAction<Long>(){
+        return call(model, new JedisClusterAction<Long>(){
             @Override
             public Long execute(JedisCluster jedisCluster) {
-                return jedisCluster.lrem(serializerKey(model.getKey()), count, serializerValue(value));
+                return jedisCluster.lrem(serializerKey(model), count, serializerValue(model, value));
             }
         });
     }
@@ -733,11 +1099,11 @@ public class RedisCluster extends AbstractRedis {
      */
     @SuppressWarnings("rawtypes")
     public <T> List<T> lrange(final CacheKeyModel model, final Class<T> type, final Integer start, final Integer end) {
-        return call(new JedisClusterAction<List<T>>(){
+        return call(model, new JedisClusterAction<List<T>>(){
             @Override
             public List<T> execute(JedisCluster jedisCluster) {
-                List<byte[]> resultList = jedisCluster.lrange(serializerKey(model.getKey()), start, end);
-                return (null == resultList) ? null : toValueList(resultList, type);
+                List<byte[]> resultList = jedisCluster.lrange(serializerKey(model), start, end);
+                return (null == resultList) ? null : toValueList(model, resultList, type);
             }
         });
     }
@@ -750,10 +1116,10 @@ public class RedisCluster extends AbstractRedis {
      * 当 key 不是列表类型时，返回一个错误。
      */
     public String ltrim(final CacheKeyModel model, final Integer start, final Integer end) {
-        return call(new JedisClusterAction<String>(){
+        return call(model, new JedisClusterAction<String>(){
             @Override
             public String execute(JedisCluster jedisCluster) {
-                return jedisCluster.ltrim(serializerKey(model.getKey()), start, end);
+                return jedisCluster.ltrim(serializerKey(model), start, end);
             }
         });
     }
@@ -763,10 +1129,10 @@ public class RedisCluster extends AbstractRedis {
      */
     @SuppressWarnings("unchecked")
     public String rpop(final CacheKeyModel model) {
-        return call(new JedisClusterAction<String>(){
+        return call(model, new JedisClusterAction<String>(){
             @Override
             public String execute(JedisCluster jedisCluster) {
-                return String.valueOf(deSerializeValue(jedisCluster.rpop(serializerKey(model.getKey())), String.class));
+                return String.valueOf(deSerializeValue(model, jedisCluster.rpop(serializerKey(model)), String.class));
             }
         });
     }
@@ -778,14 +1144,16 @@ public class RedisCluster extends AbstractRedis {
      */
     @SuppressWarnings("unchecked")
     public <T> T rpoplpush(final CacheKeyModel sourceModel, final CacheKeyModel destModel, final Class<T> type) {
-        return call(new JedisClusterAction<T>(){
+        final byte[] key = serializerKey(sourceModel);
+        final byte[] destKey = serializerKey(destModel);
+        return callSlot(sourceModel, key, new JedisAction<T>(){
             @Override
-            public T execute(JedisCluster jedisCluster) {
-                T result =  (T)deSerializeValue(jedisCluster.rpoplpush(serializerKey(sourceModel.getKey()), serializerKey(destModel.getKey())), type);
-                if (null != result) {
-                    expire(destModel);
-                }
-                return result;
+            public T execute(Jedis jedis) {
+                Pipeline pipeline = pipelined(jedis);
+                Response<byte[]> result = pipeline.rpoplpush(key, destKey);
+                expire(pipeline, destKey, destModel);
+                pipeline.sync();
+                return (T)deSerializeValue(sourceModel, result.get(), type);
             }
         });
     }
@@ -799,10 +1167,15 @@ public class RedisCluster extends AbstractRedis {
      * 当 key 存在但不是列表类型时，返回一个错误。
      */
     public Long rpush(final CacheKeyModel model, final Object... value) {
-        return call(new JedisClusterAction<Long>(){
+        final byte[] key = serializerKey(model);
+        return callSlot(model, key, new JedisAction<Long>(){
             @Override
-            public Long execute(JedisCluster jedisCluster) {
-                return jedisCluster.rpush(serializerKey(model.getKey()), serializerValueArray(value));
+            public Long execute(Jedis jedis) {
+                Pipeline pipeline = pipelined(jedis);
+                Response<Long> count = pipeline.rpush(key, serializerValueArray(model, value));
+                expire(pipeline, key, model);
+                pipeline.sync();
+                return count.get();
             }
         });
     }
@@ -820,8 +1193,8 @@ public class RedisCluster extends AbstractRedis {
         return call(new JedisClusterAction<List<T>>(){
             @Override
             public List<T> execute(JedisCluster jedisCluster) {
-                List<byte[]> data =  jedisCluster.blpop(timeout, serializerKeyArray(keys));
-                return toValueList(data, type);
+                List<byte[]> data =  jedisCluster.blpop(timeout, serializerKeyArray(null, keys));
+                return toValueList(null, data, type);
             }
         });
     }
@@ -840,8 +1213,8 @@ public class RedisCluster extends AbstractRedis {
         return call(new JedisClusterAction<List<T>>(){
             @Override
             public List<T> execute(JedisCluster jedisCluster) {
-                List<byte[]> data =  jedisCluster.brpop(timeout, serializerKeyArray(keys));
-                return toValueList(data, type);
+                List<byte[]> data =  jedisCluster.brpop(timeout, serializerKeyArray(null, keys));
+                return toValueList(null, data, type);
             }
         });
     }
@@ -861,14 +1234,15 @@ public class RedisCluster extends AbstractRedis {
      * 当 key 不是集合类型时，返回一个错误。
      */
     public Long sadd(final CacheKeyModel model, final Object... values) {
-        return call(new JedisClusterAction<Long>(){
+        final byte[] key = serializerKey(model);
+        return callSlot(model, key, new JedisAction<Long>(){
             @Override
-            public Long execute(JedisCluster jedisCluster) {
-                Long count =  jedisCluster.sadd(serializerKey(model.getKey()), serializerValueArray(values));
-                if (null != count && count>0L) {
-                    expire(model);
-                }
-                return count;
+            public Long execute(Jedis jedis) {
+                Pipeline pipeline = pipelined(jedis);
+                Response<Long> count = pipeline.sadd(key, serializerValueArray(model, values));
+                expire(pipeline, key, model);
+                pipeline.sync();
+                return count.get();
             }
         });
     }
@@ -877,10 +1251,10 @@ public class RedisCluster extends AbstractRedis {
      * 返回集合 key 的基数(集合中元素的数量)。
      */
     public Long scard(final CacheKeyModel model) {
-        return call(new JedisClusterAction<Long>(){
+        return call(model, new JedisClusterAction<Long>(){
             @Override
             public Long execute(JedisCluster jedisCluster) {
-                return jedisCluster.scard(serializerKey(model.getKey()));
+                return jedisCluster.scard(serializerKey(model));
             }
         });
     }
@@ -891,10 +1265,10 @@ public class RedisCluster extends AbstractRedis {
      */
     @SuppressWarnings("unchecked")
     public <T> T spop(final CacheKeyModel model, final Class<T> type) {
-        return call(new JedisClusterAction<T>(){
+        return call(model, new JedisClusterAction<T>(){
             @Override
             public T execute(JedisCluster jedisCluster) {
-                return (T)deSerializeValue(jedisCluster.spop(serializerKey(model.getKey())), type);
+                return (T)deSerializeValue(model, jedisCluster.spop(serializerKey(model)), type);
             }
         });
     }
@@ -905,23 +1279,59 @@ public class RedisCluster extends AbstractRedis {
      */
     @SuppressWarnings("rawtypes")
     public <T> Set<T> smembers(final CacheKeyModel model, final Class<T> type) {
-        return call(new JedisClusterAction<Set<T>>(){
+        return call(model, new JedisClusterAction<Set<T>>(){
             @Override
             public Set<T> execute(JedisCluster jedisCluster) {
-                Set<byte[]> data = jedisCluster.smembers(serializerKey(model.getKey()));
-                return toValueSet(data, type);
+                Set<byte[]> data = jedisCluster.smembers(serializerKey(model));
+                return toValueSet(model, data, type);
             }
         });
     }
 
+    /**
+     * 使用SSCAN命令按游标迭代集合 key 中的所有成员，每页读取后才反序列化，适合成员数量很大的集合
+     * 同一个成员可能会返回多次
+     * @param model
+     * @param type 成员的类型
+     */
+    public <T> ScanIterator<T> sscan(final CacheKeyModel model, final Class<T> type) {
+        return sscan(model, type, DEFAULT_SCAN_COUNT);
+    }
+
+    /**
+     * 使用SSCAN命令按游标迭代集合 key 中的所有成员
+     * @param model
+     * @param type 成员的类型
+     * @param count 每页建议返回的数量
+     */
+    public <T> ScanIterator<T> sscan(final CacheKeyModel model, final Class<T> type, final int count) {
+        final byte[] key = serializerKey(model);
+        final ScanParams params = new ScanParams().count(count);
+        return new CursorScanIterator<byte[], T>() {
+            @Override
+            protected ScanResult<byte[]> scan(final String cursor) {
+                return call(model, new JedisClusterAction<ScanResult<byte[]>>() {
+                    @Override
+                    public ScanResult<byte[]> execute(JedisCluster jedisCluster) {
+                        return jedisCluster.sscan(key, SafeEncoder.encode(cursor), params);
+                    }
+                });
+            }
+            @Override
+            protected List<T> convert(List<byte[]> data) {
+                return toValueList(model, data, type);
+            }
+        };
+    }
+
     /**
      * 判断 member 元素是否集合 key 的成员。
      */
     public Boolean sismember(final CacheKeyModel model, final Object value) {
-        return call(new JedisClusterAction<Boolean>(){
+        return call(model, new JedisClusterAction<Boolean>(){
             @Override
             public Boolean execute(JedisCluster jedisCluster) {
-                return jedisCluster.sismember(serializerKey(model.getKey()), serializerValue(value));
+                return jedisCluster.sismember(serializerKey(model), serializerValue(model, value));
             }
         });
     }
@@ -931,15 +1341,14 @@ public class RedisCluster extends AbstractRedis {
      */
     @SuppressWarnings("rawtypes")
     public <T> Set<T> sinter(final Class<T> type, final CacheKeyModel... cacheKeyModels) {
-        return call(new JedisClusterAction<Set<T>>(){
+        return call(first(cacheKeyModels), new JedisClusterAction<Set<T>>(){
             @Override
             public Set<T> execute(JedisCluster jedisCluster) {
-                String[] keys =getCacheModelKeyArray(cacheKeyModels);
-                if (null == keys) {
+                if (null == cacheKeyModels) {
                     return null;
                 }
-                Set<byte[]> data = jedisCluster.sinter(serializerKeyArray(keys));
-                return toValueSet(data, type);
+                Set<byte[]> data = jedisCluster.sinter(serializerKeyArray(cacheKeyModels));
+                return toValueSet(first(cacheKeyModels), data, type);
             }
         });
     }
@@ -949,10 +1358,10 @@ public class RedisCluster extends AbstractRedis {
      */
     @SuppressWarnings("unchecked")
     public <T> T srandmember(final CacheKeyModel model, final Class<T> type) {
-        return call(new JedisClusterAction<T>(){
+        return call(model, new JedisClusterAction<T>(){
             @Override
             public T execute(JedisCluster jedisCluster) {
-                return (T)deSerializeValue(jedisCluster.srandmember(serializerKey(model.getKey())), type);
+                return (T)deSerializeValue(model, jedisCluster.srandmember(serializerKey(model)), type);
             }
         });
     }
@@ -967,10 +1376,10 @@ public class RedisCluster extends AbstractRedis {
      */
     @SuppressWarnings("rawtypes")
     public <T> List<T> srandmember(final CacheKeyModel model, final Integer count, final Class<T> type) {
-        return call(new JedisClusterAction<List<T>>(){
+        return call(model, new JedisClusterAction<List<T>>(){
             @Override
             public List<T> execute(JedisCluster jedisCluster) {
-                return toValueList(jedisCluster.srandmember(serializerKey(model.getKey()),count), type);
+                return toValueList(model, jedisCluster.srandmember(serializerKey(model),count), type);
             }
         });
     }
@@ -979,10 +1388,10 @@ public class RedisCluster extends AbstractRedis {
      * 移除集合 key 中的一个或多个 member 元素，不存在的 member 元素会被忽略。
      */
     public Long srem(final CacheKeyModel model, final String... members) {
-        return call(new JedisClusterAction<Long>(){
+        return call(model, new JedisClusterAction<Long>(){
             @Override
             public Long execute(JedisCluster jedisCluster) {
-                return jedisCluster.srem(serializerKey(model.getKey()),serializerKeyArray(members));
+                return jedisCluster.srem(serializerKey(model),serializerKeyArray(model, members));
             }
         });
     }
@@ -993,15 +1402,14 @@ public class RedisCluster extends AbstractRedis {
      */
     @SuppressWarnings("rawtypes")
     public <T> Set<T> sunion(final Class<T> type, final CacheKeyModel... cacheKeyModels) {
-        return call(new JedisClusterAction<Set<T>>(){
+        return call(first(cacheKeyModels), new JedisClusterAction<Set<T>>(){
             @Override
             public Set<T> execute(JedisCluster jedisCluster) {
-                String[] keys =getCacheModelKeyArray(cacheKeyModels);
-                if (null == keys) {
+                if (null == cacheKeyModels) {
                     return null;
                 }
-                Set<byte[]> data = jedisCluster.sunion(serializerKeyArray(keys));
-                return toValueSet(data, type);
+                Set<byte[]> data = jedisCluster.sunion(serializerKeyArray(cacheKeyModels));
+                return toValueSet(first(cacheKeyModels), data, type);
             }
         });
     }
@@ -1012,15 +1420,14 @@ public class RedisCluster extends AbstractRedis {
      */
     @SuppressWarnings("rawtypes")
     public <T> Set<T> sdiff(final Class<T> type, final CacheKeyModel... cacheKeyModels) {
-        return call(new JedisClusterAction<Set<T>>(){
+        return call(first(cacheKeyModels), new JedisClusterAction<Set<T>>(){
             @Override
             public Set<T> execute(JedisCluster jedisCluster) {
-                String[] keys = getCacheModelKeyArray(cacheKeyModels);
-                if (null == keys) {
+                if (null == cacheKeyModels) {
                     return null;
                 }
-                Set<byte[]> data = jedisCluster.sdiff(serializerKeyArray(keys));
-                return toValueSet(data, type);
+                Set<byte[]> data = jedisCluster.sdiff(serializerKeyArray(cacheKeyModels));
+                return toValueSet(first(cacheKeyModels), data, type);
             }
         });
     }
@@ -1031,23 +1438,23 @@ public class RedisCluster extends AbstractRedis {
      * 并通过重新插入这个 member 元素，来保证该 member 在正确的位置上。
      */
     public Long zadd(final CacheKeyModel model, final Double score, final Object value) {
-        return call(new JedisClusterAction<Long>(){
+        return call(model, new JedisClusterAction<Long>(){
             @Override
             public Long execute(JedisCluster jedisCluster) {
-                return jedisCluster.zadd(serializerKey(model.getKey()), score, serializerValue(value));
+                return jedisCluster.zadd(serializerKey(model), score, serializerValue(model, value));
             }
         });
     }
 
     public Long zadd(final CacheKeyModel model, final Map<Object, Double> scoreMembers) {
-        return call(new JedisClusterAction<Long>(){
+        return call(model, new JedisClusterAction<Long>(){
             @Override
             public Long execute(JedisCluster jedisCluster) {
                 Map<byte[], Double> para = new HashMap<byte[], Double>();
                 for (Map.Entry<Object, Double> e : scoreMembers.entrySet()) {
-                    para.put(serializerKey(model.getKey()), e.getValue());
+                    para.put(serializerKey(model), e.getValue());
                 }
-                return jedisCluster.zadd(serializerKey(model.getKey()), para);
+                return jedisCluster.zadd(serializerKey(model), para);
             }
         });
     }
@@ -1056,10 +1463,10 @@ public class RedisCluster extends AbstractRedis {
      * 返回有序集 key 的基数。
      */
     public Long zcard(final CacheKeyModel model) {
-        return call(new JedisClusterAction<Long>(){
+        return call(model, new JedisClusterAction<Long>(){
             @Override
             public Long execute(JedisCluster jedisCluster) {
-                return jedisCluster.zcard(serializerKey(model.getKey()));
+                return jedisCluster.zcard(serializerKey(model));
             }
         });
     }
@@ -1069,10 +1476,10 @@ public class RedisCluster extends AbstractRedis {
      * 关于参数 min 和 max 的详细使用方法，请参考 ZRANGEBYSCORE 命令。
      */
     public Long zcount(final CacheKeyModel model, final Double min, final Double max) {
-        return call(new JedisClusterAction<Long>(){
+        return call(model, new JedisClusterAction<Long>(){
             @Override
             public Long execute(JedisCluster jedisCluster) {
-                return jedisCluster.zcount(serializerKey(model.getKey()), min, max);
+                return jedisCluster.zcount(serializerKey(model), min, max);
             }
         });
     }
@@ -1081,10 +1488,10 @@ public class RedisCluster extends AbstractRedis {
      * 为有序集 key 的成员 member 的 score 值加上增量 increment 。
      */
     public Double zincrby(final CacheKeyModel model, final Double score, final Object member) {
-        return call(new JedisClusterAction<Double>(){
+        return call(model, new JedisClusterAction<Double>(){
             @Override
             public Double execute(JedisCluster jedisCluster) {
-                return jedisCluster.zincrby(serializerKey(model.getKey()), score, serializerValue(member));
+                return jedisCluster.zincrby(serializerKey(model), score, serializerValue(model, member));
             }
         });
     }
@@ -1097,16 +1504,56 @@ public class RedisCluster extends AbstractRedis {
      */
     @SuppressWarnings("rawtypes")
     public <T> Set<T> zrange(final CacheKeyModel model, final Long start, final Long end, final Class<T> type) {
-        return call(new JedisClusterAction<Set<T>>(){
+        return call(model, new JedisClusterAction<Set<T>>(){
             @Override
             public Set<T> execute(JedisCluster jedisCluster) {
-                Set<byte[]> data = jedisCluster.zrange(serializerKey(model.getKey()), start, end);
-                return toValueSet(data, type);
+                Set<byte[]> data = jedisCluster.zrange(serializerKey(model), start, end);
+                return toValueSet(model, data, type);
             }
         });
 
     }
 
+    /**
+     * 使用ZSCAN命令按游标迭代有序集 key 中的所有成员，每页读取后才反序列化，适合成员数量很大的有序集
+     * 返回顺序不按score排序，同一个成员可能会返回多次
+     * @param model
+     * @param type 成员的类型
+     */
+    public <T> ScanIterator<T> zscan(final CacheKeyModel model, final Class<T> type) {
+        return zscan(model, type, DEFAULT_SCAN_COUNT);
+    }
+
+    /**
+     * 使用ZSCAN命令按游标迭代有序集 key 中的所有成员
+     * @param model
+     * @param type 成员的类型
+     * @param count 每页建议返回的数量
+     */
+    public <T> ScanIterator<T> zscan(final CacheKeyModel model, final Class<T> type, final int count) {
+        final byte[] key = serializerKey(model);
+        final ScanParams params = new ScanParams().count(count);
+        return new CursorScanIterator<Tuple, T>() {
+            @Override
+            protected ScanResult<Tuple> scan(final String cursor) {
+                return call(model, new JedisClusterAction<ScanResult<Tuple>>() {
+                    @Override
+                    public ScanResult<Tuple> execute(JedisCluster jedisCluster) {
+                        return jedisCluster.zscan(key, SafeEncoder.encode(cursor), params);
+                    }
+                });
+            }
+            @Override
+            protected List<T> convert(List<Tuple> data) {
+                List<T> result = new ArrayList<T>(data.size());
+                for (Tuple tuple : data) {
+                    result.add(deSerializeValue(model, tuple.getBinaryElement(), type));
+                }
+                return result;
+            }
+        };
+    }
+
     /**
      * 返回有序集 key 中，指定区间内的成员。
      * 其中成员的位置按 score 值递减(从大到小)来排列。
@@ -1115,11 +1562,11 @@ public class RedisCluster extends AbstractRedis {
      */
     @SuppressWarnings("rawtypes")
     public <T> Set<T> zrevrange(final CacheKeyModel model, final Long start, final Long end, final Class<T> type) {
-        return call(new JedisClusterAction<Set<T>>(){
+        return call(model, new JedisClusterAction<Set<T>>(){
             @Override
             public Set<T> execute(JedisCluster jedisCluster) {
-                Set<byte[]> data = jedisCluster.zrevrange(serializerKey(model.getKey()), start, end);
-                return toValueSet(data, type);
+                Set<byte[]> data = jedisCluster.zrevrange(serializerKey(model), start, end);
+                return toValueSet(model, data, type);
             }
         });
     }
@@ -1130,11 +1577,11 @@ public class RedisCluster extends AbstractRedis {
      */
     @SuppressWarnings("rawtypes")
     public <T> Set<T> zrangeByScore(final CacheKeyModel model, final Double min, final Double max, final Class<T> type) {
-        return call(new JedisClusterAction<Set<T>>(){
+        return call(model, new JedisClusterAction<Set<T>>(){
             @Override
             public Set<T> execute(JedisCluster jedisCluster) {
-                Set<byte[]> data = jedisCluster.zrangeByScore(serializerKey(model.getKey()), min, max);
-                return toValueSet(data, type);
+                Set<byte[]> data = jedisCluster.zrangeByScore(serializerKey(model), min, max);
+                return toValueSet(model, data, type);
             }
         });
     }
@@ -1145,10 +1592,10 @@ public class RedisCluster extends AbstractRedis {
      * 使用 ZREVRANK 命令可以获得成员按 score 值递减(从大到小)排列的排名。
      */
     public Long zrank(final CacheKeyModel model, final Object member) {
-        return call(new JedisClusterAction<Long>(){
+        return call(model, new JedisClusterAction<Long>(){
             @Override
             public Long execute(JedisCluster jedisCluster) {
-                return jedisCluster.zrank(serializerKey(model.getKey()), serializerValue(member));
+                return jedisCluster.zrank(serializerKey(model), serializerValue(model, member));
             }
         });
     }
@@ -1159,10 +1606,10 @@ public class RedisCluster extends AbstractRedis {
      * 使用 ZRANK 命令可以获得成员按 score 值递增(从小到大)排列的排名。
      */
     public Long zrevrank(final CacheKeyModel model, final Object member) {
-        return call(new JedisClusterAction<Long>(){
+        return call(model, new JedisClusterAction<Long>(){
             @Override
             public Long execute(JedisCluster jedisCluster) {
-                return jedisCluster.zrevrank(serializerKey(model.getKey()), serializerValue(member));
+                return jedisCluster.zrevrank(serializerKey(model), serializerValue(model, member));
             }
         });
     }
@@ -1172,10 +1619,10 @@ public class RedisCluster extends AbstractRedis {
      * 当 key 存在但不是有序集类型时，返回一个错误。
      */
     public Long zrem(final CacheKeyModel model, final Object... members) {
-        return call(new JedisClusterAction<Long>(){
+        return call(model, new JedisClusterAction<Long>(){
             @Override
             public Long execute(JedisCluster jedisCluster) {
-                return jedisCluster.zrem(serializerKey(model.getKey()), serializerValueArray(members));
+                return jedisCluster.zrem(serializerKey(model), serializerValueArray(model, members));
             }
         });
     }
@@ -1185,12 +1632,84 @@ public class RedisCluster extends AbstractRedis {
      * 如果 member 元素不是有序集 key 的成员，或 key 不存在，返回 nil 。
      */
     public Double zscore(final CacheKeyModel model, final Object members) {
-        return call(new JedisClusterAction<Double>(){
+        return call(model, new JedisClusterAction<Double>(){
             @Override
             public Double execute(JedisCluster jedisCluster) {
-                return jedisCluster.zscore(serializerKey(model.getKey()), serializerValue(members));
+                return jedisCluster.zscore(serializerKey(model), serializerValue(model, members));
+            }
+        });
+    }
+
+    /**
+     * 取出key的值并解析为long，不经过反序列化及装箱
+     * @param defaultValue key不存在或不是数字时返回的值
+     */
+    public long getLong(final CacheKeyModel model, final long defaultValue) {
+        Boolean found = call(model, new JedisClusterAction<Boolean>() {
+            @Override
+            public Boolean execute(JedisCluster jedisCluster) {
+                return readLong(model, jedisCluster.get(serializerKey(model)));
+            }
+        });
+        return longReply(found, defaultValue);
+    }
+
+    /**
+     * 取出key的值并解析为double，不经过反序列化及装箱
+     * @param defaultValue key不存在或不是数字时返回的值
+     */
+    public double getDouble(final CacheKeyModel model, final double defaultValue) {
+        Boolean found = call(model, new JedisClusterAction<Boolean>() {
+            @Override
+            public Boolean execute(JedisCluster jedisCluster) {
+                return readDouble(model, jedisCluster.get(serializerKey(model)));
+            }
+        });
+        return doubleReply(found, defaultValue);
+    }
+
+    /**
+     * 取出hash field的值并解析为long，适合hincrBy写入的计数器
+     * @param defaultValue field不存在或不是数字时返回的值
+     */
+    public long hgetLong(final CacheKeyModel model, final String field, final long defaultValue) {
+        Boolean found = call(model, new JedisClusterAction<Boolean>() {
+            @Override
+            public Boolean execute(JedisCluster jedisCluster) {
+                return readLong(model, jedisCluster.hget(serializerKey(model), serializerKey(model, field)));
+            }
+        });
+        return longReply(found, defaultValue);
+    }
+
+    /**
+     * 取出列表中下标为index的元素并解析为long
+     * @param defaultValue 下标超出范围或不是数字时返回的值
+     */
+    public long lindexLong(final CacheKeyModel model, final long index, final long defaultValue) {
+        Boolean found = call(model, new JedisClusterAction<Boolean>() {
+            @Override
+            public Boolean execute(JedisCluster jedisCluster) {
+                return readLong(model, jedisCluster.lindex(serializerKey(model), index));
             }
         });
+        return longReply(found, defaultValue);
+    }
+
+    /**
+     * 取出有序集合成员的score，直接解析Redis返回的字节，不经过String及Double
+     * @param defaultValue 成员不存在时返回的值
+     */
+    public double zscoreDouble(final CacheKeyModel model, final Object member, final double defaultValue) {
+        final byte[] key = serializerKey(model);
+        Boolean found = callSlot(model, key, new JedisAction<Boolean>() {
+            @Override
+            public Boolean execute(Jedis jedis) {
+                jedis.getClient().zscore(key, serializerValue(model, member));
+                return readDouble(model, jedis.getClient().getBinaryBulkReply());
+            }
+        });
+        return doubleReply(found, defaultValue);
     }
 
     /**
@@ -1320,6 +1839,7 @@ public class RedisCluster extends AbstractRedis {
         if (RedisUtil.isEmpty(sampleKey)) {
             throw new NullPointerException("redis为cluster时，sampleKey不能为空");
         }
+        scriptRegistry.register(script);
         return call(new JedisClusterAction<T>(){
             @Override
             public T execute(JedisCluster jedisCluster) {
@@ -1338,6 +1858,15 @@ public class RedisCluster extends AbstractRedis {
      * @return
      */
     public <T> T evalSha(final String sha, final int keyCount, final String... values) {
+        if (keyCount > 0 && !RedisUtil.isEmpty(values)) {
+            // 在key所在节点执行，NOSCRIPT时可以在同一节点重新加载
+            return callSlot(SafeEncoder.encode(values[0]), new JedisAction<T>(){
+                @Override
+                public T execute(Jedis jedis) {
+                    return (T)scriptRegistry.evalsha(jedis, sha, keyCount, values);
+                }
+            });
+        }
         return call(new JedisClusterAction<T>(){
             @Override
             public T execute(JedisCluster jedisCluster) {
@@ -1345,4 +1874,310 @@ public class RedisCluster extends AbstractRedis {
             }
         });
     }
+
+    /**
+     * 以EVALSHA执行已注册的脚本，key及参数按ISerializer序列化
+     * 在第一个key所在slot的节点上执行，节点上没有该脚本(NOSCRIPT)时自动加载并重试
+     * 所有key必须在同一个slot，可以用{hashtag}保证
+     * @param script registerScript返回的脚本
+     * @param type 返回值为字符串时反序列化的类型，为null时返回byte[]
+     * @param models 脚本操作的key，对应KEYS
+     * @param args 对应ARGV
+     */
+    public <T> T eval(final RedisScript script, final Class<?> type, final List<CacheKeyModel> models, final Object... args) {
+        if (null == models || models.isEmpty()) {
+            throw new NullPointerException("redis为cluster时，models不能为空");
+        }
+        final CacheKeyModel model = models.get(0);
+        final List<byte[]> keys = serializerKeyList(models);
+        return callSlot(model, keys.get(0), new JedisAction<T>(){
+            @Override
+            public T execute(Jedis jedis) {
+                Object result = scriptRegistry.evalsha(jedis, script, keys, serializerValueList(model, args));
+                return (T)toScriptResult(model, result, type);
+            }
+        });
+    }
+
+    /**
+     * 批量执行命令
+     * 按key的hash slot将命令分组到所在节点的pipeline中，每个节点只需一次网络往返
+     * 使用方式参考 Redis.pipelined
+     *
+     * @param action 组装命令的方法
+     * @return 发送成功返回true
+     */
+    public Boolean pipelined(final JedisBatchAction action) {
+        final JedisBatch batch = new JedisBatch(this);
+        try {
+            action.execute(batch);
+        } catch (Exception e) {
+            LOGGER.warn(e.getMessage(), e);
+            return false;
+        }
+        if (batch.getResponses().isEmpty()) {
+            return true;
+        }
+        Boolean isOk = call(new JedisClusterAction<Boolean>() {
+            @Override
+            public Boolean execute(JedisCluster jedisCluster) {
+                try {
+                    syncByNode(batch.getResponses());
+                    return true;
+                } catch (RuntimeException e) {
+                    batch.failPending(e);
+                    throw e;
+                }
+            }
+        });
+        return null != isOk && isOk;
+    }
+
+    /**
+     * 将命令按节点分组后通过pipeline发送
+     * 先向所有节点发送命令再逐个读取结果，各节点的处理是并行的；
+     * 遇到MOVED/ASK重定向的命令，会发往重定向指定的节点重试，最多重试maxRedirections次
+     *
+     * @param responses 要执行的命令
+     */
+    protected void syncByNode(List<BatchResponse<?>> responses) {
+        List<BatchResponse<?>> pending = responses;
+        int redirections = 0;
+        while (!pending.isEmpty()) {
+            if (redirections > redisConfig.getMaxRedirections()) {
+                for (BatchResponse<?> response : pending) {
+                    response.fail(response.getRedirection());
+                }
+                return;
+            }
+            Map<String, Jedis> nodeJedisMap = new LinkedHashMap<String, Jedis>();
+            Map<String, List<BatchResponse<?>>> nodeResponseMap = new LinkedHashMap<String, List<BatchResponse<?>>>();
+            try {
+                Map<Integer, String> slotNodeMap = new HashMap<Integer, String>();
+                for (BatchResponse<?> response : pending) {
+                    String node = getNode(response, slotNodeMap, nodeJedisMap);
+                    List<BatchResponse<?>> nodeResponses = nodeResponseMap.get(node);
+                    if (null == nodeResponses) {
+                        nodeResponses = new ArrayList<BatchResponse<?>>();
+                        nodeResponseMap.put(node, nodeResponses);
+                    }
+                    nodeResponses.add(response);
+                }
+                List<Pipeline> pipelines = new ArrayList<Pipeline>(nodeResponseMap.size());
+                for (Map.Entry<String, List<BatchResponse<?>>> entry : nodeResponseMap.entrySet()) {
+                    NodePipeline pipeline = (NodePipeline) pipelined(nodeJedisMap.get(entry.getKey()));
+                    for (BatchResponse<?> response : entry.getValue()) {
+                        // ASK重定向的命令在目标节点上重试，命令及其后的EXPIRE等每条命令前都要发送ASKING
+                        pipeline.setAsking(response.getRedirection() instanceof JedisAskDataException);
+                        response.queueTo(pipeline);
+                    }
+                    pipelines.add(pipeline);
+                }
+                syncPipelines(pipelines);
+                List<BatchResponse<?>> redirected = new ArrayList<BatchResponse<?>>();
+                for (BatchResponse<?> response : pending) {
+                    if (!response.resolve()) {
+                        redirected.add(response);
+                    }
+                }
+                for (BatchResponse<?> response : redirected) {
+                    if (!(response.getRedirection() instanceof JedisAskDataException)) {
+                        renewSlotCache(response.getKey());
+                        break;
+                    }
+                }
+                pending = redirected;
+                redirections++;
+            } finally {
+                for (Jedis jedis : nodeJedisMap.values()) {
+                    jedis.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * 各节点的pipeline并行sync，第一个节点在当前线程执行
+     * 所有节点执行完成后才返回，避免链接在其它线程读取结果时被归还
+     */
+    private void syncPipelines(List<Pipeline> pipelines) {
+        if (pipelines.isEmpty()) {
+            return;
+        }
+        List<Future<?>> futures = new ArrayList<Future<?>>(pipelines.size() - 1);
+        for (int i = 1; i < pipelines.size(); i++) {
+            final Pipeline pipeline = pipelines.get(i);
+            futures.add(ThreadUtil.execAsync(new Runnable() {
+                @Override
+                public void run() {
+                    pipeline.sync();
+                }
+            }));
+        }
+        RuntimeException error = null;
+        try {
+            pipelines.get(0).sync();
+        } catch (RuntimeException e) {
+            error = e;
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = (null == error) ? new CacheException("pipeline sync interrupted", e) : error;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (null == error) {
+                    error = (cause instanceof RuntimeException) ? (RuntimeException) cause : new CacheException(cause.getMessage(), cause);
+                }
+            }
+        }
+        if (null != error) {
+            throw error;
+        }
+    }
+
+    /**
+     * 按hash slot对key分组，返回每组key在数组里的下标
+     */
+    private static Collection<List<Integer>> groupBySlot(byte[][] keys) {
+        Map<Integer, List<Integer>> slotIndexMap = new LinkedHashMap<Integer, List<Integer>>();
+        for (int i = 0; i < keys.length; i++) {
+            int slot = JedisClusterCRC16.getSlot(keys[i]);
+            List<Integer> indexes = slotIndexMap.get(slot);
+            if (null == indexes) {
+                indexes = new ArrayList<Integer>();
+                slotIndexMap.put(slot, indexes);
+            }
+            indexes.add(i);
+        }
+        return slotIndexMap.values();
+    }
+
+    /**
+     * 有命令执行失败时抛出异常
+     */
+    private static void throwIfFailed(List<BatchResponse<?>> responses) {
+        for (BatchResponse<?> response : responses) {
+            Exception error = response.getError();
+            if (null != error) {
+                throw new CacheException(error.getMessage(), error);
+            }
+        }
+    }
+
+    /**
+     * 取出命令要发往的节点，同一个节点只借用一个链接
+     */
+    private String getNode(BatchResponse<?> response, Map<Integer, String> slotNodeMap, Map<String, Jedis> nodeJedisMap) {
+        JedisRedirectionException redirection = response.getRedirection();
+        if (null != redirection) {
+            String node = redirection.getTargetNode().toString();
+            if (!nodeJedisMap.containsKey(node)) {
+                JedisPool pool = jedisCluster.getClusterNodes().get(node);
+                if (null != pool) {
+                    nodeJedisMap.put(node, pool.getResource());
+                    return node;
+                }
+            } else {
+                return node;
+            }
+        }
+        int slot = JedisClusterCRC16.getSlot(response.getKey());
+        String node = slotNodeMap.get(slot);
+        if (null == node) {
+            Jedis jedis = jedisCluster.getConnectionFromSlot(slot);
+            node = jedis.getClient().getHost() + ":" + jedis.getClient().getPort();
+            if (nodeJedisMap.containsKey(node)) {
+                jedis.close();
+            } else {
+                nodeJedisMap.put(node, jedis);
+            }
+            slotNodeMap.put(slot, node);
+        }
+        return node;
+    }
+
+    /**
+     * 在指定节点的链接上执行命令，每次执行时从链接池借用链接，执行完成后归还
+     */
+    protected <T> T callNode(JedisPool pool, JedisAction action) {
+        T result = null;
+        Jedis jedis = null;
+        MetricsRecorder.Scope scope = beginMetrics(action, null);
+        try {
+            long borrowTime = System.nanoTime();
+            jedis = pool.getResource();
+            if (null != poolMonitor) {
+                poolMonitor.recordBorrow(jedis, System.nanoTime() - borrowTime);
+            }
+            result = (T) action.execute(jedis);
+        } catch (Exception e) {
+            if (null != scope) {
+                scope.error();
+            }
+            e.printStackTrace();
+            LOGGER.warn(e.getMessage(), e);
+        } finally {
+            if (null != jedis) {
+                jedis.close();
+            }
+            if (null != scope) {
+                scope.end();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 通过CLUSTER NODES取出所有正常主节点的链接池
+     */
+    protected List<JedisPool> getMasterPools() {
+        Map<String, JedisPool> clusterNodes = jedisCluster.getClusterNodes();
+        List<JedisPool> pools = new ArrayList<JedisPool>();
+        for (JedisPool pool : clusterNodes.values()) {
+            Jedis jedis = null;
+            try {
+                jedis = pool.getResource();
+                // 格式: <id> <ip:port@cport> <flags> <master> ...
+                for (String line : jedis.clusterNodes().split("\n")) {
+                    String[] fields = line.trim().split(" ");
+                    if (fields.length < 3 || !fields[2].contains("master") || fields[2].contains("fail")) {
+                        continue;
+                    }
+                    String node = fields[1];
+                    int index = node.indexOf('@');
+                    if (index > 0) {
+                        node = node.substring(0, index);
+                    }
+                    JedisPool masterPool = clusterNodes.get(node);
+                    if (null != masterPool) {
+                        pools.add(masterPool);
+                    } else {
+                        LOGGER.warn("集群主节点[" + node + "]没有对应的链接池，忽略");
+                    }
+                }
+                return pools;
+            } catch (Exception e) {
+                LOGGER.warn("读取集群节点信息失败: " + e.getMessage(), e);
+            } finally {
+                if (null != jedis) {
+                    jedis.close();
+                }
+            }
+        }
+        return pools;
+    }
+
+    /**
+     * 通过jedisCluster执行一次只读命令，遇到MOVED时jedisCluster会自动刷新slot缓存
+     */
+    protected void renewSlotCache(byte[] key) {
+        try {
+            jedisCluster.exists(key);
+        } catch (Exception e) {
+            LOGGER.warn("renew slot cache fail: " + e.getMessage(), e);
+        }
+    }
 }
@@ -0,0 +1,47 @@
+package com.duang.jedisclient.core;
+
+import cn.hutool.crypto.SecureUtil;
+import redis.clients.jedis.util.SafeEncoder;
+
+/**
+ * Lua脚本，SHA1在本地计算，与SCRIPT LOAD返回的值一致
+ * 通过ScriptRegistry.register创建
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class RedisScript {
+
+    private final String script;
+    private final String sha;
+    private final byte[] scriptBytes;
+    private final byte[] shaBytes;
+
+    RedisScript(String script) {
+        this.script = script;
+        this.sha = SecureUtil.sha1(script);
+        this.scriptBytes = SafeEncoder.encode(script);
+        this.shaBytes = SafeEncoder.encode(sha);
+    }
+
+    public String getScript() {
+        return script;
+    }
+
+    public String getSha() {
+        return sha;
+    }
+
+    byte[] getScriptBytes() {
+        return scriptBytes;
+    }
+
+    byte[] getShaBytes() {
+        return shaBytes;
+    }
+
+    @Override
+    public String toString() {
+        return sha;
+    }
+}
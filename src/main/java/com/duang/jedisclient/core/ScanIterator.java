@@ -0,0 +1,79 @@
+package com.duang.jedisclient.core;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 按页读取的延迟迭代器
+ * 只有在当前页读完后才会读取下一页，内存中最多只保留一页数据
+ * 读取失败时hasNext()抛出CacheException；没有读完就不再读取时请调用close()或使用try-with-resources
+ *
+ * @param <T> 元素泛型对象
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public abstract class ScanIterator<T> implements Iterator<T>, Closeable {
+
+    private Iterator<T> page = Collections.<T>emptyList().iterator();
+    private boolean finished;
+
+    /**
+     * 读取下一页
+     * @return 没有更多数据时返回null，返回空集合时会继续读取下一页
+     */
+    protected abstract List<T> nextPage();
+
+    @Override
+    public boolean hasNext() {
+        while (!page.hasNext()) {
+            if (finished) {
+                return false;
+            }
+            List<T> data = nextPage();
+            if (null == data) {
+                finished = true;
+                return false;
+            }
+            page = data.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return page.next();
+    }
+
+    /**
+     * 停止读取，释放占用的资源
+     */
+    @Override
+    public void close() {
+        finished = true;
+        page = Collections.<T>emptyList().iterator();
+    }
+
+    /**
+     * 转换成Stream，Stream关闭时会同时关闭迭代器
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+                .onClose(new Runnable() {
+                    @Override
+                    public void run() {
+                        close();
+                    }
+                });
+    }
+}
@@ -0,0 +1,131 @@
+package com.duang.jedisclient.core;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Lua脚本注册表
+ * 缓存脚本的SHA1，每个节点只在第一次执行时SCRIPT LOAD一次，之后以EVALSHA执行；
+ * 节点重启或主从切换后脚本缓存丢失(NOSCRIPT)时，自动在该节点重新加载并重试一次
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class ScriptRegistry {
+
+    /**
+     * key为sha
+     */
+    private final ConcurrentMap<String, RedisScript> scripts = new ConcurrentHashMap<String, RedisScript>();
+    /**
+     * 已加载脚本的节点，key为sha，value为host:port
+     */
+    private final ConcurrentMap<String, Set<String>> loadedNodes = new ConcurrentHashMap<String, Set<String>>();
+
+    /**
+     * 注册脚本，相同内容的脚本返回同一个对象
+     * @param script lua脚本
+     */
+    public RedisScript register(String script) {
+        RedisScript redisScript = new RedisScript(script);
+        RedisScript exists = scripts.putIfAbsent(redisScript.getSha(), redisScript);
+        return null == exists ? redisScript : exists;
+    }
+
+    /**
+     * 按sha取出已注册的脚本，没有时返回null
+     */
+    public RedisScript getScript(String sha) {
+        return null == sha ? null : scripts.get(sha.toLowerCase());
+    }
+
+    /**
+     * 清除各节点的加载记录，下次执行时重新加载
+     */
+    public void reset() {
+        loadedNodes.clear();
+    }
+
+    /**
+     * 在jedis所在节点以EVALSHA执行脚本
+     * @param jedis 节点链接
+     * @param script 已注册的脚本
+     * @param keys 已序列化的key
+     * @param args 已序列化的参数
+     */
+    Object evalsha(Jedis jedis, RedisScript script, List<byte[]> keys, List<byte[]> args) {
+        String node = node(jedis);
+        Set<String> nodes = nodes(script.getSha());
+        if (!nodes.contains(node)) {
+            load(jedis, script, nodes, node);
+        }
+        try {
+            NodePipeline.asking(jedis);
+            return jedis.evalsha(script.getShaBytes(), keys, args);
+        } catch (JedisNoScriptException e) {
+            nodes.remove(node);
+            load(jedis, script, nodes, node);
+            NodePipeline.asking(jedis);
+            return jedis.evalsha(script.getShaBytes(), keys, args);
+        }
+    }
+
+    /**
+     * 在pipeline里以EVALSHA执行脚本，该节点没有加载过时先在同一个pipeline里加载
+     * @param pipeline 节点的pipeline
+     * @param script 已注册的脚本
+     * @param keys 已序列化的key
+     * @param args 已序列化的参数
+     */
+    Response<Object> evalsha(NodePipeline pipeline, RedisScript script, List<byte[]> keys, List<byte[]> args) {
+        return pipeline.evalsha(script, keys, args, nodes(script.getSha()));
+    }
+
+    /**
+     * 以sha执行脚本，脚本已注册时遇到NOSCRIPT自动重新加载并重试
+     */
+    Object evalsha(Jedis jedis, String sha, int keyCount, String... params) {
+        try {
+            NodePipeline.asking(jedis);
+            return jedis.evalsha(sha, keyCount, params);
+        } catch (JedisNoScriptException e) {
+            RedisScript script = getScript(sha);
+            if (null == script) {
+                throw e;
+            }
+            Set<String> nodes = nodes(script.getSha());
+            String node = node(jedis);
+            nodes.remove(node);
+            load(jedis, script, nodes, node);
+            NodePipeline.asking(jedis);
+            return jedis.evalsha(sha, keyCount, params);
+        }
+    }
+
+    private void load(Jedis jedis, RedisScript script, Set<String> nodes, String node) {
+        jedis.scriptLoad(script.getScriptBytes());
+        nodes.add(node);
+    }
+
+    private Set<String> nodes(String sha) {
+        Set<String> nodes = loadedNodes.get(sha);
+        if (null == nodes) {
+            Set<String> created = ConcurrentHashMap.newKeySet();
+            nodes = loadedNodes.putIfAbsent(sha, created);
+            if (null == nodes) {
+                nodes = created;
+            }
+        }
+        return nodes;
+    }
+
+    static String node(Jedis jedis) {
+        return jedis.getClient().getHost() + ":" + jedis.getClient().getPort();
+    }
+}
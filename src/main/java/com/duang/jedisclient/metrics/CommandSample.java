@@ -0,0 +1,87 @@
+package com.duang.jedisclient.metrics;
+
+/**
+ * 一次命令调用的度量数据
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class CommandSample {
+
+    /**
+     * 没有CacheKeyModel或CacheKeyModel没有枚举对象时的分组名称
+     */
+    public static final String NO_KEY_GROUP = "-";
+
+    private final String command;
+    private final String keyGroup;
+    private final long totalNanos;
+    private final long serializeNanos;
+    private final long bytesOut;
+    private final long bytesIn;
+    private final boolean error;
+
+    public CommandSample(String command, String keyGroup, long totalNanos, long serializeNanos,
+                         long bytesOut, long bytesIn, boolean error) {
+        this.command = command;
+        this.keyGroup = keyGroup;
+        this.totalNanos = totalNanos;
+        this.serializeNanos = serializeNanos;
+        this.bytesOut = bytesOut;
+        this.bytesIn = bytesIn;
+        this.error = error;
+    }
+
+    /**
+     * 命令名称，即IJedisClient里的方法名，如get、hgetAll
+     */
+    public String getCommand() {
+        return command;
+    }
+
+    /**
+     * 缓存key枚举名称，没有时为NO_KEY_GROUP
+     */
+    public String getKeyGroup() {
+        return keyGroup;
+    }
+
+    /**
+     * 总耗时(包括取链接、网络及序列化)
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * 序列化及反序列化耗时
+     */
+    public long getSerializeNanos() {
+        return serializeNanos;
+    }
+
+    /**
+     * 除序列化外的耗时(取链接及网络)
+     */
+    public long getNetworkNanos() {
+        return Math.max(0L, totalNanos - serializeNanos);
+    }
+
+    /**
+     * 发送的key/value字节数
+     */
+    public long getBytesOut() {
+        return bytesOut;
+    }
+
+    /**
+     * 接收的value字节数
+     */
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    public boolean isError() {
+        return error;
+    }
+}
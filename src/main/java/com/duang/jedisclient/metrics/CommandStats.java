@@ -0,0 +1,144 @@
+package com.duang.jedisclient.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 某个命令或某个缓存key枚举的累计度量数据
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class CommandStats implements CommandStatsMXBean {
+
+    private static final double NANOS_PER_MICRO = 1000D;
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram serializeLatency = new LatencyHistogram();
+    private final LatencyHistogram networkLatency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+
+    public CommandStats(String name) {
+        this.name = name;
+    }
+
+    public void record(CommandSample sample) {
+        latency.record(sample.getTotalNanos());
+        serializeLatency.record(sample.getSerializeNanos());
+        networkLatency.record(sample.getNetworkNanos());
+        if (sample.isError()) {
+            errors.increment();
+        }
+        bytesOut.add(sample.getBytesOut());
+        bytesIn.add(sample.getBytesIn());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 总耗时的直方图，单位为纳秒
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * 序列化耗时的直方图，单位为纳秒
+     */
+    public LatencyHistogram getSerializeLatency() {
+        return serializeLatency;
+    }
+
+    /**
+     * 除序列化外耗时的直方图，单位为纳秒
+     */
+    public LatencyHistogram getNetworkLatency() {
+        return networkLatency;
+    }
+
+    @Override
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    @Override
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latency.getMean() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latency.getValueAtPercentile(50D) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latency.getValueAtPercentile(99D) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return latency.getValueAtPercentile(99.9D) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return latency.getMax() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getSerializeMeanMicros() {
+        return serializeLatency.getMean() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getSerializeP99Micros() {
+        return serializeLatency.getValueAtPercentile(99D) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getNetworkMeanMicros() {
+        return networkLatency.getMean() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getNetworkP99Micros() {
+        return networkLatency.getValueAtPercentile(99D) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        serializeLatency.reset();
+        networkLatency.reset();
+        errors.reset();
+        bytesOut.reset();
+        bytesIn.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s count=%d errors=%d mean=%.1fus p50=%.1fus p99=%.1fus p999=%.1fus max=%.1fus serialize(mean)=%.1fus out=%dB in=%dB",
+                name, getCount(), getErrors(), getMeanMicros(), getP50Micros(), getP99Micros(), getP999Micros(),
+                getMaxMicros(), getSerializeMeanMicros(), getBytesOut(), getBytesIn());
+    }
+}
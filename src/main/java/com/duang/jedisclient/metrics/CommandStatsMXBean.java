@@ -0,0 +1,39 @@
+package com.duang.jedisclient.metrics;
+
+/**
+ * 命令度量的JMX接口，时间单位为微秒
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public interface CommandStatsMXBean {
+
+    long getCount();
+
+    long getErrors();
+
+    long getBytesOut();
+
+    long getBytesIn();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+
+    double getSerializeMeanMicros();
+
+    double getSerializeP99Micros();
+
+    double getNetworkMeanMicros();
+
+    double getNetworkP99Micros();
+
+    void reset();
+
+}
@@ -0,0 +1,134 @@
+package com.duang.jedisclient.metrics;
+
+import javax.management.ObjectName;
+import java.util.Collections;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 值压缩的度量数据
+ * 压缩率 = 压缩前字节数 / 压缩后字节数，只统计实际压缩的值；耗时为压缩及解压所在线程的耗时
+ * 启用JMX时注册为 com.duang.jedisclient:type=Compression,appId=xxx,name=serializer，
+ * 缓存枚举指定的序列化器为 name=serializer:key前缀
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class CompressionStats implements CompressionStatsMXBean {
+
+    private final LongAdder compressed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder originalBytes = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder compressNanos = new LongAdder();
+    private final LongAdder decompressed = new LongAdder();
+    private final LongAdder decompressNanos = new LongAdder();
+    private volatile ObjectName objectName;
+
+    /**
+     * 压缩一次
+     * @param original 压缩前字节数
+     * @param compressed 压缩后字节数
+     * @param nanos 耗时
+     */
+    public void recordCompress(int original, int compressed, long nanos) {
+        this.compressed.increment();
+        originalBytes.add(original);
+        compressedBytes.add(compressed);
+        compressNanos.add(nanos);
+    }
+
+    /**
+     * 超过阈值但压缩后没有变小，按原样写入
+     * @param nanos 耗时
+     */
+    public void recordSkip(long nanos) {
+        skipped.increment();
+        compressNanos.add(nanos);
+    }
+
+    /**
+     * 解压一次
+     * @param nanos 耗时
+     */
+    public void recordDecompress(long nanos) {
+        decompressed.increment();
+        decompressNanos.add(nanos);
+    }
+
+    public void register(String appId) {
+        register(appId, "serializer");
+    }
+
+    public void register(String appId, String name) {
+        objectName = MBeans.register("Compression", appId, name, this);
+    }
+
+    public void unregister() {
+        ObjectName name = objectName;
+        if (null != name) {
+            MBeans.unregister(Collections.singletonList(name));
+            objectName = null;
+        }
+    }
+
+    @Override
+    public long getCompressedCount() {
+        return compressed.sum();
+    }
+
+    @Override
+    public long getSkippedCount() {
+        return skipped.sum();
+    }
+
+    @Override
+    public long getOriginalBytes() {
+        return originalBytes.sum();
+    }
+
+    @Override
+    public long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    @Override
+    public double getCompressionRatio() {
+        long bytes = compressedBytes.sum();
+        return bytes == 0 ? 0D : (double) originalBytes.sum() / bytes;
+    }
+
+    @Override
+    public double getAvgCompressMicros() {
+        long count = compressed.sum() + skipped.sum();
+        return count == 0 ? 0D : compressNanos.sum() / 1000D / count;
+    }
+
+    @Override
+    public long getDecompressedCount() {
+        return decompressed.sum();
+    }
+
+    @Override
+    public double getAvgDecompressMicros() {
+        long count = decompressed.sum();
+        return count == 0 ? 0D : decompressNanos.sum() / 1000D / count;
+    }
+
+    @Override
+    public void reset() {
+        compressed.reset();
+        skipped.reset();
+        originalBytes.reset();
+        compressedBytes.reset();
+        compressNanos.reset();
+        decompressed.reset();
+        decompressNanos.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("compressed=%d skipped=%d ratio=%.2f avgCompress=%.1fus decompressed=%d avgDecompress=%.1fus",
+                getCompressedCount(), getSkippedCount(), getCompressionRatio(), getAvgCompressMicros(),
+                getDecompressedCount(), getAvgDecompressMicros());
+    }
+}
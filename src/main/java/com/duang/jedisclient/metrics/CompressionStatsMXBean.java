@@ -0,0 +1,29 @@
+package com.duang.jedisclient.metrics;
+
+/**
+ * 值压缩度量的JMX接口
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public interface CompressionStatsMXBean {
+
+    long getCompressedCount();
+
+    long getSkippedCount();
+
+    long getOriginalBytes();
+
+    long getCompressedBytes();
+
+    double getCompressionRatio();
+
+    double getAvgCompressMicros();
+
+    long getDecompressedCount();
+
+    double getAvgDecompressMicros();
+
+    void reset();
+
+}
@@ -0,0 +1,42 @@
+package com.duang.jedisclient.metrics;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 一个应用里所有CompressingSerializer的压缩度量
+ * RedisConfig里的序列化器启动时注册，缓存枚举通过getSerializer()指定的序列化器在第一次使用时注册，
+ * 同一个序列化器只注册一次，多个枚举共用时以第一次使用它的key前缀命名
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class CompressionStatsRegistry {
+
+    private final String appId;
+    private final Set<CompressionStats> registered = Collections.newSetFromMap(new ConcurrentHashMap<CompressionStats, Boolean>());
+
+    public CompressionStatsRegistry(String appId) {
+        this.appId = appId;
+    }
+
+    /**
+     * 注册到JMX，已注册过时不处理
+     * @param stats 度量数据
+     * @param name JMX的name
+     */
+    public void register(CompressionStats stats, String name) {
+        if (registered.contains(stats) || !registered.add(stats)) {
+            return;
+        }
+        stats.register(appId, name);
+    }
+
+    public void unregisterAll() {
+        for (CompressionStats stats : registered) {
+            stats.unregister();
+        }
+        registered.clear();
+    }
+}
@@ -0,0 +1,20 @@
+package com.duang.jedisclient.metrics;
+
+/**
+ * 度量数据收集接口(SPI)
+ * 除了通过RedisConfig/JedisClient.Builder设置外，也可以在META-INF/services/com.duang.jedisclient.metrics.IMetricsCollector
+ * 里声明实现类，启用度量时通过ServiceLoader自动加载
+ * record在执行命令的线程里同步调用，实现类需要线程安全且尽量轻量
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public interface IMetricsCollector {
+
+    /**
+     * 记录一次命令调用
+     * @param sample 度量数据
+     */
+    void record(CommandSample sample);
+
+}
@@ -0,0 +1,55 @@
+package com.duang.jedisclient.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+
+/**
+ * JMX注册及注销
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+class MBeans {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MBeans.class);
+    static final String JMX_DOMAIN = "com.duang.jedisclient";
+
+    private MBeans() {
+    }
+
+    /**
+     * 注册MBean，同名的已存在时先注销
+     * @return 注册失败时返回null
+     */
+    static ObjectName register(String type, String appId, String name, Object mbean) {
+        try {
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=" + type
+                    + ",appId=" + ObjectName.quote(String.valueOf(appId)) + ",name=" + ObjectName.quote(name));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(mbean, objectName);
+            return objectName;
+        } catch (Exception e) {
+            LOGGER.warn("注册MBean时出错: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    static void unregister(Collection<ObjectName> names) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : names) {
+            try {
+                server.unregisterMBean(name);
+            } catch (Exception e) {
+                LOGGER.debug("注销MBean[{}]时出错: {}", name, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.duang.jedisclient.metrics;
+
+import com.duang.jedisclient.common.CacheKeyModel;
+import com.duang.jedisclient.common.ICacheKeyEnums;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 在Redis/RedisCluster的call方法外围记录度量数据
+ * 命令名称取自JedisAction匿名类所在的方法名(按类缓存)，序列化耗时及字节数通过当前线程的Scope累计
+ * 嵌套的call只在最外层记录一次
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class MetricsRecorder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricsRecorder.class);
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<Scope>();
+    private static final ConcurrentMap<Class<?>, String> COMMAND_NAMES = new ConcurrentHashMap<Class<?>, String>();
+
+    private final IMetricsCollector[] collectors;
+
+    public MetricsRecorder(List<IMetricsCollector> collectors) {
+        this.collectors = collectors.toArray(new IMetricsCollector[0]);
+    }
+
+    /**
+     * 开始记录一次命令调用
+     * @param action JedisAction/JedisClusterAction对象
+     * @param model 命令操作的CacheKeyModel，可以为null
+     * @return 已在记录中(嵌套调用)时返回null
+     */
+    public Scope begin(Object action, CacheKeyModel model) {
+        if (null != CURRENT.get()) {
+            return null;
+        }
+        Scope scope = new Scope(commandName(action.getClass()), keyGroup(model));
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * 当前线程正在记录的Scope，没有时返回null
+     */
+    public static Scope current() {
+        return CURRENT.get();
+    }
+
+    private static String commandName(Class<?> actionClass) {
+        String name = COMMAND_NAMES.get(actionClass);
+        if (null == name) {
+            Method method = actionClass.getEnclosingMethod();
+            // 在迭代器等匿名类里调用时，取外层方法名，如hscan
+            while (null != method && method.getDeclaringClass().isAnonymousClass()
+                    && null != method.getDeclaringClass().getEnclosingMethod()) {
+                method = method.getDeclaringClass().getEnclosingMethod();
+            }
+            name = null == method ? actionClass.getSimpleName() : method.getName();
+            COMMAND_NAMES.putIfAbsent(actionClass, name);
+        }
+        return name;
+    }
+
+    private static String keyGroup(CacheKeyModel model) {
+        ICacheKeyEnums keyEnums = null == model ? null : model.getKeyEnums();
+        if (null == keyEnums) {
+            return CommandSample.NO_KEY_GROUP;
+        }
+        return keyEnums instanceof Enum ? ((Enum<?>) keyEnums).name() : keyEnums.getKeyPrefix();
+    }
+
+    public class Scope {
+        private final String command;
+        private final String keyGroup;
+        private final long startTime = System.nanoTime();
+        private long serializeNanos;
+        private long bytesOut;
+        private long bytesIn;
+        private boolean error;
+
+        private Scope(String command, String keyGroup) {
+            this.command = command;
+            this.keyGroup = keyGroup;
+        }
+
+        /**
+         * 累计序列化耗时及发送字节数
+         */
+        public void serialized(long nanos, int bytes) {
+            serializeNanos += nanos;
+            bytesOut += bytes;
+        }
+
+        /**
+         * 累计反序列化耗时及接收字节数
+         */
+        public void deserialized(long nanos, int bytes) {
+            serializeNanos += nanos;
+            bytesIn += bytes;
+        }
+
+        public void error() {
+            error = true;
+        }
+
+        /**
+         * 结束记录，把度量数据交给各收集器
+         */
+        public void end() {
+            CURRENT.remove();
+            CommandSample sample = new CommandSample(command, keyGroup, System.nanoTime() - startTime,
+                    serializeNanos, bytesOut, bytesIn, error);
+            for (IMetricsCollector collector : collectors) {
+                try {
+                    collector.record(sample);
+                } catch (Exception e) {
+                    LOGGER.warn("记录度量数据时出错: " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+}
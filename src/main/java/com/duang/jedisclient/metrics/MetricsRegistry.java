@@ -0,0 +1,91 @@
+package com.duang.jedisclient.metrics;
+
+import javax.management.ObjectName;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 默认的度量数据收集器，按命令及按缓存key枚举分别累计，并注册到JMX
+ * ObjectName为 com.duang.jedisclient:type=Command,appId=xxx,name=get
+ * 及 com.duang.jedisclient:type=KeyGroup,appId=xxx,name=USER_ID
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class MetricsRegistry implements IMetricsCollector {
+
+    private final String appId;
+    private final boolean jmxEnabled;
+    private final ConcurrentMap<String, CommandStats> commandStats = new ConcurrentHashMap<String, CommandStats>();
+    private final ConcurrentMap<String, CommandStats> keyGroupStats = new ConcurrentHashMap<String, CommandStats>();
+    private final ConcurrentMap<ObjectName, Boolean> registeredNames = new ConcurrentHashMap<ObjectName, Boolean>();
+    private volatile boolean closed;
+
+    /**
+     * @param appId 应用id，用于JMX的ObjectName
+     * @param jmxEnabled 是否注册到JMX
+     */
+    public MetricsRegistry(String appId, boolean jmxEnabled) {
+        this.appId = appId;
+        this.jmxEnabled = jmxEnabled;
+    }
+
+    @Override
+    public void record(CommandSample sample) {
+        stats(commandStats, "Command", sample.getCommand()).record(sample);
+        stats(keyGroupStats, "KeyGroup", sample.getKeyGroup()).record(sample);
+    }
+
+    /**
+     * 按命令名称累计的度量数据
+     */
+    public Map<String, CommandStats> getCommandStats() {
+        return Collections.unmodifiableMap(commandStats);
+    }
+
+    /**
+     * 按缓存key枚举累计的度量数据
+     */
+    public Map<String, CommandStats> getKeyGroupStats() {
+        return Collections.unmodifiableMap(keyGroupStats);
+    }
+
+    public void reset() {
+        for (CommandStats stats : commandStats.values()) {
+            stats.reset();
+        }
+        for (CommandStats stats : keyGroupStats.values()) {
+            stats.reset();
+        }
+    }
+
+    /**
+     * 从JMX注销
+     */
+    public void close() {
+        closed = true;
+        MBeans.unregister(registeredNames.keySet());
+        registeredNames.clear();
+    }
+
+    private CommandStats stats(ConcurrentMap<String, CommandStats> statsMap, String type, String name) {
+        CommandStats stats = statsMap.get(name);
+        if (null != stats) {
+            return stats;
+        }
+        CommandStats created = new CommandStats(name);
+        stats = statsMap.putIfAbsent(name, created);
+        if (null != stats) {
+            return stats;
+        }
+        if (jmxEnabled && !closed) {
+            ObjectName objectName = MBeans.register(type, appId, name, created);
+            if (null != objectName) {
+                registeredNames.put(objectName, Boolean.TRUE);
+            }
+        }
+        return created;
+    }
+}
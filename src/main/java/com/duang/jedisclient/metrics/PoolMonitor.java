@@ -0,0 +1,204 @@
+package com.duang.jedisclient.metrics;
+
+import com.duang.jedisclient.common.RedisConfig;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.util.Pool;
+
+import javax.management.ObjectName;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各节点链接池的度量数据，并可按借用等待时间及使用率在上下限之间自动调整maxTotal/minIdle
+ * 每隔poolAdjustInterval秒执行一次：
+ * 有等待线程、平均借用等待时间超过poolGrowWaitMillis或使用率超过90%时，maxTotal扩大到1.5倍；
+ * 连续3次使用率低于30%时，maxTotal缩小到0.75倍。调整后maxIdle与maxTotal相同，避免突发流量时反复创建链接
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class PoolMonitor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PoolMonitor.class);
+
+    private static final double GROW_UTILIZATION = 0.9D;
+    private static final double SHRINK_UTILIZATION = 0.3D;
+    private static final int SHRINK_TICKS = 3;
+    /**
+     * commons-pool按最近100次借用计算平均等待时间，两次检查之间借用次数不足时不作为扩容依据
+     */
+    private static final int MEAN_WAIT_WINDOW = 100;
+
+    /**
+     * 取出客户端当前各节点的链接池
+     */
+    public interface PoolSource {
+        Map<String, Pool<Jedis>> getPools();
+    }
+
+    private final String appId;
+    private final PoolSource poolSource;
+    private final RedisConfig redisConfig;
+    private final ConcurrentMap<String, PoolStats> poolStats = new ConcurrentHashMap<String, PoolStats>();
+    private final ConcurrentMap<String, long[]> adjustState = new ConcurrentHashMap<String, long[]>();
+    private final ConcurrentMap<ObjectName, Boolean> registeredNames = new ConcurrentHashMap<ObjectName, Boolean>();
+    private ScheduledExecutorService scheduler;
+
+    public PoolMonitor(String appId, PoolSource poolSource, RedisConfig redisConfig) {
+        this.appId = appId;
+        this.poolSource = poolSource;
+        this.redisConfig = redisConfig;
+    }
+
+    public void start() {
+        refresh();
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "jedis-pool-monitor-" + appId);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        long interval = Math.max(1, redisConfig.getPoolAdjustInterval());
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    refresh();
+                    if (redisConfig.isPoolAutoSizing()) {
+                        adjust();
+                    }
+                } catch (Exception e) {
+                    LOGGER.warn("检查链接池时出错: " + e.getMessage(), e);
+                }
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
+
+    public void stop() {
+        if (null != scheduler) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        MBeans.unregister(registeredNames.keySet());
+        registeredNames.clear();
+    }
+
+    /**
+     * 记录一次取链接的等待时间
+     * @param jedis 取到的链接
+     * @param nanos 等待时间(纳秒)
+     */
+    public void recordBorrow(Jedis jedis, long nanos) {
+        if (null == jedis) {
+            return;
+        }
+        PoolStats stats = poolStats.get(jedis.getClient().getHost() + ":" + jedis.getClient().getPort());
+        if (null != stats) {
+            stats.recordBorrow(nanos);
+        }
+    }
+
+    /**
+     * 各节点链接池的度量数据，key为host:port
+     */
+    public Map<String, PoolStats> getPoolStats() {
+        return Collections.unmodifiableMap(poolStats);
+    }
+
+    /**
+     * 同步节点列表(集群拓扑或哨兵主节点可能变化)
+     */
+    void refresh() {
+        Map<String, Pool<Jedis>> pools = poolSource.getPools();
+        for (Map.Entry<String, Pool<Jedis>> entry : pools.entrySet()) {
+            PoolStats stats = poolStats.get(entry.getKey());
+            if (null != stats) {
+                stats.setPool(entry.getValue());
+                continue;
+            }
+            stats = new PoolStats(entry.getKey(), entry.getValue());
+            poolStats.put(entry.getKey(), stats);
+            if (redisConfig.isMetricsJmxEnabled()) {
+                ObjectName objectName = MBeans.register("Pool", appId, entry.getKey(), stats);
+                if (null != objectName) {
+                    registeredNames.put(objectName, Boolean.TRUE);
+                }
+            }
+        }
+        for (String node : poolStats.keySet()) {
+            if (!pools.containsKey(node)) {
+                poolStats.get(node).setPool(null);
+            }
+        }
+    }
+
+    /**
+     * 按等待时间及使用率调整各节点链接池的maxTotal/minIdle
+     */
+    void adjust() {
+        int lower = Math.max(1, redisConfig.getPoolMinTotal());
+        int upper = Math.max(lower, redisConfig.getPoolMaxTotal());
+        for (PoolStats stats : poolStats.values()) {
+            GenericObjectPool<Jedis> pool = stats.getInternalPool();
+            if (null == pool || pool.isClosed()) {
+                continue;
+            }
+            // [0]上次检查时的借用次数，[1]连续低使用率的次数
+            long[] state = adjustState.get(stats.getNode());
+            if (null == state) {
+                state = new long[]{pool.getBorrowedCount(), 0};
+                adjustState.put(stats.getNode(), state);
+            }
+            long borrowed = pool.getBorrowedCount();
+            boolean meanWaitValid = borrowed - state[0] >= MEAN_WAIT_WINDOW;
+            state[0] = borrowed;
+
+            int maxTotal = pool.getMaxTotal();
+            int active = pool.getNumActive();
+            double utilization = maxTotal > 0 ? (double) active / maxTotal : 1D;
+            int newMaxTotal = maxTotal;
+            if (pool.getNumWaiters() > 0 || utilization >= GROW_UTILIZATION
+                    || (meanWaitValid && pool.getMeanBorrowWaitTimeMillis() >= redisConfig.getPoolGrowWaitMillis())) {
+                state[1] = 0;
+                newMaxTotal = Math.min(upper, Math.max(maxTotal + 1, (int) Math.ceil(maxTotal * 1.5D)));
+            } else if (utilization < SHRINK_UTILIZATION) {
+                if (++state[1] >= SHRINK_TICKS) {
+                    state[1] = 0;
+                    newMaxTotal = Math.max(lower, (int) (maxTotal * 0.75D));
+                }
+            } else {
+                state[1] = 0;
+            }
+            newMaxTotal = Math.max(lower, Math.min(upper, newMaxTotal));
+            if (newMaxTotal == maxTotal) {
+                continue;
+            }
+            int newMinIdle = newMaxTotal > maxTotal
+                    ? Math.min(newMaxTotal, Math.max(pool.getMinIdle(), active / 2))
+                    : Math.min(pool.getMinIdle(), newMaxTotal / 2);
+            pool.setMaxTotal(newMaxTotal);
+            pool.setMaxIdle(newMaxTotal);
+            pool.setMinIdle(newMinIdle);
+            LOGGER.info("调整链接池[{}] maxTotal: {} -> {}, minIdle: {}, active: {}", stats.getNode(),
+                    maxTotal, newMaxTotal, newMinIdle, active);
+            if (newMaxTotal > maxTotal) {
+                try {
+                    pool.preparePool();
+                } catch (Exception e) {
+                    LOGGER.warn("预建链接时出错: " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.duang.jedisclient.metrics;
+
+import cn.hutool.core.util.ReflectUtil;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.util.Pool;
+
+/**
+ * 某个节点链接池的度量数据
+ * active/idle/waiters及平均、最大等待时间取自链接池本身(commons-pool统计最近100次借用)，
+ * 借用等待时间的分布由客户端在取链接时记录
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class PoolStats implements PoolStatsMXBean {
+
+    private static final double NANOS_PER_MICRO = 1000D;
+
+    private final String node;
+    private volatile Pool<Jedis> pool;
+    private final LatencyHistogram borrowWait = new LatencyHistogram();
+
+    public PoolStats(String node, Pool<Jedis> pool) {
+        this.node = node;
+        this.pool = pool;
+    }
+
+    /**
+     * 节点重连或集群拓扑变化后链接池对象可能被替换
+     */
+    void setPool(Pool<Jedis> pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * 记录一次取链接的等待时间
+     * @param nanos 纳秒
+     */
+    public void recordBorrow(long nanos) {
+        borrowWait.record(nanos);
+    }
+
+    /**
+     * Jedis的Pool没有暴露maxTotal等配置，通过反射取出内部的GenericObjectPool
+     * @return 链接池已关闭时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public GenericObjectPool<Jedis> getInternalPool() {
+        Pool<Jedis> current = pool;
+        return null == current ? null : (GenericObjectPool<Jedis>) ReflectUtil.getFieldValue(current, "internalPool");
+    }
+
+    /**
+     * 借用等待时间的直方图，单位为纳秒
+     */
+    public LatencyHistogram getBorrowWait() {
+        return borrowWait;
+    }
+
+    @Override
+    public String getNode() {
+        return node;
+    }
+
+    @Override
+    public int getNumActive() {
+        GenericObjectPool<Jedis> internalPool = getInternalPool();
+        return null == internalPool ? 0 : internalPool.getNumActive();
+    }
+
+    @Override
+    public int getNumIdle() {
+        GenericObjectPool<Jedis> internalPool = getInternalPool();
+        return null == internalPool ? 0 : internalPool.getNumIdle();
+    }
+
+    @Override
+    public int getNumWaiters() {
+        GenericObjectPool<Jedis> internalPool = getInternalPool();
+        return null == internalPool ? 0 : internalPool.getNumWaiters();
+    }
+
+    @Override
+    public int getMaxTotal() {
+        GenericObjectPool<Jedis> internalPool = getInternalPool();
+        return null == internalPool ? 0 : internalPool.getMaxTotal();
+    }
+
+    @Override
+    public int getMaxIdle() {
+        GenericObjectPool<Jedis> internalPool = getInternalPool();
+        return null == internalPool ? 0 : internalPool.getMaxIdle();
+    }
+
+    @Override
+    public int getMinIdle() {
+        GenericObjectPool<Jedis> internalPool = getInternalPool();
+        return null == internalPool ? 0 : internalPool.getMinIdle();
+    }
+
+    /**
+     * 使用率，active / maxTotal
+     */
+    @Override
+    public double getUtilization() {
+        GenericObjectPool<Jedis> internalPool = getInternalPool();
+        if (null == internalPool || internalPool.getMaxTotal() <= 0) {
+            return 0D;
+        }
+        return (double) internalPool.getNumActive() / internalPool.getMaxTotal();
+    }
+
+    @Override
+    public long getMeanBorrowWaitMillis() {
+        GenericObjectPool<Jedis> internalPool = getInternalPool();
+        return null == internalPool ? 0L : internalPool.getMeanBorrowWaitTimeMillis();
+    }
+
+    @Override
+    public long getMaxBorrowWaitMillis() {
+        GenericObjectPool<Jedis> internalPool = getInternalPool();
+        return null == internalPool ? 0L : internalPool.getMaxBorrowWaitTimeMillis();
+    }
+
+    @Override
+    public long getBorrowCount() {
+        return borrowWait.getCount();
+    }
+
+    @Override
+    public double getBorrowWaitP50Micros() {
+        return borrowWait.getValueAtPercentile(50D) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getBorrowWaitP99Micros() {
+        return borrowWait.getValueAtPercentile(99D) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getBorrowWaitP999Micros() {
+        return borrowWait.getValueAtPercentile(99.9D) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public void reset() {
+        borrowWait.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s active=%d idle=%d waiters=%d maxTotal=%d minIdle=%d borrowWait(mean)=%dms borrowWait(p99)=%.1fus",
+                node, getNumActive(), getNumIdle(), getNumWaiters(), getMaxTotal(), getMinIdle(),
+                getMeanBorrowWaitMillis(), getBorrowWaitP99Micros());
+    }
+}
@@ -0,0 +1,41 @@
+package com.duang.jedisclient.metrics;
+
+/**
+ * 节点链接池度量的JMX接口
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public interface PoolStatsMXBean {
+
+    String getNode();
+
+    int getNumActive();
+
+    int getNumIdle();
+
+    int getNumWaiters();
+
+    int getMaxTotal();
+
+    int getMaxIdle();
+
+    int getMinIdle();
+
+    double getUtilization();
+
+    long getMeanBorrowWaitMillis();
+
+    long getMaxBorrowWaitMillis();
+
+    long getBorrowCount();
+
+    double getBorrowWaitP50Micros();
+
+    double getBorrowWaitP99Micros();
+
+    double getBorrowWaitP999Micros();
+
+    void reset();
+
+}
@@ -0,0 +1,133 @@
+package com.duang.jedisclient.metrics;
+
+import javax.management.ObjectName;
+import java.util.Collections;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * 延迟写缓冲的度量数据
+ * 合并率 = 已刷新的写入次数 / 实际发送的命令数，越大说明合并掉的写入越多
+ * 启用JMX时注册为 com.duang.jedisclient:type=WriteBehind,appId=xxx,name=buffer
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class WriteBehindStats implements WriteBehindStatsMXBean {
+
+    private final IntSupplier pendingCount;
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder flushedWrites = new LongAdder();
+    private final LongAdder flushedCommands = new LongAdder();
+    private final LongAdder directWrites = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private volatile ObjectName objectName;
+
+    /**
+     * @param pendingCount 取出当前待写条数
+     */
+    public WriteBehindStats(IntSupplier pendingCount) {
+        this.pendingCount = pendingCount;
+    }
+
+    /**
+     * 写入缓冲
+     * @param count 写入的条数，hmset为field个数
+     */
+    public void recordWrite(int count) {
+        writes.add(count);
+    }
+
+    /**
+     * 缓冲已满，直接写入Redis一次
+     */
+    public void recordDirectWrite() {
+        directWrites.increment();
+    }
+
+    /**
+     * 刷新一次
+     * @param writes 本次刷新合并的写入次数
+     * @param commands 发送的命令数
+     * @param failed 是否失败
+     */
+    public void recordFlush(long writes, int commands, boolean failed) {
+        flushes.increment();
+        flushedWrites.add(writes);
+        flushedCommands.add(commands);
+        if (failed) {
+            errors.add(commands);
+        }
+    }
+
+    public void register(String appId) {
+        objectName = MBeans.register("WriteBehind", appId, "buffer", this);
+    }
+
+    public void unregister() {
+        ObjectName name = objectName;
+        if (null != name) {
+            MBeans.unregister(Collections.singletonList(name));
+            objectName = null;
+        }
+    }
+
+    @Override
+    public long getWriteCount() {
+        return writes.sum();
+    }
+
+    @Override
+    public long getFlushedCommandCount() {
+        return flushedCommands.sum();
+    }
+
+    @Override
+    public long getCoalescedCount() {
+        return flushedWrites.sum() - flushedCommands.sum();
+    }
+
+    @Override
+    public double getCoalescingRatio() {
+        long commands = flushedCommands.sum();
+        return commands == 0 ? 0D : (double) flushedWrites.sum() / commands;
+    }
+
+    @Override
+    public long getDirectWriteCount() {
+        return directWrites.sum();
+    }
+
+    @Override
+    public long getFlushCount() {
+        return flushes.sum();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    @Override
+    public int getPendingCount() {
+        return pendingCount.getAsInt();
+    }
+
+    @Override
+    public void reset() {
+        writes.reset();
+        flushedWrites.reset();
+        flushedCommands.reset();
+        directWrites.reset();
+        flushes.reset();
+        errors.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("writes=%d commands=%d coalescingRatio=%.2f direct=%d flushes=%d errors=%d pending=%d",
+                getWriteCount(), getFlushedCommandCount(), getCoalescingRatio(), getDirectWriteCount(),
+                getFlushCount(), getErrorCount(), getPendingCount());
+    }
+}
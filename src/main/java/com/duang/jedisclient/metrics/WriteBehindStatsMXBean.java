@@ -0,0 +1,29 @@
+package com.duang.jedisclient.metrics;
+
+/**
+ * 延迟写缓冲度量的JMX接口
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public interface WriteBehindStatsMXBean {
+
+    long getWriteCount();
+
+    long getFlushedCommandCount();
+
+    long getCoalescedCount();
+
+    double getCoalescingRatio();
+
+    long getDirectWriteCount();
+
+    long getFlushCount();
+
+    long getErrorCount();
+
+    int getPendingCount();
+
+    void reset();
+
+}
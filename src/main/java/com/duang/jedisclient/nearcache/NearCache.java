@@ -0,0 +1,247 @@
+package com.duang.jedisclient.nearcache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本地缓存(near cache)
+ * 以Redis key为单位按LRU淘汰，同一个key下可以缓存多个结果(例如hash的多个field)，
+ * 分段加锁以减少热点key读取时的锁竞争
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class NearCache {
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment[] segments;
+    private final long ttlMillis;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * @param maxSize 最多缓存的key数量
+     * @param maxWeight 最大权重
+     * @param ttl 过期时间(单位:秒)
+     */
+    public NearCache(int maxSize, long maxWeight, int ttl) {
+        this.ttlMillis = ttl * 1000L;
+        this.segments = new Segment[SEGMENT_COUNT];
+        int segmentSize = Math.max(1, maxSize / SEGMENT_COUNT);
+        long segmentWeight = Math.max(1L, maxWeight / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentSize, segmentWeight);
+        }
+    }
+
+    private Segment segment(String key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENT_COUNT - 1)];
+    }
+
+    /**
+     * 取出缓存的结果
+     * @param key Redis key
+     * @param subKey 同一个key下区分不同结果的标识
+     * @return 没有缓存或已过期时返回null
+     */
+    public Object get(String key, String subKey) {
+        Object value = segment(key).get(key, subKey, System.currentTimeMillis());
+        if (null == value) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return value;
+    }
+
+    /**
+     * 读取Redis之前取得的版本号，写入缓存时版本号不一致则说明期间key被修改过，放弃写入
+     * @param key Redis key
+     * @return 版本号
+     */
+    public long stamp(String key) {
+        return segment(key).stamp();
+    }
+
+    /**
+     * 写入缓存
+     * @param key Redis key
+     * @param subKey 同一个key下区分不同结果的标识
+     * @param value 结果，为null时不缓存
+     * @param weight 权重
+     * @param keyTtl key在Redis上的过期时间(单位:秒)，大于0时本地缓存的过期时间不会超过该值
+     * @param stamp 读取Redis之前通过stamp方法取得的版本号
+     */
+    public void put(String key, String subKey, Object value, int weight, int keyTtl, long stamp) {
+        if (null == value) {
+            return;
+        }
+        long ttl = keyTtl > 0 ? Math.min(ttlMillis, keyTtl * 1000L) : ttlMillis;
+        long expireAt = System.currentTimeMillis() + ttl;
+        segment(key).put(key, subKey, value, Math.max(1, weight), expireAt, stamp);
+    }
+
+    /**
+     * 移除key对应的所有缓存结果
+     * @param key Redis key
+     */
+    public void invalidate(String key) {
+        if (null != key) {
+            segment(key).invalidate(key);
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.invalidateAll();
+        }
+    }
+
+    /**
+     * 当前缓存的key数量
+     */
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * 命中率，没有请求时返回0
+     */
+    public double getHitRate() {
+        long hit = getHitCount();
+        long total = hit + getMissCount();
+        return total == 0 ? 0D : (double) hit / total;
+    }
+
+    private static class Entry {
+        private final Object value;
+        private final int weight;
+        private final long expireAt;
+
+        private Entry(Object value, int weight, long expireAt) {
+            this.value = value;
+            this.weight = weight;
+            this.expireAt = expireAt;
+        }
+    }
+
+    /**
+     * 一个Redis key下缓存的所有结果
+     */
+    private static class Node {
+        private final Map<String, Entry> entries = new HashMap<String, Entry>(2);
+        private long weight;
+    }
+
+    private class Segment {
+
+        private final int maxSize;
+        private final long maxWeight;
+        private final LinkedHashMap<String, Node> nodes = new LinkedHashMap<String, Node>(16, 0.75F, true);
+        private long weight;
+        /**
+         * 每次invalidate时递增，用于放弃在读取期间被修改过的结果
+         */
+        private long version;
+
+        private Segment(int maxSize, long maxWeight) {
+            this.maxSize = maxSize;
+            this.maxWeight = maxWeight;
+        }
+
+        private synchronized Object get(String key, String subKey, long now) {
+            Node node = nodes.get(key);
+            if (null == node) {
+                return null;
+            }
+            Entry entry = node.entries.get(subKey);
+            if (null == entry) {
+                return null;
+            }
+            if (entry.expireAt <= now) {
+                node.entries.remove(subKey);
+                node.weight -= entry.weight;
+                weight -= entry.weight;
+                if (node.entries.isEmpty()) {
+                    nodes.remove(key);
+                }
+                return null;
+            }
+            return entry.value;
+        }
+
+        private synchronized long stamp() {
+            return version;
+        }
+
+        private synchronized void put(String key, String subKey, Object value, int entryWeight, long expireAt, long stamp) {
+            if (stamp != version) {
+                return;
+            }
+            Node node = nodes.get(key);
+            if (null == node) {
+                node = new Node();
+                nodes.put(key, node);
+            }
+            Entry old = node.entries.put(subKey, new Entry(value, entryWeight, expireAt));
+            long delta = entryWeight - (null == old ? 0 : old.weight);
+            node.weight += delta;
+            weight += delta;
+            evict();
+        }
+
+        private void evict() {
+            Iterator<Node> it = nodes.values().iterator();
+            while ((nodes.size() > maxSize || weight > maxWeight) && it.hasNext()) {
+                Node node = it.next();
+                it.remove();
+                weight -= node.weight;
+                evictionCount.increment();
+            }
+        }
+
+        private synchronized void invalidate(String key) {
+            version++;
+            Node node = nodes.remove(key);
+            if (null != node) {
+                weight -= node.weight;
+            }
+        }
+
+        private synchronized void invalidateAll() {
+            version++;
+            nodes.clear();
+            weight = 0;
+        }
+
+        private synchronized int size() {
+            return nodes.size();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.duang.jedisclient.nearcache;
+
+import com.duang.jedisclient.common.CacheKeyModel;
+import com.duang.jedisclient.core.BatchResponse;
+import com.duang.jedisclient.core.IJedisBatch;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 记录批量命令里被修改的key，pipelined执行后移除对应的本地缓存
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+class NearCacheBatch implements IJedisBatch {
+
+    private final IJedisBatch batch;
+    private final Set<String> keys;
+
+    NearCacheBatch(IJedisBatch batch, Set<String> keys) {
+        this.batch = batch;
+        this.keys = keys;
+    }
+
+    @Override
+    public <T> BatchResponse<T> get(final CacheKeyModel model, final Class<T> type) {
+        return batch.<T>get(model, type);
+    }
+
+    @Override
+    public BatchResponse<Boolean> set(final CacheKeyModel model, final Object value) {
+        keys.add(model.getKey());
+        return batch.set(model, value);
+    }
+
+    @Override
+    public BatchResponse<Long> del(final CacheKeyModel model) {
+        keys.add(model.getKey());
+        return batch.del(model);
+    }
+
+    @Override
+    public BatchResponse<Boolean> exists(final CacheKeyModel model) {
+        return batch.exists(model);
+    }
+
+    @Override
+    public BatchResponse<Long> expire(final CacheKeyModel model) {
+        keys.add(model.getKey());
+        return batch.expire(model);
+    }
+
+    @Override
+    public BatchResponse<Long> ttl(final CacheKeyModel model) {
+        return batch.ttl(model);
+    }
+
+    @Override
+    public BatchResponse<Long> incr(final CacheKeyModel model) {
+        keys.add(model.getKey());
+        return batch.incr(model);
+    }
+
+    @Override
+    public BatchResponse<Long> incrBy(final CacheKeyModel model, final Long longValue) {
+        keys.add(model.getKey());
+        return batch.incrBy(model, longValue);
+    }
+
+    @Override
+    public BatchResponse<Long> decr(final CacheKeyModel model) {
+        keys.add(model.getKey());
+        return batch.decr(model);
+    }
+
+    @Override
+    public BatchResponse<Long> decrBy(final CacheKeyModel model, final Long longValue) {
+        keys.add(model.getKey());
+        return batch.decrBy(model, longValue);
+    }
+
+    @Override
+    public BatchResponse<Long> hset(final CacheKeyModel model, final String field, final Object value) {
+        keys.add(model.getKey());
+        return batch.hset(model, field, value);
+    }
+
+    @Override
+    public <T> BatchResponse<T> hget(final CacheKeyModel model, final Class<T> type, final String field) {
+        return batch.<T>hget(model, type, field);
+    }
+
+    @Override
+    public BatchResponse<Boolean> hmset(final CacheKeyModel model, final Map<String, Object> values) {
+        keys.add(model.getKey());
+        return batch.hmset(model, values);
+    }
+
+    @Override
+    public <T> BatchResponse<List<T>> hmget(final CacheKeyModel model, final Class<T> type, final String... fields) {
+        return batch.<T>hmget(model, type, fields);
+    }
+
+    @Override
+    public <T> BatchResponse<Map<String,T>> hgetAll(final CacheKeyModel model, final Class<T> type) {
+        return batch.<T>hgetAll(model, type);
+    }
+
+    @Override
+    public BatchResponse<Long> hdel(final CacheKeyModel model, final String... fields) {
+        keys.add(model.getKey());
+        return batch.hdel(model, fields);
+    }
+
+    @Override
+    public BatchResponse<Long> hincrBy(final CacheKeyModel model, final String field, final Long value) {
+        keys.add(model.getKey());
+        return batch.hincrBy(model, field, value);
+    }
+
+    @Override
+    public BatchResponse<Long> lpush(final CacheKeyModel model, final Object... values) {
+        keys.add(model.getKey());
+        return batch.lpush(model, values);
+    }
+
+    @Override
+    public BatchResponse<Long> rpush(final CacheKeyModel model, final Object... values) {
+        keys.add(model.getKey());
+        return batch.rpush(model, values);
+    }
+
+    @Override
+    public <T> BatchResponse<List<T>> lrange(final CacheKeyModel model, final Class<T> type, final Long start, final Long end) {
+        return batch.<T>lrange(model, type, start, end);
+    }
+
+    @Override
+    public BatchResponse<Long> sadd(final CacheKeyModel model, final Object... values) {
+        keys.add(model.getKey());
+        return batch.sadd(model, values);
+    }
+
+    @Override
+    public BatchResponse<Long> srem(final CacheKeyModel model, final Object... members) {
+        keys.add(model.getKey());
+        return batch.srem(model, members);
+    }
+
+    @Override
+    public <T> BatchResponse<Set<T>> smembers(final CacheKeyModel model, final Class<T> type) {
+        return batch.<T>smembers(model, type);
+    }
+
+    @Override
+    public BatchResponse<Long> zadd(final CacheKeyModel model, final Double score, final Object value) {
+        keys.add(model.getKey());
+        return batch.zadd(model, score, value);
+    }
+
+    @Override
+    public BatchResponse<Long> zrem(final CacheKeyModel model, final Object... members) {
+        keys.add(model.getKey());
+        return batch.zrem(model, members);
+    }
+
+    @Override
+    public BatchResponse<Double> zscore(final CacheKeyModel model, final Object member) {
+        return batch.zscore(model, member);
+    }
+}
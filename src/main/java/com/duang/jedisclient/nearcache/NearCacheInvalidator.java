@@ -0,0 +1,448 @@
+package com.duang.jedisclient.nearcache;
+
+import com.duang.jedisclient.common.RedisConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Client;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.util.SafeEncoder;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地缓存失效通知
+ * 每个Redis节点使用两个专用链接：一个订阅失效通知，一个通过CLIENT TRACKING(BCAST模式，按key前缀)将通知重定向到订阅链接；
+ * Redis 6以下版本不支持CLIENT TRACKING时，改为订阅keyspace通知(需要服务端开启notify-keyspace-events)。
+ * 链接断开期间可能漏掉通知，所以断开时会清空本地缓存，然后重新链接
+ * 监听的key前缀由配置及启用了本地缓存的ICacheKeyEnums.getKeyPrefix()组成，新的前缀在第一次缓存时通过listen方法加入，
+ * 加入后重新链接，链接确认之前该前缀的结果不缓存；哨兵主从切换或集群节点变化后，按NodeSource重新链接到新的节点
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class NearCacheInvalidator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NearCacheInvalidator.class);
+
+    /**
+     * CLIENT TRACKING重定向时使用的频道
+     */
+    private static final String INVALIDATE_CHANNEL = "__redis__:invalidate";
+    private static final String KEYSPACE_CHANNEL_PREFIX = "__keyspace@*__:";
+    /**
+     * 检查tracking链接是否正常的间隔(单位:秒)
+     */
+    private static final long CHECK_INTERVAL = 30L;
+    /**
+     * 检查节点是否变化的间隔(单位:秒)
+     */
+    private static final long NODE_CHECK_INTERVAL = 5L;
+    private static final long RECONNECT_INTERVAL = 1000L;
+
+    private final NearCache nearCache;
+    private final RedisConfig redisConfig;
+    private final NodeSource nodeSource;
+    private final Set<String> prefixes = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final Map<HostAndPort, Listener> listeners = new ConcurrentHashMap<HostAndPort, Listener>();
+    private ScheduledExecutorService checker;
+    private volatile boolean running;
+
+    /**
+     * 需要监听的Redis节点，单机及哨兵时为当前主节点，集群时为所有节点
+     */
+    public interface NodeSource {
+        Collection<HostAndPort> getNodes();
+    }
+
+    /**
+     * @param nearCache 本地缓存
+     * @param redisConfig 配置，用于取得密码及超时时间
+     * @param nodes 需要监听的Redis节点，集群时为所有节点
+     * @param prefixes 需要监听的key前缀
+     */
+    public NearCacheInvalidator(NearCache nearCache, RedisConfig redisConfig, final Collection<HostAndPort> nodes, Collection<String> prefixes) {
+        this(nearCache, redisConfig, new NodeSource() {
+            @Override
+            public Collection<HostAndPort> getNodes() {
+                return nodes;
+            }
+        }, prefixes);
+    }
+
+    /**
+     * @param nearCache 本地缓存
+     * @param redisConfig 配置，用于取得密码及超时时间
+     * @param nodeSource 需要监听的Redis节点，定时检查，节点变化后重新链接
+     * @param prefixes 需要监听的key前缀，之后使用的其它前缀通过listen方法加入
+     */
+    public NearCacheInvalidator(NearCache nearCache, RedisConfig redisConfig, NodeSource nodeSource, Collection<String> prefixes) {
+        this.nearCache = nearCache;
+        this.redisConfig = redisConfig;
+        this.nodeSource = nodeSource;
+        if (null != prefixes) {
+            this.prefixes.addAll(prefixes);
+        }
+    }
+
+    /**
+     * 确认key前缀的失效通知已在所有节点上生效
+     * 还没有监听的前缀会加入并重新链接，生效之前返回false，调用方不应缓存该前缀的结果
+     * @param prefix key前缀
+     * @return true 如果可以缓存
+     */
+    public boolean listen(String prefix) {
+        if (null == prefix || prefix.isEmpty()) {
+            return false;
+        }
+        boolean covered = !listeners.isEmpty();
+        prefixes.add(prefix);
+        for (Listener listener : listeners.values()) {
+            Collection<String> listening = listener.listening;
+            if (null == listening) {
+                covered = false;
+            } else if (!covers(listening, prefix)) {
+                covered = false;
+                listener.reconnect();
+            }
+        }
+        return covered;
+    }
+
+    private static boolean covers(Collection<String> listening, String prefix) {
+        for (String item : listening) {
+            if (prefix.startsWith(item)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * BCAST模式下前缀之间不能互相包含，只保留最短的前缀
+     */
+    private static Collection<String> distinctPrefixes(Collection<String> prefixes) {
+        List<String> sorted = new ArrayList<String>(new TreeSet<String>(prefixes));
+        List<String> result = new ArrayList<String>(sorted.size());
+        for (String prefix : sorted) {
+            if (result.isEmpty() || !prefix.startsWith(result.get(result.size() - 1))) {
+                result.add(prefix);
+            }
+        }
+        return result;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        refreshNodes();
+        checker = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "jedis-nearcache-" + redisConfig.getAppId() + "-checker");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        checker.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                for (Listener listener : listeners.values()) {
+                    listener.check();
+                }
+            }
+        }, CHECK_INTERVAL, CHECK_INTERVAL, TimeUnit.SECONDS);
+        checker.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    refreshNodes();
+                } catch (Exception e) {
+                    LOGGER.warn("检查本地缓存失效通知节点时出错: " + e.getMessage(), e);
+                }
+            }
+        }, NODE_CHECK_INTERVAL, NODE_CHECK_INTERVAL, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (null != checker) {
+            checker.shutdownNow();
+            checker = null;
+        }
+        for (Listener listener : listeners.values()) {
+            listener.stop();
+        }
+        listeners.clear();
+    }
+
+    /**
+     * 按NodeSource增加新节点的监听，停止已不存在的节点的监听(如哨兵主从切换后的旧主节点)
+     */
+    private synchronized void refreshNodes() {
+        if (!running) {
+            return;
+        }
+        Collection<HostAndPort> nodes = nodeSource.getNodes();
+        if (null == nodes || nodes.isEmpty()) {
+            return;
+        }
+        for (HostAndPort node : nodes) {
+            if (!listeners.containsKey(node)) {
+                LOGGER.info("开始监听本地缓存失效通知[{}]", node);
+                Listener listener = new Listener(node);
+                listeners.put(node, listener);
+                Thread thread = new Thread(listener, "jedis-nearcache-" + redisConfig.getAppId() + "-" + node);
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+        Iterator<Map.Entry<HostAndPort, Listener>> it = listeners.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<HostAndPort, Listener> entry = it.next();
+            if (!nodes.contains(entry.getKey())) {
+                LOGGER.info("停止监听本地缓存失效通知[{}]", entry.getKey());
+                it.remove();
+                entry.getValue().stop();
+                // 切换期间的修改可能没有收到通知
+                nearCache.invalidateAll();
+            }
+        }
+    }
+
+    private Jedis connect(HostAndPort node) {
+        Jedis jedis = new Jedis(node.getHost(), node.getPort(), redisConfig.getConnectionTimeout(), redisConfig.getReadTimeout());
+        String password = redisConfig.getPassword();
+        if (null != password && password.trim().length() > 0) {
+            jedis.auth(password);
+        }
+        return jedis;
+    }
+
+    private static void closeQuietly(Jedis jedis) {
+        if (null != jedis) {
+            try {
+                jedis.disconnect();
+            } catch (Exception e) {
+                LOGGER.debug(e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 监听一个Redis节点的失效通知
+     */
+    private class Listener implements Runnable {
+
+        private final HostAndPort node;
+        private volatile Jedis subscriber;
+        private volatile Jedis tracker;
+        /**
+         * 已确认生效的前缀，链接断开或还没有确认时为null
+         */
+        private volatile Collection<String> listening;
+        private volatile boolean reconnecting;
+        private volatile boolean stopped;
+
+        private Listener(HostAndPort node) {
+            this.node = node;
+        }
+
+        private boolean isActive() {
+            return running && !stopped;
+        }
+
+        @Override
+        public void run() {
+            while (isActive()) {
+                if (prefixes.isEmpty()) {
+                    // 还没有启用本地缓存的key，不需要监听
+                    if (!sleep()) {
+                        return;
+                    }
+                    continue;
+                }
+                try {
+                    listen();
+                } catch (Exception e) {
+                    if (isActive() && !reconnecting) {
+                        LOGGER.warn("本地缓存失效通知链接[" + node + "]断开: " + e.getMessage());
+                    }
+                } finally {
+                    close();
+                    // 断开期间的通知已丢失，只能清空本地缓存
+                    nearCache.invalidateAll();
+                }
+                if (reconnecting) {
+                    reconnecting = false;
+                    continue;
+                }
+                if (isActive() && !sleep()) {
+                    return;
+                }
+            }
+        }
+
+        private boolean sleep() {
+            try {
+                Thread.sleep(RECONNECT_INTERVAL);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        /**
+         * 加入了新的前缀，断开后立即重新链接
+         */
+        private void reconnect() {
+            reconnecting = true;
+            closeQuietly(subscriber);
+        }
+
+        private void stop() {
+            stopped = true;
+            close();
+        }
+
+        private void listen() {
+            Collection<String> snapshot = distinctPrefixes(prefixes);
+            subscriber = connect(node);
+            Long clientId;
+            try {
+                clientId = (Long) subscriber.sendCommand(Protocol.Command.CLIENT, "ID");
+            } catch (JedisDataException e) {
+                // Redis 5以下版本没有CLIENT ID命令
+                clientId = null;
+            }
+            Client client = subscriber.getClient();
+            int subscriptions;
+            if (null != clientId && enableTracking(clientId, snapshot)) {
+                client.sendCommand(Protocol.Command.SUBSCRIBE, INVALIDATE_CHANNEL);
+                subscriptions = 1;
+            } else {
+                List<String> notifyConfig = subscriber.configGet("notify-keyspace-events");
+                if (null == notifyConfig || notifyConfig.size() < 2 || notifyConfig.get(1).isEmpty()) {
+                    LOGGER.warn("Redis[" + node + "]不支持CLIENT TRACKING且没有开启notify-keyspace-events，本地缓存无法收到其它实例的修改通知");
+                }
+                String[] patterns = keyspacePatterns(snapshot);
+                client.sendCommand(Protocol.Command.PSUBSCRIBE, patterns);
+                subscriptions = patterns.length;
+            }
+            client.setTimeoutInfinite();
+            while (isActive()) {
+                List<Object> reply = client.getObjectMultiBulkReply();
+                if (isConfirmed(reply, subscriptions)) {
+                    listening = snapshot;
+                } else {
+                    handle(reply);
+                }
+            }
+        }
+
+        /**
+         * 是否为最后一个频道的订阅确认，[subscribe|psubscribe, 频道, 已订阅的频道数]
+         */
+        private boolean isConfirmed(List<Object> reply, int subscriptions) {
+            String kind = SafeEncoder.encode((byte[]) reply.get(0));
+            if (!"subscribe".equalsIgnoreCase(kind) && !"psubscribe".equalsIgnoreCase(kind)) {
+                return false;
+            }
+            return reply.get(2) instanceof Long && (Long) reply.get(2) >= subscriptions;
+        }
+
+        private boolean enableTracking(Long clientId, Collection<String> snapshot) {
+            List<String> args = new ArrayList<String>();
+            args.add("TRACKING");
+            args.add("on");
+            args.add("REDIRECT");
+            args.add(String.valueOf(clientId));
+            args.add("BCAST");
+            for (String prefix : snapshot) {
+                args.add("PREFIX");
+                args.add(prefix);
+            }
+            Jedis jedis = connect(node);
+            try {
+                jedis.sendCommand(Protocol.Command.CLIENT, args.toArray(new String[args.size()]));
+                tracker = jedis;
+                return true;
+            } catch (JedisDataException e) {
+                LOGGER.info("Redis[" + node + "]不支持CLIENT TRACKING，改为订阅keyspace通知: " + e.getMessage());
+                closeQuietly(jedis);
+                return false;
+            }
+        }
+
+        private String[] keyspacePatterns(Collection<String> snapshot) {
+            String[] patterns = new String[snapshot.size()];
+            int index = 0;
+            for (String prefix : snapshot) {
+                patterns[index++] = KEYSPACE_CHANNEL_PREFIX + prefix + "*";
+            }
+            return patterns;
+        }
+
+        /**
+         * 处理订阅消息
+         * message: [message, __redis__:invalidate, 失效的key数组(flush时为null)]
+         * pmessage: [pmessage, pattern, __keyspace@0__:key, 事件]
+         */
+        @SuppressWarnings("unchecked")
+        private void handle(List<Object> reply) {
+            String kind = SafeEncoder.encode((byte[]) reply.get(0));
+            if ("message".equalsIgnoreCase(kind)) {
+                Object payload = reply.get(2);
+                if (null == payload) {
+                    nearCache.invalidateAll();
+                } else if (payload instanceof List) {
+                    for (Object key : (List<Object>) payload) {
+                        nearCache.invalidate(SafeEncoder.encode((byte[]) key));
+                    }
+                } else if (payload instanceof byte[]) {
+                    nearCache.invalidate(SafeEncoder.encode((byte[]) payload));
+                }
+            } else if ("pmessage".equalsIgnoreCase(kind)) {
+                String channel = SafeEncoder.encode((byte[]) reply.get(2));
+                int index = channel.indexOf("__:");
+                if (index > 0) {
+                    nearCache.invalidate(channel.substring(index + 3));
+                }
+            }
+        }
+
+        /**
+         * tracking链接断开后服务端不再发送通知，所以定时检查，出错时断开订阅链接触发重连
+         */
+        private void check() {
+            Jedis current = tracker;
+            if (null == current) {
+                return;
+            }
+            try {
+                current.ping();
+            } catch (Exception e) {
+                LOGGER.warn("本地缓存tracking链接[" + node + "]异常: " + e.getMessage());
+                closeQuietly(subscriber);
+            }
+        }
+
+        private void close() {
+            listening = null;
+            closeQuietly(subscriber);
+            closeQuietly(tracker);
+            subscriber = null;
+            tracker = null;
+        }
+    }
+}
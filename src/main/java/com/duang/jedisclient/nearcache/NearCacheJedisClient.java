@@ -0,0 +1,829 @@
+package com.duang.jedisclient.nearcache;
+
+import com.duang.jedisclient.common.CacheKeyModel;
+import com.duang.jedisclient.common.KeyValueParam;
+import com.duang.jedisclient.common.RedisConfig;
+import com.duang.jedisclient.core.IJedisBatch;
+import com.duang.jedisclient.core.IJedisClient;
+import com.duang.jedisclient.core.JedisBatchAction;
+import com.duang.jedisclient.core.RedisScript;
+import com.duang.jedisclient.core.ScanIterator;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisPubSub;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * 带本地缓存(near cache)的客户端
+ * 对启用了本地缓存的CacheKeyModel，get/hget/hgetAll优先从本地缓存取值，
+ * 通过本客户端执行的写命令会移除对应key的本地缓存；其它实例的修改通过NearCacheInvalidator收到通知，
+ * key前缀的失效通知生效之前不缓存，没有key前缀(自定义key)的结果也不缓存
+ * 注意：缓存的对象会被多个调用方共享，取出后不要修改
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class NearCacheJedisClient implements IJedisClient {
+
+    private final IJedisClient client;
+    private final NearCache nearCache;
+    private final NearCacheInvalidator invalidator;
+
+    /**
+     * 不监听失效通知，只适合单实例
+     */
+    public NearCacheJedisClient(IJedisClient client, NearCache nearCache) {
+        this(client, nearCache, null);
+    }
+
+    public NearCacheJedisClient(IJedisClient client, NearCache nearCache, NearCacheInvalidator invalidator) {
+        this.client = client;
+        this.nearCache = nearCache;
+        this.invalidator = invalidator;
+    }
+
+    public IJedisClient getClient() {
+        return client;
+    }
+
+    public NearCache getNearCache() {
+        return nearCache;
+    }
+
+    /**
+     * 写入本地缓存，key前缀的失效通知还没有生效时放弃写入
+     */
+    private void put(CacheKeyModel model, String subKey, Object value, int weight, long stamp) {
+        if (null == invalidator || invalidator.listen(model.getKeyPrefix())) {
+            nearCache.put(model.getKey(), subKey, value, weight, model.getKeyTTL(), stamp);
+        }
+    }
+
+    private void invalidate(String... keys) {
+        if (null != keys) {
+            for (String key : keys) {
+                nearCache.invalidate(key);
+            }
+        }
+    }
+
+    @Override
+    public Jedis getResource() {
+        return client.getResource();
+    }
+
+    @Override
+    public JedisCluster getClusterResource() {
+        return client.getClusterResource();
+    }
+
+    @Override
+    public RedisConfig getRedisConfig() {
+        return client.getRedisConfig();
+    }
+
+    @Override
+    public <T> T get(final CacheKeyModel model, final Class<T> type) {
+        if (!model.isNearCache()) {
+            return client.get(model, type);
+        }
+        String key = model.getKey();
+        String subKey = "get:" + type.getName();
+        Object value = nearCache.get(key, subKey);
+        if (type.isInstance(value)) {
+            return type.cast(value);
+        }
+        long stamp = nearCache.stamp(key);
+        T result = client.get(model, type);
+        put(model, subKey, result, 1, stamp);
+        return result;
+    }
+
+    @Override
+    public <T> T getOrLoad(final CacheKeyModel model, final Class<T> type, final Supplier<T> loader) {
+        T value = get(model, type);
+        if (null != value) {
+            return value;
+        }
+        try {
+            return client.getOrLoad(model, type, loader);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public String type(final CacheKeyModel model) {
+        return client.type(model);
+    }
+
+    @Override
+    @Deprecated
+    public Set<String> keys(final String pattern) {
+        return client.keys(pattern);
+    }
+
+    @Override
+    public ScanIterator<String> scan(final String pattern, final int count) {
+        return client.scan(pattern, count);
+    }
+
+    @Override
+    public ScanIterator<String> scan(final String pattern, final int count, final boolean parallel) {
+        return client.scan(pattern, count, parallel);
+    }
+
+    @Override
+    public <T> ScanIterator<Map.Entry<String,T>> hscan(final CacheKeyModel model, final Class<T> type) {
+        return client.hscan(model, type);
+    }
+
+    @Override
+    public <T> ScanIterator<Map.Entry<String,T>> hscan(final CacheKeyModel model, final Class<T> type, final int count) {
+        return client.hscan(model, type, count);
+    }
+
+    @Override
+    public <T> ScanIterator<T> sscan(final CacheKeyModel model, final Class<T> type) {
+        return client.sscan(model, type);
+    }
+
+    @Override
+    public <T> ScanIterator<T> sscan(final CacheKeyModel model, final Class<T> type, final int count) {
+        return client.sscan(model, type, count);
+    }
+
+    @Override
+    public <T> ScanIterator<T> zscan(final CacheKeyModel model, final Class<T> type) {
+        return client.zscan(model, type);
+    }
+
+    @Override
+    public <T> ScanIterator<T> zscan(final CacheKeyModel model, final Class<T> type, final int count) {
+        return client.zscan(model, type, count);
+    }
+
+    @Override
+    public Boolean set(final CacheKeyModel model, final Object value) {
+        try {
+            return client.set(model, value);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public byte[] getBytes(final CacheKeyModel model) {
+        return client.getBytes(model);
+    }
+
+    @Override
+    public Boolean setBytes(final CacheKeyModel model, final byte[] value) {
+        try {
+            return client.setBytes(model, value);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public String getString(final CacheKeyModel model) {
+        return client.getString(model);
+    }
+
+    @Override
+    public Boolean setString(final CacheKeyModel model, final CharSequence value) {
+        try {
+            return client.setString(model, value);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public Boolean exists(final CacheKeyModel model) {
+        return client.exists(model);
+    }
+
+    @Override
+    public String rename(final CacheKeyModel oldModel, final CacheKeyModel newModel) {
+        try {
+            return client.rename(oldModel, newModel);
+        } finally {
+            nearCache.invalidate(oldModel.getKey());
+            nearCache.invalidate(newModel.getKey());
+        }
+    }
+
+    @Override
+    public <T> Set<T> zrangeByScore(final CacheKeyModel model, final Double min, final Double max, final Class<T> type) {
+        return client.<T>zrangeByScore(model, min, max, type);
+    }
+
+    @Override
+    public redis.clients.jedis.JedisPubSub subscribeThread(final JedisPubSub jedisPubSub, final String... channels) {
+        return client.subscribeThread(jedisPubSub, channels);
+    }
+
+    @Override
+    public Boolean sismember(final CacheKeyModel model, final Object value) {
+        return client.sismember(model, value);
+    }
+
+    @Override
+    public String subscribe(final JedisPubSub jedisPubSub, final String... channels) {
+        return client.subscribe(jedisPubSub, channels);
+    }
+
+    @Override
+    public Double hincrByFloat(final CacheKeyModel model, final String field, final Double value) {
+        try {
+            return client.hincrByFloat(model, field, value);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public <T> T rpoplpush(final CacheKeyModel sourceModel, final CacheKeyModel destModel, final Class<T> type) {
+        try {
+            return client.<T>rpoplpush(sourceModel, destModel, type);
+        } finally {
+            nearCache.invalidate(sourceModel.getKey());
+            nearCache.invalidate(destModel.getKey());
+        }
+    }
+
+    @Override
+    public <T> T srandmember(final CacheKeyModel model, final Class<T> type) {
+        return client.<T>srandmember(model, type);
+    }
+
+    @Override
+    public <T> List<T> srandmember(final CacheKeyModel model, final Integer count, final Class<T> type) {
+        return client.<T>srandmember(model, count, type);
+    }
+
+    @Override
+    public <T> Set<T> zrevrange(final CacheKeyModel model, final Long start, final Long end, final Class<T> type) {
+        return client.<T>zrevrange(model, start, end, type);
+    }
+
+    @Override
+    public redis.clients.jedis.JedisPubSub psubscribeThread(final JedisPubSub jedisPubSub, final String... patterns) {
+        return client.psubscribeThread(jedisPubSub, patterns);
+    }
+
+    @Override
+    public String psubscribe(final JedisPubSub jedisPubSub, final String... patterns) {
+        return client.psubscribe(jedisPubSub, patterns);
+    }
+
+    @Override
+    public Long llen(final CacheKeyModel model) {
+        return client.llen(model);
+    }
+
+    @Override
+    public Boolean mset(final CacheKeyModel model, final List<KeyValueParam> keysValues) {
+        try {
+            return client.mset(model, keysValues);
+        } finally {
+            if (null != keysValues) {
+                for (KeyValueParam keyValueParam : keysValues) {
+                    nearCache.invalidate(model.getKey() + ":" + keyValueParam.getKey());
+                }
+            }
+        }
+    }
+
+    @Override
+    public Long decr(final CacheKeyModel model) {
+        try {
+            return client.decr(model);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public Long hset(final CacheKeyModel model, final String field, final Object value) {
+        try {
+            return client.hset(model, field, value);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public Long decrBy(final CacheKeyModel model, final Long longValue) {
+        try {
+            return client.decrBy(model, longValue);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public Long incr(final CacheKeyModel model) {
+        try {
+            return client.incr(model);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Map<String,T> hgetAll(final CacheKeyModel model, final Class<T> type) {
+        if (!model.isNearCache()) {
+            return client.hgetAll(model, type);
+        }
+        String key = model.getKey();
+        String subKey = "hgetAll:" + type.getName();
+        Object value = nearCache.get(key, subKey);
+        if (null != value) {
+            return (Map<String, T>) value;
+        }
+        long stamp = nearCache.stamp(key);
+        Map<String, T> result = client.hgetAll(model, type);
+        if (null != result) {
+            // 缓存的结果会被多个调用方共享，所以只缓存不可修改的副本
+            put(model, subKey, Collections.unmodifiableMap(new HashMap<String, T>(result)), result.size(), stamp);
+        }
+        return result;
+    }
+
+    @Override
+    public Long incrBy(final CacheKeyModel model, final Long longValue) {
+        try {
+            return client.incrBy(model, longValue);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public Set<String> hkeys(final CacheKeyModel model) {
+        return client.hkeys(model);
+    }
+
+    @Override
+    public Long expire(final CacheKeyModel model) {
+        try {
+            return client.expire(model);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public Long persist(final CacheKeyModel model) {
+        try {
+            return client.persist(model);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public Long del(final CacheKeyModel model) {
+        try {
+            return client.del(model);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public Long del(final CacheKeyModel... models) {
+        try {
+            return client.del(models);
+        } finally {
+            if (null != models) {
+                for (CacheKeyModel model : models) {
+                    nearCache.invalidate(model.getKey());
+                }
+            }
+        }
+    }
+
+    @Override
+    public <T> List<T> mget(final Class<T> type, final String... keys) {
+        return client.<T>mget(type, keys);
+    }
+
+    @Override
+    public Long ttl(final CacheKeyModel model) {
+        return client.ttl(model);
+    }
+
+    @Override
+    public <T> T getSet(final CacheKeyModel model, final Class<T> type, final Object value) {
+        try {
+            return client.<T>getSet(model, type, value);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public Long lpush(final CacheKeyModel model, final Object... values) {
+        try {
+            return client.lpush(model, values);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public Long lpush(final CacheKeyModel model, final Object value) {
+        try {
+            return client.lpush(model, value);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public Boolean hmset(final CacheKeyModel model, final Map<String, Object> values) {
+        try {
+            return client.hmset(model, values);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public Boolean hexists(final CacheKeyModel model, final String field) {
+        return client.hexists(model, field);
+    }
+
+    @Override
+    public Long hlen(final CacheKeyModel model) {
+        return client.hlen(model);
+    }
+
+    @Override
+    public String setex(final CacheKeyModel model, final Object value) {
+        try {
+            return client.setex(model, value);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public <T> List<T> hvals(final CacheKeyModel model, final Class<T> type) {
+        return client.<T>hvals(model, type);
+    }
+
+    @Override
+    public Long hincrBy(final CacheKeyModel model, final String field, final Long value) {
+        try {
+            return client.hincrBy(model, field, value);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public <T> List<T> hmget(final CacheKeyModel model, final Class<T> type, final String... fields) {
+        return client.<T>hmget(model, type, fields);
+    }
+
+    @Override
+    public <T> T hget(final CacheKeyModel model, final Class<T> type, final String field) {
+        if (!model.isNearCache()) {
+            return client.hget(model, type, field);
+        }
+        String key = model.getKey();
+        String subKey = "hget:" + type.getName() + ":" + field;
+        Object value = nearCache.get(key, subKey);
+        if (type.isInstance(value)) {
+            return type.cast(value);
+        }
+        long stamp = nearCache.stamp(key);
+        T result = client.hget(model, type, field);
+        put(model, subKey, result, 1, stamp);
+        return result;
+    }
+
+    @Override
+    public Long hdel(final CacheKeyModel model, final String... fields) {
+        try {
+            return client.hdel(model, fields);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public Integer lindex(final CacheKeyModel model, final Long index) {
+        return client.lindex(model, index);
+    }
+
+    @Override
+    public Long sadd(final CacheKeyModel model, final Object... values) {
+        try {
+            return client.sadd(model, values);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public String ltrim(final CacheKeyModel model, final Integer start, final Integer end) {
+        try {
+            return client.ltrim(model, start, end);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public Long lpop(final CacheKeyModel model) {
+        try {
+            return client.lpop(model);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public Long rpush(final CacheKeyModel model, final Object... value) {
+        try {
+            return client.rpush(model, value);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public String ping() {
+        return client.ping();
+    }
+
+    @Override
+    public <T> Set<T> smembers(final CacheKeyModel model, final Class<T> type) {
+        return client.<T>smembers(model, type);
+    }
+
+    @Override
+    public <T> List<T> blpop(final Integer timeout, final Class<T> type, final String... keys) {
+        try {
+            return client.<T>blpop(timeout, type, keys);
+        } finally {
+            invalidate(keys);
+        }
+    }
+
+    @Override
+    public <T> Set<T> zrange(final CacheKeyModel model, final Long start, final Long end, final Class<T> type) {
+        return client.<T>zrange(model, start, end, type);
+    }
+
+    @Override
+    public Long zrem(final CacheKeyModel model, final Object... members) {
+        try {
+            return client.zrem(model, members);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public <T> Set<T> sinter(final Class<T> type, final CacheKeyModel... cacheKeyModels) {
+        return client.<T>sinter(type, cacheKeyModels);
+    }
+
+    @Override
+    public Double zscore(final CacheKeyModel model, final Object members) {
+        return client.zscore(model, members);
+    }
+
+    @Override
+    public long getLong(final CacheKeyModel model, final long defaultValue) {
+        return client.getLong(model, defaultValue);
+    }
+
+    @Override
+    public double getDouble(final CacheKeyModel model, final double defaultValue) {
+        return client.getDouble(model, defaultValue);
+    }
+
+    @Override
+    public long hgetLong(final CacheKeyModel model, final String field, final long defaultValue) {
+        return client.hgetLong(model, field, defaultValue);
+    }
+
+    @Override
+    public long lindexLong(final CacheKeyModel model, final long index, final long defaultValue) {
+        return client.lindexLong(model, index, defaultValue);
+    }
+
+    @Override
+    public double zscoreDouble(final CacheKeyModel model, final Object member, final double defaultValue) {
+        return client.zscoreDouble(model, member, defaultValue);
+    }
+
+    @Override
+    public String flushDB() {
+        try {
+            return client.flushDB();
+        } finally {
+            nearCache.invalidateAll();
+        }
+    }
+
+    @Override
+    public Long lrem(final CacheKeyModel model, final Long count, final Object value) {
+        try {
+            return client.lrem(model, count, value);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public Long zrank(final CacheKeyModel model, final Object member) {
+        return client.zrank(model, member);
+    }
+
+    @Override
+    public Long zadd(final CacheKeyModel model, final Double score, final Object value) {
+        try {
+            return client.zadd(model, score, value);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public Long zadd(final CacheKeyModel model, final Map<Object, Double> scoreMembers) {
+        try {
+            return client.zadd(model, scoreMembers);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public Long zrevrank(final CacheKeyModel model, final Object member) {
+        return client.zrevrank(model, member);
+    }
+
+    @Override
+    public String flushAll() {
+        try {
+            return client.flushAll();
+        } finally {
+            nearCache.invalidateAll();
+        }
+    }
+
+    @Override
+    public Long zcard(final CacheKeyModel model) {
+        return client.zcard(model);
+    }
+
+    @Override
+    public <T> Set<T> sdiff(final Class<T> type, final CacheKeyModel... cacheKeyModels) {
+        return client.<T>sdiff(type, cacheKeyModels);
+    }
+
+    @Override
+    public String rpop(final CacheKeyModel model) {
+        try {
+            return client.rpop(model);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public <T> List<T> lrange(final CacheKeyModel model, final Class<T> type, final Integer start, final Integer end) {
+        return client.<T>lrange(model, type, start, end);
+    }
+
+    @Override
+    public <T> List<T> lrange(final CacheKeyModel model, final Class<T> type, final Long start, final Long end) {
+        return client.<T>lrange(model, type, start, end);
+    }
+
+    @Override
+    public <T> T spop(final CacheKeyModel model, final Class<T> type) {
+        try {
+            return client.<T>spop(model, type);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public <T> Set<T> sunion(final Class<T> type, final CacheKeyModel... cacheKeyModels) {
+        return client.<T>sunion(type, cacheKeyModels);
+    }
+
+    @Override
+    public String lset(final CacheKeyModel model, final Long index, final Object value) {
+        try {
+            return client.lset(model, index, value);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public <T> List<T> brpop(final Integer timeout, final Class<T> type, final String... keys) {
+        try {
+            return client.<T>brpop(timeout, type, keys);
+        } finally {
+            invalidate(keys);
+        }
+    }
+
+    @Override
+    public Long srem(final CacheKeyModel model, final String... members) {
+        try {
+            return client.srem(model, members);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public Long scard(final CacheKeyModel model) {
+        return client.scard(model);
+    }
+
+    @Override
+    public Long zcount(final CacheKeyModel model, final Double min, final Double max) {
+        return client.zcount(model, min, max);
+    }
+
+    @Override
+    public Double zincrby(final CacheKeyModel model, final Double score, final Object member) {
+        try {
+            return client.zincrby(model, score, member);
+        } finally {
+            nearCache.invalidate(model.getKey());
+        }
+    }
+
+    @Override
+    public Long publish(final String channel, final String message) {
+        return client.publish(channel, message);
+    }
+
+    @Override
+    public <T> T scriptLoad(final String script, final String... sampleKey) {
+        return client.<T>scriptLoad(script, sampleKey);
+    }
+
+    @Override
+    public <T> T evalSha(final String sha, final int keyCount, final String... values) {
+        try {
+            return client.<T>evalSha(sha, keyCount, values);
+        } finally {
+            if (null != values) {
+                invalidate(Arrays.copyOf(values, Math.min(keyCount, values.length)));
+            }
+        }
+    }
+
+    @Override
+    public RedisScript registerScript(final String script) {
+        return client.registerScript(script);
+    }
+
+    @Override
+    public <T> T eval(final RedisScript script, final Class<?> type, final List<CacheKeyModel> models, final Object... args) {
+        try {
+            return client.<T>eval(script, type, models, args);
+        } finally {
+            if (null != models) {
+                for (CacheKeyModel model : models) {
+                    nearCache.invalidate(model.getKey());
+                }
+            }
+        }
+    }
+
+    @Override
+    public Boolean pipelined(final JedisBatchAction action) {
+        final Set<String> keys = new HashSet<String>();
+        try {
+            return client.pipelined(new JedisBatchAction() {
+                @Override
+                public void execute(IJedisBatch batch) throws Exception {
+                    action.execute(new NearCacheBatch(batch, keys));
+                }
+            });
+        } finally {
+            invalidate(keys.toArray(new String[keys.size()]));
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.duang.jedisclient.plugin;
 
+import com.duang.jedisclient.common.ICacheKeyEnums;
+import com.duang.jedisclient.common.LoadFallback;
 import com.duang.jedisclient.common.RedisConfig;
+import com.duang.jedisclient.metrics.IMetricsCollector;
 import com.duang.jedisclient.serializer.ISerializer;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.slf4j.Logger;
@@ -8,7 +11,9 @@ import org.slf4j.LoggerFactory;
 import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.Protocol;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 public class JedisClient {
@@ -73,6 +78,91 @@ public class JedisClient {
          */
         private GenericObjectPoolConfig jedisPoolConfig;
 
+        /**
+         * 异步客户端同时占用的最大链接数
+         */
+        private Integer asyncMaxConnections;
+
+        /**
+         * 异步客户端等待执行的最大命令数
+         */
+        private Integer asyncQueueSize;
+
+        /**
+         * 异步客户端是否使用虚拟线程
+         */
+        private boolean asyncVirtualThreads;
+
+        /**
+         * 本地缓存最多缓存的key数量
+         */
+        private Integer nearCacheMaxSize;
+
+        /**
+         * 本地缓存的最大权重
+         */
+        private Long nearCacheMaxWeight;
+
+        /**
+         * 本地缓存的过期时间(单位:秒)
+         */
+        private Integer nearCacheTtl;
+
+        /**
+         * 需要监听失效通知的key前缀
+         */
+        private Set<String> nearCachePrefixes = new HashSet<String>();
+
+        /**
+         * 是否记录命令度量数据
+         */
+        private boolean metricsEnabled;
+
+        /**
+         * 是否把度量数据注册到JMX
+         */
+        private boolean metricsJmxEnabled = true;
+
+        /**
+         * 自定义的度量数据收集器
+         */
+        private List<IMetricsCollector> metricsCollectors = new ArrayList<IMetricsCollector>();
+
+        /**
+         * 是否自动调整链接池大小
+         */
+        private boolean poolAutoSizing;
+
+        /**
+         * 自动调整时maxTotal的下限及上限
+         */
+        private Integer poolMinTotal;
+        private Integer poolMaxTotal;
+
+        /**
+         * 检查链接池的间隔(单位:秒)
+         */
+        private Integer poolAdjustInterval;
+
+        /**
+         * getOrLoad的租约时长、等待时间及处理方式
+         */
+        private Long loadLeaseMillis;
+        private Long loadWaitMillis;
+        private LoadFallback loadFallback;
+
+        /**
+         * 提前刷新的后台线程数及最大任务数
+         */
+        private Integer refreshAheadThreads;
+        private Integer refreshAheadQueueSize;
+
+        /**
+         * 延迟写缓冲的最大待写条数、刷新条数及刷新间隔
+         */
+        private Integer writeBehindMaxPending;
+        private Integer writeBehindBatchSize;
+        private Long writeBehindFlushMillis;
 
         public Builder appId(String appId) {
             this.appId = appId;
@@ -127,6 +217,136 @@ public class JedisClient {
             return this;
         }
 
+        public Builder asyncMaxConnections(Integer asyncMaxConnections) {
+            this.asyncMaxConnections = asyncMaxConnections;
+            return this;
+        }
+
+        public Builder asyncQueueSize(Integer asyncQueueSize) {
+            this.asyncQueueSize = asyncQueueSize;
+            return this;
+        }
+
+        public Builder asyncVirtualThreads(boolean asyncVirtualThreads) {
+            this.asyncVirtualThreads = asyncVirtualThreads;
+            return this;
+        }
+
+        public Builder nearCacheMaxSize(Integer nearCacheMaxSize) {
+            this.nearCacheMaxSize = nearCacheMaxSize;
+            return this;
+        }
+
+        public Builder nearCacheMaxWeight(Long nearCacheMaxWeight) {
+            this.nearCacheMaxWeight = nearCacheMaxWeight;
+            return this;
+        }
+
+        public Builder nearCacheTtl(Integer nearCacheTtl) {
+            this.nearCacheTtl = nearCacheTtl;
+            return this;
+        }
+
+        /**
+         * 记录每个命令的耗时直方图、错误数、字节数及序列化耗时，可通过RedisFactory.getMetrics或JMX查看
+         * @param metricsEnabled true为启用
+         * @return
+         */
+        public Builder metrics(boolean metricsEnabled) {
+            this.metricsEnabled = metricsEnabled;
+            return this;
+        }
+
+        public Builder metricsJmx(boolean metricsJmxEnabled) {
+            this.metricsJmxEnabled = metricsJmxEnabled;
+            return this;
+        }
+
+        /**
+         * 增加自定义的度量数据收集器，同时启用度量
+         * @param collector 收集器
+         * @return
+         */
+        public Builder metricsCollector(IMetricsCollector collector) {
+            this.metricsCollectors.add(collector);
+            this.metricsEnabled = true;
+            return this;
+        }
+
+        /**
+         * 按借用等待时间及使用率，在minTotal与maxTotal之间自动调整各节点链接池的maxTotal/minIdle
+         * @param minTotal maxTotal的下限
+         * @param maxTotal maxTotal的上限
+         * @return
+         */
+        public Builder poolAutoSizing(int minTotal, int maxTotal) {
+            this.poolAutoSizing = true;
+            this.poolMinTotal = minTotal;
+            this.poolMaxTotal = maxTotal;
+            return this;
+        }
+
+        public Builder poolAdjustInterval(Integer poolAdjustInterval) {
+            this.poolAdjustInterval = poolAdjustInterval;
+            return this;
+        }
+
+        /**
+         * getOrLoad时在Redis上加租约，多个实例同时未命中时只有一个实例执行加载
+         * @param leaseMillis 租约时长(毫秒)，应大于加载所需的时间
+         * @param waitMillis 租约被其它实例持有时的最长等待时间(毫秒)
+         * @param fallback 租约被其它实例持有时的处理方式
+         * @return
+         */
+        public Builder loadLease(long leaseMillis, long waitMillis, LoadFallback fallback) {
+            this.loadLeaseMillis = leaseMillis;
+            this.loadWaitMillis = waitMillis;
+            this.loadFallback = fallback;
+            return this;
+        }
+
+        /**
+         * 提前刷新(见ICacheKeyEnums.getRefreshAheadRatio)使用的后台线程池
+         * @param threads 线程数
+         * @param queueSize 等待执行的最大任务数，超出时放弃本次刷新
+         * @return
+         */
+        public Builder refreshAheadExecutor(Integer threads, Integer queueSize) {
+            this.refreshAheadThreads = threads;
+            this.refreshAheadQueueSize = queueSize;
+            return this;
+        }
+
+        /**
+         * 启用延迟写(write-behind)，对ICacheKeyEnums.isWriteBehind()为true的key，set/hset等写命令先写入内存缓冲，
+         * 同一key/field的多次写入合并为一次，按条数或时间以pipeline批量刷新
+         * @param maxPending 最多待写条数，超出时直接写入Redis
+         * @param batchSize 达到该条数时立即刷新
+         * @param flushMillis 定时刷新的间隔(毫秒)
+         * @return
+         */
+        public Builder writeBehind(Integer maxPending, Integer batchSize, Long flushMillis) {
+            this.writeBehindMaxPending = maxPending;
+            this.writeBehindBatchSize = batchSize;
+            this.writeBehindFlushMillis = flushMillis;
+            return this;
+        }
+
+        /**
+         * 启用了本地缓存的枚举对象，启动时就监听这些枚举key前缀的失效通知；
+         * 不设置时在第一次缓存时加入，加入前缀需要重新链接，期间清空本地缓存
+         * @param enums 缓存Key枚举
+         * @return
+         */
+        public Builder nearCacheKeyEnums(ICacheKeyEnums... enums) {
+            for (ICacheKeyEnums keyEnums : enums) {
+                if (keyEnums.isNearCache()) {
+                    nearCachePrefixes.add(keyEnums.getKeyPrefix());
+                }
+            }
+            return this;
+        }
+
         public JedisClient build() {
             RedisConfig redisConfig = new RedisConfig(appId,secret,nodeSet,serializer,redisType);
             if (null != password && password.trim().length() > 0) {
@@ -141,6 +361,60 @@ public class JedisClient {
             if (null != jedisPoolConfig) {
                 redisConfig.setJedisPoolConfig(jedisPoolConfig);
             }
+            if (null != asyncMaxConnections && asyncMaxConnections > 0) {
+                redisConfig.setAsyncMaxConnections(asyncMaxConnections);
+            }
+            if (null != asyncQueueSize && asyncQueueSize > 0) {
+                redisConfig.setAsyncQueueSize(asyncQueueSize);
+            }
+            redisConfig.setAsyncVirtualThreads(asyncVirtualThreads);
+            if (null != nearCacheMaxSize) {
+                redisConfig.setNearCacheMaxSize(nearCacheMaxSize);
+            }
+            if (null != nearCacheMaxWeight && nearCacheMaxWeight > 0) {
+                redisConfig.setNearCacheMaxWeight(nearCacheMaxWeight);
+            }
+            if (null != nearCacheTtl && nearCacheTtl > 0) {
+                redisConfig.setNearCacheTtl(nearCacheTtl);
+            }
+            redisConfig.setNearCachePrefixes(nearCachePrefixes);
+            redisConfig.setMetricsEnabled(metricsEnabled);
+            redisConfig.setMetricsJmxEnabled(metricsJmxEnabled);
+            redisConfig.setMetricsCollectors(metricsCollectors);
+            redisConfig.setPoolAutoSizing(poolAutoSizing);
+            if (null != poolMinTotal && poolMinTotal > 0) {
+                redisConfig.setPoolMinTotal(poolMinTotal);
+            }
+            if (null != poolMaxTotal && poolMaxTotal > 0) {
+                redisConfig.setPoolMaxTotal(poolMaxTotal);
+            }
+            if (null != poolAdjustInterval && poolAdjustInterval > 0) {
+                redisConfig.setPoolAdjustInterval(poolAdjustInterval);
+            }
+            if (null != loadLeaseMillis) {
+                redisConfig.setLoadLeaseMillis(loadLeaseMillis);
+            }
+            if (null != loadWaitMillis && loadWaitMillis >= 0) {
+                redisConfig.setLoadWaitMillis(loadWaitMillis);
+            }
+            if (null != loadFallback) {
+                redisConfig.setLoadFallback(loadFallback);
+            }
+            if (null != refreshAheadThreads && refreshAheadThreads > 0) {
+                redisConfig.setRefreshAheadThreads(refreshAheadThreads);
+            }
+            if (null != refreshAheadQueueSize && refreshAheadQueueSize > 0) {
+                redisConfig.setRefreshAheadQueueSize(refreshAheadQueueSize);
+            }
+            if (null != writeBehindMaxPending && writeBehindMaxPending > 0) {
+                redisConfig.setWriteBehindMaxPending(writeBehindMaxPending);
+            }
+            if (null != writeBehindBatchSize && writeBehindBatchSize > 0) {
+                redisConfig.setWriteBehindBatchSize(writeBehindBatchSize);
+            }
+            if (null != writeBehindFlushMillis && writeBehindFlushMillis > 0) {
+                redisConfig.setWriteBehindFlushMillis(writeBehindFlushMillis);
+            }
             return new JedisClient(redisConfig);
         }
     }
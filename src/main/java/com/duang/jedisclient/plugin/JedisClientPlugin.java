@@ -6,16 +6,40 @@ import com.duang.jedisclient.builder.RedisSentinelBuilder;
 import com.duang.jedisclient.builder.RedisStandaloneBuilder;
 import com.duang.jedisclient.common.CacheException;
 import com.duang.jedisclient.common.RedisConfig;
+import com.duang.jedisclient.core.AbstractRedis;
+import com.duang.jedisclient.core.AsyncJedisClient;
 import com.duang.jedisclient.core.IJedisClient;
 import com.duang.jedisclient.core.Redis;
 import com.duang.jedisclient.core.RedisCluster;
+import com.duang.jedisclient.metrics.CompressionStatsRegistry;
+import com.duang.jedisclient.metrics.IMetricsCollector;
+import com.duang.jedisclient.metrics.MetricsRecorder;
+import com.duang.jedisclient.metrics.MetricsRegistry;
+import com.duang.jedisclient.metrics.PoolMonitor;
+import com.duang.jedisclient.metrics.PoolStats;
+import com.duang.jedisclient.nearcache.NearCache;
+import com.duang.jedisclient.nearcache.NearCacheInvalidator;
+import com.duang.jedisclient.nearcache.NearCacheJedisClient;
+import com.duang.jedisclient.writebehind.WriteBehindBuffer;
+import com.duang.jedisclient.writebehind.WriteBehindJedisClient;
 import com.duang.jedisclient.utils.RedisUtil;
+import com.duang.jedisclient.serializer.CompressingSerializer;
 import com.duang.jedisclient.serializer.FastJsonSerializer;
 import com.duang.jedisclient.serializer.ISerializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisSentinelPool;
+import redis.clients.jedis.util.Pool;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
 
 /**
  * RedisCluster Plugin
@@ -29,6 +53,13 @@ public class JedisClientPlugin implements IPlugin {
 
     private RedisConfig redisConfig;
     private IJedisClient jedisClient;
+    private AbstractRedis redis;
+    private AsyncJedisClient asyncJedisClient;
+    private NearCacheInvalidator nearCacheInvalidator;
+    private MetricsRegistry metricsRegistry;
+    private PoolMonitor poolMonitor;
+    private WriteBehindBuffer writeBehindBuffer;
+    private CompressionStatsRegistry compressionStatsRegistry;
 
     public JedisClientPlugin(RedisConfig redisConfig) {
         this.redisConfig = redisConfig;
@@ -71,13 +102,146 @@ public class JedisClientPlugin implements IPlugin {
         if (null == jedisClient) {
             throw new CacheException("构建JedisClient时出错");
         }
+        redis = (AbstractRedis) jedisClient;
+        if (redisConfig.isMetricsEnabled()) {
+            metricsRegistry = new MetricsRegistry(appId, redisConfig.isMetricsJmxEnabled());
+            redis.setMetricsRecorder(new MetricsRecorder(metricsCollectors(metricsRegistry)));
+            RedisFactory.setMetrics(metricsRegistry, redisConfig);
+            if (redisConfig.isMetricsJmxEnabled()) {
+                // 缓存枚举指定的CompressingSerializer在第一次使用时注册
+                compressionStatsRegistry = new CompressionStatsRegistry(appId);
+                if (serializer instanceof CompressingSerializer) {
+                    compressionStatsRegistry.register(((CompressingSerializer) serializer).getStats(), "serializer");
+                }
+                redis.setCompressionStatsRegistry(compressionStatsRegistry);
+            }
+        }
+        if (redisConfig.isMetricsEnabled() || redisConfig.isPoolAutoSizing()) {
+            final AbstractRedis redis = this.redis;
+            poolMonitor = new PoolMonitor(appId, new PoolMonitor.PoolSource() {
+                @Override
+                public Map<String, Pool<Jedis>> getPools() {
+                    return redis.getPools();
+                }
+            }, redisConfig);
+            poolMonitor.start();
+            redis.setPoolMonitor(poolMonitor);
+            RedisFactory.setPoolMonitor(poolMonitor, redisConfig);
+        }
+        if (redisConfig.getWriteBehindMaxPending() > 0) {
+            writeBehindBuffer = new WriteBehindBuffer(appId, jedisClient, redisConfig);
+            writeBehindBuffer.start();
+            jedisClient = new WriteBehindJedisClient(jedisClient, writeBehindBuffer);
+            RedisFactory.setWriteBehind(writeBehindBuffer, redisConfig);
+        }
+        if (redisConfig.getNearCacheMaxSize() > 0) {
+            NearCache nearCache = new NearCache(redisConfig.getNearCacheMaxSize(),
+                    redisConfig.getNearCacheMaxWeight(), redisConfig.getNearCacheTtl());
+            nearCacheInvalidator = new NearCacheInvalidator(nearCache, redisConfig,
+                    nearCacheNodes(jedisClient), redisConfig.getNearCachePrefixes());
+            nearCacheInvalidator.start();
+            jedisClient = new NearCacheJedisClient(jedisClient, nearCache, nearCacheInvalidator);
+        }
         RedisFactory.setClient(jedisClient, redisConfig);
+        asyncJedisClient = new AsyncJedisClient(jedisClient, asyncMaxConnections(redis),
+                redisConfig.getAsyncQueueSize(), redisConfig.isAsyncVirtualThreads());
+        RedisFactory.setAsyncClient(asyncJedisClient, redisConfig);
         RedisUtil.log(LOGGER, "链接JedisClient成功: " + RedisUtil.toJsonString(redisConfig));
     }
 
+    /**
+     * 异步客户端与同步调用共用各节点的链接池，异步最多占用链接池maxTotal的一半，其余链接留给同步调用
+     */
+    private int asyncMaxConnections(AbstractRedis redis) {
+        int max = redisConfig.getAsyncMaxConnections();
+        for (Map.Entry<String, Pool<Jedis>> entry : redis.getPools().entrySet()) {
+            int maxTotal = new PoolStats(entry.getKey(), entry.getValue()).getMaxTotal();
+            if (maxTotal > 0 && max > maxTotal / 2) {
+                max = Math.max(1, maxTotal / 2);
+            }
+        }
+        if (max < redisConfig.getAsyncMaxConnections()) {
+            LOGGER.info("异步客户端最大链接数调整为{}(链接池maxTotal的一半)", max);
+        }
+        return max;
+    }
+
     @Override
     public void stop() throws Exception {
+        if (null != nearCacheInvalidator) {
+            nearCacheInvalidator.stop();
+            nearCacheInvalidator = null;
+        }
+        if (null != asyncJedisClient) {
+            asyncJedisClient.shutdown();
+            asyncJedisClient = null;
+        }
+        // 在关闭链接池之前把延迟写缓冲里的数据写入Redis
+        if (null != writeBehindBuffer) {
+            writeBehindBuffer.close();
+            RedisFactory.setWriteBehind(null, redisConfig);
+            writeBehindBuffer = null;
+        }
+        if (null != poolMonitor) {
+            poolMonitor.stop();
+            RedisFactory.setPoolMonitor(null, redisConfig);
+            poolMonitor = null;
+        }
+        if (null != compressionStatsRegistry) {
+            compressionStatsRegistry.unregisterAll();
+            compressionStatsRegistry = null;
+        }
+        if (null != metricsRegistry) {
+            metricsRegistry.close();
+            RedisFactory.setMetrics(null, redisConfig);
+            metricsRegistry = null;
+        }
+        if (null != redis) {
+            redis.shutdown();
+            redis = null;
+        }
         redisConfig = null;
         jedisClient = null;
     }
+
+    /**
+     * 默认的MetricsRegistry，加上配置里及通过ServiceLoader声明的收集器
+     */
+    private List<IMetricsCollector> metricsCollectors(MetricsRegistry registry) {
+        List<IMetricsCollector> collectors = new ArrayList<IMetricsCollector>();
+        collectors.add(registry);
+        if (null != redisConfig.getMetricsCollectors()) {
+            collectors.addAll(redisConfig.getMetricsCollectors());
+        }
+        for (IMetricsCollector collector : ServiceLoader.load(IMetricsCollector.class)) {
+            collectors.add(collector);
+        }
+        return collectors;
+    }
+
+    /**
+     * 需要监听本地缓存失效通知的节点，集群时为所有节点，单机及哨兵时为当前主节点
+     * 由NearCacheInvalidator定时读取，哨兵主从切换或集群节点变化后重新监听
+     */
+    private static NearCacheInvalidator.NodeSource nearCacheNodes(final IJedisClient client) {
+        return new NearCacheInvalidator.NodeSource() {
+            @Override
+            public Collection<HostAndPort> getNodes() {
+                Set<HostAndPort> nodes = new HashSet<HostAndPort>();
+                if (RedisConfig.RedisType.CLUSTER.equals(client.getRedisConfig().getRedisType())) {
+                    for (String node : client.getClusterResource().getClusterNodes().keySet()) {
+                        nodes.add(HostAndPort.parseString(node));
+                    }
+                } else {
+                    Jedis jedis = client.getResource();
+                    try {
+                        nodes.add(new HostAndPort(jedis.getClient().getHost(), jedis.getClient().getPort()));
+                    } finally {
+                        jedis.close();
+                    }
+                }
+                return nodes;
+            }
+        };
+    }
 }
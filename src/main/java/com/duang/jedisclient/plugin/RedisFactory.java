@@ -1,7 +1,11 @@
 package com.duang.jedisclient.plugin;
 
 import com.duang.jedisclient.common.RedisConfig;
+import com.duang.jedisclient.core.IAsyncJedisClient;
 import com.duang.jedisclient.core.IJedisClient;
+import com.duang.jedisclient.metrics.MetricsRegistry;
+import com.duang.jedisclient.metrics.PoolMonitor;
+import com.duang.jedisclient.writebehind.WriteBehindBuffer;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisCluster;
 
@@ -19,6 +23,10 @@ public class RedisFactory {
 
     private static Map<String, RedisConfig.RedisType> jedisClientTypeMap = new ConcurrentHashMap<String,RedisConfig.RedisType>();
     private static Map<String, IJedisClient> jedisClientMap = new ConcurrentHashMap<String,IJedisClient>();
+    private static Map<String, IAsyncJedisClient> asyncJedisClientMap = new ConcurrentHashMap<String,IAsyncJedisClient>();
+    private static Map<String, MetricsRegistry> metricsRegistryMap = new ConcurrentHashMap<String,MetricsRegistry>();
+    private static Map<String, PoolMonitor> poolMonitorMap = new ConcurrentHashMap<String,PoolMonitor>();
+    private static Map<String, WriteBehindBuffer> writeBehindMap = new ConcurrentHashMap<String,WriteBehindBuffer>();
     private static String DEFAULT_APPKEY;
     /***/
     public final static ThreadLocal<Jedis> THREAD_LOCAL_JEDIS = new ThreadLocal<Jedis>();
@@ -43,6 +51,47 @@ public class RedisFactory {
         return jedisClientMap.get(appId);
     }
 
+    public static IAsyncJedisClient getAsyncClient() {
+        return getAsyncClient(getDefaultAppkey());
+    }
+
+    public static IAsyncJedisClient getAsyncClient(String appId) {
+        return asyncJedisClientMap.get(appId);
+    }
+
+    /**
+     * 命令度量数据，未启用度量时返回null
+     */
+    public static MetricsRegistry getMetrics() {
+        return getMetrics(getDefaultAppkey());
+    }
+
+    public static MetricsRegistry getMetrics(String appId) {
+        return metricsRegistryMap.get(appId);
+    }
+
+    /**
+     * 链接池度量数据，未启用度量及链接池自动调整时返回null
+     */
+    public static PoolMonitor getPoolMonitor() {
+        return getPoolMonitor(getDefaultAppkey());
+    }
+
+    public static PoolMonitor getPoolMonitor(String appId) {
+        return poolMonitorMap.get(appId);
+    }
+
+    /**
+     * 延迟写缓冲，未启用延迟写时返回null
+     */
+    public static WriteBehindBuffer getWriteBehind() {
+        return getWriteBehind(getDefaultAppkey());
+    }
+
+    public static WriteBehindBuffer getWriteBehind(String appId) {
+        return writeBehindMap.get(appId);
+    }
+
     public static RedisConfig.RedisType getClientType() {
         return getClientType(getDefaultAppkey());
     }
@@ -54,4 +103,32 @@ public class RedisFactory {
         RedisFactory.jedisClientMap.put(redisConfig.getAppId(), jedisClient);
         RedisFactory.jedisClientTypeMap.put(redisConfig.getAppId(), redisConfig.getRedisType());
     }
+
+    protected static void setAsyncClient(IAsyncJedisClient asyncJedisClient, RedisConfig redisConfig) {
+        RedisFactory.asyncJedisClientMap.put(redisConfig.getAppId(), asyncJedisClient);
+    }
+
+    protected static void setMetrics(MetricsRegistry metricsRegistry, RedisConfig redisConfig) {
+        if (null == metricsRegistry) {
+            RedisFactory.metricsRegistryMap.remove(redisConfig.getAppId());
+        } else {
+            RedisFactory.metricsRegistryMap.put(redisConfig.getAppId(), metricsRegistry);
+        }
+    }
+
+    protected static void setPoolMonitor(PoolMonitor poolMonitor, RedisConfig redisConfig) {
+        if (null == poolMonitor) {
+            RedisFactory.poolMonitorMap.remove(redisConfig.getAppId());
+        } else {
+            RedisFactory.poolMonitorMap.put(redisConfig.getAppId(), poolMonitor);
+        }
+    }
+
+    protected static void setWriteBehind(WriteBehindBuffer writeBehindBuffer, RedisConfig redisConfig) {
+        if (null == writeBehindBuffer) {
+            RedisFactory.writeBehindMap.remove(redisConfig.getAppId());
+        } else {
+            RedisFactory.writeBehindMap.put(redisConfig.getAppId(), writeBehindBuffer);
+        }
+    }
 }
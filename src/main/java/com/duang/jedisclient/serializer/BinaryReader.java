@@ -0,0 +1,388 @@
+package com.duang.jedisclient.serializer;
+
+import com.duang.jedisclient.common.CacheException;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.duang.jedisclient.serializer.BinarySerializer.*;
+
+/**
+ * BinarySerializer的解码
+ * 对象按写入时的字段名对应到当前类的字段：当前类没有的字段跳过，新增的字段保留构造方法里的默认值，
+ * 类型不兼容(如String改为int)的字段也跳过
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+class BinaryReader {
+
+    /**
+     * 类型不兼容，不设置字段
+     */
+    private static final Object SKIP = new Object();
+
+    private final BinarySerializer serializer;
+    private final byte[] buf;
+    private int pos;
+    private List<String> strings;
+    private List<ReadClass> classes;
+
+    private BinaryReader(BinarySerializer serializer, byte[] buf) {
+        this.serializer = serializer;
+        this.buf = buf;
+    }
+
+    static Object read(BinarySerializer serializer, byte[] bytes, Class<?> type) {
+        BinaryReader reader = new BinaryReader(serializer, bytes);
+        try {
+            reader.pos = 1;
+            Object value = reader.readValue(0);
+            if (null == type || Object.class == type) {
+                return value;
+            }
+            Object result = convert(value, type);
+            if (result == SKIP) {
+                throw new CacheException("BinarySerializer反序列化时出错: " + value.getClass().getName() + "不能转换为" + type.getName());
+            }
+            return result;
+        } catch (CacheException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CacheException("BinarySerializer将Byte反序列化时出错: " + e.getMessage(), e);
+        }
+    }
+
+    private Object readValue(int depth) throws IllegalAccessException {
+        if (depth > MAX_DEPTH) {
+            throw new CacheException("BinarySerializer反序列化时出错: 对象嵌套超过" + MAX_DEPTH + "层");
+        }
+        int tag = buf[pos++];
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_TRUE:
+                return Boolean.TRUE;
+            case TAG_FALSE:
+                return Boolean.FALSE;
+            case TAG_INT:
+                return (int) unZigZag(readVarLong());
+            case TAG_LONG:
+                return unZigZag(readVarLong());
+            case TAG_DOUBLE:
+                return Double.longBitsToDouble(readLong());
+            case TAG_FLOAT:
+                return Float.intBitsToFloat(readInt());
+            case TAG_STRING:
+                return readString();
+            case TAG_DATE:
+                return new Date(unZigZag(readVarLong()));
+            case TAG_LIST: {
+                int size = readSize();
+                List<Object> list = new ArrayList<Object>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(depth + 1));
+                }
+                return list;
+            }
+            case TAG_SET: {
+                int size = readSize();
+                Set<Object> set = new LinkedHashSet<Object>(capacity(size));
+                for (int i = 0; i < size; i++) {
+                    set.add(readValue(depth + 1));
+                }
+                return set;
+            }
+            case TAG_MAP: {
+                int size = readSize();
+                Map<Object, Object> map = new LinkedHashMap<Object, Object>(capacity(size));
+                for (int i = 0; i < size; i++) {
+                    Object key = readValue(depth + 1);
+                    map.put(key, readValue(depth + 1));
+                }
+                return map;
+            }
+            case TAG_BYTES: {
+                int size = readSize();
+                byte[] bytes = new byte[size];
+                System.arraycopy(buf, pos, bytes, 0, size);
+                pos += size;
+                return bytes;
+            }
+            case TAG_SHORT:
+                return (short) unZigZag(readVarLong());
+            case TAG_BYTE:
+                return buf[pos++];
+            case TAG_CHAR:
+                return (char) readVarLong();
+            case TAG_BIG_DECIMAL:
+                return new BigDecimal(readString());
+            case TAG_BIG_INTEGER:
+                return new BigInteger(readString());
+            case TAG_ENUM:
+                return readEnum();
+            case TAG_OBJECT:
+                return readObject(depth);
+            default:
+                throw new CacheException("BinarySerializer反序列化时出错: 未知的类型标记" + tag);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object readEnum() {
+        ReadClass readClass = readClass(false);
+        String name = readString();
+        try {
+            return Enum.valueOf((Class<? extends Enum>) readClass.schema.type, name);
+        } catch (IllegalArgumentException e) {
+            // 枚举值已删除
+            return null;
+        }
+    }
+
+    private Object readObject(int depth) throws IllegalAccessException {
+        ReadClass readClass = readClass(true);
+        BinarySchema schema = readClass.schema;
+        Object object = schema.newInstance();
+        int[] mapping = readClass.mapping;
+        for (int i = 0; i < mapping.length; i++) {
+            int index = mapping[i];
+            if (index < 0) {
+                // 当前类已删除该字段
+                readValue(depth + 1);
+            } else {
+                readField(object, schema, index, depth);
+            }
+        }
+        return object;
+    }
+
+    private void readField(Object object, BinarySchema schema, int index, int depth) throws IllegalAccessException {
+        Field field = schema.fields[index];
+        int tag = buf[pos];
+        switch (schema.kinds[index]) {
+            case BinarySchema.KIND_INT:
+                if (tag == TAG_INT) {
+                    pos++;
+                    field.setInt(object, (int) unZigZag(readVarLong()));
+                    return;
+                }
+                break;
+            case BinarySchema.KIND_LONG:
+                if (tag == TAG_LONG) {
+                    pos++;
+                    field.setLong(object, unZigZag(readVarLong()));
+                    return;
+                }
+                break;
+            case BinarySchema.KIND_DOUBLE:
+                if (tag == TAG_DOUBLE) {
+                    pos++;
+                    field.setDouble(object, Double.longBitsToDouble(readLong()));
+                    return;
+                }
+                break;
+            case BinarySchema.KIND_BOOLEAN:
+                if (tag == TAG_TRUE || tag == TAG_FALSE) {
+                    pos++;
+                    field.setBoolean(object, tag == TAG_TRUE);
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        Object value = convert(readValue(depth + 1), field.getType());
+        if (value != SKIP) {
+            field.set(object, value);
+        }
+    }
+
+    private ReadClass readClass(boolean withFields) {
+        int index = readSize();
+        if (index > 0) {
+            return classes.get(index - 1);
+        }
+        int id = readSize();
+        Class<?> type = id > 0 ? serializer.classById(id - 1) : serializer.classByName(readString());
+        BinarySchema schema = serializer.schema(type);
+        int[] mapping = null;
+        if (withFields) {
+            mapping = new int[readSize()];
+            for (int i = 0; i < mapping.length; i++) {
+                mapping[i] = schema.indexOf(readString());
+            }
+        }
+        ReadClass readClass = new ReadClass(schema, mapping);
+        if (null == classes) {
+            classes = new ArrayList<ReadClass>();
+        }
+        classes.add(readClass);
+        return readClass;
+    }
+
+    private String readString() {
+        long header = readVarLong();
+        if ((header & 1L) != 0L) {
+            return strings.get((int) (header >>> 1));
+        }
+        int length = (int) (header >>> 1);
+        String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+        pos += length;
+        if (isReferable(length)) {
+            if (null == strings) {
+                strings = new ArrayList<String>();
+            }
+            if (strings.size() < MAX_STRING_REFS) {
+                strings.add(value);
+            }
+        }
+        return value;
+    }
+
+    private int readSize() {
+        long size = readVarLong();
+        if (size < 0 || size > buf.length) {
+            throw new CacheException("BinarySerializer反序列化时出错: 长度" + size + "超出范围");
+        }
+        return (int) size;
+    }
+
+    private long readVarLong() {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buf[pos++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new CacheException("BinarySerializer反序列化时出错: varint格式不正确");
+    }
+
+    private long readLong() {
+        long value = 0L;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (buf[pos++] & 0xFF);
+        }
+        return value;
+    }
+
+    private int readInt() {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | (buf[pos++] & 0xFF);
+        }
+        return value;
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1L);
+    }
+
+    private static int capacity(int size) {
+        return Math.max(16, (int) (size / 0.75f) + 1);
+    }
+
+    /**
+     * 把解码出的值转换为字段或调用方要求的类型，不能转换时返回SKIP
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Object convert(Object value, Class<?> type) {
+        if (null == value) {
+            return type.isPrimitive() ? SKIP : null;
+        }
+        Class<?> target = type.isPrimitive() ? wrap(type) : type;
+        if (target.isInstance(value)) {
+            return value;
+        }
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            if (Long.class == target) {
+                return number.longValue();
+            } else if (Integer.class == target) {
+                return number.intValue();
+            } else if (Double.class == target) {
+                return number.doubleValue();
+            } else if (Float.class == target) {
+                return number.floatValue();
+            } else if (Short.class == target) {
+                return number.shortValue();
+            } else if (Byte.class == target) {
+                return number.byteValue();
+            } else if (BigDecimal.class == target) {
+                return new BigDecimal(number.toString());
+            } else if (BigInteger.class == target) {
+                return BigInteger.valueOf(number.longValue());
+            }
+            return SKIP;
+        }
+        try {
+            if (value instanceof Date && Date.class.isAssignableFrom(target)) {
+                return target.getConstructor(long.class).newInstance(((Date) value).getTime());
+            }
+            if (value instanceof Collection && Collection.class.isAssignableFrom(target)) {
+                Collection collection = target.isInterface() || Modifier.isAbstract(target.getModifiers())
+                        ? (Set.class.isAssignableFrom(target) ? new LinkedHashSet() : null)
+                        : (Collection) target.getDeclaredConstructor().newInstance();
+                if (null == collection) {
+                    return SKIP;
+                }
+                collection.addAll((Collection) value);
+                return collection;
+            }
+            if (value instanceof Map && Map.class.isAssignableFrom(target)
+                    && !target.isInterface() && !Modifier.isAbstract(target.getModifiers())) {
+                Map map = (Map) target.getDeclaredConstructor().newInstance();
+                map.putAll((Map) value);
+                return map;
+            }
+        } catch (ReflectiveOperationException e) {
+            return SKIP;
+        }
+        return SKIP;
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        if (int.class == type) {
+            return Integer.class;
+        } else if (long.class == type) {
+            return Long.class;
+        } else if (double.class == type) {
+            return Double.class;
+        } else if (boolean.class == type) {
+            return Boolean.class;
+        } else if (float.class == type) {
+            return Float.class;
+        } else if (short.class == type) {
+            return Short.class;
+        } else if (byte.class == type) {
+            return Byte.class;
+        }
+        return Character.class;
+    }
+
+    /**
+     * 写入时的类及字段名对应到当前类的字段下标，-1为当前类没有该字段
+     */
+    private static class ReadClass {
+        private final BinarySchema schema;
+        private final int[] mapping;
+
+        private ReadClass(BinarySchema schema, int[] mapping) {
+            this.schema = schema;
+            this.mapping = mapping;
+        }
+    }
+}
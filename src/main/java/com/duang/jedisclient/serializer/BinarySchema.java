@@ -0,0 +1,136 @@
+package com.duang.jedisclient.serializer;
+
+import com.duang.jedisclient.common.CacheException;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BinarySerializer里一个类的结构
+ * 字段为类及父类里所有非static、非transient的字段，按字段名排序，与JVM返回字段的顺序无关
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+class BinarySchema {
+
+    /**
+     * 字段的类型，基本类型读写时不装箱
+     */
+    static final int KIND_OBJECT = 0;
+    static final int KIND_INT = 1;
+    static final int KIND_LONG = 2;
+    static final int KIND_DOUBLE = 3;
+    static final int KIND_BOOLEAN = 4;
+    static final int KIND_OTHER_PRIMITIVE = 5;
+
+    final Class<?> type;
+    /**
+     * 注册的id，未注册时为-1
+     */
+    final int id;
+    final Field[] fields;
+    final int[] kinds;
+    final String[] names;
+    private final Map<String, Integer> indexes;
+    private final Constructor<?> constructor;
+
+    BinarySchema(Class<?> type, int id) {
+        this.type = type;
+        this.id = id;
+        if (type.isEnum()) {
+            fields = new Field[0];
+            constructor = null;
+        } else {
+            fields = fields(type);
+            constructor = constructor(type);
+        }
+        kinds = new int[fields.length];
+        names = new String[fields.length];
+        indexes = new HashMap<String, Integer>(fields.length * 2);
+        for (int i = 0; i < fields.length; i++) {
+            names[i] = fields[i].getName();
+            kinds[i] = kind(fields[i].getType());
+            indexes.put(names[i], i);
+        }
+    }
+
+    /**
+     * 按字段名取出字段的下标，没有该字段时返回-1
+     */
+    int indexOf(String name) {
+        Integer index = indexes.get(name);
+        return null == index ? -1 : index;
+    }
+
+    Object newInstance() {
+        if (null == constructor) {
+            throw new CacheException("BinarySerializer反序列化" + type.getName() + "时出错: 没有无参构造方法");
+        }
+        try {
+            return constructor.newInstance();
+        } catch (Exception e) {
+            throw new CacheException("BinarySerializer创建" + type.getName() + "时出错: " + e.getMessage(), e);
+        }
+    }
+
+    private static Field[] fields(Class<?> type) {
+        List<Field> result = new ArrayList<Field>();
+        Map<String, Boolean> seen = new HashMap<String, Boolean>();
+        // 子类的字段优先，父类的同名字段忽略
+        for (Class<?> current = type; null != current && Object.class != current; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()
+                        || null != seen.put(field.getName(), Boolean.TRUE)) {
+                    continue;
+                }
+                field.setAccessible(true);
+                result.add(field);
+            }
+        }
+        Collections.sort(result, new Comparator<Field>() {
+            @Override
+            public int compare(Field o1, Field o2) {
+                return o1.getName().compareTo(o2.getName());
+            }
+        });
+        return result.toArray(new Field[0]);
+    }
+
+    private static Constructor<?> constructor(Class<?> type) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static int kind(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return KIND_OBJECT;
+        }
+        if (int.class == type) {
+            return KIND_INT;
+        }
+        if (long.class == type) {
+            return KIND_LONG;
+        }
+        if (double.class == type) {
+            return KIND_DOUBLE;
+        }
+        if (boolean.class == type) {
+            return KIND_BOOLEAN;
+        }
+        return KIND_OTHER_PRIMITIVE;
+    }
+}
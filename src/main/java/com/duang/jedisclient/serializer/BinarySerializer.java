@@ -0,0 +1,198 @@
+package com.duang.jedisclient.serializer;
+
+import com.duang.jedisclient.common.CacheException;
+import com.duang.jedisclient.utils.Utf8;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 紧凑的二进制序列化
+ * 对象按字段名排序后依次写入字段值，每个值前面一个字节的类型标记；每个类在一次序列化中只写一次类名(或注册id)及字段名，
+ * 集合里的对象只写字段值，重复的字符串只写下标。反序列化时按字段名对应，类增加或删除字段后旧数据仍然可以读取
+ * 通过register预先注册的类只写id，注册的id在所有读写该缓存的应用里必须一致
+ * 默认只允许读写已注册的类(包括对象字段里的类及枚举)，不会按数据里的类名加载任意类；
+ * 数据来源完全可信时可以通过registeredOnly(false)允许未注册的类按类名读写
+ * String、数字及Boolean按文本写入，与FastJsonSerializer相同，可以直接使用incr等命令及get(String.class)读取
+ * 支持基本类型及包装类型、String、Date、BigDecimal、BigInteger、byte[]、枚举、List、Set、Map及有无参构造方法的类，不支持其它数组及循环引用
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class BinarySerializer implements ISerializer {
+
+    /**
+     * 二进制格式的第一个字节，不是合法的UTF-8首字节，可以与文本区分
+     */
+    static final byte FORMAT = (byte) 0xB1;
+
+    static final int TAG_NULL = 0;
+    static final int TAG_TRUE = 1;
+    static final int TAG_FALSE = 2;
+    static final int TAG_INT = 3;
+    static final int TAG_LONG = 4;
+    static final int TAG_DOUBLE = 5;
+    static final int TAG_FLOAT = 6;
+    static final int TAG_STRING = 7;
+    static final int TAG_DATE = 8;
+    static final int TAG_LIST = 9;
+    static final int TAG_SET = 10;
+    static final int TAG_MAP = 11;
+    static final int TAG_BYTES = 12;
+    static final int TAG_SHORT = 13;
+    static final int TAG_BYTE = 14;
+    static final int TAG_CHAR = 15;
+    static final int TAG_BIG_DECIMAL = 16;
+    static final int TAG_BIG_INTEGER = 17;
+    static final int TAG_ENUM = 18;
+    static final int TAG_OBJECT = 19;
+
+    static final int MAX_DEPTH = 256;
+    /**
+     * 一次序列化中最多记录的字符串个数，读写两边必须一致
+     */
+    static final int MAX_STRING_REFS = 4096;
+
+    private final ConcurrentMap<Class<?>, Integer> classIds = new ConcurrentHashMap<Class<?>, Integer>();
+    private final ConcurrentMap<Integer, Class<?>> idClasses = new ConcurrentHashMap<Integer, Class<?>>();
+    private final ConcurrentMap<Class<?>, BinarySchema> schemas = new ConcurrentHashMap<Class<?>, BinarySchema>();
+    private final ConcurrentMap<String, Class<?>> namedClasses = new ConcurrentHashMap<String, Class<?>>();
+    private volatile boolean registeredOnly = true;
+
+    /**
+     * 注册类，序列化时只写id，不写类名
+     * @param type 类
+     * @param id 大于等于0，同一个id只能注册一个类
+     * @return
+     */
+    public BinarySerializer register(Class<?> type, int id) {
+        if (null == type || id < 0) {
+            throw new CacheException("BinarySerializer注册的类不能为空，id不能小于0");
+        }
+        Class<?> exists = idClasses.putIfAbsent(id, type);
+        if (null != exists && exists != type) {
+            throw new CacheException("BinarySerializer的id[" + id + "]已注册为" + exists.getName());
+        }
+        Integer existsId = classIds.putIfAbsent(type, id);
+        if (null != existsId && existsId != id) {
+            idClasses.remove(id, type);
+            throw new CacheException(type.getName() + "已注册为BinarySerializer的id[" + existsId + "]");
+        }
+        schemas.remove(type);
+        return this;
+    }
+
+    /**
+     * 是否只允许读写已注册的类，默认为true
+     * 为false时未注册的类写入类名，反序列化时按类名加载，只能用于数据来源完全可信的场景
+     * @param registeredOnly 是否只允许已注册的类
+     * @return
+     */
+    public BinarySerializer registeredOnly(boolean registeredOnly) {
+        this.registeredOnly = registeredOnly;
+        return this;
+    }
+
+    @Override
+    public String getName() {
+        return BinarySerializer.class.getName();
+    }
+
+    @Override
+    public byte[] serializerKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean isUtf8Key() {
+        return true;
+    }
+
+    @Override
+    public byte[] serializerField(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] serializerValue(Object value) {
+        if (null == value) {
+            return new byte[0];
+        }
+        if (StringSerializer.isText(value)) {
+            return Utf8.encode(value.toString());
+        }
+        return BinaryWriter.write(this, value);
+    }
+
+    @Override
+    public String deSerializerKey(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T deSerializerValue(byte[] bytes, Class<T> type) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != FORMAT) {
+            return (T) StringSerializer.readText(bytes, type, "BinarySerializer");
+        }
+        return (T) BinaryReader.read(this, bytes, type);
+    }
+
+    BinarySchema schema(Class<?> type) {
+        BinarySchema schema = schemas.get(type);
+        if (null == schema) {
+            Integer id = classIds.get(type);
+            schema = new BinarySchema(type, null == id ? -1 : id);
+            BinarySchema exists = schemas.putIfAbsent(type, schema);
+            if (null != exists) {
+                schema = exists;
+            }
+        }
+        return schema;
+    }
+
+    Class<?> classById(int id) {
+        Class<?> type = idClasses.get(id);
+        if (null == type) {
+            throw new CacheException("BinarySerializer反序列化时出错: id[" + id + "]没有注册");
+        }
+        return type;
+    }
+
+    /**
+     * 未注册的类写入类名前检查是否允许
+     */
+    void checkNamed(Class<?> type) {
+        if (registeredOnly) {
+            throw new CacheException("BinarySerializer序列化时出错: " + type.getName() + "没有注册，请先调用register");
+        }
+    }
+
+    Class<?> classByName(String name) {
+        if (registeredOnly) {
+            throw new CacheException("BinarySerializer反序列化时出错: 类" + name + "没有注册，只允许读取已注册的类");
+        }
+        Class<?> type = namedClasses.get(name);
+        if (null == type) {
+            try {
+                ClassLoader loader = Thread.currentThread().getContextClassLoader();
+                type = Class.forName(name, false, null == loader ? BinarySerializer.class.getClassLoader() : loader);
+            } catch (ClassNotFoundException e) {
+                throw new CacheException("BinarySerializer反序列化时出错: 找不到类" + name, e);
+            }
+            namedClasses.putIfAbsent(name, type);
+        }
+        return type;
+    }
+
+    /**
+     * 字节数在该范围内的字符串才记录下标，读写两边必须一致
+     */
+    static boolean isReferable(int length) {
+        return length >= 2 && length <= 512;
+    }
+}
@@ -0,0 +1,277 @@
+package com.duang.jedisclient.serializer;
+
+import com.duang.jedisclient.common.CacheException;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static com.duang.jedisclient.serializer.BinarySerializer.*;
+
+/**
+ * BinarySerializer的编码，每个线程复用一个，缓冲区超过MAX_RETAINED_SIZE时不再保留
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+class BinaryWriter {
+
+    private static final int INITIAL_SIZE = 256;
+    private static final int MAX_RETAINED_SIZE = 1024 * 1024;
+
+    private static final ThreadLocal<BinaryWriter> LOCAL = new ThreadLocal<BinaryWriter>() {
+        @Override
+        protected BinaryWriter initialValue() {
+            return new BinaryWriter();
+        }
+    };
+
+    private byte[] buf = new byte[INITIAL_SIZE];
+    private int pos;
+    /**
+     * 本次编码中已写入的字符串及类，再次出现时只写下标
+     */
+    private final Map<String, Integer> strings = new HashMap<String, Integer>();
+    private final Map<Class<?>, Integer> classes = new IdentityHashMap<Class<?>, Integer>();
+
+    static byte[] write(BinarySerializer serializer, Object value) {
+        BinaryWriter writer = LOCAL.get();
+        try {
+            writer.writeByte(FORMAT);
+            writer.writeValue(serializer, value, 0);
+            return Arrays.copyOf(writer.buf, writer.pos);
+        } catch (IllegalAccessException e) {
+            throw new CacheException("BinarySerializer将值序列化成Byte时出错: " + e.getMessage(), e);
+        } finally {
+            writer.reset();
+        }
+    }
+
+    private void reset() {
+        pos = 0;
+        if (!strings.isEmpty()) {
+            strings.clear();
+        }
+        if (!classes.isEmpty()) {
+            classes.clear();
+        }
+        if (buf.length > MAX_RETAINED_SIZE) {
+            buf = new byte[INITIAL_SIZE];
+        }
+    }
+
+    private void writeValue(BinarySerializer serializer, Object value, int depth) throws IllegalAccessException {
+        if (depth > MAX_DEPTH) {
+            throw new CacheException("BinarySerializer序列化时出错: 对象嵌套超过" + MAX_DEPTH + "层或存在循环引用");
+        }
+        if (null == value) {
+            writeByte(TAG_NULL);
+        } else if (value instanceof String) {
+            writeByte(TAG_STRING);
+            writeString((String) value);
+        } else if (value instanceof Integer) {
+            writeByte(TAG_INT);
+            writeVarLong(zigZag((Integer) value));
+        } else if (value instanceof Long) {
+            writeByte(TAG_LONG);
+            writeVarLong(zigZag((Long) value));
+        } else if (value instanceof Boolean) {
+            writeByte((Boolean) value ? TAG_TRUE : TAG_FALSE);
+        } else if (value instanceof Double) {
+            writeByte(TAG_DOUBLE);
+            writeLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof Date) {
+            writeByte(TAG_DATE);
+            writeVarLong(zigZag(((Date) value).getTime()));
+        } else if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            writeByte(value instanceof Set ? TAG_SET : TAG_LIST);
+            writeVarLong(collection.size());
+            for (Object item : collection) {
+                writeValue(serializer, item, depth + 1);
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            writeByte(TAG_MAP);
+            writeVarLong(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(serializer, entry.getKey(), depth + 1);
+                writeValue(serializer, entry.getValue(), depth + 1);
+            }
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            writeByte(TAG_BYTES);
+            writeVarLong(bytes.length);
+            writeBytes(bytes, 0, bytes.length);
+        } else if (value instanceof Float) {
+            writeByte(TAG_FLOAT);
+            writeInt(Float.floatToRawIntBits((Float) value));
+        } else if (value instanceof Short) {
+            writeByte(TAG_SHORT);
+            writeVarLong(zigZag((Short) value));
+        } else if (value instanceof Byte) {
+            writeByte(TAG_BYTE);
+            writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            writeByte(TAG_CHAR);
+            writeVarLong((Character) value);
+        } else if (value instanceof BigDecimal) {
+            writeByte(TAG_BIG_DECIMAL);
+            writeString(value.toString());
+        } else if (value instanceof BigInteger) {
+            writeByte(TAG_BIG_INTEGER);
+            writeString(value.toString());
+        } else if (value instanceof Enum) {
+            writeByte(TAG_ENUM);
+            writeClass(serializer, serializer.schema(((Enum<?>) value).getDeclaringClass()), false);
+            writeString(((Enum<?>) value).name());
+        } else if (value.getClass().isArray()) {
+            throw new CacheException("BinarySerializer序列化时出错: 不支持数组类型" + value.getClass().getName() + "，请使用List");
+        } else {
+            writeObject(serializer, value, depth);
+        }
+    }
+
+    private void writeObject(BinarySerializer serializer, Object value, int depth) throws IllegalAccessException {
+        BinarySchema schema = serializer.schema(value.getClass());
+        writeByte(TAG_OBJECT);
+        writeClass(serializer, schema, true);
+        Field[] fields = schema.fields;
+        int[] kinds = schema.kinds;
+        for (int i = 0; i < fields.length; i++) {
+            Field field = fields[i];
+            switch (kinds[i]) {
+                case BinarySchema.KIND_INT:
+                    writeByte(TAG_INT);
+                    writeVarLong(zigZag(field.getInt(value)));
+                    break;
+                case BinarySchema.KIND_LONG:
+                    writeByte(TAG_LONG);
+                    writeVarLong(zigZag(field.getLong(value)));
+                    break;
+                case BinarySchema.KIND_DOUBLE:
+                    writeByte(TAG_DOUBLE);
+                    writeLong(Double.doubleToRawLongBits(field.getDouble(value)));
+                    break;
+                case BinarySchema.KIND_BOOLEAN:
+                    writeByte(field.getBoolean(value) ? TAG_TRUE : TAG_FALSE);
+                    break;
+                default:
+                    writeValue(serializer, field.get(value), depth + 1);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 类第一次出现时写入0、注册id加1(未注册时为0及类名)以及字段名，之后只写入下标加1
+     */
+    private void writeClass(BinarySerializer serializer, BinarySchema schema, boolean withFields) {
+        Integer index = classes.get(schema.type);
+        if (null != index) {
+            writeVarLong(index + 1);
+            return;
+        }
+        classes.put(schema.type, classes.size());
+        writeVarLong(0);
+        if (schema.id >= 0) {
+            writeVarLong(schema.id + 1);
+        } else {
+            serializer.checkNamed(schema.type);
+            writeVarLong(0);
+            writeString(schema.type.getName());
+        }
+        if (withFields) {
+            writeVarLong(schema.names.length);
+            for (String name : schema.names) {
+                writeString(name);
+            }
+        }
+    }
+
+    /**
+     * 字符串以一个varint开头，最低位为1时为之前写入过的字符串的下标，否则为UTF-8字节数，后面紧跟字节
+     */
+    private void writeString(String value) {
+        Integer index = strings.get(value);
+        if (null != index) {
+            writeVarLong(((long) index << 1) | 1L);
+            return;
+        }
+        int length = value.length();
+        boolean ascii = true;
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                ascii = false;
+                break;
+            }
+        }
+        if (ascii) {
+            writeVarLong((long) length << 1);
+            ensure(length);
+            for (int i = 0; i < length; i++) {
+                buf[pos++] = (byte) value.charAt(i);
+            }
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            length = bytes.length;
+            writeVarLong((long) length << 1);
+            writeBytes(bytes, 0, length);
+        }
+        if (isReferable(length) && strings.size() < MAX_STRING_REFS) {
+            strings.put(value, strings.size());
+        }
+    }
+
+    private void writeByte(int value) {
+        ensure(1);
+        buf[pos++] = (byte) value;
+    }
+
+    private void writeBytes(byte[] bytes, int offset, int length) {
+        ensure(length);
+        System.arraycopy(bytes, offset, buf, pos, length);
+        pos += length;
+    }
+
+    private void writeVarLong(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0L) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+    }
+
+    private void writeLong(long value) {
+        ensure(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buf[pos++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void writeInt(int value) {
+        ensure(4);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            buf[pos++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void ensure(int length) {
+        if (pos + length > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length << 1, pos + length));
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
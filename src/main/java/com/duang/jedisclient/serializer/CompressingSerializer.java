@@ -0,0 +1,244 @@
+package com.duang.jedisclient.serializer;
+
+import com.duang.jedisclient.metrics.CompressionStats;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 值压缩，包装任意ISerializer
+ * 序列化后超过阈值的值以Deflate压缩，前面加上7个字节的头(0xC1 'Z'、压缩方式、压缩前长度)；
+ * 没有这个头的值(未超过阈值或启用压缩之前写入的值)按原样交给被包装的序列化器，不需要迁移旧数据
+ * 字符串值不压缩，因为get(String.class)/getString不经过序列化器
+ * Deflater/Inflater放在有界的池里复用，池满时归还的对象立即end()释放本地内存(不使用ThreadLocal，虚拟线程下不会堆积)
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class CompressingSerializer implements ISerializer {
+
+    /**
+     * 默认阈值，小于4KB的值压缩的收益不大
+     */
+    public static final int DEFAULT_THRESHOLD = 4096;
+    /**
+     * 默认解压后的最大字节数
+     */
+    public static final int DEFAULT_MAX_LENGTH = 64 * 1024 * 1024;
+    /**
+     * Deflate的最大压缩比约为1032:1，头里的长度超过 压缩后长度*该值 时一定是错误的数据
+     */
+    private static final long MAX_RATIO = 1032L;
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+    private static final byte MAGIC_0 = (byte) 0xC1;
+    private static final byte MAGIC_1 = 'Z';
+    private static final byte CODEC_DEFLATE = 1;
+    private static final int HEADER_LENGTH = 7;
+
+    private final ISerializer serializer;
+    private final int threshold;
+    private final int level;
+    private final int maxLength;
+    private final CompressionStats stats = new CompressionStats();
+    private final BlockingQueue<Deflater> deflaters = new ArrayBlockingQueue<Deflater>(POOL_SIZE);
+    private final BlockingQueue<Inflater> inflaters = new ArrayBlockingQueue<Inflater>(POOL_SIZE);
+
+    public CompressingSerializer(ISerializer serializer) {
+        this(serializer, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param serializer 被包装的序列化器
+     * @param threshold 序列化后的字节数超过该值时压缩
+     */
+    public CompressingSerializer(ISerializer serializer, int threshold) {
+        this(serializer, threshold, Deflater.BEST_SPEED);
+    }
+
+    /**
+     * @param serializer 被包装的序列化器
+     * @param threshold 序列化后的字节数超过该值时压缩
+     * @param level Deflate压缩级别，1到9，默认为1(BEST_SPEED)
+     */
+    public CompressingSerializer(ISerializer serializer, int threshold, int level) {
+        this(serializer, threshold, level, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * @param serializer 被包装的序列化器
+     * @param threshold 序列化后的字节数超过该值时压缩
+     * @param level Deflate压缩级别，1到9，默认为1(BEST_SPEED)
+     * @param maxLength 解压后的最大字节数，头里的长度超过该值时不解压，默认为64MB
+     */
+    public CompressingSerializer(ISerializer serializer, int threshold, int level, int maxLength) {
+        if (null == serializer) {
+            throw new NullPointerException("被包装的序列化器不能为空");
+        }
+        this.serializer = serializer;
+        this.threshold = threshold;
+        this.level = level;
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public String getName() {
+        return CompressingSerializer.class.getName() + "(" + serializer.getName() + ")";
+    }
+
+    @Override
+    public byte[] serializerKey(String key) {
+        return serializer.serializerKey(key);
+    }
+
+    @Override
+    public boolean isUtf8Key() {
+        return serializer.isUtf8Key();
+    }
+
+    @Override
+    public byte[] serializerField(String key) {
+        return serializer.serializerField(key);
+    }
+
+    @Override
+    public byte[] serializerValue(Object value) {
+        byte[] bytes = serializer.serializerValue(value);
+        if (null == bytes || bytes.length <= Math.max(threshold, HEADER_LENGTH) || value instanceof CharSequence) {
+            return bytes;
+        }
+        return compress(bytes);
+    }
+
+    @Override
+    public String deSerializerKey(byte[] bytes) {
+        return serializer.deSerializerKey(bytes);
+    }
+
+    @Override
+    public <T> T deSerializerValue(byte[] bytes, Class<T> type) {
+        return serializer.deSerializerValue(decompress(bytes), type);
+    }
+
+    /**
+     * 被包装的序列化器
+     */
+    public ISerializer getSerializer() {
+        return serializer;
+    }
+
+    public CompressionStats getStats() {
+        return stats;
+    }
+
+    /**
+     * 压缩后没有变小时返回原数组
+     */
+    byte[] compress(byte[] bytes) {
+        long startTime = System.nanoTime();
+        Deflater deflater = deflaters.poll();
+        if (null == deflater) {
+            deflater = new Deflater(level, true);
+        }
+        try {
+            return compress(deflater, bytes, startTime);
+        } finally {
+            deflater.reset();
+            if (!deflaters.offer(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+
+    private byte[] compress(Deflater deflater, byte[] bytes, long startTime) {
+        deflater.setInput(bytes);
+        deflater.finish();
+        // 压缩后不小于原值时没有意义，输出缓冲区只分配原值的大小
+        byte[] out = new byte[bytes.length];
+        out[0] = MAGIC_0;
+        out[1] = MAGIC_1;
+        out[2] = CODEC_DEFLATE;
+        writeInt(out, 3, bytes.length);
+        int pos = HEADER_LENGTH;
+        while (!deflater.finished() && pos < out.length) {
+            pos += deflater.deflate(out, pos, out.length - pos);
+        }
+        if (!deflater.finished()) {
+            stats.recordSkip(System.nanoTime() - startTime);
+            return bytes;
+        }
+        byte[] result = Arrays.copyOf(out, pos);
+        stats.recordCompress(bytes.length, result.length, System.nanoTime() - startTime);
+        return result;
+    }
+
+    /**
+     * 没有压缩头或解压失败时按原样返回，兼容启用压缩之前写入的值
+     */
+    byte[] decompress(byte[] bytes) {
+        if (!isCompressed(bytes)) {
+            return bytes;
+        }
+        long startTime = System.nanoTime();
+        int length = readInt(bytes, 3);
+        // 长度来自数据本身，不可信，分配前先检查
+        if (length < 0 || length > maxLength || length > (bytes.length - HEADER_LENGTH) * MAX_RATIO) {
+            return bytes;
+        }
+        Inflater inflater = inflaters.poll();
+        if (null == inflater) {
+            inflater = new Inflater(true);
+        }
+        try {
+            return decompress(inflater, bytes, length, startTime);
+        } finally {
+            inflater.reset();
+            if (!inflaters.offer(inflater)) {
+                inflater.end();
+            }
+        }
+    }
+
+    private byte[] decompress(Inflater inflater, byte[] bytes, int length, long startTime) {
+        inflater.setInput(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+        byte[] out = new byte[length];
+        int pos = 0;
+        try {
+            while (pos < length) {
+                int count = inflater.inflate(out, pos, length - pos);
+                if (count == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                pos += count;
+            }
+        } catch (DataFormatException e) {
+            return bytes;
+        }
+        if (pos != length) {
+            return bytes;
+        }
+        stats.recordDecompress(System.nanoTime() - startTime);
+        return out;
+    }
+
+    private static boolean isCompressed(byte[] bytes) {
+        return null != bytes && bytes.length > HEADER_LENGTH
+                && bytes[0] == MAGIC_0 && bytes[1] == MAGIC_1 && bytes[2] == CODEC_DEFLATE;
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+}
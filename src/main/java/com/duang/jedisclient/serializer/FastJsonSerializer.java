@@ -6,6 +6,7 @@ import com.duang.jedisclient.common.CacheException;
 import redis.clients.jedis.Protocol;
 import redis.clients.jedis.exceptions.JedisException;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * FastSerializer.
@@ -30,6 +31,11 @@ public class FastJsonSerializer implements ISerializer {
 		}
 	}
 
+	@Override
+	public boolean isUtf8Key() {
+		return true;
+	}
+
 	public byte[] serializerField(String key) {
 		return serializerValue(key);
 	}
@@ -48,7 +54,7 @@ public class FastJsonSerializer implements ISerializer {
 		}
 		try {
 			if (value instanceof String) {
-				return String.valueOf(value).getBytes();
+				return ((String) value).getBytes(StandardCharsets.UTF_8);
 			}
 			return JSON.toJSONBytesWithFastJsonConfig(
 					fastJsonConfig.getCharset(),
@@ -68,6 +74,10 @@ public class FastJsonSerializer implements ISerializer {
 		if(bytes == null || bytes.length == 0) {
 			return null;
 		}
+		// String按原文写入，不是JSON
+		if (String.class == type) {
+			return (T) new String(bytes, StandardCharsets.UTF_8);
+		}
 		try {
 			return (T) JSON.parseObject(
 					bytes,
@@ -1,16 +1,10 @@
 package com.duang.jedisclient.serializer;
 
 import com.duang.jedisclient.common.CacheException;
-import org.nustaq.serialization.FSTObjectInput;
-import org.nustaq.serialization.FSTObjectOutput;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.nustaq.serialization.FSTConfiguration;
 import redis.clients.jedis.Protocol;
 import redis.clients.jedis.exceptions.JedisException;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 
 /**
@@ -22,7 +16,11 @@ import java.io.UnsupportedEncodingException;
  */
 public class FstSerializer implements ISerializer {
 
-	private static final Logger LOG = LoggerFactory.getLogger(FstSerializer.class);
+	/**
+	 * FSTConfiguration创建成本高且线程安全，与FSTObjectOutput/FSTObjectInput默认使用的是同一个对象，
+	 * asByteArray/asObject在线程内复用输入输出对象及缓冲区
+	 */
+	private static final FSTConfiguration CONFIGURATION = FSTConfiguration.getDefaultConfiguration();
 
 	@Override
 	public String getName() {
@@ -37,6 +35,11 @@ public class FstSerializer implements ISerializer {
 		}
 	}
 
+	@Override
+	public boolean isUtf8Key() {
+		return true;
+	}
+
 	public byte[] serializerField(String key) {
 		return serializerValue(key);
 	}
@@ -53,49 +56,24 @@ public class FstSerializer implements ISerializer {
 		if (null == value) {
 			return new byte[0];
 		}
-		FSTObjectOutput fstOut = null;
 		try {
-			ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
-			fstOut = new FSTObjectOutput(bytesOut);
-			fstOut.writeObject(value);
-			fstOut.flush();
-			return bytesOut.toByteArray();
+			return CONFIGURATION.asByteArray(value);
 		}
 		catch (Exception e) {
 			throw new CacheException("FstSerializer将值序列化成Byte时出错: " + e.getMessage(), e);
 		}
-		finally {
-			if(fstOut != null) {
-				try {
-					fstOut.close();
-				} catch (IOException e) {
-					LOG.error(e.getMessage(), e);
-				}
-			}
-		}
 	}
 	
 	public <T> T deSerializerValue(byte[] bytes, Class<T> type) {
 		if(bytes == null || bytes.length == 0) {
 			return null;
 		}
-		FSTObjectInput fstInput = null;
 		try {
-			fstInput = new FSTObjectInput(new ByteArrayInputStream(bytes));
-			return (T)fstInput.readObject();
+			return (T)CONFIGURATION.asObject(bytes);
 		}
 		catch (Exception e) {
 			throw new CacheException("FstSerializer将Byte反序列化时出错: " + e.getMessage(), e);
 		}
-		finally {
-			if(fstInput != null) {
-				try {
-					fstInput.close();
-				} catch (IOException e) {
-					LOG.error(e.getMessage(), e);
-				}
-			}
-		}
 	}
 }
 
@@ -28,6 +28,15 @@ public interface ISerializer {
     String getName();
 	
     byte[] serializerKey(String key);
+
+    /**
+     * serializerKey是否把key按UTF-8编码，是时直接使用CacheKeyModel缓存的key字节，不再调用serializerKey
+     * @return
+     */
+    default boolean isUtf8Key() {
+        return false;
+    }
+
     byte[] serializerField(String key);
     byte[] serializerValue(Object value);
 
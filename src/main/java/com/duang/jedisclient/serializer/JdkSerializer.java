@@ -47,6 +47,11 @@ public class JdkSerializer implements ISerializer {
 		}
 	}
 
+	@Override
+	public boolean isUtf8Key() {
+		return true;
+	}
+
 	public byte[] serializerField(String key) {
 		return serializerValue(key);
 	}
@@ -60,10 +65,10 @@ public class JdkSerializer implements ISerializer {
 	}
 	
 	public byte[] serializerValue(Object value) {
-		ObjectOutputStream objectOut = null;
+		// 输出流在线程内复用，ObjectOutputStream需要写入流头信息，每次都要新建
+		ByteArrayOutputStream bytesOut = ReusableByteArrayOutputStream.get();
 		try {
-			ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
-			objectOut = new ObjectOutputStream(bytesOut);
+			ObjectOutputStream objectOut = new ObjectOutputStream(bytesOut);
 			objectOut.writeObject(value);
 			objectOut.flush();
 			return bytesOut.toByteArray();
@@ -71,10 +76,6 @@ public class JdkSerializer implements ISerializer {
 		catch (Exception e) {
 			throw new RuntimeException(e);
 		}
-		finally {
-			if(objectOut != null)
-				try {objectOut.close();} catch (Exception e) {LOG.error(e.getMessage(), e);}
-		}
 	}
 	
 	public <T> T deSerializerValue(byte[] bytes, Class<T> type) {
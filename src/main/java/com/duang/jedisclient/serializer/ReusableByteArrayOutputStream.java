@@ -0,0 +1,47 @@
+package com.duang.jedisclient.serializer;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * 线程内复用的字节输出流，避免每次序列化都重新分配缓冲区
+ * 缓冲区超过MAX_RETAINED_SIZE时不再保留，避免偶尔的大对象长期占用内存
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+
+    private static final int INITIAL_SIZE = 1024;
+    private static final int MAX_RETAINED_SIZE = 1024 * 1024;
+
+    private static final ThreadLocal<ReusableByteArrayOutputStream> LOCAL = new ThreadLocal<ReusableByteArrayOutputStream>() {
+        @Override
+        protected ReusableByteArrayOutputStream initialValue() {
+            return new ReusableByteArrayOutputStream();
+        }
+    };
+
+    private ReusableByteArrayOutputStream() {
+        super(INITIAL_SIZE);
+    }
+
+    /**
+     * 取出当前线程的输出流，已清空
+     */
+    static ReusableByteArrayOutputStream get() {
+        ReusableByteArrayOutputStream out = LOCAL.get();
+        if (out.buf.length > MAX_RETAINED_SIZE) {
+            out = new ReusableByteArrayOutputStream();
+            LOCAL.set(out);
+        }
+        out.reset();
+        return out;
+    }
+
+    /**
+     * close不做任何处理，输出流由ThreadLocal复用
+     */
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,123 @@
+package com.duang.jedisclient.serializer;
+
+import com.duang.jedisclient.common.CacheException;
+import com.duang.jedisclient.utils.NumberParser;
+import com.duang.jedisclient.utils.Utf8;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 文本序列化，适合计数器、开关及短字符串等key
+ * String、数字、Boolean按UTF-8文本写入，byte[]原样写入，不做任何转换，写入的值可以直接使用incr等命令；
+ * 其它类型的值抛出异常，对象请使用BinarySerializer或FastJsonSerializer
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class StringSerializer implements ISerializer {
+
+    @Override
+    public String getName() {
+        return StringSerializer.class.getName();
+    }
+
+    @Override
+    public byte[] serializerKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean isUtf8Key() {
+        return true;
+    }
+
+    @Override
+    public byte[] serializerField(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] serializerValue(Object value) {
+        if (null == value) {
+            return new byte[0];
+        }
+        if (value instanceof byte[]) {
+            return (byte[]) value;
+        }
+        if (value instanceof CharSequence) {
+            return Utf8.encode((CharSequence) value);
+        }
+        if (isText(value)) {
+            return Utf8.encode(value.toString());
+        }
+        throw new CacheException("StringSerializer不支持序列化" + value.getClass().getName() + "，请使用BinarySerializer或FastJsonSerializer");
+    }
+
+    @Override
+    public String deSerializerKey(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T deSerializerValue(byte[] bytes, Class<T> type) {
+        if (null == bytes) {
+            return null;
+        }
+        if (byte[].class == type) {
+            return (T) bytes;
+        }
+        return (T) readText(bytes, type, "StringSerializer");
+    }
+
+    /**
+     * 可以按文本写入的值
+     */
+    static boolean isText(Object value) {
+        return value instanceof String || value instanceof Long || value instanceof Integer
+                || value instanceof Double || value instanceof Float || value instanceof Short || value instanceof Byte
+                || value instanceof BigDecimal || value instanceof BigInteger || value instanceof Boolean
+                || value instanceof Character;
+    }
+
+    /**
+     * 把UTF-8文本转换为type，十进制整数不创建String直接解析
+     * @param name 序列化器名称，用于异常信息
+     */
+    static Object readText(byte[] bytes, Class<?> type, String name) {
+        if ((Long.class == type || long.class == type) && NumberParser.isLong(bytes)) {
+            return NumberParser.parseLong(bytes);
+        }
+        String text = Utf8.decode(bytes);
+        try {
+            if (null == type || String.class == type || Object.class == type || CharSequence.class == type) {
+                return text;
+            } else if (Long.class == type || long.class == type) {
+                return Long.valueOf(text);
+            } else if (Integer.class == type || int.class == type) {
+                return Integer.valueOf(text);
+            } else if (Double.class == type || double.class == type) {
+                return Double.valueOf(text);
+            } else if (Float.class == type || float.class == type) {
+                return Float.valueOf(text);
+            } else if (Short.class == type || short.class == type) {
+                return Short.valueOf(text);
+            } else if (Byte.class == type || byte.class == type) {
+                return Byte.valueOf(text);
+            } else if (BigDecimal.class == type) {
+                return new BigDecimal(text);
+            } else if (BigInteger.class == type) {
+                return new BigInteger(text);
+            } else if (Boolean.class == type || boolean.class == type) {
+                return Boolean.valueOf(text);
+            } else if ((Character.class == type || char.class == type) && text.length() == 1) {
+                return text.charAt(0);
+            }
+        } catch (NumberFormatException e) {
+            throw new CacheException(name + "将Byte反序列化时出错: " + e.getMessage(), e);
+        }
+        throw new CacheException(name + "将Byte反序列化时出错: 文本不能转换为" + type.getName());
+    }
+}
@@ -0,0 +1,68 @@
+package com.duang.jedisclient.test;
+
+import com.duang.jedisclient.common.CacheKeyModel;
+import com.duang.jedisclient.common.RedisConfig;
+import com.duang.jedisclient.core.IAsyncJedisClient;
+import com.duang.jedisclient.core.IJedisClient;
+import com.duang.jedisclient.plugin.JedisClientPlugin;
+import com.duang.jedisclient.plugin.RedisFactory;
+import redis.clients.jedis.HostAndPort;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 同步调用与异步(CompletableFuture)调用的吞吐量对比
+ * 参数: host port [password] [total] [inFlight]
+ */
+public class AsyncBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "127.0.0.1";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 6379;
+        String password = args.length > 2 ? args[2] : null;
+        final int total = args.length > 3 ? Integer.parseInt(args[3]) : 100000;
+        final int inFlight = args.length > 4 ? Integer.parseInt(args[4]) : 1000;
+
+        Set<HostAndPort> nodeSet = new HashSet<HostAndPort>();
+        nodeSet.add(new HostAndPort(host, port));
+        RedisConfig redisConfig = new RedisConfig("async-benchmark", "benchmark", nodeSet, password);
+        JedisClientPlugin plugin = new JedisClientPlugin(redisConfig);
+        plugin.start();
+        IJedisClient client = RedisFactory.getClient("async-benchmark");
+        IAsyncJedisClient asyncClient = RedisFactory.getAsyncClient("async-benchmark");
+
+        final CacheKeyModel model = new CacheKeyModel.Builder(TestCacheKeyEnum.ORDER_MAPPING).customKey("benchmark").build();
+        client.del(model);
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            client.hset(model, "field" + i, i);
+        }
+        print("sync hset", total, System.nanoTime() - startTime);
+        client.del(model);
+
+        // 以信号量控制同时在途的请求数
+        final Semaphore window = new Semaphore(inFlight);
+        final CountDownLatch latch = new CountDownLatch(total);
+        startTime = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            window.acquire();
+            asyncClient.hset(model, "field" + i, i).whenComplete((result, throwable) -> {
+                window.release();
+                latch.countDown();
+            });
+        }
+        latch.await();
+        print("async hset(inFlight=" + inFlight + ")", total, System.nanoTime() - startTime);
+        client.del(model);
+        plugin.stop();
+    }
+
+    private static void print(String name, int total, long nanos) {
+        double seconds = nanos / 1000000000D;
+        System.out.println(String.format("%-30s %10d ops %10.2f ms %12.0f ops/sec", name, total, nanos / 1000000D, total / seconds));
+    }
+}
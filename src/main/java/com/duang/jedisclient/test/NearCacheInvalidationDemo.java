@@ -0,0 +1,59 @@
+package com.duang.jedisclient.test;
+
+import com.duang.jedisclient.common.CacheKeyModel;
+import com.duang.jedisclient.common.RedisConfig;
+import com.duang.jedisclient.core.IJedisClient;
+import com.duang.jedisclient.nearcache.NearCacheJedisClient;
+import com.duang.jedisclient.plugin.JedisClientPlugin;
+import com.duang.jedisclient.plugin.RedisFactory;
+import redis.clients.jedis.HostAndPort;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 模拟两个应用实例共用一个Redis，验证一个实例修改key后另一个实例的本地缓存会失效
+ * 参数: host port [password]
+ */
+public class NearCacheInvalidationDemo {
+
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "127.0.0.1";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 6379;
+        String password = args.length > 2 ? args[2] : null;
+
+        JedisClientPlugin pluginA = start("near-cache-a", host, port, password);
+        JedisClientPlugin pluginB = start("near-cache-b", host, port, password);
+        IJedisClient clientA = RedisFactory.getClient("near-cache-a");
+        IJedisClient clientB = RedisFactory.getClient("near-cache-b");
+
+        CacheKeyModel model = new CacheKeyModel.Builder(TestCacheKeyEnum.USER_ID).customKey("near-cache").nearCache(true).build();
+        clientB.set(model, "v1");
+        System.out.println("A读取: " + clientA.get(model, String.class));
+        System.out.println("A再次读取(本地缓存): " + clientA.get(model, String.class));
+
+        long startTime = System.nanoTime();
+        clientB.set(model, "v2");
+        String value = clientA.get(model, String.class);
+        while (!"v2".equals(value) && System.nanoTime() - startTime < 5000000000L) {
+            Thread.sleep(1);
+            value = clientA.get(model, String.class);
+        }
+        System.out.println(String.format("B修改后A读取: %s, 耗时 %.2f ms", value, (System.nanoTime() - startTime) / 1000000D));
+        System.out.println("A本地缓存命中次数: " + ((NearCacheJedisClient) clientA).getNearCache().getHitCount());
+
+        clientB.del(model);
+        pluginA.stop();
+        pluginB.stop();
+    }
+
+    private static JedisClientPlugin start(String appId, String host, int port, String password) throws Exception {
+        Set<HostAndPort> nodeSet = new HashSet<HostAndPort>();
+        nodeSet.add(new HostAndPort(host, port));
+        RedisConfig redisConfig = new RedisConfig(appId, "demo", nodeSet, password);
+        redisConfig.setNearCacheMaxSize(1000);
+        JedisClientPlugin plugin = new JedisClientPlugin(redisConfig);
+        plugin.start();
+        return plugin;
+    }
+}
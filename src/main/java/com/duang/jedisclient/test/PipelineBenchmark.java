@@ -0,0 +1,64 @@
+package com.duang.jedisclient.test;
+
+import com.duang.jedisclient.common.CacheKeyModel;
+import com.duang.jedisclient.common.RedisConfig;
+import com.duang.jedisclient.core.IJedisBatch;
+import com.duang.jedisclient.core.IJedisClient;
+import com.duang.jedisclient.core.JedisBatchAction;
+import com.duang.jedisclient.plugin.JedisClientPlugin;
+import com.duang.jedisclient.plugin.RedisFactory;
+import redis.clients.jedis.HostAndPort;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 逐条调用与pipelined批量调用的吞吐量对比
+ * 参数: host port [password] [total] [batchSize]
+ */
+public class PipelineBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "127.0.0.1";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 6379;
+        String password = args.length > 2 ? args[2] : null;
+        final int total = args.length > 3 ? Integer.parseInt(args[3]) : 100000;
+        final int batchSize = args.length > 4 ? Integer.parseInt(args[4]) : 500;
+
+        Set<HostAndPort> nodeSet = new HashSet<HostAndPort>();
+        nodeSet.add(new HostAndPort(host, port));
+        RedisConfig redisConfig = new RedisConfig("pipeline-benchmark", "benchmark", nodeSet, password);
+        new JedisClientPlugin(redisConfig).start();
+        IJedisClient client = RedisFactory.getClient("pipeline-benchmark");
+
+        final CacheKeyModel model = new CacheKeyModel.Builder(TestCacheKeyEnum.ORDER_MAPPING).customKey("benchmark").build();
+        client.del(model);
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            client.hset(model, "field" + i, i);
+        }
+        print("per-call hset", total, System.nanoTime() - startTime);
+        client.del(model);
+
+        startTime = System.nanoTime();
+        for (int i = 0; i < total; i += batchSize) {
+            final int offset = i;
+            client.pipelined(new JedisBatchAction() {
+                @Override
+                public void execute(IJedisBatch batch) {
+                    for (int j = offset; j < Math.min(offset + batchSize, total); j++) {
+                        batch.hset(model, "field" + j, j);
+                    }
+                }
+            });
+        }
+        print("pipelined hset(batch=" + batchSize + ")", total, System.nanoTime() - startTime);
+        client.del(model);
+    }
+
+    private static void print(String name, int total, long nanos) {
+        double seconds = nanos / 1000000000D;
+        System.out.println(String.format("%-30s %10d ops %10.2f ms %12.0f ops/sec", name, total, nanos / 1000000D, total / seconds));
+    }
+}
@@ -0,0 +1,201 @@
+package com.duang.jedisclient.utils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 把Redis返回的十进制数字字节直接解析为long/double，不经过String及装箱对象
+ * INCR/HINCRBY/ZSCORE等命令及FastJson序列化的数字都是这种格式
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public final class NumberParser {
+
+    private static final byte[] MAX_LONG = "9223372036854775807".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MIN_LONG = "9223372036854775808".getBytes(StandardCharsets.US_ASCII);
+    /**
+     * 10的0到22次方都可以用double精确表示
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    /**
+     * 有效数字不超过2的53次方时，乘或除以10的22次方以内的结果是正确舍入的
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private NumberParser() {
+    }
+
+    /**
+     * 是否为long范围内的十进制整数，如 -123
+     */
+    public static boolean isLong(byte[] bytes) {
+        if (null == bytes || bytes.length == 0) {
+            return false;
+        }
+        int start = bytes[0] == '-' ? 1 : 0;
+        int digits = bytes.length - start;
+        if (digits == 0 || digits > MAX_LONG.length) {
+            return false;
+        }
+        for (int i = start; i < bytes.length; i++) {
+            if (bytes[i] < '0' || bytes[i] > '9') {
+                return false;
+            }
+        }
+        if (digits < MAX_LONG.length) {
+            return true;
+        }
+        byte[] limit = start == 0 ? MAX_LONG : MIN_LONG;
+        for (int i = 0; i < limit.length; i++) {
+            int diff = bytes[start + i] - limit[i];
+            if (diff != 0) {
+                return diff < 0;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 解析十进制整数，调用前先通过isLong判断
+     */
+    public static long parseLong(byte[] bytes) {
+        if (!isLong(bytes)) {
+            throw new NumberFormatException("not a long value");
+        }
+        boolean negative = bytes[0] == '-';
+        long value = 0L;
+        // 按负数累加，Long.MIN_VALUE也不会溢出
+        for (int i = negative ? 1 : 0; i < bytes.length; i++) {
+            value = value * 10 - (bytes[i] - '0');
+        }
+        return negative ? value : -value;
+    }
+
+    /**
+     * 是否为十进制数字，如 -1.5、3e10，以及Redis返回的inf/-inf
+     */
+    public static boolean isDouble(byte[] bytes) {
+        if (null == bytes || bytes.length == 0) {
+            return false;
+        }
+        if (isInfinity(bytes)) {
+            return true;
+        }
+        int i = 0;
+        if (bytes[i] == '-' || bytes[i] == '+') {
+            i++;
+        }
+        int digits = 0;
+        boolean point = false;
+        for (; i < bytes.length; i++) {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                digits++;
+            } else if (b == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < bytes.length && (bytes[i] == 'e' || bytes[i] == 'E')) {
+            i++;
+            if (i < bytes.length && (bytes[i] == '-' || bytes[i] == '+')) {
+                i++;
+            }
+            int expDigits = 0;
+            for (; i < bytes.length && bytes[i] >= '0' && bytes[i] <= '9'; i++) {
+                expDigits++;
+            }
+            if (expDigits == 0) {
+                return false;
+            }
+        }
+        return i == bytes.length;
+    }
+
+    /**
+     * 解析十进制数字，调用前先通过isDouble判断
+     * 有效数字不超过15位且指数较小时直接计算，其它情况交给Double.parseDouble以保证精度
+     */
+    public static double parseDouble(byte[] bytes) {
+        if (!isDouble(bytes)) {
+            throw new NumberFormatException("not a double value");
+        }
+        if (isInfinity(bytes)) {
+            return bytes[0] == '-' ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        int i = 0;
+        boolean negative = bytes[0] == '-';
+        if (bytes[0] == '-' || bytes[0] == '+') {
+            i++;
+        }
+        long mantissa = 0L;
+        int scale = 0;
+        int significant = 0;
+        boolean point = false;
+        for (; i < bytes.length; i++) {
+            byte b = bytes[i];
+            if (b == '.') {
+                point = true;
+                continue;
+            }
+            if (b < '0' || b > '9') {
+                break;
+            }
+            if (mantissa == 0L && b == '0') {
+                // 前导0不计入有效数字
+                if (point) {
+                    scale--;
+                }
+                continue;
+            }
+            if (++significant > 15) {
+                return slowParse(bytes);
+            }
+            mantissa = mantissa * 10 + (b - '0');
+            if (point) {
+                scale--;
+            }
+        }
+        if (i < bytes.length) {
+            i++;
+            boolean negativeExp = bytes[i] == '-';
+            if (bytes[i] == '-' || bytes[i] == '+') {
+                i++;
+            }
+            int exp = 0;
+            for (; i < bytes.length; i++) {
+                exp = exp * 10 + (bytes[i] - '0');
+                if (exp > 400) {
+                    return slowParse(bytes);
+                }
+            }
+            scale += negativeExp ? -exp : exp;
+        }
+        double value;
+        if (mantissa == 0L) {
+            value = 0D;
+        } else if (mantissa > MAX_EXACT_MANTISSA || scale < -22 || scale > 22) {
+            return slowParse(bytes);
+        } else {
+            value = scale < 0 ? mantissa / POWERS_OF_TEN[-scale] : mantissa * POWERS_OF_TEN[scale];
+        }
+        return negative ? -value : value;
+    }
+
+    private static double slowParse(byte[] bytes) {
+        return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+    }
+
+    private static boolean isInfinity(byte[] bytes) {
+        int start = (bytes[0] == '-' || bytes[0] == '+') ? 1 : 0;
+        return bytes.length - start == 3
+                && (bytes[start] | 0x20) == 'i' && (bytes[start + 1] | 0x20) == 'n' && (bytes[start + 2] | 0x20) == 'f';
+    }
+}
@@ -0,0 +1,78 @@
+package com.duang.jedisclient.utils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 字符串与UTF-8字节的转换，不经过序列化器
+ * String直接使用JDK的编码(只复制一次)，其它CharSequence(如StringBuilder)先计算长度再逐个字符写入，不再toString
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public final class Utf8 {
+
+    private Utf8() {
+    }
+
+    /**
+     * 按UTF-8编码，不成对的代理字符编码为'?'，与String.getBytes一致
+     */
+    public static byte[] encode(CharSequence value) {
+        if (null == value) {
+            return null;
+        }
+        if (value instanceof String) {
+            return ((String) value).getBytes(StandardCharsets.UTF_8);
+        }
+        int length = value.length();
+        byte[] bytes = new byte[encodedLength(value)];
+        int pos = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[pos++] = (byte) (0xC0 | (c >> 6));
+                bytes[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                bytes[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                bytes[pos++] = '?';
+            } else {
+                bytes[pos++] = (byte) (0xE0 | (c >> 12));
+                bytes[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return bytes;
+    }
+
+    public static String decode(byte[] bytes) {
+        return null == bytes ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int encodedLength(CharSequence value) {
+        int length = value.length();
+        int encoded = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                encoded++;
+            } else if (c < 0x800) {
+                encoded += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                encoded += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                encoded++;
+            } else {
+                encoded += 3;
+            }
+        }
+        return encoded;
+    }
+}
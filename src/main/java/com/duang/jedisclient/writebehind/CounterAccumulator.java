@@ -0,0 +1,419 @@
+package com.duang.jedisclient.writebehind;
+
+import com.duang.jedisclient.common.CacheKeyModel;
+import com.duang.jedisclient.common.RedisConfig;
+import com.duang.jedisclient.core.BatchResponse;
+import com.duang.jedisclient.core.IJedisBatch;
+import com.duang.jedisclient.core.IJedisClient;
+import com.duang.jedisclient.core.JedisBatchAction;
+import com.duang.jedisclient.metrics.WriteBehindStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 计数器增量的本地累计
+ * incr/incrBy/hincrBy的增量按key及field累加到StripedCounter，由WriteBehindBuffer定时以INCRBY/HINCRBY批量写入Redis；
+ * 每个计数器记录最近一次写入后Redis返回的值，读取时加上未写入的增量作为近似值
+ * 计数器个数(key及field)达到writeBehindMaxPending时不再累计，由调用方直接写入；
+ * 两次刷新之间没有写入的计数器在刷新时移除，释放占用的名额
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+class CounterAccumulator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CounterAccumulator.class);
+
+    private final IJedisClient client;
+    private final RedisConfig redisConfig;
+    private final WriteBehindStats stats;
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<String, Counter>();
+    private final AtomicInteger cellCount = new AtomicInteger();
+
+    CounterAccumulator(IJedisClient client, RedisConfig redisConfig, WriteBehindStats stats) {
+        this.client = client;
+        this.redisConfig = redisConfig;
+        this.stats = stats;
+    }
+
+    /**
+     * 累计增量
+     * @param field hash field，INCRBY时为null
+     * @return 计数器个数已达上限时返回false，由调用方直接写入
+     */
+    boolean incrBy(CacheKeyModel model, String field, long delta) {
+        Cell cell = cell(model, field, true, false);
+        if (null == cell) {
+            stats.recordDirectWrite();
+            return false;
+        }
+        cell.delta.add(delta);
+        cell.writes.add(1L);
+        if (cell.isRetired()) {
+            // 累加时计数器正好被flush移除，转到新的计数器
+            relocate(model, field, cell);
+        }
+        stats.recordWrite(1);
+        return true;
+    }
+
+    /**
+     * Redis的值加上未写入的增量，本地没有记录Redis的值时先读取一次
+     * @param field hash field，INCRBY时为null
+     */
+    Long get(CacheKeyModel model, String field) {
+        Cell cell = cell(model, field, false, false);
+        Long known = null == cell ? null : cell.known;
+        long delta = null == cell ? 0L : cell.delta.sum();
+        if (null == known) {
+            String value = null == field ? client.get(model, String.class) : client.hget(model, String.class, field);
+            known = null == value ? 0L : Long.parseLong(value);
+            if (null != cell) {
+                cell.known = known;
+            }
+        }
+        return known + delta;
+    }
+
+    /**
+     * 丢弃key未写入的增量，用于set/del覆盖了计数器的值
+     */
+    void discard(String key) {
+        Counter counter = counters.get(key);
+        if (null != counter) {
+            counter.keyCell.reset();
+            for (Cell cell : counter.fields.values()) {
+                cell.reset();
+            }
+        }
+    }
+
+    /**
+     * 丢弃全部未写入的增量，用于flushDB/flushAll
+     */
+    void discardAll() {
+        for (String key : counters.keySet()) {
+            discard(key);
+        }
+    }
+
+    /**
+     * 丢弃hash field未写入的增量，用于hset/hdel覆盖了计数器的值
+     */
+    void discardFields(String key, Collection<String> fields) {
+        Counter counter = counters.get(key);
+        if (null != counter) {
+            for (String field : fields) {
+                Cell cell = null == field ? null : counter.fields.get(field);
+                if (null != cell) {
+                    cell.reset();
+                }
+            }
+        }
+    }
+
+    boolean contains(String key) {
+        return counters.containsKey(key);
+    }
+
+    /**
+     * 写入key未写入的增量，由WriteBehindBuffer在flushLock内调用
+     */
+    void flush(String key) {
+        Counter counter = counters.get(key);
+        if (null != counter) {
+            send(Collections.singletonList(counter));
+        }
+    }
+
+    /**
+     * 写入全部未写入的增量，由WriteBehindBuffer在flushLock内调用
+     * 上次刷新后没有写入且增量为0的计数器不再保留
+     */
+    void flush() {
+        int batchSize = Math.max(1, redisConfig.getWriteBehindBatchSize());
+        List<Counter> batch = new ArrayList<Counter>();
+        int cells = 0;
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            Counter counter = entry.getValue();
+            if (retireIdle(entry.getKey(), counter)) {
+                continue;
+            }
+            batch.add(counter);
+            cells += 1 + counter.fields.size();
+            if (cells >= batchSize) {
+                send(batch);
+                batch = new ArrayList<Counter>();
+                cells = 0;
+            }
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    /**
+     * @param create 不存在时是否创建
+     * @param force 创建时是否忽略writeBehindMaxPending，转移已累加的增量时使用
+     */
+    private Cell cell(CacheKeyModel model, String field, boolean create, boolean force) {
+        String key = model.getKey();
+        for (;;) {
+            Counter counter = counters.get(key);
+            if (null == counter) {
+                if (!create || !reserve(force)) {
+                    return null;
+                }
+                Counter created = new Counter(model);
+                counter = counters.putIfAbsent(key, created);
+                if (null == counter) {
+                    counter = created;
+                } else {
+                    cellCount.decrementAndGet();
+                }
+            }
+            if (counter.retired) {
+                // flush正在移除该计数器，移除后重新创建
+                remove(key, counter);
+                continue;
+            }
+            if (null == field) {
+                return counter.keyCell;
+            }
+            Cell cell = counter.fields.get(field);
+            if (null == cell) {
+                if (!create || !reserve(force)) {
+                    return null;
+                }
+                Cell created = new Cell(counter);
+                cell = counter.fields.putIfAbsent(field, created);
+                if (null == cell) {
+                    cell = created;
+                } else {
+                    cellCount.decrementAndGet();
+                }
+            }
+            if (cell.isRetired()) {
+                removeField(counter, field, cell);
+                continue;
+            }
+            return cell;
+        }
+    }
+
+    /**
+     * 移除上次刷新后没有写入且增量为0的计数器，由flush在flushLock内调用
+     * 先标记为已移除再从Map中删除，之后仍累加到旧计数器上的增量由累加方或这里转到新的计数器，不会丢失
+     * @return true 如果整个key的计数器已移除
+     */
+    private boolean retireIdle(String key, Counter counter) {
+        for (Map.Entry<String, Cell> entry : counter.fields.entrySet()) {
+            Cell cell = entry.getValue();
+            if (cell.isIdle()) {
+                cell.retired = true;
+                removeField(counter, entry.getKey(), cell);
+                relocate(counter.model, entry.getKey(), cell);
+            }
+        }
+        if (!counter.fields.isEmpty() || !counter.keyCell.isIdle()) {
+            return false;
+        }
+        counter.retired = true;
+        remove(key, counter);
+        relocate(counter.model, null, counter.keyCell);
+        // 标记前刚加入的field
+        for (Map.Entry<String, Cell> entry : counter.fields.entrySet()) {
+            removeField(counter, entry.getKey(), entry.getValue());
+            relocate(counter.model, entry.getKey(), entry.getValue());
+        }
+        return true;
+    }
+
+    /**
+     * 把已移除计数器上的增量转到新的计数器
+     */
+    private void relocate(CacheKeyModel model, String field, Cell cell) {
+        long delta = cell.delta.drain();
+        long writes = cell.writes.drain();
+        if (delta == 0L && writes == 0L) {
+            return;
+        }
+        Cell target = cell(model, field, true, true);
+        target.delta.add(delta);
+        target.writes.add(writes);
+        if (target.isRetired()) {
+            relocate(model, field, target);
+        }
+    }
+
+    /**
+     * 从Map中删除，只有删除成功的一方释放名额
+     */
+    private void remove(String key, Counter counter) {
+        if (counters.remove(key, counter)) {
+            cellCount.decrementAndGet();
+        }
+    }
+
+    private void removeField(Counter counter, String field, Cell cell) {
+        if (counter.fields.remove(field, cell)) {
+            cellCount.decrementAndGet();
+        }
+    }
+
+    private boolean reserve(boolean force) {
+        if (force) {
+            cellCount.incrementAndGet();
+            return true;
+        }
+        int max = redisConfig.getWriteBehindMaxPending();
+        for (;;) {
+            int current = cellCount.get();
+            if (current >= max) {
+                return false;
+            }
+            if (cellCount.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 以一个pipeline写入增量，成功后记录Redis返回的值，失败时把增量加回计数器等待下次写入
+     */
+    private void send(List<Counter> batch) {
+        final List<Drained> drained = new ArrayList<Drained>();
+        long writes = 0L;
+        for (Counter counter : batch) {
+            writes += drain(counter.model, null, counter.keyCell, drained);
+            for (Map.Entry<String, Cell> entry : counter.fields.entrySet()) {
+                writes += drain(counter.model, entry.getKey(), entry.getValue(), drained);
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+        Boolean isOk = null;
+        try {
+            isOk = client.pipelined(new JedisBatchAction() {
+                @Override
+                public void execute(IJedisBatch batch) {
+                    for (Drained item : drained) {
+                        item.response = null == item.field
+                                ? batch.incrBy(item.model, item.delta)
+                                : batch.hincrBy(item.model, item.field, item.delta);
+                    }
+                }
+            });
+        } finally {
+            boolean failed = !Boolean.TRUE.equals(isOk);
+            int errors = 0;
+            for (Drained item : drained) {
+                if (failed) {
+                    // 整批失败时增量可能已部分写入，宁可多计也不丢失
+                    item.cell.delta.add(item.delta);
+                    item.cell.known = null;
+                    continue;
+                }
+                Long value = null == item.response ? null : item.response.get();
+                if (null == value) {
+                    // 单条命令出错(如key的类型不对)，重试也不会成功
+                    errors++;
+                }
+                item.cell.known = value;
+            }
+            stats.recordFlush(writes, drained.size(), failed || errors > 0);
+            if (failed) {
+                LOGGER.warn("计数器增量写入失败，{}条命令将在下次刷新时重试", drained.size());
+            } else if (errors > 0) {
+                LOGGER.warn("计数器增量写入出错，丢弃{}条命令", errors);
+            }
+        }
+    }
+
+    private static long drain(CacheKeyModel model, String field, Cell cell, List<Drained> drained) {
+        long delta = cell.delta.drain();
+        long writes = cell.writes.drain();
+        if (delta != 0L) {
+            drained.add(new Drained(model, field, cell, delta));
+        }
+        return writes;
+    }
+
+    /**
+     * 某个key的计数器
+     */
+    private static class Counter {
+        private final CacheKeyModel model;
+        private final Cell keyCell;
+        private final ConcurrentMap<String, Cell> fields = new ConcurrentHashMap<String, Cell>();
+        /**
+         * 已被flush移除
+         */
+        private volatile boolean retired;
+
+        private Counter(CacheKeyModel model) {
+            this.model = model;
+            this.keyCell = new Cell(this);
+        }
+    }
+
+    private static class Cell {
+        private final Counter counter;
+        private final StripedCounter delta = new StripedCounter();
+        private final StripedCounter writes = new StripedCounter();
+        /**
+         * 最近一次写入后Redis返回的值，未知时为null
+         */
+        private volatile Long known;
+        /**
+         * 已被flush移除
+         */
+        private volatile boolean retired;
+
+        private Cell(Counter counter) {
+            this.counter = counter;
+        }
+
+        private boolean isRetired() {
+            return retired || counter.retired;
+        }
+
+        /**
+         * 上次刷新后没有写入且没有待写入的增量
+         */
+        private boolean isIdle() {
+            return writes.sum() == 0L && delta.sum() == 0L;
+        }
+
+        private void reset() {
+            delta.drain();
+            writes.drain();
+            known = null;
+        }
+    }
+
+    private static class Drained {
+        private final CacheKeyModel model;
+        private final String field;
+        private final Cell cell;
+        private final long delta;
+        private BatchResponse<Long> response;
+
+        private Drained(CacheKeyModel model, String field, Cell cell, long delta) {
+            this.model = model;
+            this.field = field;
+            this.cell = cell;
+            this.delta = delta;
+        }
+    }
+}
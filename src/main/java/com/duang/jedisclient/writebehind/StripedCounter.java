@@ -0,0 +1,82 @@
+package com.duang.jedisclient.writebehind;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 分段累加的计数器，与LongAdder相同，没有竞争时只使用base，出现竞争后按线程分散到多个cell
+ * 与LongAdder.sumThenReset不同，drain逐个cell原子地取值并清零，并发累加的值不会丢失
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+class StripedCounter {
+
+    /**
+     * 每个cell间隔8个long(64字节)，避免伪共享
+     */
+    private static final int PADDING = 8;
+    private static final int STRIPES = stripes();
+
+    private final AtomicLong base = new AtomicLong();
+    private volatile AtomicLongArray cells;
+
+    void add(long delta) {
+        AtomicLongArray current = cells;
+        if (null == current) {
+            long value = base.get();
+            if (base.compareAndSet(value, value + delta)) {
+                return;
+            }
+            current = inflate();
+        }
+        current.getAndAdd(index(), delta);
+    }
+
+    long sum() {
+        long sum = base.get();
+        AtomicLongArray current = cells;
+        if (null != current) {
+            for (int i = 0; i < current.length(); i += PADDING) {
+                sum += current.get(i);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * 取出累计值并清零
+     */
+    long drain() {
+        long sum = base.getAndSet(0L);
+        AtomicLongArray current = cells;
+        if (null != current) {
+            for (int i = 0; i < current.length(); i += PADDING) {
+                if (current.get(i) != 0L) {
+                    sum += current.getAndSet(i, 0L);
+                }
+            }
+        }
+        return sum;
+    }
+
+    private synchronized AtomicLongArray inflate() {
+        if (null == cells) {
+            cells = new AtomicLongArray(STRIPES * PADDING);
+        }
+        return cells;
+    }
+
+    private static int index() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id ^ (id >>> 16)) & (STRIPES - 1)) * PADDING;
+    }
+
+    private static int stripes() {
+        int stripes = 1;
+        while (stripes < Runtime.getRuntime().availableProcessors()) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+}
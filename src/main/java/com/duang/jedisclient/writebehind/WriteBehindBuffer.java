@@ -0,0 +1,589 @@
+package com.duang.jedisclient.writebehind;
+
+import com.duang.jedisclient.common.CacheKeyModel;
+import com.duang.jedisclient.common.RedisConfig;
+import com.duang.jedisclient.core.BatchResponse;
+import com.duang.jedisclient.core.IJedisBatch;
+import com.duang.jedisclient.core.IJedisClient;
+import com.duang.jedisclient.core.JedisBatchAction;
+import com.duang.jedisclient.metrics.WriteBehindStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * 延迟写缓冲
+ * 按key合并待写的值(SET)及hash field(HSET/HMSET)，同一key/field只保留最后一次写入的值，
+ * 待写条数达到writeBehindBatchSize或每隔writeBehindFlushMillis毫秒以pipeline批量写入Redis；
+ * 待写条数达到writeBehindMaxPending时不再缓冲，由调用方直接写入；
+ * 计数器的增量由CounterAccumulator累计，与待写的值一起刷新
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class WriteBehindBuffer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindBuffer.class);
+    private static final long CLOSE_WAIT_MILLIS = 5000L;
+
+    private final String appId;
+    private final IJedisClient client;
+    private final RedisConfig redisConfig;
+    private final ConcurrentMap<String, PendingWrite> pending = new ConcurrentHashMap<String, PendingWrite>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean flushTriggered = new AtomicBoolean();
+    /**
+     * 同一时间只有一个线程执行刷新，保证同一key的写入按顺序发送
+     */
+    private final Object flushLock = new Object();
+    private final WriteBehindStats stats;
+    private final CounterAccumulator counters;
+    private ScheduledExecutorService scheduler;
+    private volatile boolean closed;
+
+    /**
+     * @param appId 应用id
+     * @param client 实际写入Redis的客户端
+     * @param redisConfig 配置
+     */
+    public WriteBehindBuffer(String appId, IJedisClient client, RedisConfig redisConfig) {
+        this.appId = appId;
+        this.client = client;
+        this.redisConfig = redisConfig;
+        this.stats = new WriteBehindStats(new IntSupplier() {
+            @Override
+            public int getAsInt() {
+                return pendingCount.get();
+            }
+        });
+        this.counters = new CounterAccumulator(client, redisConfig, stats);
+    }
+
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "jedis-write-behind-" + appId);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        long interval = Math.max(1L, redisConfig.getWriteBehindFlushMillis());
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                flushQuietly();
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        if (redisConfig.isMetricsJmxEnabled()) {
+            stats.register(appId);
+        }
+    }
+
+    /**
+     * 停止定时刷新并把缓冲里的数据全部写入Redis，之后的写入不再缓冲
+     */
+    public void close() {
+        closed = true;
+        if (null != scheduler) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(CLOSE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            scheduler = null;
+        }
+        flush();
+        stats.unregister();
+    }
+
+    public WriteBehindStats getStats() {
+        return stats;
+    }
+
+    /**
+     * 缓冲SET命令
+     * @return 缓冲已满或已关闭时返回false，由调用方直接写入
+     */
+    public boolean set(CacheKeyModel model, Object value) {
+        if (null == value) {
+            return false;
+        }
+        return offer(model, value, Collections.<String, Object>emptyMap());
+    }
+
+    /**
+     * 缓冲HSET命令
+     * @return 缓冲已满或已关闭时返回false，由调用方直接写入
+     */
+    public boolean hset(CacheKeyModel model, String field, Object value) {
+        if (null == field || null == value) {
+            return false;
+        }
+        return offer(model, null, Collections.singletonMap(field, value));
+    }
+
+    /**
+     * 缓冲HMSET命令
+     * @return 缓冲已满或已关闭时返回false，由调用方直接写入
+     */
+    public boolean hmset(CacheKeyModel model, Map<String, Object> values) {
+        if (null == values || values.isEmpty() || values.containsKey(null) || values.containsValue(null)) {
+            return false;
+        }
+        return offer(model, null, values);
+    }
+
+    /**
+     * 在本地累计计数器的增量
+     * @param field hash field，INCRBY时为null
+     * @return 计数器个数已达上限或已关闭时返回false，由调用方直接写入
+     */
+    public boolean incrBy(CacheKeyModel model, String field, long delta) {
+        if (closed) {
+            return false;
+        }
+        // 先写入该key待写的值，再累计增量
+        String key = model.getKey();
+        if (pending.containsKey(key)) {
+            synchronized (flushLock) {
+                PendingWrite write = pending.get(key);
+                if (null != write && write.markFlushing()) {
+                    send(Collections.singletonList(write));
+                }
+            }
+        }
+        return counters.incrBy(model, field, delta);
+    }
+
+    /**
+     * 计数器的近似值，即Redis的值加上本地未写入的增量
+     * @param field hash field，INCRBY时为null
+     */
+    public Long getCounter(CacheKeyModel model, String field) {
+        return counters.get(model, field);
+    }
+
+    /**
+     * 取出key待写的值，没有时返回null
+     */
+    public Object get(String key) {
+        PendingWrite write = pending.get(key);
+        while (null != write) {
+            Object value = write.value;
+            if (null != value) {
+                return value;
+            }
+            write = write.previous();
+        }
+        return null;
+    }
+
+    /**
+     * 取出hash field待写的值，没有时返回null
+     */
+    public Object hget(String key, String field) {
+        PendingWrite write = pending.get(key);
+        while (null != write) {
+            if (null != write.value) {
+                return null;
+            }
+            Object value = write.fields.get(field);
+            if (null != value) {
+                return value;
+            }
+            write = write.previous();
+        }
+        return null;
+    }
+
+    /**
+     * 是否有待写的数据
+     */
+    public boolean contains(String key) {
+        return pending.containsKey(key) || counters.contains(key);
+    }
+
+    /**
+     * 丢弃key待写的数据，用于del
+     */
+    public void discard(String key) {
+        if (!contains(key)) {
+            return;
+        }
+        // 等待正在进行的刷新完成，避免已丢弃的值在del之后才写入
+        synchronized (flushLock) {
+            counters.discard(key);
+            PendingWrite write = pending.get(key);
+            if (null == write) {
+                return;
+            }
+            synchronized (write) {
+                if (pending.remove(key, write)) {
+                    write.done = true;
+                    pendingCount.addAndGet(-write.size());
+                }
+            }
+        }
+    }
+
+    /**
+     * 丢弃全部待写的数据及计数器增量，用于flushDB/flushAll
+     */
+    public void discardAll() {
+        synchronized (flushLock) {
+            counters.discardAll();
+            for (Map.Entry<String, PendingWrite> entry : pending.entrySet()) {
+                PendingWrite write = entry.getValue();
+                synchronized (write) {
+                    if (pending.remove(entry.getKey(), write)) {
+                        write.done = true;
+                        pendingCount.addAndGet(-write.size());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 丢弃hash field待写的值，用于hdel
+     */
+    public void discardFields(String key, String... fields) {
+        if (null == fields || !contains(key)) {
+            return;
+        }
+        synchronized (flushLock) {
+            counters.discardFields(key, Arrays.asList(fields));
+            PendingWrite write = pending.get(key);
+            if (null == write) {
+                return;
+            }
+            synchronized (write) {
+                for (String field : fields) {
+                    if (null != field && null != write.fields.remove(field)) {
+                        pendingCount.decrementAndGet();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 立即把key待写的数据写入Redis，在其它命令访问该key之前调用，保证命令顺序
+     */
+    public void flush(String key) {
+        if (!contains(key)) {
+            return;
+        }
+        synchronized (flushLock) {
+            PendingWrite write = pending.get(key);
+            if (null != write && write.markFlushing()) {
+                send(Collections.singletonList(write));
+            }
+            counters.flush(key);
+        }
+    }
+
+    /**
+     * 立即把缓冲里的数据全部写入Redis
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            int batchSize = Math.max(1, redisConfig.getWriteBehindBatchSize());
+            List<PendingWrite> writes = new ArrayList<PendingWrite>();
+            int commands = 0;
+            for (PendingWrite write : pending.values()) {
+                if (!write.markFlushing()) {
+                    continue;
+                }
+                writes.add(write);
+                commands += write.commands();
+                if (commands >= batchSize) {
+                    send(writes);
+                    writes = new ArrayList<PendingWrite>();
+                    commands = 0;
+                }
+            }
+            if (!writes.isEmpty()) {
+                send(writes);
+            }
+            counters.flush();
+        }
+    }
+
+    private void flushQuietly() {
+        flushTriggered.set(false);
+        try {
+            flush();
+        } catch (Exception e) {
+            LOGGER.warn("延迟写刷新时出错: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean offer(CacheKeyModel model, Object value, Map<String, Object> fields) {
+        if (closed) {
+            return false;
+        }
+        String key = model.getKey();
+        for (;;) {
+            PendingWrite write = pending.get(key);
+            if (null == write) {
+                PendingWrite created = new PendingWrite(model, null);
+                write = pending.putIfAbsent(key, created);
+                if (null == write) {
+                    write = created;
+                }
+            }
+            synchronized (write) {
+                if (write.done) {
+                    continue;
+                }
+                if (write.flushing) {
+                    // 正在发送中，新的写入放到新的对象里，发送完成前读取时仍可取到正在发送的值
+                    PendingWrite created = new PendingWrite(model, write);
+                    if (!pending.replace(key, write, created)) {
+                        continue;
+                    }
+                    write = created;
+                }
+            }
+            synchronized (write) {
+                if (write.flushing || write.done) {
+                    continue;
+                }
+                int before = write.size();
+                int after = null != value ? 1 : before + newFields(write, fields);
+                if (after > before && !reserve(after - before)) {
+                    stats.recordDirectWrite();
+                    triggerFlush();
+                    return false;
+                }
+                if (null != value) {
+                    // set覆盖了计数器的值，丢弃未写入的增量
+                    counters.discard(key);
+                    write.value = value;
+                    write.fields.clear();
+                    if (after < before) {
+                        pendingCount.addAndGet(after - before);
+                    }
+                } else {
+                    counters.discardFields(key, fields.keySet());
+                    write.fields.putAll(fields);
+                }
+                write.model = model;
+                int count = null != value ? 1 : fields.size();
+                write.writes += count;
+                stats.recordWrite(count);
+            }
+            if (pendingCount.get() >= redisConfig.getWriteBehindBatchSize()) {
+                triggerFlush();
+            }
+            return true;
+        }
+    }
+
+    private static int newFields(PendingWrite write, Map<String, Object> fields) {
+        int count = 0;
+        for (String field : fields.keySet()) {
+            if (!write.fields.containsKey(field)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private boolean reserve(int count) {
+        int max = redisConfig.getWriteBehindMaxPending();
+        for (;;) {
+            int current = pendingCount.get();
+            if (current + count > max) {
+                return false;
+            }
+            if (pendingCount.compareAndSet(current, current + count)) {
+                return true;
+            }
+        }
+    }
+
+    private void triggerFlush() {
+        ScheduledExecutorService executor = scheduler;
+        if (null == executor || !flushTriggered.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    flushQuietly();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            flushTriggered.set(false);
+        }
+    }
+
+    /**
+     * 以一个pipeline发送，发送完成后才从缓冲里移除，整批发送失败时放回缓冲等待下次刷新；
+     * 单条命令出错(如key的类型不对)时重试也不会成功，记录后丢弃
+     */
+    private void send(final List<PendingWrite> writes) {
+        long writeCount = 0L;
+        int commands = 0;
+        int entries = 0;
+        for (PendingWrite write : writes) {
+            writeCount += write.writes;
+            commands += write.commands();
+            entries += write.size();
+        }
+        final List<BatchResponse<Boolean>> responses = new ArrayList<BatchResponse<Boolean>>(commands);
+        Boolean isOk = null;
+        try {
+            isOk = client.pipelined(new JedisBatchAction() {
+                @Override
+                public void execute(IJedisBatch batch) {
+                    for (PendingWrite write : writes) {
+                        if (null != write.value) {
+                            responses.add(batch.set(write.model, write.value));
+                        }
+                        if (!write.fields.isEmpty()) {
+                            responses.add(batch.hmset(write.model, new HashMap<String, Object>(write.fields)));
+                        }
+                    }
+                }
+            });
+        } finally {
+            boolean failed = !Boolean.TRUE.equals(isOk);
+            int requeued = 0;
+            for (PendingWrite write : writes) {
+                if (failed && requeue(write)) {
+                    requeued++;
+                    entries -= write.size();
+                    continue;
+                }
+                write.done = true;
+                pending.remove(write.model.getKey(), write);
+            }
+            int errors = 0;
+            Exception error = null;
+            if (!failed) {
+                for (BatchResponse<Boolean> response : responses) {
+                    if (null != response && null != response.getError()) {
+                        errors++;
+                        error = response.getError();
+                    }
+                }
+            }
+            pendingCount.addAndGet(-entries);
+            stats.recordFlush(writeCount, commands, failed || errors > 0);
+            if (failed) {
+                LOGGER.warn("延迟写刷新失败，{}个key将在下次刷新时重试，其余已被之后的写入覆盖或已删除", requeued);
+            } else if (errors > 0) {
+                LOGGER.warn("延迟写刷新出错，丢弃{}条命令: {}", errors, error.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 发送失败后放回缓冲，在flushLock内调用
+     * 发送期间又有新的写入时合并到新的对象里(新的值优先)；已被之后的SET覆盖或已被del丢弃的不再放回
+     * @return true 如果write本身仍留在缓冲中
+     */
+    private boolean requeue(PendingWrite write) {
+        String key = write.model.getKey();
+        synchronized (write) {
+            if (pending.get(key) == write) {
+                write.flushing = false;
+                return true;
+            }
+        }
+        PendingWrite head = pending.get(key);
+        if (null == head) {
+            return false;
+        }
+        synchronized (head) {
+            if (head.done || pending.get(key) != head) {
+                return false;
+            }
+            PendingWrite newer = head;
+            while (null != newer && newer.previous != write) {
+                newer = newer.previous;
+            }
+            if (null == newer) {
+                // 发送期间被del丢弃后重新写入
+                return false;
+            }
+            for (PendingWrite later = head; later != write; later = later.previous) {
+                if (null != later.value) {
+                    return false;
+                }
+            }
+            int before = head.size();
+            head.value = write.value;
+            for (Map.Entry<String, Object> entry : write.fields.entrySet()) {
+                if (!head.fields.containsKey(entry.getKey())) {
+                    head.fields.put(entry.getKey(), entry.getValue());
+                }
+            }
+            pendingCount.addAndGet(head.size() - before);
+        }
+        return false;
+    }
+
+    /**
+     * 某个key待写的数据
+     */
+    private static class PendingWrite {
+        private volatile CacheKeyModel model;
+        private volatile Object value;
+        private final Map<String, Object> fields = new ConcurrentHashMap<String, Object>();
+        /**
+         * 创建时正在发送中的上一个对象，发送完成前读取时仍需要查找
+         */
+        private final PendingWrite previous;
+        private long writes;
+        private boolean flushing;
+        private volatile boolean done;
+
+        private PendingWrite(CacheKeyModel model, PendingWrite previous) {
+            this.model = model;
+            this.previous = previous;
+        }
+
+        private PendingWrite previous() {
+            return null == previous || previous.done ? null : previous;
+        }
+
+        private synchronized boolean markFlushing() {
+            if (flushing || done) {
+                return false;
+            }
+            flushing = true;
+            return true;
+        }
+
+        private int size() {
+            return (null == value ? 0 : 1) + fields.size();
+        }
+
+        private int commands() {
+            return (null == value ? 0 : 1) + (fields.isEmpty() ? 0 : 1);
+        }
+    }
+}
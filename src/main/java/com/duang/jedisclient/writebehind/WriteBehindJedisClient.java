@@ -0,0 +1,751 @@
+package com.duang.jedisclient.writebehind;
+
+import com.duang.jedisclient.common.CacheKeyModel;
+import com.duang.jedisclient.common.KeyValueParam;
+import com.duang.jedisclient.common.RedisConfig;
+import com.duang.jedisclient.core.IJedisClient;
+import com.duang.jedisclient.core.JedisBatchAction;
+import com.duang.jedisclient.core.RedisScript;
+import com.duang.jedisclient.core.ScanIterator;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisPubSub;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * 带延迟写(write-behind)的客户端
+ * 对启用了延迟写的CacheKeyModel，set/setex/hset/hmset先写入WriteBehindBuffer，由后台线程批量刷新到Redis，
+ * 返回值固定为成功(hset返回1)；get/hget优先返回缓冲里的值，访问该key的其它命令执行前先刷新该key，保证命令顺序；
+ * 对启用了增量累计的CacheKeyModel，incr/incrBy/decr/decrBy/hincrBy只在本地累计，返回近似值
+ * 注意：刷新前进程异常退出会丢失缓冲里的数据
+ *
+ * @author Laotang
+ * @since 1.0
+ */
+public class WriteBehindJedisClient implements IJedisClient {
+
+    private final IJedisClient client;
+    private final WriteBehindBuffer buffer;
+
+    public WriteBehindJedisClient(IJedisClient client, WriteBehindBuffer buffer) {
+        this.client = client;
+        this.buffer = buffer;
+    }
+
+    public IJedisClient getClient() {
+        return client;
+    }
+
+    public WriteBehindBuffer getBuffer() {
+        return buffer;
+    }
+
+    private void flush(CacheKeyModel... models) {
+        if (null != models) {
+            for (CacheKeyModel model : models) {
+                if (null != model && (model.isWriteBehind() || model.isAccumulate())) {
+                    buffer.flush(model.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * 计数器的近似值，即Redis的值加上本地未写入的增量，不会先刷新增量
+     */
+    public Long getCounter(final CacheKeyModel model) {
+        return buffer.getCounter(model, null);
+    }
+
+    /**
+     * hash计数器的近似值，即Redis的值加上本地未写入的增量，不会先刷新增量
+     */
+    public Long hgetCounter(final CacheKeyModel model, final String field) {
+        return buffer.getCounter(model, field);
+    }
+
+    private void flushKeys(String... keys) {
+        if (null != keys) {
+            for (String key : keys) {
+                buffer.flush(key);
+            }
+        }
+    }
+
+    @Override
+    public Jedis getResource() {
+        return client.getResource();
+    }
+
+    @Override
+    public JedisCluster getClusterResource() {
+        return client.getClusterResource();
+    }
+
+    @Override
+    public RedisConfig getRedisConfig() {
+        return client.getRedisConfig();
+    }
+
+    @Override
+    public <T> T get(final CacheKeyModel model, final Class<T> type) {
+        if (model.isWriteBehind()) {
+            Object value = buffer.get(model.getKey());
+            if (type.isInstance(value)) {
+                return type.cast(value);
+            }
+        }
+        flush(model);
+        return client.get(model, type);
+    }
+
+    @Override
+    public Boolean set(final CacheKeyModel model, final Object value) {
+        if (model.isWriteBehind() && buffer.set(model, value)) {
+            return true;
+        }
+        flush(model);
+        return client.set(model, value);
+    }
+
+    @Override
+    public byte[] getBytes(final CacheKeyModel model) {
+        flush(model);
+        return client.getBytes(model);
+    }
+
+    @Override
+    public Boolean setBytes(final CacheKeyModel model, final byte[] value) {
+        // 缓冲里的值经过序列化器写入，原始字节不进入缓冲，直接覆盖
+        if (model.isWriteBehind() || model.isAccumulate()) {
+            buffer.discard(model.getKey());
+        }
+        return client.setBytes(model, value);
+    }
+
+    @Override
+    public String getString(final CacheKeyModel model) {
+        flush(model);
+        return client.getString(model);
+    }
+
+    @Override
+    public Boolean setString(final CacheKeyModel model, final CharSequence value) {
+        if (model.isWriteBehind() || model.isAccumulate()) {
+            buffer.discard(model.getKey());
+        }
+        return client.setString(model, value);
+    }
+
+    @Override
+    public String setex(final CacheKeyModel model, final Object value) {
+        if (model.isWriteBehind() && buffer.set(model, value)) {
+            return "OK";
+        }
+        flush(model);
+        return client.setex(model, value);
+    }
+
+    @Override
+    public Long hset(final CacheKeyModel model, final String field, final Object value) {
+        if (model.isWriteBehind() && buffer.hset(model, field, value)) {
+            return 1L;
+        }
+        flush(model);
+        return client.hset(model, field, value);
+    }
+
+    @Override
+    public Boolean hmset(final CacheKeyModel model, final Map<String, Object> values) {
+        if (model.isWriteBehind() && buffer.hmset(model, values)) {
+            return true;
+        }
+        flush(model);
+        return client.hmset(model, values);
+    }
+
+    @Override
+    public <T> T hget(final CacheKeyModel model, final Class<T> type, final String field) {
+        if (model.isWriteBehind()) {
+            Object value = buffer.hget(model.getKey(), field);
+            if (type.isInstance(value)) {
+                return type.cast(value);
+            }
+        }
+        flush(model);
+        return client.hget(model, type, field);
+    }
+
+    @Override
+    public Long del(final CacheKeyModel model) {
+        if (model.isWriteBehind() || model.isAccumulate()) {
+            buffer.discard(model.getKey());
+        }
+        return client.del(model);
+    }
+
+    @Override
+    public Long hdel(final CacheKeyModel model, final String... fields) {
+        if (model.isWriteBehind() || model.isAccumulate()) {
+            buffer.discardFields(model.getKey(), fields);
+        }
+        return client.hdel(model, fields);
+    }
+
+    @Override
+    public Boolean pipelined(final JedisBatchAction action) {
+        // 批量命令里的key无法预先确定，先把缓冲全部写入
+        buffer.flush();
+        return client.pipelined(action);
+    }
+
+    @Override
+    public <T> T getOrLoad(final CacheKeyModel model, final Class<T> type, final Supplier<T> loader) {
+        flush(model);
+        return client.<T>getOrLoad(model, type, loader);
+    }
+
+    @Override
+    public String type(final CacheKeyModel model) {
+        flush(model);
+        return client.type(model);
+    }
+
+    @Override
+    @Deprecated
+    public Set<String> keys(final String pattern) {
+        return client.keys(pattern);
+    }
+
+    @Override
+    public ScanIterator<String> scan(final String pattern, final int count) {
+        return client.scan(pattern, count);
+    }
+
+    @Override
+    public ScanIterator<String> scan(final String pattern, final int count, final boolean parallel) {
+        return client.scan(pattern, count, parallel);
+    }
+
+    @Override
+    public <T> ScanIterator<Map.Entry<String,T>> hscan(final CacheKeyModel model, final Class<T> type) {
+        flush(model);
+        return client.hscan(model, type);
+    }
+
+    @Override
+    public <T> ScanIterator<Map.Entry<String,T>> hscan(final CacheKeyModel model, final Class<T> type, final int count) {
+        flush(model);
+        return client.hscan(model, type, count);
+    }
+
+    @Override
+    public <T> ScanIterator<T> sscan(final CacheKeyModel model, final Class<T> type) {
+        flush(model);
+        return client.sscan(model, type);
+    }
+
+    @Override
+    public <T> ScanIterator<T> sscan(final CacheKeyModel model, final Class<T> type, final int count) {
+        flush(model);
+        return client.sscan(model, type, count);
+    }
+
+    @Override
+    public <T> ScanIterator<T> zscan(final CacheKeyModel model, final Class<T> type) {
+        flush(model);
+        return client.zscan(model, type);
+    }
+
+    @Override
+    public <T> ScanIterator<T> zscan(final CacheKeyModel model, final Class<T> type, final int count) {
+        flush(model);
+        return client.zscan(model, type, count);
+    }
+
+    @Override
+    public Boolean exists(final CacheKeyModel model) {
+        flush(model);
+        return client.exists(model);
+    }
+
+    @Override
+    public String rename(final CacheKeyModel oldModel, final CacheKeyModel newModel) {
+        flush(oldModel);
+        flush(newModel);
+        return client.rename(oldModel, newModel);
+    }
+
+    @Override
+    public <T> Set<T> zrangeByScore(final CacheKeyModel model, final Double min, final Double max, final Class<T> type) {
+        flush(model);
+        return client.zrangeByScore(model, min, max, type);
+    }
+
+    @Override
+    public redis.clients.jedis.JedisPubSub subscribeThread(final JedisPubSub jedisPubSub, final String... channels) {
+        return client.subscribeThread(jedisPubSub, channels);
+    }
+
+    @Override
+    public Boolean sismember(final CacheKeyModel model, final Object value) {
+        flush(model);
+        return client.sismember(model, value);
+    }
+
+    @Override
+    public String subscribe(final JedisPubSub jedisPubSub, final String... channels) {
+        return client.subscribe(jedisPubSub, channels);
+    }
+
+    @Override
+    public Double hincrByFloat(final CacheKeyModel model, final String field, final Double value) {
+        flush(model);
+        return client.hincrByFloat(model, field, value);
+    }
+
+    @Override
+    public <T> T rpoplpush(final CacheKeyModel sourceModel, final CacheKeyModel destModel, final Class<T> type) {
+        flush(sourceModel);
+        flush(destModel);
+        return client.<T>rpoplpush(sourceModel, destModel, type);
+    }
+
+    @Override
+    public <T> T srandmember(final CacheKeyModel model, final Class<T> type) {
+        flush(model);
+        return client.<T>srandmember(model, type);
+    }
+
+    @Override
+    public <T> List<T> srandmember(final CacheKeyModel model, final Integer count, final Class<T> type) {
+        flush(model);
+        return client.srandmember(model, count, type);
+    }
+
+    @Override
+    public <T> Set<T> zrevrange(final CacheKeyModel model, final Long start, final Long end, final Class<T> type) {
+        flush(model);
+        return client.zrevrange(model, start, end, type);
+    }
+
+    @Override
+    public redis.clients.jedis.JedisPubSub psubscribeThread(final JedisPubSub jedisPubSub, final String... patterns) {
+        return client.psubscribeThread(jedisPubSub, patterns);
+    }
+
+    @Override
+    public String psubscribe(final JedisPubSub jedisPubSub, final String... patterns) {
+        return client.psubscribe(jedisPubSub, patterns);
+    }
+
+    @Override
+    public Long llen(final CacheKeyModel model) {
+        flush(model);
+        return client.llen(model);
+    }
+
+    @Override
+    public Boolean mset(final CacheKeyModel model, final List<KeyValueParam> keysValues) {
+        flush(model);
+        return client.mset(model, keysValues);
+    }
+
+    @Override
+    public Long decr(final CacheKeyModel model) {
+        if (model.isAccumulate() && buffer.incrBy(model, null, -1L)) {
+            return buffer.getCounter(model, null);
+        }
+        flush(model);
+        return client.decr(model);
+    }
+
+    @Override
+    public Long decrBy(final CacheKeyModel model, final Long longValue) {
+        if (model.isAccumulate() && null != longValue && buffer.incrBy(model, null, -longValue)) {
+            return buffer.getCounter(model, null);
+        }
+        flush(model);
+        return client.decrBy(model, longValue);
+    }
+
+    @Override
+    public Long incr(final CacheKeyModel model) {
+        if (model.isAccumulate() && buffer.incrBy(model, null, 1L)) {
+            return buffer.getCounter(model, null);
+        }
+        flush(model);
+        return client.incr(model);
+    }
+
+    @Override
+    public <T> Map<String,T> hgetAll(final CacheKeyModel model, final Class<T> type) {
+        flush(model);
+        return client.hgetAll(model, type);
+    }
+
+    @Override
+    public Long incrBy(final CacheKeyModel model, final Long longValue) {
+        if (model.isAccumulate() && null != longValue && buffer.incrBy(model, null, longValue)) {
+            return buffer.getCounter(model, null);
+        }
+        flush(model);
+        return client.incrBy(model, longValue);
+    }
+
+    @Override
+    public Set<String> hkeys(final CacheKeyModel model) {
+        flush(model);
+        return client.hkeys(model);
+    }
+
+    @Override
+    public Long expire(final CacheKeyModel model) {
+        flush(model);
+        return client.expire(model);
+    }
+
+    @Override
+    public Long persist(final CacheKeyModel model) {
+        flush(model);
+        return client.persist(model);
+    }
+
+    @Override
+    public Long del(final CacheKeyModel... models) {
+        if (null != models) {
+            for (CacheKeyModel model : models) {
+                if (model.isWriteBehind() || model.isAccumulate()) {
+                    buffer.discard(model.getKey());
+                }
+            }
+        }
+        return client.del(models);
+    }
+
+    @Override
+    public <T> List<T> mget(final Class<T> type, final String... keys) {
+        flushKeys(keys);
+        return client.mget(type, keys);
+    }
+
+    @Override
+    public Long ttl(final CacheKeyModel model) {
+        flush(model);
+        return client.ttl(model);
+    }
+
+    @Override
+    public <T> T getSet(final CacheKeyModel model, final Class<T> type, final Object value) {
+        flush(model);
+        return client.<T>getSet(model, type, value);
+    }
+
+    @Override
+    public Long lpush(final CacheKeyModel model, final Object... values) {
+        flush(model);
+        return client.lpush(model, values);
+    }
+
+    @Override
+    public Long lpush(final CacheKeyModel model, final Object value) {
+        flush(model);
+        return client.lpush(model, value);
+    }
+
+    @Override
+    public Boolean hexists(final CacheKeyModel model, final String field) {
+        flush(model);
+        return client.hexists(model, field);
+    }
+
+    @Override
+    public Long hlen(final CacheKeyModel model) {
+        flush(model);
+        return client.hlen(model);
+    }
+
+    @Override
+    public <T> List<T> hvals(final CacheKeyModel model, final Class<T> type) {
+        flush(model);
+        return client.hvals(model, type);
+    }
+
+    @Override
+    public Long hincrBy(final CacheKeyModel model, final String field, final Long value) {
+        if (model.isAccumulate() && null != field && null != value && buffer.incrBy(model, field, value)) {
+            return buffer.getCounter(model, field);
+        }
+        flush(model);
+        return client.hincrBy(model, field, value);
+    }
+
+    @Override
+    public <T> List<T> hmget(final CacheKeyModel model, final Class<T> type, final String... fields) {
+        flush(model);
+        return client.hmget(model, type, fields);
+    }
+
+    @Override
+    public Integer lindex(final CacheKeyModel model, final Long index) {
+        flush(model);
+        return client.lindex(model, index);
+    }
+
+    @Override
+    public Long sadd(final CacheKeyModel model, final Object... values) {
+        flush(model);
+        return client.sadd(model, values);
+    }
+
+    @Override
+    public String ltrim(final CacheKeyModel model, final Integer start, final Integer end) {
+        flush(model);
+        return client.ltrim(model, start, end);
+    }
+
+    @Override
+    public Long lpop(final CacheKeyModel model) {
+        flush(model);
+        return client.lpop(model);
+    }
+
+    @Override
+    public Long rpush(final CacheKeyModel model, final Object... value) {
+        flush(model);
+        return client.rpush(model, value);
+    }
+
+    @Override
+    public String ping() {
+        return client.ping();
+    }
+
+    @Override
+    public <T> Set<T> smembers(final CacheKeyModel model, final Class<T> type) {
+        flush(model);
+        return client.smembers(model, type);
+    }
+
+    @Override
+    public <T> List<T> blpop(final Integer timeout, final Class<T> type, final String... keys) {
+        flushKeys(keys);
+        return client.blpop(timeout, type, keys);
+    }
+
+    @Override
+    public <T> Set<T> zrange(final CacheKeyModel model, final Long start, final Long end, final Class<T> type) {
+        flush(model);
+        return client.zrange(model, start, end, type);
+    }
+
+    @Override
+    public Long zrem(final CacheKeyModel model, final Object... members) {
+        flush(model);
+        return client.zrem(model, members);
+    }
+
+    @Override
+    public <T> Set<T> sinter(final Class<T> type, final CacheKeyModel... cacheKeyModels) {
+        flush(cacheKeyModels);
+        return client.sinter(type, cacheKeyModels);
+    }
+
+    @Override
+    public Double zscore(final CacheKeyModel model, final Object members) {
+        flush(model);
+        return client.zscore(model, members);
+    }
+
+    @Override
+    public long getLong(final CacheKeyModel model, final long defaultValue) {
+        if (model.isWriteBehind()) {
+            Object value = buffer.get(model.getKey());
+            if (value instanceof Number) {
+                return ((Number) value).longValue();
+            }
+        }
+        flush(model);
+        return client.getLong(model, defaultValue);
+    }
+
+    @Override
+    public double getDouble(final CacheKeyModel model, final double defaultValue) {
+        if (model.isWriteBehind()) {
+            Object value = buffer.get(model.getKey());
+            if (value instanceof Number) {
+                return ((Number) value).doubleValue();
+            }
+        }
+        flush(model);
+        return client.getDouble(model, defaultValue);
+    }
+
+    @Override
+    public long hgetLong(final CacheKeyModel model, final String field, final long defaultValue) {
+        flush(model);
+        return client.hgetLong(model, field, defaultValue);
+    }
+
+    @Override
+    public long lindexLong(final CacheKeyModel model, final long index, final long defaultValue) {
+        flush(model);
+        return client.lindexLong(model, index, defaultValue);
+    }
+
+    @Override
+    public double zscoreDouble(final CacheKeyModel model, final Object member, final double defaultValue) {
+        flush(model);
+        return client.zscoreDouble(model, member, defaultValue);
+    }
+
+    @Override
+    public String flushDB() {
+        buffer.discardAll();
+        return client.flushDB();
+    }
+
+    @Override
+    public Long lrem(final CacheKeyModel model, final Long count, final Object value) {
+        flush(model);
+        return client.lrem(model, count, value);
+    }
+
+    @Override
+    public Long zrank(final CacheKeyModel model, final Object member) {
+        flush(model);
+        return client.zrank(model, member);
+    }
+
+    @Override
+    public Long zadd(final CacheKeyModel model, final Double score, final Object value) {
+        flush(model);
+        return client.zadd(model, score, value);
+    }
+
+    @Override
+    public Long zadd(final CacheKeyModel model, final Map<Object, Double> scoreMembers) {
+        flush(model);
+        return client.zadd(model, scoreMembers);
+    }
+
+    @Override
+    public Long zrevrank(final CacheKeyModel model, final Object member) {
+        flush(model);
+        return client.zrevrank(model, member);
+    }
+
+    @Override
+    public String flushAll() {
+        buffer.discardAll();
+        return client.flushAll();
+    }
+
+    @Override
+    public Long zcard(final CacheKeyModel model) {
+        flush(model);
+        return client.zcard(model);
+    }
+
+    @Override
+    public <T> Set<T> sdiff(final Class<T> type, final CacheKeyModel... cacheKeyModels) {
+        flush(cacheKeyModels);
+        return client.sdiff(type, cacheKeyModels);
+    }
+
+    @Override
+    public String rpop(final CacheKeyModel model) {
+        flush(model);
+        return client.rpop(model);
+    }
+
+    @Override
+    public <T> List<T> lrange(final CacheKeyModel model, final Class<T> type, final Integer start, final Integer end) {
+        flush(model);
+        return client.lrange(model, type, start, end);
+    }
+
+    @Override
+    public <T> List<T> lrange(final CacheKeyModel model, final Class<T> type, final Long start, final Long end) {
+        flush(model);
+        return client.lrange(model, type, start, end);
+    }
+
+    @Override
+    public <T> T spop(final CacheKeyModel model, final Class<T> type) {
+        flush(model);
+        return client.<T>spop(model, type);
+    }
+
+    @Override
+    public <T> Set<T> sunion(final Class<T> type, final CacheKeyModel... cacheKeyModels) {
+        flush(cacheKeyModels);
+        return client.sunion(type, cacheKeyModels);
+    }
+
+    @Override
+    public String lset(final CacheKeyModel model, final Long index, final Object value) {
+        flush(model);
+        return client.lset(model, index, value);
+    }
+
+    @Override
+    public <T> List<T> brpop(final Integer timeout, final Class<T> type, final String... keys) {
+        flushKeys(keys);
+        return client.brpop(timeout, type, keys);
+    }
+
+    @Override
+    public Long srem(final CacheKeyModel model, final String... members) {
+        flush(model);
+        return client.srem(model, members);
+    }
+
+    @Override
+    public Long scard(final CacheKeyModel model) {
+        flush(model);
+        return client.scard(model);
+    }
+
+    @Override
+    public Long zcount(final CacheKeyModel model, final Double min, final Double max) {
+        flush(model);
+        return client.zcount(model, min, max);
+    }
+
+    @Override
+    public Double zincrby(final CacheKeyModel model, final Double score, final Object member) {
+        flush(model);
+        return client.zincrby(model, score, member);
+    }
+
+    @Override
+    public Long publish(final String channel, final String message) {
+        return client.publish(channel, message);
+    }
+
+    @Override
+    public <T> T scriptLoad(final String script, final String... sampleKey) {
+        return client.<T>scriptLoad(script, sampleKey);
+    }
+
+    @Override
+    public <T> T evalSha(final String sha, final int keyCount, final String... values) {
+        return client.<T>evalSha(sha, keyCount, values);
+    }
+
+    @Override
+    public RedisScript registerScript(final String script) {
+        return client.registerScript(script);
+    }
+
+    @Override
+    public <T> T eval(final RedisScript script, final Class<?> type, final List<CacheKeyModel> models, final Object... args) {
+        if (null != models) {
+            flush(models.toArray(new CacheKeyModel[0]));
+        }
+        return client.<T>eval(script, type, models, args);
+    }
+}